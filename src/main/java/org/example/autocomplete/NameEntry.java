@@ -0,0 +1,56 @@
+package org.example.autocomplete;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+public final class NameEntry {
+    //порядок выдачи: имя без учета регистра, при равных именах тип и id
+    static final Comparator<NameEntry> ORDER = Comparator.comparing(NameEntry::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingLong(NameEntry::getRef);
+
+    private final String name;
+    private final long ref;
+
+    NameEntry(String name, long ref) {
+        this.name = name;
+        this.ref = ref;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public NameType getType() {
+        return NameType.of(ref);
+    }
+
+    public long getId() {
+        return NameType.idOf(ref);
+    }
+
+    long getRef() {
+        return ref;
+    }
+
+    static boolean startsWith(String name, String prefix) {
+        return name.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        NameEntry that = (NameEntry) o;
+        return ref == that.ref && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, ref);
+    }
+
+    @Override
+    public String toString() {
+        return getType().getType() + "/" + getId() + " " + name;
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.autocomplete;
+
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.jdbc.NameRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+//Автодополнение по префиксу имени без похода в базу: снимок PrefixIndex плюс дельта изменений после его сборки;
+//когда дельта разрастается, она вливается в новый снимок
+@Component
+public class NameIndex {
+    private static final int MIN_DELTA_TO_COMPACT = 1024;
+
+    private final NameRepository nameRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private PrefixIndex snapshot = PrefixIndex.EMPTY;
+    //записи снимка, удаленные или переименованные после его сборки
+    private final Set<Long> hidden = new HashSet<>();
+    private final NavigableSet<NameEntry> added = new TreeSet<>(NameEntry.ORDER);
+    private final Map<Long, NameEntry> addedByRef = new HashMap<>();
+    //изменения, пришедшие пока таблица перечитывается, накатываются поверх прочитанного; null, если перечитывания нет
+    private Map<Long, String> replay;
+
+    @Autowired
+    public NameIndex(NameRepository nameRepository, PlatformTransactionManager transactionManager) {
+        this.nameRepository = nameRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void build() {
+        reload(NameType.values());
+    }
+
+    //После импорта через COPY: id новых строк неизвестны, поэтому таблица читается заново
+    public synchronized void reload(NameType... types) {
+        List<NameEntry> scanned = new ArrayList<>();
+        boolean loaded = false;
+        lock.writeLock().lock();
+        try {
+            replay = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (NameType type : types)
+                    nameRepository.streamNames(type, (name, id) -> scanned.add(new NameEntry(name, type.ref(id))));
+            });
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                Map<Long, String> changes = replay;
+                replay = null;
+                if (loaded) {
+                    Set<NameType> reloaded = Set.of(types);
+                    List<NameEntry> entries = new ArrayList<>(scanned);
+                    forEach(entry -> {
+                        if (!reloaded.contains(entry.getType()))
+                            entries.add(entry);
+                    });
+                    replace(entries);
+                }
+                changes.forEach(this::apply);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public List<NameEntry> find(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            List<NameEntry> found = new ArrayList<>(snapshot.find(prefix, limit, hidden::contains));
+            int taken = 0;
+            for (NameEntry entry : added.tailSet(new NameEntry(prefix, Long.MIN_VALUE), true)) {
+                if (taken++ >= limit || !NameEntry.startsWith(entry.getName(), prefix))
+                    break;
+                found.add(entry);
+            }
+            found.sort(NameEntry.ORDER);
+            return found.size() > limit ? List.copyOf(found.subList(0, limit)) : found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Имя читается из сущности уже после commit, поэтому неважно, до или после setName это вызвано
+    public void saved(Movie movie) {
+        afterCommit(() -> apply(NameType.MOVIE.ref(movie.getMovieId()), movie.getName()));
+    }
+
+    public void saved(Actor actor) {
+        afterCommit(() -> apply(NameType.ACTOR.ref(actor.getActorId()), actor.getName()));
+    }
+
+    public void saved(Director director) {
+        afterCommit(() -> apply(NameType.DIRECTOR.ref(director.getDirectorId()), director.getName()));
+    }
+
+    public void deleted(NameType type, Collection<Long> ids) {
+        afterCommit(() -> ids.forEach(id -> apply(type.ref(id), null)));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        else
+            change.run();
+    }
+
+    //name == null означает удаление
+    private void apply(long ref, String name) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null)
+                replay.put(ref, name);
+            hidden.add(ref);
+            NameEntry previous = addedByRef.remove(ref);
+            if (previous != null)
+                added.remove(previous);
+            if (name != null) {
+                NameEntry entry = new NameEntry(name, ref);
+                added.add(entry);
+                addedByRef.put(ref, entry);
+            }
+            if (hidden.size() + added.size() > Math.max(MIN_DELTA_TO_COMPACT, snapshot.size() / 8)) {
+                List<NameEntry> entries = new ArrayList<>(snapshot.size() + added.size());
+                forEach(entries::add);
+                replace(entries);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void forEach(Consumer<NameEntry> consumer) {
+        snapshot.forEach(hidden::contains, consumer);
+        added.forEach(consumer);
+    }
+
+    private void replace(List<NameEntry> entries) {
+        snapshot = PrefixIndex.of(entries);
+        hidden.clear();
+        added.clear();
+        addedByRef.clear();
+    }
+}
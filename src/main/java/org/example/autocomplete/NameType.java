@@ -0,0 +1,41 @@
+package org.example.autocomplete;
+
+//Тип и id записи индекса упакованы в один long: тип в старших битах, id из sequence до них не дорастет
+public enum NameType {
+    MOVIE("movie"),
+    ACTOR("actor"),
+    DIRECTOR("director");
+
+    private static final int ID_BITS = 56;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+    private final String type;
+
+    NameType(String type) {
+        this.type = type;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getTable() {
+        return type;
+    }
+
+    public String getIdColumn() {
+        return type + "_id";
+    }
+
+    public long ref(long id) {
+        return (long) ordinal() << ID_BITS | id;
+    }
+
+    public static NameType of(long ref) {
+        return values()[(int) (ref >>> ID_BITS)];
+    }
+
+    public static long idOf(long ref) {
+        return ref & ID_MASK;
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+//Неизменяемый снимок: словарь различных имен, отсортированный без учета регистра, и ссылки type+id,
+//сгруппированные по именам в одном long[]; одинаковые названия хранятся один раз
+final class PrefixIndex {
+    static final PrefixIndex EMPTY = new PrefixIndex(new String[0], new int[1], new long[0]);
+
+    private static final Comparator<NameEntry> BUILD_ORDER = Comparator
+            .comparing(NameEntry::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(NameEntry::getName)
+            .thenComparingLong(NameEntry::getRef);
+
+    private final String[] names;
+    private final int[] offsets;
+    private final long[] refs;
+
+    private PrefixIndex(String[] names, int[] offsets, long[] refs) {
+        this.names = names;
+        this.offsets = offsets;
+        this.refs = refs;
+    }
+
+    static PrefixIndex of(List<NameEntry> entries) {
+        List<NameEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(BUILD_ORDER);
+        List<String> names = new ArrayList<>();
+        int[] offsets = new int[sorted.size() + 1];
+        long[] refs = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            NameEntry entry = sorted.get(i);
+            if (names.isEmpty() || !names.get(names.size() - 1).equals(entry.getName())) {
+                offsets[names.size()] = i;
+                names.add(entry.getName());
+            }
+            refs[i] = entry.getRef();
+        }
+        offsets[names.size()] = refs.length;
+        return new PrefixIndex(names.toArray(String[]::new), Arrays.copyOf(offsets, names.size() + 1), refs);
+    }
+
+    int size() {
+        return refs.length;
+    }
+
+    //Имена, которые отличаются только регистром, идут подряд, но ссылки у каждого свои, поэтому такую группу
+    //дочитываем целиком и сортируем общим порядком; от одного имени берем не больше limit ссылок
+    List<NameEntry> find(String prefix, int limit, LongPredicate hidden) {
+        List<NameEntry> found = new ArrayList<>();
+        for (int i = lowerBound(prefix); i < names.length && NameEntry.startsWith(names[i], prefix); i++) {
+            if (found.size() >= limit && String.CASE_INSENSITIVE_ORDER.compare(names[i], names[i - 1]) != 0)
+                break;
+            int taken = 0;
+            for (int r = offsets[i]; r < offsets[i + 1] && taken < limit; r++)
+                if (!hidden.test(refs[r])) {
+                    found.add(new NameEntry(names[i], refs[r]));
+                    taken++;
+                }
+        }
+        found.sort(NameEntry.ORDER);
+        return found.size() > limit ? found.subList(0, limit) : found;
+    }
+
+    void forEach(LongPredicate hidden, Consumer<NameEntry> consumer) {
+        for (int i = 0; i < names.length; i++)
+            for (int r = offsets[i]; r < offsets[i + 1]; r++)
+                if (!hidden.test(refs[r]))
+                    consumer.accept(new NameEntry(names[i], refs[r]));
+    }
+
+    //первое имя, которое без учета регистра не меньше префикса: с него начинаются все имена с этим префиксом
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(names[middle], prefix) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.bulk;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+//CSV по RFC 4180: первая строка заголовок с именами полей, пустое значение без кавычек это null
+public class CsvRecordReader implements ImportRecordReader {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+    private String recordError;
+
+    private final int fieldCount;
+    private final int[] positions;
+    private ImportRecord next;
+
+    public CsvRecordReader(Reader reader, ImportTarget target) {
+        this.reader = reader;
+        this.fieldCount = target.getFields().size();
+        List<String> header = readRow();
+        if (header == null)
+            throw new ResponseStatusException(BAD_REQUEST, "CSV пустой, первой строкой должен идти заголовок");
+        positions = new int[header.size()];
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i) == null ? "" : header.get(i).trim();
+            positions[i] = target.indexOf(name);
+            if (positions[i] < 0)
+                throw new ResponseStatusException(BAD_REQUEST, "Неизвестная колонка '" + name +
+                        "', для " + target.getType() + " допустимы " + target.getFields());
+            for (int j = 0; j < i; j++)
+                if (positions[j] == positions[i])
+                    throw new ResponseStatusException(BAD_REQUEST, "Колонка '" + name + "' указана дважды");
+        }
+        advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public ImportRecord next() {
+        ImportRecord current = next;
+        advance();
+        return current;
+    }
+
+    private void advance() {
+        List<String> row = readRow();
+        if (row == null)
+            next = null;
+        else if (recordError != null)
+            next = ImportRecord.invalid(recordLine, recordError);
+        else if (row.size() != positions.length)
+            next = ImportRecord.invalid(recordLine, "Ожидалось колонок: " + positions.length + ", а пришло: " + row.size());
+        else {
+            String[] values = new String[fieldCount];
+            for (int i = 0; i < positions.length; i++)
+                values[positions[i]] = row.get(i);
+            next = ImportRecord.of(recordLine, values);
+        }
+    }
+
+    private List<String> readRow() {
+        int ch = read();
+        //пустые строки между записями пропускаем
+        while (ch == '\n' || ch == '\r') {
+            if (ch == '\n')
+                line++;
+            ch = read();
+        }
+        if (ch == -1)
+            return null;
+
+        recordLine = line;
+        recordError = null;
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (ch == -1) {
+                    recordError = "Не закрыта кавычка";
+                    values.add(value.toString());
+                    return values;
+                }
+                if (ch == '"') {
+                    ch = read();
+                    if (ch != '"') {
+                        inQuotes = false;
+                        continue;
+                    }
+                } else if (ch == '\n')
+                    line++;
+                value.append((char) ch);
+            } else if (ch == '"' && value.length() == 0 && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else if (ch == ',') {
+                values.add(quoted ? value.toString() : emptyToNull(value));
+                value.setLength(0);
+                quoted = false;
+            } else if (ch == '\n' || ch == -1) {
+                values.add(quoted ? value.toString() : emptyToNull(value));
+                if (ch == '\n')
+                    line++;
+                return values;
+            } else if (ch != '\r')
+                value.append((char) ch);
+            ch = read();
+        }
+    }
+
+    private int read() {
+        if (position == limit) {
+            try {
+                limit = reader.read(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private static String emptyToNull(StringBuilder value) {
+        return value.length() == 0 ? null : value.toString();
+    }
+}
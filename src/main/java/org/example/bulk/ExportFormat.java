@@ -0,0 +1,36 @@
+package org.example.bulk;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+
+import static org.example.streaming.DtoStreamWriter.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+public enum ExportFormat {
+    CSV("csv", "text/csv"),
+    NDJSON("ndjson", APPLICATION_NDJSON_VALUE);
+
+    private final String name;
+    private final String contentType;
+
+    ExportFormat(String name, String contentType) {
+        this.name = name;
+        this.contentType = contentType;
+    }
+
+    public static ExportFormat of(String name) {
+        return Arrays.stream(values())
+                .filter(format -> format.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "Поддерживаются только форматы csv и ndjson"));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.bulk;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+//Что выгружаем через COPY TO STDOUT, имена колонок совпадают с полями импорта
+public enum ExportSource {
+    DIRECTORS("directors", "select director_id as id, name, age from director order by director_id"),
+    MOVIES("movies", "select movie_id as id, director_id as \"directorId\", name, year_of_production as year " +
+            "from movie order by movie_id"),
+    ACTORS("actors", "select actor_id as id, name, age from actor order by actor_id"),
+    LINKS("links", "select movie_id as \"movieId\", actor_id as \"actorId\" from movie_actor order by movie_id, actor_id");
+
+    private final String type;
+    private final String query;
+
+    ExportSource(String type, String query) {
+        this.type = type;
+        this.query = query;
+    }
+
+    public static ExportSource of(String type) {
+        return Arrays.stream(values())
+                .filter(source -> source.type.equals(type))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST,
+                        "Выгрузить можно только directors, movies, actors или links"));
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String copySql(ExportFormat format) {
+        return switch (format) {
+            case CSV -> "copy (" + query + ") to stdout (format csv, header)";
+            //row_to_json экранирует управляющие символы, поэтому \x01 и \x02 в нем не встречаются
+            //и csv с такими quote/delimiter отдает строку JSON как есть, без экранирования text формата
+            case NDJSON -> "copy (select row_to_json(t) from (" + query + ") t) " +
+                    "to stdout (format csv, quote e'\\x01', delimiter e'\\x02')";
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.bulk;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+//Одна строка входных данных: значения в порядке ImportTarget.getFields() или ошибка разбора
+public final class ImportRecord {
+    private final long line;
+    private final String[] values;
+    private final String error;
+
+    private ImportRecord(long line, String[] values, String error) {
+        this.line = line;
+        this.values = values;
+        this.error = error;
+    }
+
+    public static ImportRecord of(long line, String[] values) {
+        return new ImportRecord(line, values, null);
+    }
+
+    public static ImportRecord invalid(long line, String error) {
+        return new ImportRecord(line, null, error);
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String[] getValues() {
+        return values;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ImportRecord that = (ImportRecord) o;
+        return line == that.line && Arrays.equals(values, that.values) && Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(line, error) + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
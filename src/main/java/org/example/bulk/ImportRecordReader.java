@@ -0,0 +1,8 @@
+package org.example.bulk;
+
+public interface ImportRecordReader {
+
+    boolean hasNext();
+
+    ImportRecord next();
+}
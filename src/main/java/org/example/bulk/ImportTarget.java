@@ -0,0 +1,213 @@
+package org.example.bulk;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+//Что и как грузим через COPY: поля входных данных, staging таблица, проверки и слияние в рабочие таблицы
+public enum ImportTarget {
+    DIRECTORS("directors", "import_director",
+            List.of("id", "name", "age"),
+            List.of("id", "name", "age"),
+            "case" +
+                    checkId("director", "Режиссера") +
+                    checkName() +
+                    checkAge() +
+                    " end",
+            List.of(),
+            List.of("update director d set name = s.name, age = s.age::int, version = d.version + 1 from import_director s " +
+                            "where s.error is null and s.id is not null and d.director_id = s.id::bigint",
+                    insertNew("director", "name, age", "name, age::int as age")),
+            null),
+
+    MOVIES("movies", "import_movie",
+            List.of("id", "directorId", "name", "year"),
+            List.of("id", "director_id", "name", "year"),
+            "case" +
+                    checkId("movie", "Фильма") +
+                    checkName() +
+                    " when year is null or year !~ '^[0-9]{1,9}$' then 'year обязателен и должен быть целым числом'" +
+                    " when year::int < 1901 then 'year должен быть больше 1900'" +
+                    " when director_id is null or director_id !~ '^[0-9]{1,18}$'" +
+                    " then 'directorId обязателен и должен быть целым числом'" +
+                    " when not exists (select 1 from director d where d.director_id = s.director_id::bigint)" +
+                    " then 'У фильма directorId = ' || director_id || ', режиссера с таким id нет в базе'" +
+                    " end",
+            //старый режиссер обновляемого фильма ищется до слияния
+            List.of("update director d set version = d.version + 1 where d.director_id in (" +
+                            "select s.director_id::bigint from import_movie s where s.error is null union " +
+                            "select m.director_id from movie m join import_movie s on m.movie_id = s.id::bigint " +
+                            "where s.error is null)",
+                    "update actor a set version = a.version + 1 where a.actor_id in (" +
+                            "select ma.actor_id from movie_actor ma join import_movie s on ma.movie_id = s.id::bigint " +
+                            "where s.error is null)"),
+            List.of("update movie m set director_id = s.director_id::bigint, name = s.name, " +
+                            "year_of_production = s.year::int, version = m.version + 1 from import_movie s " +
+                            "where s.error is null and s.id is not null and m.movie_id = s.id::bigint",
+                    insertNew("movie", "director_id, name, year_of_production",
+                            "director_id::bigint as director_id, name, year::int as year_of_production")),
+            //id новых фильмов неизвестны, их документы дописываются после импорта
+            "select s.id::bigint from import_movie s where s.error is null and s.id is not null"),
+
+    ACTORS("actors", "import_actor",
+            List.of("id", "name", "age"),
+            List.of("id", "name", "age"),
+            "case" +
+                    checkId("actor", "Актера") +
+                    checkName() +
+                    checkAge() +
+                    " end",
+            List.of("update movie m set version = m.version + 1 where m.movie_id in (" +
+                    "select ma.movie_id from movie_actor ma join import_actor s on ma.actor_id = s.id::bigint " +
+                    "where s.error is null)"),
+            List.of("update actor a set name = s.name, age = s.age::int, version = a.version + 1 from import_actor s " +
+                            "where s.error is null and s.id is not null and a.actor_id = s.id::bigint",
+                    insertNew("actor", "name, age", "name, age::int as age")),
+            "select ma.movie_id from movie_actor ma join import_actor s on ma.actor_id = s.id::bigint " +
+                    "where s.error is null"),
+
+    LINKS("links", "import_movie_actor",
+            List.of("movieId", "actorId"),
+            List.of("movie_id", "actor_id"),
+            "case" +
+                    " when movie_id is null or movie_id !~ '^[0-9]{1,18}$' then 'movieId обязателен и должен быть целым числом'" +
+                    " when actor_id is null or actor_id !~ '^[0-9]{1,18}$' then 'actorId обязателен и должен быть целым числом'" +
+                    " when not exists (select 1 from movie m where m.movie_id = s.movie_id::bigint)" +
+                    " then 'Фильма с таким id в базе нет'" +
+                    " when not exists (select 1 from actor a where a.actor_id = s.actor_id::bigint)" +
+                    " then 'Актера с таким id в базе нет'" +
+                    " end",
+            //только для связей, которых еще нет, иначе ETag сменится без изменений
+            List.of("update movie m set version = m.version + 1 where m.movie_id in (" +
+                            "select s.movie_id::bigint from import_movie_actor s where s.error is null" + newLink() + ")",
+                    "update actor a set version = a.version + 1 where a.actor_id in (" +
+                            "select s.actor_id::bigint from import_movie_actor s where s.error is null" + newLink() + ")"),
+            //уже существующие связи молча пропускаем
+            List.of("insert into movie_actor (actor_id, movie_id) " +
+                    "select distinct actor_id::bigint, movie_id::bigint from import_movie_actor " +
+                    "where error is null on conflict do nothing"),
+            "select s.movie_id::bigint from import_movie_actor s where s.error is null");
+
+    //равен allocationSize генераторов в сущностях
+    private static final int ID_BLOCK = 50;
+
+    private final String type;
+    private final String stagingTable;
+    private final List<String> fields;
+    private final List<String> columns;
+    private final String errorExpression;
+    private final List<String> versionStatements;
+    private final List<String> mergeStatements;
+    private final String documentMoviesSql;
+
+    ImportTarget(String type, String stagingTable, List<String> fields, List<String> columns,
+                 String errorExpression, List<String> versionStatements, List<String> mergeStatements,
+                 String documentMoviesSql) {
+        this.type = type;
+        this.stagingTable = stagingTable;
+        this.fields = fields;
+        this.columns = columns;
+        this.errorExpression = errorExpression;
+        this.versionStatements = versionStatements;
+        this.mergeStatements = mergeStatements;
+        this.documentMoviesSql = documentMoviesSql;
+    }
+
+    public static ImportTarget of(String type) {
+        return Arrays.stream(values())
+                .filter(target -> target.type.equals(type))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST,
+                        "Импортировать можно только directors, movies, actors или links"));
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public int indexOf(String field) {
+        return fields.indexOf(field);
+    }
+
+    public String getStagingTable() {
+        return stagingTable;
+    }
+
+    //все колонки текстовые, чтобы кривые значения не роняли COPY, а попадали в отчет
+    public String createStagingSql() {
+        return "create temp table if not exists " + stagingTable + " (line bigint, " +
+                String.join(" text, ", columns) + " text, error text) on commit drop";
+    }
+
+    public String copySql() {
+        return "copy " + stagingTable + " (line, " + String.join(", ", columns) + ") from stdin (format csv)";
+    }
+
+    public String validateSql() {
+        return "update " + stagingTable + " s set error = " + errorExpression;
+    }
+
+    //Повтор id в пачке: update взял бы из двух строк любую, поэтому применяется первая, остальные уходят в отчет.
+    //Идет после validateSql, id оставшихся строк уже проверены; у связей id нет
+    public String rejectRepeatedIdsSql() {
+        if (!columns.contains("id"))
+            return null;
+        return "update " + stagingTable + " s set error = 'id уже встречался в строке ' || r.first_line from (" +
+                "select line, min(line) over (partition by id::bigint) as first_line from " + stagingTable +
+                " where error is null and id is not null) r where s.line = r.line and r.line > r.first_line";
+    }
+
+    //поднимают version у тех, в чьи DTO встроены загружаемые строки, выполняются до слияния
+    public List<String> getVersionStatements() {
+        return versionStatements;
+    }
+
+    public List<String> getMergeStatements() {
+        return mergeStatements;
+    }
+
+    //id фильмов, чьи документы в movie_document поменяла пачка, выполняется после слияния; у режиссеров null
+    public String getDocumentMoviesSql() {
+        return documentMoviesSql;
+    }
+
+    //id новых строк берутся блоками, как у pooled генератора Hibernate: nextval на ID_BLOCK строк дает
+    //верхнюю границу блока. DEFAULT nextval тратил бы целый блок на каждую строку
+    private static String insertNew(String table, String columns, String values) {
+        String newRows = " from import_" + table + " where error is null and id is null";
+        return "insert into " + table + " (" + table + "_id, " + columns + ") " +
+                "select b.hi - " + (ID_BLOCK - 1) + " + r.rn % " + ID_BLOCK + ", " + columns + " from (" +
+                "select " + values + ", row_number() over (order by line) - 1 as rn" + newRows + ") r join (" +
+                "select row_number() over () - 1 as block, nextval('" + table + "_seq') as hi from generate_series(1, " +
+                "(select ceil(count(*) / " + ID_BLOCK + ".0)::int" + newRows + "))) b on b.block = r.rn / " + ID_BLOCK +
+                " order by r.rn";
+    }
+
+    private static String checkId(String table, String entity) {
+        return " when id is not null and id !~ '^[0-9]{1,18}$' then 'id должен быть целым числом'" +
+                " when id is not null and not exists (select 1 from " + table + " t where t." + table + "_id = s.id::bigint)" +
+                " then '" + entity + " с таким id в базе нет'";
+    }
+
+    private static String checkName() {
+        return " when name is null or name = '' then 'name обязателен'" +
+                " when length(name) > 100 then 'name не может быть длиннее 100 символов'";
+    }
+
+    private static String newLink() {
+        return " and not exists (select 1 from movie_actor ma " +
+                "where ma.movie_id = s.movie_id::bigint and ma.actor_id = s.actor_id::bigint)";
+    }
+
+    private static String checkAge() {
+        return " when age is null or age !~ '^[0-9]{1,9}$' then 'age обязателен и должен быть целым числом'" +
+                " when age::int < 19 or age::int > 99 then 'age должен быть больше 18 и меньше 100'";
+    }
+}
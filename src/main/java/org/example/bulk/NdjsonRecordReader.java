@@ -0,0 +1,81 @@
+package org.example.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+
+//Один JSON объект на строку, имена полей как в DTO
+public class NdjsonRecordReader implements ImportRecordReader {
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private final ImportTarget target;
+    private long line;
+    private ImportRecord next;
+
+    public NdjsonRecordReader(BufferedReader reader, ObjectReader objectReader, ImportTarget target) {
+        this.reader = reader;
+        this.objectReader = objectReader;
+        this.target = target;
+        advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public ImportRecord next() {
+        ImportRecord current = next;
+        advance();
+        return current;
+    }
+
+    private void advance() {
+        try {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (!text.isBlank()) {
+                    next = parse(text);
+                    return;
+                }
+            }
+            next = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ImportRecord parse(String text) {
+        JsonNode node;
+        try {
+            node = objectReader.readTree(text);
+        } catch (JsonProcessingException e) {
+            return ImportRecord.invalid(line, "Строка не является корректным JSON");
+        }
+        if (!node.isObject())
+            return ImportRecord.invalid(line, "Ожидался JSON объект");
+
+        String[] values = new String[target.getFields().size()];
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            int index = target.indexOf(field.getKey());
+            if (index < 0)
+                return ImportRecord.invalid(line, "Неизвестное поле '" + field.getKey() +
+                        "', для " + target.getType() + " допустимы " + target.getFields());
+            JsonNode value = field.getValue();
+            if (value.isContainerNode())
+                return ImportRecord.invalid(line, "Поле '" + field.getKey() + "' должно быть строкой или числом");
+            values[index] = value.isNull() ? null : value.asText();
+        }
+        return ImportRecord.of(line, values);
+    }
+}
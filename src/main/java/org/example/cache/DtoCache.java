@@ -0,0 +1,120 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.example.config.ReplicaRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+//Готовые DTO по id: объем ограничен суммарным весом записей, после refreshAfter запись еще отдается, но перечитывается в фоне
+public class DtoCache<V> {
+    private final String name;
+    private final Cache<Long, Entry<V>> cache;
+    private final ToIntFunction<V> weigher;
+    private final long refreshNanos;
+    private final Executor executor;
+    private final TransactionTemplate transactionTemplate;
+
+    public DtoCache(String name, long maxWeight, Duration ttl, Duration refreshAfter, ToIntFunction<V> weigher,
+                    Executor executor, TransactionTemplate transactionTemplate) {
+        this.name = name;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long id, Entry<V> entry) -> entry.weight)
+                .expireAfterWrite(ttl)
+                //вытеснение сразу в вызывающем потоке, а не в общем ForkJoinPool
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        this.weigher = weigher;
+        this.refreshNanos = refreshAfter.toNanos();
+        this.executor = executor;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    //Исключение загрузчика пробрасывается как есть и ничего не кэширует. Кэш общий для всех клиентов,
+    //поэтому грузим с primary: отстающая реплика оставила бы в нем старое до refreshAfter
+    public V get(Long id, Function<Long, V> loader) {
+        Entry<V> entry = cache.get(id, key -> entry(ReplicaRoutingDataSource.onPrimary(() -> loader.apply(key))));
+        if (System.nanoTime() - entry.loadedAt >= refreshNanos && entry.refreshing.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> refresh(id, entry, loader));
+            } catch (RejectedExecutionException e) {
+                entry.refreshing.set(false);
+            }
+        }
+        return entry.value;
+    }
+
+    public void invalidate(Long id) {
+        invalidate(List.of(id));
+    }
+
+    //Сбрасываем сразу и еще раз после commit: между ними читатель мог закэшировать незакоммиченное состояние базы
+    public void invalidate(Collection<Long> ids) {
+        cache.invalidateAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> copy = List.copyOf(ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll(copy);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private void refresh(Long id, Entry<V> stale, Function<Long, V> loader) {
+        try {
+            V value = ReplicaRoutingDataSource.onPrimary(() -> transactionTemplate.execute(status -> loader.apply(id)));
+            //запись инвалидировали, пока мы читали, значит прочитанное уже может быть устаревшим
+            cache.asMap().replace(id, stale, entry(value));
+        } catch (RuntimeException e) {
+            cache.asMap().remove(id, stale);
+        }
+    }
+
+    private Entry<V> entry(V value) {
+        return new Entry<>(value, weigher.applyAsInt(value), System.nanoTime());
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final int weight;
+        private final long loadedAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(V value, int weight, long loadedAt) {
+            this.value = value;
+            this.weight = weight;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.cache;
+
+import org.example.dto.ActorDTO;
+import org.example.dto.DirectorDTO;
+import org.example.dto.MovieDTO;
+import org.example.dto.VersionedDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Кэши findById для фильмов, актеров и режиссеров, фоновое обновление идет в readOnly транзакции.
+//Фильм лежит готовым JSON из movie_document, его и отдает GET /movie/{id}
+@Component
+public class DtoCaches {
+    //заголовок объекта DTO с полями, строки считаем отдельно по два байта на символ
+    private static final int DTO_BYTES = 64;
+    private static final int REFRESH_THREADS = 2;
+
+    private final ExecutorService refreshExecutor;
+    private final DtoCache<VersionedDTO<byte[]>> movies;
+    private final DtoCache<VersionedDTO<ActorDTO>> actors;
+    private final DtoCache<VersionedDTO<DirectorDTO>> directors;
+
+    @Autowired
+    public DtoCaches(Environment env, PlatformTransactionManager transactionManager) {
+        this(env.getRequiredProperty("dto_cache.max_bytes", Long.class),
+                Duration.ofSeconds(env.getRequiredProperty("dto_cache.ttl_seconds", Long.class)),
+                Duration.ofSeconds(env.getRequiredProperty("dto_cache.refresh_seconds", Long.class)),
+                transactionManager);
+    }
+
+    public DtoCaches(long maxBytes, Duration ttl, Duration refreshAfter, PlatformTransactionManager transactionManager) {
+        this.refreshExecutor = Executors.newFixedThreadPool(REFRESH_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "dto-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        this.movies = new DtoCache<>("dto.movies", maxBytes, ttl, refreshAfter,
+                movie -> DTO_BYTES + movie.getBody().length, refreshExecutor, transactionTemplate);
+        this.actors = new DtoCache<>("dto.actors", maxBytes, ttl, refreshAfter,
+                actor -> weigh(actor.getBody()), refreshExecutor, transactionTemplate);
+        this.directors = new DtoCache<>("dto.directors", maxBytes, ttl, refreshAfter,
+                director -> weigh(director.getBody()), refreshExecutor, transactionTemplate);
+    }
+
+    public DtoCache<VersionedDTO<byte[]>> movies() {
+        return movies;
+    }
+
+    public DtoCache<VersionedDTO<ActorDTO>> actors() {
+        return actors;
+    }
+
+    public DtoCache<VersionedDTO<DirectorDTO>> directors() {
+        return directors;
+    }
+
+    public List<DtoCache<?>> all() {
+        return List.of(movies, actors, directors);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private static int weigh(MovieDTO movie) {
+        int weight = DTO_BYTES + chars(movie.getName());
+        if (movie.getActorList() != null)
+            for (ActorDTO actor : movie.getActorList())
+                weight += weigh(actor);
+        return weight;
+    }
+
+    private static int weigh(ActorDTO actor) {
+        int weight = DTO_BYTES + chars(actor.getName());
+        if (actor.getMovieList() != null)
+            for (MovieDTO movie : actor.getMovieList())
+                weight += weigh(movie);
+        return weight;
+    }
+
+    private static int weigh(DirectorDTO director) {
+        int weight = DTO_BYTES + chars(director.getName());
+        if (director.getMovieList() != null)
+            for (MovieDTO movie : director.getMovieList())
+                weight += weigh(movie);
+        return weight;
+    }
+
+    private static int chars(String value) {
+        return value == null ? 0 : 2 * value.length();
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.cache;
+
+//ETag карточки это version сущности: слабый, потому что тело зависит от сериализации
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    //If-None-Match сравнивается слабо, список через запятую или *
+    public static boolean matches(String ifNoneMatch, Long version) {
+        if (version == null)
+            return false;
+        String current = "\"" + version + "\"";
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*"))
+                return true;
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals(current))
+                return true;
+        }
+        return false;
+    }
+}
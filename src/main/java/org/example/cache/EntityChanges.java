@@ -0,0 +1,109 @@
+package org.example.cache;
+
+import org.example.documents.MovieDocumentChanges;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.jdbc.DeleteResult;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static javax.persistence.LockModeType.OPTIMISTIC_FORCE_INCREMENT;
+
+//Изменилась сущность или то, что встроено в ее DTO: сбрасываем DTO из кэша и поднимаем version, от которой зависит ETag
+@Component
+public class EntityChanges {
+    private final DtoCaches dtoCaches;
+    private final EntityManager entityManager;
+    private final MovieDocumentChanges movieDocumentChanges;
+
+    @Autowired
+    public EntityChanges(DtoCaches dtoCaches, EntityManager entityManager, MovieDocumentChanges movieDocumentChanges) {
+        this.dtoCaches = dtoCaches;
+        this.entityManager = entityManager;
+        this.movieDocumentChanges = movieDocumentChanges;
+    }
+
+    //в кэшах нового фильма еще нет, но документ для GET /movie/{id} ему нужен
+    public void created(Movie movie) {
+        movieDocumentChanges.changed(movie.getMovieId());
+    }
+
+    public void changed(Movie movie) {
+        dtoCaches.movies().invalidate(movie.getMovieId());
+        movieDocumentChanges.changed(movie.getMovieId());
+        //сама сущность может остаться не грязной, например, когда поменялась только связь
+        entityManager.lock(movie, OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    public void changed(Actor actor) {
+        dtoCaches.actors().invalidate(actor.getActorId());
+        entityManager.lock(actor, OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    public void changed(Director director) {
+        dtoCaches.directors().invalidate(director.getDirectorId());
+        entityManager.lock(director, OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    //связи меняются SQL'ем мимо Hibernate, version в базе уже поднята, кэш второго уровня сбрасываем сами
+    public void linksChanged(Long movieId, Long actorId) {
+        linksChanged(List.of(movieId), List.of(actorId));
+    }
+
+    public void linksChanged(Collection<Long> movieIds, Collection<Long> actorIds) {
+        dtoCaches.movies().invalidate(movieIds);
+        dtoCaches.actors().invalidate(actorIds);
+        movieDocumentChanges.changed(movieIds);
+        //до commit сбрасывать бесполезно: читатель положит обратно закоммиченное старое состояние
+        afterCommit(cache -> evict(cache, List.of(), movieIds, actorIds));
+    }
+
+    //удаление прошло одним SQL'ем с каскадом в базе, version затронутых уже поднята там же
+    public void deleted(DeleteResult result) {
+        dtoCaches.directors().invalidate(result.getDirectorIds());
+        dtoCaches.movies().invalidate(result.getMovieIds());
+        dtoCaches.actors().invalidate(result.getActorIds());
+        movieDocumentChanges.changed(result.getMovieIds());
+        afterCommit(cache -> {
+            evict(cache, result.getDirectorIds(), result.getMovieIds(), result.getActorIds());
+            //закэшированные страницы id иначе вернут удаленное
+            cache.evictDefaultQueryRegion();
+        });
+    }
+
+    private void afterCommit(Consumer<Cache> eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.accept(entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache());
+                }
+            });
+    }
+
+    private static void evict(Cache cache, Collection<Long> directorIds, Collection<Long> movieIds,
+                              Collection<Long> actorIds) {
+        for (Long directorId : directorIds) {
+            cache.evictEntityData(Director.class, directorId);
+            cache.evictCollectionData(Director.class.getName() + ".movieList", directorId);
+        }
+        for (Long movieId : movieIds) {
+            cache.evictEntityData(Movie.class, movieId);
+            cache.evictCollectionData(Movie.class.getName() + ".actorList", movieId);
+        }
+        for (Long actorId : actorIds) {
+            cache.evictEntityData(Actor.class, actorId);
+            cache.evictCollectionData(Actor.class.getName() + ".movieList", actorId);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public class PooledDataSource extends HikariDataSource {
+
+    public PooledDataSource(HikariConfig configuration) {
+        super(configuration);
+    }
+
+    //Hibernate видит hibernate.connection.username/password и просит соединение с ними же,
+    //а пул уже открыт под этими учетными данными
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!getUsername().equals(username))
+            throw new SQLException("Пул " + getPoolName() + " открыт для пользователя " + getUsername());
+        return getConnection();
+    }
+}
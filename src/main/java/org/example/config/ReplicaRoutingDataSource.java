@@ -0,0 +1,178 @@
+package org.example.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+//readOnly транзакции читают с реплик по кругу, все остальное идет на primary.
+//Соединение должно браться лениво (LazyConnectionDataSourceProxy), иначе readOnly транзакции еще не известен
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    public static final String LAST_WRITE_COOKIE = "last-write";
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = ThreadLocal.withInitial(() -> false);
+    //на простаивающей реплике время последнего replay стареет, поэтому догнавшая primary реплика отстает на 0
+    private static final String LAG_SQL = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+            "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end::bigint";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final long readYourWritesMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthCheck;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long maxLagMillis,
+                                    long readYourWritesMillis, long checkIntervalMillis) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagMillis = maxLagMillis;
+        this.readYourWritesMillis = readYourWritesMillis;
+        this.healthCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //до первой проверки реплики считаются недоступными и чтение идет на primary
+        if (!this.replicas.isEmpty())
+            healthCheck.scheduleWithFixedDelay(this::checkReplicas, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    //Внутри action и readOnly транзакции читают с primary, если соединение для них еще не взято
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (PRIMARY_ONLY.get())
+            return action.get();
+        PRIMARY_ONLY.set(true);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_ONLY.remove();
+        }
+    }
+
+    //Реплика доступна и отстает не больше max_lag
+    public void checkReplicas() {
+        for (Replica replica : replicas)
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                replica.healthy = rs.getLong(1) <= maxLagMillis;
+            } catch (SQLException e) {
+                replica.healthy = false;
+            }
+    }
+
+    @Override
+    public void close() throws Exception {
+        healthCheck.shutdownNow();
+        if (primary instanceof AutoCloseable closeable)
+            closeable.close();
+        for (Replica replica : replicas)
+            if (replica.dataSource instanceof AutoCloseable closeable)
+                closeable.close();
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        Replica replica = readReplica();
+        if (replica != null)
+            try {
+                return source.get(replica.dataSource);
+            } catch (SQLException e) {
+                //реплика упала между проверками: до следующей удачной проверки читаем с primary
+                replica.healthy = false;
+            }
+        else if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stickToPrimary();
+                }
+            });
+        return source.get(primary);
+    }
+
+    //Сессий у API нет: время commit уходит клиенту в cookie, и до конца read_your_writes с primary читает
+    //только он. В том же запросе cookie еще не пришла, время лежит в атрибуте запроса
+    private void stickToPrimary() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes))
+            return;
+        long now = System.currentTimeMillis();
+        attributes.getRequest().setAttribute(LAST_WRITE_COOKIE, now);
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            Cookie cookie = new Cookie(LAST_WRITE_COOKIE, String.valueOf(now));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) TimeUnit.MILLISECONDS.toSeconds(readYourWritesMillis + 999));
+            response.addCookie(cookie);
+        }
+    }
+
+    private boolean wroteRecently() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes))
+            return false;
+        HttpServletRequest request = attributes.getRequest();
+        Long lastWrite = request.getAttribute(LAST_WRITE_COOKIE) instanceof Long millis ? millis : null;
+        if (lastWrite == null && request.getCookies() != null)
+            for (Cookie cookie : request.getCookies())
+                if (LAST_WRITE_COOKIE.equals(cookie.getName()))
+                    try {
+                        lastWrite = Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < readYourWritesMillis;
+    }
+
+    private Replica readReplica() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || PRIMARY_ONLY.get() || wroteRecently())
+            return null;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.healthy)
+                return replica;
+        }
+        return null;
+    }
+
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    private static class Replica {
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+//Кэш второго уровня Hibernate на Caffeine через JCache, все регионы создаем заранее с ограничением по размеру
+public final class SecondLevelCache {
+    public static final List<String> ENTITY_REGIONS = List.of(
+            Director.class.getName(), Movie.class.getName(), Actor.class.getName());
+    public static final List<String> COLLECTION_REGIONS = List.of(
+            Director.class.getName() + ".movieList", Movie.class.getName() + ".actorList", Actor.class.getName() + ".movieList");
+    public static final String QUERY_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    private SecondLevelCache() {
+    }
+
+    public static CacheManager createCacheManager(String name, Environment env) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("hibernate-" + name),
+                SecondLevelCache.class.getClassLoader());
+
+        CaffeineConfiguration<Object, Object> entities = configuration(
+                env.getRequiredProperty("cache.entity.max_size", Long.class),
+                env.getRequiredProperty("cache.entity.ttl_seconds", Long.class));
+        ENTITY_REGIONS.forEach(region -> cacheManager.createCache(region, entities));
+
+        CaffeineConfiguration<Object, Object> collections = configuration(
+                env.getRequiredProperty("cache.collection.max_size", Long.class),
+                env.getRequiredProperty("cache.collection.ttl_seconds", Long.class));
+        COLLECTION_REGIONS.forEach(region -> cacheManager.createCache(region, collections));
+
+        cacheManager.createCache(QUERY_REGION, configuration(
+                env.getRequiredProperty("cache.query.max_size", Long.class),
+                env.getRequiredProperty("cache.query.ttl_seconds", Long.class)));
+
+        //метки обновления таблиц нельзя вытеснять раньше результатов запросов, иначе кэш запросов отдаст старое
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStatisticsEnabled(true);
+        cacheManager.createCache(TIMESTAMPS_REGION, timestamps);
+
+        return cacheManager;
+    }
+
+    public static void configure(Properties properties, CacheManager cacheManager) {
+        properties.put("hibernate.cache.use_second_level_cache", "true");
+        properties.put("hibernate.cache.use_query_cache", "true");
+        properties.put("hibernate.cache.region.factory_class", "jcache");
+        properties.put("hibernate.javax.cache.cache_manager", cacheManager);
+        //регион, которого нет в списке выше, был бы без ограничений по размеру
+        properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        //счетчики попаданий и промахов для /monitoring/cache
+        properties.put("hibernate.generate_statistics", "true");
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(long maxSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
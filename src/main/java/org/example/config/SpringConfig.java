@@ -1,5 +1,8 @@
 package org.example.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import org.example.json.DtoJson;
+import org.example.monitoring.PoolMetricsRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -7,7 +10,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -16,7 +22,10 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import javax.cache.CacheManager;
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 @Configuration
@@ -33,22 +42,96 @@ public class SpringConfig implements WebMvcConfigurer {
         this.env = env;
     }
 
+    @Bean
+    public PoolMetricsRegistry poolMetricsRegistry() {
+        return new PoolMetricsRegistry();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource routingDataSource() {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : env.getRequiredProperty("replica.urls").split(","))
+            if (!url.isBlank()) {
+                HikariConfig config = poolConfig("replica-" + replicas.size(), url.trim());
+                //упавшая реплика не должна мешать старту, ее отсеет проверка
+                config.setInitializationFailTimeout(-1);
+                config.setConnectionTimeout(env.getRequiredProperty("replica.connection_timeout", Long.class));
+                replicas.add(new PooledDataSource(config));
+            }
+        return new ReplicaRoutingDataSource(
+                new PooledDataSource(poolConfig("primary", env.getRequiredProperty("hibernate.connection.url"))),
+                replicas,
+                env.getRequiredProperty("replica.max_lag_millis", Long.class),
+                env.getRequiredProperty("replica.read_your_writes_millis", Long.class),
+                env.getRequiredProperty("replica.check_interval_millis", Long.class));
+    }
+
+    //соединение берется при первом statement, когда readOnly транзакции уже выставлен
     @Bean
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        return new LazyConnectionDataSourceProxy(routingDataSource());
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return SecondLevelCache.createCacheManager("primary", env);
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource());
+    }
+
+    //Jackson конвертер по умолчанию строит свой ObjectMapper; подменяем его общим, с ручным чтением DTO
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> converter instanceof MappingJackson2HttpMessageConverter
+                ? new MappingJackson2HttpMessageConverter(DtoJson.objectMapper())
+                : converter);
+    }
+
+    private HikariConfig poolConfig(String poolName, String url) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDriverClassName(env.getRequiredProperty("hibernate.driver_class"));
+        config.setJdbcUrl(url);
+        config.setUsername(env.getRequiredProperty("hibernate.connection.username"));
+        config.setPassword(env.getRequiredProperty("hibernate.connection.password"));
+
+        config.setMinimumIdle(env.getRequiredProperty("hikari.minimum_idle", Integer.class));
+        config.setMaximumPoolSize(env.getRequiredProperty("hikari.maximum_pool_size", Integer.class));
+        config.setConnectionTimeout(env.getRequiredProperty("hikari.connection_timeout", Long.class));
+        config.setValidationTimeout(env.getRequiredProperty("hikari.validation_timeout", Long.class));
+        config.setIdleTimeout(env.getRequiredProperty("hikari.idle_timeout", Long.class));
+        config.setMaxLifetime(env.getRequiredProperty("hikari.max_lifetime", Long.class));
+        config.setLeakDetectionThreshold(env.getRequiredProperty("hikari.leak_detection_threshold", Long.class));
+
+        //кэш prepared statements на стороне драйвера PostgreSQL
+        config.addDataSourceProperty("prepareThreshold", env.getRequiredProperty("hikari.prepare_threshold"));
+        config.addDataSourceProperty("preparedStatementCacheQueries",
+                env.getRequiredProperty("hikari.prepared_statement_cache_queries"));
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB",
+                env.getRequiredProperty("hikari.prepared_statement_cache_size_mib"));
+        //драйвер склеивает batch из INSERT в многострочный INSERT ... VALUES (...), (...)
+        config.addDataSourceProperty("reWriteBatchedInserts", env.getRequiredProperty("hikari.rewrite_batched_inserts"));
 
-        dataSource.setDriverClassName(env.getRequiredProperty("hibernate.driver_class"));
-        dataSource.setUrl(env.getRequiredProperty("hibernate.connection.url"));
-        dataSource.setUsername(env.getRequiredProperty("hibernate.connection.username"));
-        dataSource.setPassword(env.getRequiredProperty("hibernate.connection.password"));
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(poolMetricsRegistry());
 
-        return dataSource;
+        return config;
     }
 
     private Properties hibernateProperties() {
         Properties properties = new Properties();
         properties.put("hibernate.dialect", env.getRequiredProperty("hibernate.dialect"));
         properties.put("hibernate.show_sql", env.getRequiredProperty("hibernate.show_sql"));
+        //ленивые коллекции догружаются пачками через IN (...), а не по одной
+        properties.put("hibernate.default_batch_fetch_size", env.getRequiredProperty("hibernate.default_batch_fetch_size"));
+        //INSERT/UPDATE уходят пачками, сортировка по сущностям не дает пачкам рваться
+        properties.put("hibernate.jdbc.batch_size", env.getRequiredProperty("hibernate.jdbc.batch_size"));
+        properties.put("hibernate.order_inserts", env.getRequiredProperty("hibernate.order_inserts"));
+        properties.put("hibernate.order_updates", env.getRequiredProperty("hibernate.order_updates"));
+        SecondLevelCache.configure(properties, hibernateCacheManager());
 
         return properties;
     }
@@ -1,8 +1,17 @@
 package org.example.controllers;
 
+import org.example.cache.ETags;
 import org.example.dto.ActorDTO;
+import org.example.dto.ActorFilterDTO;
+import org.example.dto.ActorPathDTO;
+import org.example.dto.LinkReportDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.VersionedDTO;
+import org.example.paging.PageLinks;
 import org.example.services.interfaces.ActorService;
+import org.example.streaming.DtoStreamWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,11 +20,17 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
@@ -23,26 +38,109 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 @RequestMapping("/actor")
 public class ActorController {
     private final ActorService actorService;
+    private final DtoStreamWriter dtoStreamWriter;
 
     @Autowired
-    public ActorController(ActorService actorService) {
+    public ActorController(ActorService actorService, DtoStreamWriter dtoStreamWriter) {
         this.actorService = actorService;
+        this.dtoStreamWriter = dtoStreamWriter;
     }
 
+    //фильтры из параметров запроса: ageFrom, ageTo, movieId и префикс name, для списка и для страниц
     @GetMapping
-    public ResponseEntity<List<ActorDTO>> getActors() {
+    public ResponseEntity<List<ActorDTO>> getActors(ActorFilterDTO filter) {
         return ResponseEntity
                 .status(OK)
                 .contentType(APPLICATION_JSON)
-                .body(actorService.findAll());
+                .body(actorService.findAll(filter));
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageDTO<ActorDTO>> getActorsPage(@RequestParam("limit") Integer limit,
+                                                           @RequestParam(value = "after", required = false) String after,
+                                                           @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                           ActorFilterDTO filter) {
+        PageDTO<ActorDTO> page = actorService.findPage(sort, after, limit, filter);
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .headers(PageLinks.next(page))
+                .body(page);
+    }
+
+    @GetMapping("/stream")
+    public void streamActors(@RequestParam(value = "format", defaultValue = "json") String format,
+                             HttpServletResponse response) throws IOException {
+        dtoStreamWriter.<ActorDTO>write(response, format, actorService::streamAll);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ActorDTO> getActor(@PathVariable("id") Long id) {
+    public ResponseEntity<ActorDTO> getActor(@PathVariable("id") Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = actorService.findVersion(id);
+            if (ETags.matches(ifNoneMatch, version))
+                return ResponseEntity
+                        .status(NOT_MODIFIED)
+                        .eTag(ETags.of(version))
+                        .build();
+        }
+        VersionedDTO<ActorDTO> actor = actorService.findVersionedById(id);
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .eTag(ETags.of(actor.getVersion()))
+                .body(actor.getBody());
+    }
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getSparseActors(@RequestParam("fields") String fields,
+                                                                     ActorFilterDTO filter) {
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .body(actorService.findAll(fields, filter));
+    }
+
+    @GetMapping(params = {"limit", "fields"})
+    public ResponseEntity<PageDTO<Map<String, Object>>> getSparseActorsPage(@RequestParam("limit") Integer limit,
+                                                                            @RequestParam(value = "after", required = false) String after,
+                                                                            @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                                            @RequestParam("fields") String fields,
+                                                                            ActorFilterDTO filter) {
+        PageDTO<Map<String, Object>> page = actorService.findPage(sort, after, limit, fields, filter);
         return ResponseEntity
                 .status(OK)
                 .contentType(APPLICATION_JSON)
-                .body(actorService.findById(id));
+                .headers(PageLinks.next(page))
+                .body(page);
+    }
+
+    @GetMapping(value = "/stream", params = "fields")
+    public void streamSparseActors(@RequestParam(value = "format", defaultValue = "json") String format,
+                                   @RequestParam("fields") String fields,
+                                   HttpServletResponse response) throws IOException {
+        dtoStreamWriter.<Map<String, Object>>write(response, format, consumer -> actorService.streamAll(fields, consumer));
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getSparseActor(@PathVariable("id") Long id,
+                                                              @RequestParam("fields") String fields,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = actorService.findVersion(id);
+            if (ETags.matches(ifNoneMatch, version))
+                return ResponseEntity
+                        .status(NOT_MODIFIED)
+                        .eTag(ETags.of(version))
+                        .build();
+        }
+        VersionedDTO<Map<String, Object>> actor = actorService.findVersionedById(id, fields);
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .eTag(ETags.of(actor.getVersion()))
+                .body(actor.getBody());
     }
 
     @PostMapping
@@ -61,6 +159,23 @@ public class ActorController {
                 .build();
     }
 
+    @PostMapping("/{id}/movies")
+    public ResponseEntity<LinkReportDTO> addMovies(@PathVariable("id") Long id, @RequestBody List<Long> movieIds) {
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .body(actorService.addMovies(id, movieIds));
+    }
+
+    //кратчайшая цепочка через общие фильмы, считается по графу в памяти
+    @GetMapping("/{id}/path/{otherId}")
+    public ResponseEntity<ActorPathDTO> getPath(@PathVariable("id") Long id, @PathVariable("otherId") Long otherId) {
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .body(actorService.findPath(id, otherId));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<HttpStatus> delete(@PathVariable("id") Long id) {
         actorService.delete(id);
@@ -0,0 +1,36 @@
+package org.example.controllers;
+
+import org.example.dto.AutocompleteHitDTO;
+import org.example.services.interfaces.AutocompleteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@RestController
+@RequestMapping("/autocomplete")
+public class AutocompleteController {
+    private final AutocompleteService autocompleteService;
+
+    @Autowired
+    public AutocompleteController(AutocompleteService autocompleteService) {
+        this.autocompleteService = autocompleteService;
+    }
+
+    //фильмы, актеры и режиссеры, чье имя начинается с prefix без учета регистра, по алфавиту
+    @GetMapping
+    public ResponseEntity<List<AutocompleteHitDTO>> complete(@RequestParam(value = "prefix", required = false) String prefix,
+                                                             @RequestParam(value = "limit", defaultValue = "10") Integer limit) {
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .body(autocompleteService.complete(prefix, limit));
+    }
+}
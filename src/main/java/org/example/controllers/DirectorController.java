@@ -1,8 +1,15 @@
 package org.example.controllers;
 
+import org.example.cache.ETags;
 import org.example.dto.DirectorDTO;
+import org.example.dto.DirectorFilterDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.VersionedDTO;
+import org.example.paging.PageLinks;
 import org.example.services.interfaces.DirectorService;
+import org.example.streaming.DtoStreamWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,11 +18,17 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
@@ -23,26 +36,109 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 @RequestMapping("/director")
 public class DirectorController {
     private final DirectorService directorService;
+    private final DtoStreamWriter dtoStreamWriter;
 
     @Autowired
-    public DirectorController(DirectorService directorService) {
+    public DirectorController(DirectorService directorService, DtoStreamWriter dtoStreamWriter) {
         this.directorService = directorService;
+        this.dtoStreamWriter = dtoStreamWriter;
     }
 
+    //фильтры из параметров запроса: ageFrom, ageTo и префикс name, для списка и для страниц
     @GetMapping
-    public ResponseEntity<List<DirectorDTO>> getDirectors() {
+    public ResponseEntity<List<DirectorDTO>> getDirectors(DirectorFilterDTO filter) {
         return ResponseEntity
                 .status(OK)
                 .contentType(APPLICATION_JSON)
-                .body(directorService.findAll());
+                .body(directorService.findAll(filter));
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageDTO<DirectorDTO>> getDirectorsPage(@RequestParam("limit") Integer limit,
+                                                                 @RequestParam(value = "after", required = false) String after,
+                                                                 @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                                 DirectorFilterDTO filter) {
+        PageDTO<DirectorDTO> page = directorService.findPage(sort, after, limit, filter);
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .headers(PageLinks.next(page))
+                .body(page);
+    }
+
+    @GetMapping("/stream")
+    public void streamDirectors(@RequestParam(value = "format", defaultValue = "json") String format,
+                                HttpServletResponse response) throws IOException {
+        dtoStreamWriter.<DirectorDTO>write(response, format, directorService::streamAll);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<DirectorDTO> getDirector(@PathVariable("id") Long id) {
+    public ResponseEntity<DirectorDTO> getDirector(@PathVariable("id") Long id,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = directorService.findVersion(id);
+            if (ETags.matches(ifNoneMatch, version))
+                return ResponseEntity
+                        .status(NOT_MODIFIED)
+                        .eTag(ETags.of(version))
+                        .build();
+        }
+        VersionedDTO<DirectorDTO> director = directorService.findVersionedById(id);
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .eTag(ETags.of(director.getVersion()))
+                .body(director.getBody());
+    }
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getSparseDirectors(@RequestParam("fields") String fields,
+                                                                        DirectorFilterDTO filter) {
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .body(directorService.findAll(fields, filter));
+    }
+
+    @GetMapping(params = {"limit", "fields"})
+    public ResponseEntity<PageDTO<Map<String, Object>>> getSparseDirectorsPage(@RequestParam("limit") Integer limit,
+                                                                               @RequestParam(value = "after", required = false) String after,
+                                                                               @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                                               @RequestParam("fields") String fields,
+                                                                               DirectorFilterDTO filter) {
+        PageDTO<Map<String, Object>> page = directorService.findPage(sort, after, limit, fields, filter);
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .headers(PageLinks.next(page))
+                .body(page);
+    }
+
+    @GetMapping(value = "/stream", params = "fields")
+    public void streamSparseDirectors(@RequestParam(value = "format", defaultValue = "json") String format,
+                                      @RequestParam("fields") String fields,
+                                      HttpServletResponse response) throws IOException {
+        dtoStreamWriter.<Map<String, Object>>write(response, format, consumer -> directorService.streamAll(fields, consumer));
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getSparseDirector(@PathVariable("id") Long id,
+                                                                 @RequestParam("fields") String fields,
+                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = directorService.findVersion(id);
+            if (ETags.matches(ifNoneMatch, version))
+                return ResponseEntity
+                        .status(NOT_MODIFIED)
+                        .eTag(ETags.of(version))
+                        .build();
+        }
+        VersionedDTO<Map<String, Object>> director = directorService.findVersionedById(id, fields);
         return ResponseEntity
                 .status(OK)
                 .contentType(APPLICATION_JSON)
-                .body(directorService.findById(id));
+                .eTag(ETags.of(director.getVersion()))
+                .body(director.getBody());
     }
 
     @PostMapping
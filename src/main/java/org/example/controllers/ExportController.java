@@ -0,0 +1,72 @@
+package org.example.controllers;
+
+import org.example.bulk.ExportFormat;
+import org.example.bulk.ExportSource;
+import org.example.services.interfaces.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.VARY;
+
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    //Сжимаем на лету, если клиент прислал Accept-Encoding: gzip
+    @GetMapping("/{type}")
+    public void export(@PathVariable("type") String type,
+                       @RequestParam(value = "format", defaultValue = "csv") String format,
+                       @RequestHeader(value = ACCEPT_ENCODING, required = false) String acceptEncoding,
+                       HttpServletResponse response) throws IOException {
+        ExportSource source = ExportSource.of(type);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(UTF_8.name());
+        response.setHeader(CONTENT_DISPOSITION,
+                "attachment; filename=\"" + source.getType() + "." + exportFormat.getName() + "\"");
+        response.setHeader(VARY, ACCEPT_ENCODING);
+        if (gzip)
+            response.setHeader(CONTENT_ENCODING, "gzip");
+
+        OutputStream buffered = new BufferedOutputStream(response.getOutputStream(), BUFFER_SIZE);
+        try (OutputStream out = gzip ? new GZIPOutputStream(buffered, BUFFER_SIZE) : buffered) {
+            exportService.export(source, exportFormat, out);
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip"))
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+}
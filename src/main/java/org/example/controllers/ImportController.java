@@ -0,0 +1,38 @@
+package org.example.controllers;
+
+import org.example.dto.ImportReportDTO;
+import org.example.services.interfaces.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+    private final ImportService importService;
+
+    @Autowired
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    //Тело запроса читается потоком и сразу уходит в COPY, целиком в памяти не держим
+    @PostMapping("/{type}")
+    public ResponseEntity<ImportReportDTO> importData(@PathVariable("type") String type,
+                                                      @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                      InputStream body) {
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .body(importService.importData(type, format, body));
+    }
+}
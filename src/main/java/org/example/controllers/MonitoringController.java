@@ -0,0 +1,45 @@
+package org.example.controllers;
+
+import org.example.dto.CacheStatsDTO;
+import org.example.dto.PoolStatsDTO;
+import org.example.monitoring.CacheStatistics;
+import org.example.monitoring.PoolMetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@RestController
+@RequestMapping("/monitoring")
+public class MonitoringController {
+    private final PoolMetricsRegistry poolMetricsRegistry;
+    private final CacheStatistics cacheStatistics;
+
+    @Autowired
+    public MonitoringController(PoolMetricsRegistry poolMetricsRegistry, CacheStatistics cacheStatistics) {
+        this.poolMetricsRegistry = poolMetricsRegistry;
+        this.cacheStatistics = cacheStatistics;
+    }
+
+    @GetMapping("/pool")
+    public ResponseEntity<List<PoolStatsDTO>> getPoolStats() {
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .body(poolMetricsRegistry.snapshot());
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .body(cacheStatistics.snapshot());
+    }
+}
@@ -1,8 +1,17 @@
 package org.example.controllers;
 
+import org.example.cache.ETags;
+import org.example.dto.LinkReportDTO;
 import org.example.dto.MovieDTO;
+import org.example.dto.MovieFilterDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.SimilarMovieDTO;
+import org.example.dto.VersionedDTO;
+import org.example.paging.PageLinks;
 import org.example.services.interfaces.MovieService;
+import org.example.streaming.DtoStreamWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -12,37 +21,126 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/movie")
 public class MovieController {
     private final MovieService movieService;
+    private final DtoStreamWriter dtoStreamWriter;
 
     @Autowired
-    public MovieController(MovieService movieService) {
+    public MovieController(MovieService movieService, DtoStreamWriter dtoStreamWriter) {
         this.movieService = movieService;
+        this.dtoStreamWriter = dtoStreamWriter;
     }
 
 
+    //фильтры из параметров запроса: yearFrom, yearTo, directorId, actorId и префикс name, для списка и для страниц
     @GetMapping
-    public ResponseEntity<List<MovieDTO>> getMovies() {
+    public ResponseEntity<List<MovieDTO>> getMovies(MovieFilterDTO filter) {
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(movieService.findAll());
+                .body(movieService.findAll(filter));
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageDTO<MovieDTO>> getMoviesPage(@RequestParam("limit") Integer limit,
+                                                           @RequestParam(value = "after", required = false) String after,
+                                                           @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                           MovieFilterDTO filter) {
+        PageDTO<MovieDTO> page = movieService.findPage(sort, after, limit, filter);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(PageLinks.next(page))
+                .body(page);
+    }
+
+    @GetMapping("/stream")
+    public void streamMovies(@RequestParam(value = "format", defaultValue = "json") String format,
+                             HttpServletResponse response) throws IOException {
+        dtoStreamWriter.<MovieDTO>write(response, format, movieService::streamAll);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<MovieDTO> getMovie(@PathVariable("id") Long id) {
+    public ResponseEntity<byte[]> getMovie(@PathVariable("id") Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = movieService.findVersion(id);
+            if (ETags.matches(ifNoneMatch, version))
+                return ResponseEntity
+                        .status(HttpStatus.NOT_MODIFIED)
+                        .eTag(ETags.of(version))
+                        .build();
+        }
+        //тело отдается байтами как есть, той же формы, что MovieDTO от Jackson
+        VersionedDTO<byte[]> movie = movieService.findDocumentById(id);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(ETags.of(movie.getVersion()))
+                .body(movie.getBody());
+    }
+
+    //?fields=id,name: в SQL только эти колонки, вложенный список читается, только если он указан
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getSparseMovies(@RequestParam("fields") String fields,
+                                                                     MovieFilterDTO filter) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(movieService.findAll(fields, filter));
+    }
+
+    @GetMapping(params = {"limit", "fields"})
+    public ResponseEntity<PageDTO<Map<String, Object>>> getSparseMoviesPage(@RequestParam("limit") Integer limit,
+                                                                            @RequestParam(value = "after", required = false) String after,
+                                                                            @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                                            @RequestParam("fields") String fields,
+                                                                            MovieFilterDTO filter) {
+        PageDTO<Map<String, Object>> page = movieService.findPage(sort, after, limit, fields, filter);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(movieService.findById(id));
+                .headers(PageLinks.next(page))
+                .body(page);
+    }
+
+    @GetMapping(value = "/stream", params = "fields")
+    public void streamSparseMovies(@RequestParam(value = "format", defaultValue = "json") String format,
+                                   @RequestParam("fields") String fields,
+                                   HttpServletResponse response) throws IOException {
+        dtoStreamWriter.<Map<String, Object>>write(response, format, consumer -> movieService.streamAll(fields, consumer));
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getSparseMovie(@PathVariable("id") Long id,
+                                                              @RequestParam("fields") String fields,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = movieService.findVersion(id);
+            if (ETags.matches(ifNoneMatch, version))
+                return ResponseEntity
+                        .status(HttpStatus.NOT_MODIFIED)
+                        .eTag(ETags.of(version))
+                        .build();
+        }
+        VersionedDTO<Map<String, Object>> movie = movieService.findVersionedById(id, fields);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(ETags.of(movie.getVersion()))
+                .body(movie.getBody());
     }
 
     @PostMapping
@@ -77,4 +175,30 @@ public class MovieController {
                 .ok()
                 .build();
     }
+
+    @DeleteMapping("/{id}/actors/{actorId}")
+    public ResponseEntity<HttpStatus> deleteLink(@PathVariable("id") Long id, @PathVariable("actorId") Long actorId) {
+        movieService.deleteLinkMovieActor(id, actorId);
+        return ResponseEntity
+                .ok()
+                .build();
+    }
+
+    //похожие по составу фильмы, считаются по графу в памяти
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarMovieDTO>> getSimilar(@PathVariable("id") Long id,
+                                                            @RequestParam(value = "limit", defaultValue = "10") Integer limit) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(movieService.findSimilar(id, limit));
+    }
+
+    @PostMapping("/{id}/actors")
+    public ResponseEntity<LinkReportDTO> addActors(@PathVariable("id") Long id, @RequestBody List<Long> actorIds) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(movieService.addActors(id, actorIds));
+    }
 }
@@ -0,0 +1,39 @@
+package org.example.controllers;
+
+import org.example.dto.PageDTO;
+import org.example.dto.SearchHitDTO;
+import org.example.paging.PageLinks;
+import org.example.services.interfaces.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+    private final SearchService searchService;
+
+    @Autowired
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    //фильмы, актеры и режиссеры вперемешку по убыванию релевантности; следующая страница по курсору after
+    @GetMapping
+    public ResponseEntity<PageDTO<SearchHitDTO>> search(@RequestParam(value = "q", required = false) String q,
+                                                        @RequestParam(value = "limit", defaultValue = "20") Integer limit,
+                                                        @RequestParam(value = "after", required = false) String after) {
+        PageDTO<SearchHitDTO> page = searchService.search(q, after, limit);
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .headers(PageLinks.next(page))
+                .body(page);
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.controllers;
+
+import org.example.dto.CastStatsDTO;
+import org.example.dto.StatsBucketDTO;
+import org.example.dto.StatsDTO;
+import org.example.services.interfaces.StatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+//Каждый ответ несет consistency, asOf и rebuiltAt, что они гарантируют, описано в StatsDTO
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+    private final StatsService statsService;
+
+    @Autowired
+    public StatsController(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @GetMapping("/movies-per-year")
+    public ResponseEntity<StatsDTO<List<StatsBucketDTO>>> getMoviesPerYear() {
+        return ok(statsService.moviesPerYear());
+    }
+
+    //режиссеры с наибольшим числом фильмов
+    @GetMapping("/movies-per-director")
+    public ResponseEntity<StatsDTO<List<StatsBucketDTO>>> getMoviesPerDirector(
+            @RequestParam(value = "limit", defaultValue = "20") Integer limit) {
+        return ok(statsService.moviesPerDirector(limit));
+    }
+
+    @GetMapping("/cast-size")
+    public ResponseEntity<StatsDTO<CastStatsDTO>> getCastSize() {
+        return ok(statsService.castSize());
+    }
+
+    @GetMapping("/actor-ages")
+    public ResponseEntity<StatsDTO<List<StatsBucketDTO>>> getActorAges(
+            @RequestParam(value = "bucket", defaultValue = "10") Integer bucket) {
+        return ok(statsService.actorAges(bucket));
+    }
+
+    private static <T> ResponseEntity<T> ok(T body) {
+        return ResponseEntity
+                .status(OK)
+                .contentType(APPLICATION_JSON)
+                .body(body);
+    }
+}
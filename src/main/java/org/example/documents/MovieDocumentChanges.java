@@ -0,0 +1,58 @@
+package org.example.documents;
+
+import org.example.repositories.jdbc.MovieDocumentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+//Фильмы, чьи документы в movie_document устарели. За транзакцию id копятся и пересобираются перед commit одним
+//запросом, после сброса Hibernate: иначе запрос не увидел бы еще не записанные вставки и изменения сущностей
+@Component
+public class MovieDocumentChanges {
+    private final MovieDocumentRepository movieDocumentRepository;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public MovieDocumentChanges(MovieDocumentRepository movieDocumentRepository, EntityManager entityManager) {
+        this.movieDocumentRepository = movieDocumentRepository;
+        this.entityManager = entityManager;
+    }
+
+    public void changed(Long movieId) {
+        changed(List.of(movieId));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void changed(Collection<Long> movieIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            movieDocumentRepository.refresh(movieIds);
+            return;
+        }
+        Set<Long> changed = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<Long> created = new TreeSet<>();
+            changed = created;
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    entityManager.flush();
+                    movieDocumentRepository.refresh(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(MovieDocumentChanges.this);
+                }
+            });
+        }
+        changed.addAll(movieIds);
+    }
+}
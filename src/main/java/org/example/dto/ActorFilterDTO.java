@@ -0,0 +1,66 @@
+package org.example.dto;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+public class ActorFilterDTO {
+    private Integer ageFrom;
+    private Integer ageTo;
+    private Long movieId;
+    private String name;
+
+    public ActorFilterDTO() {
+    }
+
+    public Integer getAgeFrom() {
+        return ageFrom;
+    }
+
+    public void setAgeFrom(Integer ageFrom) {
+        this.ageFrom = ageFrom;
+    }
+
+    public Integer getAgeTo() {
+        return ageTo;
+    }
+
+    public void setAgeTo(Integer ageTo) {
+        this.ageTo = ageTo;
+    }
+
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ActorFilterDTO that = (ActorFilterDTO) o;
+        return Objects.equals(ageFrom, that.ageFrom) && Objects.equals(ageTo, that.ageTo) && Objects.equals(movieId, that.movieId) && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ageFrom, ageTo, movieId, name);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
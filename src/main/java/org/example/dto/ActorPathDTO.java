@@ -0,0 +1,66 @@
+package org.example.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+//Цепочка между актерами: movieIds[i] связывает actorIds[i] и actorIds[i + 1]; degrees это число фильмов в ней,
+//null, если актеры не связаны
+public class ActorPathDTO {
+    private Integer degrees;
+    private List<Long> actorIds;
+    private List<Long> movieIds;
+
+    public ActorPathDTO() {
+    }
+
+    public ActorPathDTO(Integer degrees, List<Long> actorIds, List<Long> movieIds) {
+        this.degrees = degrees;
+        this.actorIds = actorIds;
+        this.movieIds = movieIds;
+    }
+
+    public Integer getDegrees() {
+        return degrees;
+    }
+
+    public void setDegrees(Integer degrees) {
+        this.degrees = degrees;
+    }
+
+    public List<Long> getActorIds() {
+        return actorIds;
+    }
+
+    public void setActorIds(List<Long> actorIds) {
+        this.actorIds = actorIds;
+    }
+
+    public List<Long> getMovieIds() {
+        return movieIds;
+    }
+
+    public void setMovieIds(List<Long> movieIds) {
+        this.movieIds = movieIds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ActorPathDTO that = (ActorPathDTO) o;
+        return Objects.equals(degrees, that.degrees) && Objects.equals(actorIds, that.actorIds) && Objects.equals(movieIds, that.movieIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(degrees, actorIds, movieIds);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.dto;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+public class AutocompleteHitDTO {
+    private String type;
+    private Long id;
+    private String name;
+
+    public AutocompleteHitDTO() {
+    }
+
+    public AutocompleteHitDTO(String type, Long id, String name) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AutocompleteHitDTO that = (AutocompleteHitDTO) o;
+        return Objects.equals(type, that.type) && Objects.equals(id, that.id) && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, id, name);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.dto;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+//averageCastSize это links / movies, null, если фильмов нет
+public class CastStatsDTO {
+    private Long movies;
+    private Long links;
+    private Double averageCastSize;
+
+    public CastStatsDTO() {
+    }
+
+    public CastStatsDTO(Long movies, Long links, Double averageCastSize) {
+        this.movies = movies;
+        this.links = links;
+        this.averageCastSize = averageCastSize;
+    }
+
+    public Long getMovies() {
+        return movies;
+    }
+
+    public void setMovies(Long movies) {
+        this.movies = movies;
+    }
+
+    public Long getLinks() {
+        return links;
+    }
+
+    public void setLinks(Long links) {
+        this.links = links;
+    }
+
+    public Double getAverageCastSize() {
+        return averageCastSize;
+    }
+
+    public void setAverageCastSize(Double averageCastSize) {
+        this.averageCastSize = averageCastSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CastStatsDTO that = (CastStatsDTO) o;
+        return Objects.equals(movies, that.movies) && Objects.equals(links, that.links) && Objects.equals(averageCastSize, that.averageCastSize);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(movies, links, averageCastSize);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+public class ImportBatchDTO {
+    private Integer batch;
+    private Integer rows;
+    private Integer imported;
+    private Integer failed;
+    private List<ImportErrorDTO> errors;
+
+    public ImportBatchDTO() {
+    }
+
+    public ImportBatchDTO(Integer batch, Integer rows, Integer imported, Integer failed, List<ImportErrorDTO> errors) {
+        this.batch = batch;
+        this.rows = rows;
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    public Integer getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Integer batch) {
+        this.batch = batch;
+    }
+
+    public Integer getRows() {
+        return rows;
+    }
+
+    public void setRows(Integer rows) {
+        this.rows = rows;
+    }
+
+    public Integer getImported() {
+        return imported;
+    }
+
+    public void setImported(Integer imported) {
+        this.imported = imported;
+    }
+
+    public Integer getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Integer failed) {
+        this.failed = failed;
+    }
+
+    public List<ImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ImportBatchDTO importBatchDTO = (ImportBatchDTO) o;
+        return Objects.equals(batch, importBatchDTO.batch) && Objects.equals(rows, importBatchDTO.rows) && Objects.equals(imported, importBatchDTO.imported) && Objects.equals(failed, importBatchDTO.failed) && Objects.equals(errors, importBatchDTO.errors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(batch, rows, imported, failed, errors);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
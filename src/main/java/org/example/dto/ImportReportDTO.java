@@ -0,0 +1,84 @@
+package org.example.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+public class ImportReportDTO {
+    private String type;
+    private Long rows;
+    private Long imported;
+    private Long failed;
+    private List<ImportBatchDTO> batches;
+
+    public ImportReportDTO() {
+    }
+
+    public ImportReportDTO(String type, Long rows, Long imported, Long failed, List<ImportBatchDTO> batches) {
+        this.type = type;
+        this.rows = rows;
+        this.imported = imported;
+        this.failed = failed;
+        this.batches = batches;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getRows() {
+        return rows;
+    }
+
+    public void setRows(Long rows) {
+        this.rows = rows;
+    }
+
+    public Long getImported() {
+        return imported;
+    }
+
+    public void setImported(Long imported) {
+        this.imported = imported;
+    }
+
+    public Long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Long failed) {
+        this.failed = failed;
+    }
+
+    public List<ImportBatchDTO> getBatches() {
+        return batches;
+    }
+
+    public void setBatches(List<ImportBatchDTO> batches) {
+        this.batches = batches;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ImportReportDTO importReportDTO = (ImportReportDTO) o;
+        return Objects.equals(type, importReportDTO.type) && Objects.equals(rows, importReportDTO.rows) && Objects.equals(imported, importReportDTO.imported) && Objects.equals(failed, importReportDTO.failed) && Objects.equals(batches, importReportDTO.batches);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, rows, imported, failed, batches);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
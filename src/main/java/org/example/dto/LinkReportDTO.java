@@ -0,0 +1,64 @@
+package org.example.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+public class LinkReportDTO {
+    private List<Long> created;
+    private List<Long> existing;
+    private List<Long> unknown;
+
+    public LinkReportDTO() {
+    }
+
+    public LinkReportDTO(List<Long> created, List<Long> existing, List<Long> unknown) {
+        this.created = created;
+        this.existing = existing;
+        this.unknown = unknown;
+    }
+
+    public List<Long> getCreated() {
+        return created;
+    }
+
+    public void setCreated(List<Long> created) {
+        this.created = created;
+    }
+
+    public List<Long> getExisting() {
+        return existing;
+    }
+
+    public void setExisting(List<Long> existing) {
+        this.existing = existing;
+    }
+
+    public List<Long> getUnknown() {
+        return unknown;
+    }
+
+    public void setUnknown(List<Long> unknown) {
+        this.unknown = unknown;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LinkReportDTO linkReportDTO = (LinkReportDTO) o;
+        return Objects.equals(created, linkReportDTO.created) && Objects.equals(existing, linkReportDTO.existing) && Objects.equals(unknown, linkReportDTO.unknown);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(created, existing, unknown);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.dto;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+public class PoolStatsDTO {
+    private String poolName;
+    private Integer totalConnections;
+    private Integer activeConnections;
+    private Integer idleConnections;
+    private Integer pendingThreads;
+    private Integer maxConnections;
+    private Integer minConnections;
+    private Double utilization;
+    private Long acquireCount;
+    private Double averageAcquireMillis;
+    private Double maxAcquireMillis;
+    private Double averageUsageMillis;
+    private Long timeoutCount;
+
+    public PoolStatsDTO() {
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void setPoolName(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public Integer getTotalConnections() {
+        return totalConnections;
+    }
+
+    public void setTotalConnections(Integer totalConnections) {
+        this.totalConnections = totalConnections;
+    }
+
+    public Integer getActiveConnections() {
+        return activeConnections;
+    }
+
+    public void setActiveConnections(Integer activeConnections) {
+        this.activeConnections = activeConnections;
+    }
+
+    public Integer getIdleConnections() {
+        return idleConnections;
+    }
+
+    public void setIdleConnections(Integer idleConnections) {
+        this.idleConnections = idleConnections;
+    }
+
+    public Integer getPendingThreads() {
+        return pendingThreads;
+    }
+
+    public void setPendingThreads(Integer pendingThreads) {
+        this.pendingThreads = pendingThreads;
+    }
+
+    public Integer getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(Integer maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public Integer getMinConnections() {
+        return minConnections;
+    }
+
+    public void setMinConnections(Integer minConnections) {
+        this.minConnections = minConnections;
+    }
+
+    public Double getUtilization() {
+        return utilization;
+    }
+
+    public void setUtilization(Double utilization) {
+        this.utilization = utilization;
+    }
+
+    public Long getAcquireCount() {
+        return acquireCount;
+    }
+
+    public void setAcquireCount(Long acquireCount) {
+        this.acquireCount = acquireCount;
+    }
+
+    public Double getAverageAcquireMillis() {
+        return averageAcquireMillis;
+    }
+
+    public void setAverageAcquireMillis(Double averageAcquireMillis) {
+        this.averageAcquireMillis = averageAcquireMillis;
+    }
+
+    public Double getMaxAcquireMillis() {
+        return maxAcquireMillis;
+    }
+
+    public void setMaxAcquireMillis(Double maxAcquireMillis) {
+        this.maxAcquireMillis = maxAcquireMillis;
+    }
+
+    public Double getAverageUsageMillis() {
+        return averageUsageMillis;
+    }
+
+    public void setAverageUsageMillis(Double averageUsageMillis) {
+        this.averageUsageMillis = averageUsageMillis;
+    }
+
+    public Long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public void setTimeoutCount(Long timeoutCount) {
+        this.timeoutCount = timeoutCount;
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
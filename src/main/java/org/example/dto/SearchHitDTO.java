@@ -0,0 +1,74 @@
+package org.example.dto;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+//Одна находка /search: type это movie, actor или director, id ведет на /{type}/{id}
+public class SearchHitDTO {
+    private String type;
+    private Long id;
+    private String name;
+    private Double rank;
+
+    public SearchHitDTO() {
+    }
+
+    public SearchHitDTO(String type, Long id, String name, Double rank) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.rank = rank;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Double getRank() {
+        return rank;
+    }
+
+    public void setRank(Double rank) {
+        this.rank = rank;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SearchHitDTO that = (SearchHitDTO) o;
+        return Objects.equals(type, that.type) && Objects.equals(id, that.id) && Objects.equals(name, that.name) && Objects.equals(rank, that.rank);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, id, name, rank);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
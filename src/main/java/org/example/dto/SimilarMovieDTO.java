@@ -0,0 +1,64 @@
+package org.example.dto;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+//Похожий фильм: similarity это коэффициент Жаккара составов, sharedActors число общих актеров
+public class SimilarMovieDTO {
+    private Long id;
+    private Integer sharedActors;
+    private Double similarity;
+
+    public SimilarMovieDTO() {
+    }
+
+    public SimilarMovieDTO(Long id, Integer sharedActors, Double similarity) {
+        this.id = id;
+        this.sharedActors = sharedActors;
+        this.similarity = similarity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getSharedActors() {
+        return sharedActors;
+    }
+
+    public void setSharedActors(Integer sharedActors) {
+        this.sharedActors = sharedActors;
+    }
+
+    public Double getSimilarity() {
+        return similarity;
+    }
+
+    public void setSimilarity(Double similarity) {
+        this.similarity = similarity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SimilarMovieDTO that = (SimilarMovieDTO) o;
+        return Objects.equals(id, that.id) && Objects.equals(sharedActors, that.sharedActors) && Objects.equals(similarity, that.similarity);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, sharedActors, similarity);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
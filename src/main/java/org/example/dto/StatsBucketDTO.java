@@ -0,0 +1,64 @@
+package org.example.dto;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+//Строка распределения: key это год, id режиссера или нижняя граница возраста, name только у режиссеров и возрастов
+public class StatsBucketDTO {
+    private Long key;
+    private String name;
+    private Long count;
+
+    public StatsBucketDTO() {
+    }
+
+    public StatsBucketDTO(Long key, String name, Long count) {
+        this.key = key;
+        this.name = name;
+        this.count = count;
+    }
+
+    public Long getKey() {
+        return key;
+    }
+
+    public void setKey(Long key) {
+        this.key = key;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StatsBucketDTO that = (StatsBucketDTO) o;
+        return Objects.equals(key, that.key) && Objects.equals(name, that.name) && Objects.equals(count, that.count);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, name, count);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
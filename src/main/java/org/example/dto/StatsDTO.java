@@ -0,0 +1,75 @@
+package org.example.dto;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+//Агрегат и его свежесть: consistency transactional значит, что в data учтена каждая запись сервисов,
+//закоммиченная до asOf; импорт через COPY учитывается пересчетом в момент rebuiltAt, после конца импорта
+public class StatsDTO<T> {
+    private T data;
+    private String consistency;
+    private String asOf;
+    private String rebuiltAt;
+
+    public StatsDTO() {
+    }
+
+    public StatsDTO(T data, String consistency, String asOf, String rebuiltAt) {
+        this.data = data;
+        this.consistency = consistency;
+        this.asOf = asOf;
+        this.rebuiltAt = rebuiltAt;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    public void setData(T data) {
+        this.data = data;
+    }
+
+    public String getConsistency() {
+        return consistency;
+    }
+
+    public void setConsistency(String consistency) {
+        this.consistency = consistency;
+    }
+
+    public String getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(String asOf) {
+        this.asOf = asOf;
+    }
+
+    public String getRebuiltAt() {
+        return rebuiltAt;
+    }
+
+    public void setRebuiltAt(String rebuiltAt) {
+        this.rebuiltAt = rebuiltAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StatsDTO<?> that = (StatsDTO<?>) o;
+        return Objects.equals(data, that.data) && Objects.equals(consistency, that.consistency) && Objects.equals(asOf, that.asOf) && Objects.equals(rebuiltAt, that.rebuiltAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(data, consistency, asOf, rebuiltAt);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.dto;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
+import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+
+//DTO вместе с version сущности, из которой он собран: по ней строится ETag
+public class VersionedDTO<T> {
+    private Long version;
+    private T body;
+
+    public VersionedDTO() {
+    }
+
+    public VersionedDTO(Long version, T body) {
+        this.version = version;
+        this.body = body;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public T getBody() {
+        return body;
+    }
+
+    public void setBody(T body) {
+        this.body = body;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VersionedDTO<?> that = (VersionedDTO<?>) o;
+        return Objects.equals(version, that.version) && Objects.equals(body, that.body);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, body);
+    }
+
+    @Override
+    public String toString() {
+        return reflectionToString(this, JSON_STYLE);
+    }
+}
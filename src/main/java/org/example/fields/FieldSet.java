@@ -0,0 +1,86 @@
+package org.example.fields;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+//Поля из ?fields=, всегда в порядке полей DTO, чтобы JSON не зависел от порядка в запросе
+public final class FieldSet {
+    private final SparseResource resource;
+    private final List<String> fields;
+
+    private FieldSet(SparseResource resource, List<String> fields) {
+        this.resource = resource;
+        this.fields = fields;
+    }
+
+    public static FieldSet parse(SparseResource resource, String fields) {
+        Set<String> requested = fields == null ? Set.of() : Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        if (requested.isEmpty())
+            throw new ResponseStatusException(BAD_REQUEST, "Укажите в fields через запятую хотя бы одно из полей " +
+                    resource.getFields());
+        for (String field : requested)
+            if (!resource.getFields().contains(field))
+                throw new ResponseStatusException(BAD_REQUEST, "Неизвестное поле '" + field +
+                        "', для " + resource.getType() + " допустимы " + resource.getFields());
+        return of(resource, requested);
+    }
+
+    //Те же поля плюс служебные, например нужные для курсора страницы
+    public FieldSet with(String... extra) {
+        Set<String> union = new HashSet<>(fields);
+        union.addAll(Arrays.asList(extra));
+        return union.size() == fields.size() ? this : of(resource, union);
+    }
+
+    public SparseResource getResource() {
+        return resource;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public boolean includesChildren() {
+        return fields.contains(resource.getChildField());
+    }
+
+    //Оставляет в строке, собранной по более широкому набору, только эти поля
+    public Map<String, Object> trim(Map<String, Object> row) {
+        if (row.size() == fields.size())
+            return row;
+        Map<String, Object> trimmed = new LinkedHashMap<>();
+        for (String field : fields)
+            trimmed.put(field, row.get(field));
+        return trimmed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FieldSet fieldSet = (FieldSet) o;
+        return resource == fieldSet.resource && Objects.equals(fields, fieldSet.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(resource, fields);
+    }
+
+    private static FieldSet of(SparseResource resource, Set<String> fields) {
+        return new FieldSet(resource, resource.getFields().stream().filter(fields::contains).toList());
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.fields;
+
+import org.example.dto.ActorDTO;
+import org.example.dto.MovieDTO;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Что можно запросить через ?fields=: поля DTO в порядке сериализации и их колонки,
+//вложенный список подтягивается join'ом только если его запросили, его элементы отдаются целиком
+public enum SparseResource {
+    MOVIES("movies", "movie", "movie_id",
+            columns("directorId", "director_id", "name", "name", "year", "year_of_production"),
+            "actorList",
+            "left join movie_actor l on l.movie_id = t.movie_id left join actor c on c.actor_id = l.actor_id",
+            "c.actor_id as c_id, c.name as c_name, c.age as c_age",
+            (rs, rowNum) -> new ActorDTO(rs.getLong("c_id"), rs.getString("c_name"), rs.getInt("c_age"))),
+
+    ACTORS("actors", "actor", "actor_id",
+            columns("name", "name", "age", "age"),
+            "movieList",
+            "left join movie_actor l on l.actor_id = t.actor_id left join movie c on c.movie_id = l.movie_id",
+            movieColumns(),
+            SparseResource::movie),
+
+    DIRECTORS("directors", "director", "director_id",
+            columns("name", "name", "age", "age"),
+            "movieList",
+            "left join movie c on c.director_id = t.director_id",
+            movieColumns(),
+            SparseResource::movie);
+
+    public static final String ID = "id";
+
+    private final String type;
+    private final String table;
+    private final String idColumn;
+    private final Map<String, String> columns;
+    private final String childField;
+    private final String childJoin;
+    private final String childColumns;
+    private final RowMapper<?> childMapper;
+    private final List<String> fields;
+
+    SparseResource(String type, String table, String idColumn, Map<String, String> columns, String childField,
+                   String childJoin, String childColumns, RowMapper<?> childMapper) {
+        this.type = type;
+        this.table = table;
+        this.idColumn = idColumn;
+        this.columns = columns;
+        this.childField = childField;
+        this.childJoin = childJoin;
+        this.childColumns = childColumns;
+        this.childMapper = childMapper;
+        List<String> fields = new ArrayList<>();
+        fields.add(ID);
+        fields.addAll(columns.keySet());
+        fields.add(childField);
+        this.fields = List.copyOf(fields);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    public String columnOf(String field) {
+        return columns.get(field);
+    }
+
+    public String getChildField() {
+        return childField;
+    }
+
+    public String getChildJoin() {
+        return childJoin;
+    }
+
+    public String getChildColumns() {
+        return childColumns;
+    }
+
+    //элемент вложенного списка из текущей строки join'а, колонки c_*
+    public RowMapper<?> getChildMapper() {
+        return childMapper;
+    }
+
+    private static Map<String, String> columns(String... fieldsAndColumns) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (int i = 0; i < fieldsAndColumns.length; i += 2)
+            columns.put(fieldsAndColumns[i], fieldsAndColumns[i + 1]);
+        return columns;
+    }
+
+    private static String movieColumns() {
+        return "c.movie_id as c_id, c.director_id as c_director_id, c.name as c_name, c.year_of_production as c_year";
+    }
+
+    private static MovieDTO movie(ResultSet rs, int rowNum) throws SQLException {
+        return new MovieDTO(rs.getLong("c_id"), rs.getLong("c_director_id"), rs.getString("c_name"), rs.getInt("c_year"));
+    }
+}
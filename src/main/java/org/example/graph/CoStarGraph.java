@@ -0,0 +1,523 @@
+package org.example.graph;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Граф «актер снимался в фильме» в памяти для поиска цепочек между актерами: снимок CsrGraph плюс дельта связей,
+//добавленных и удаленных после его сборки; когда дельта разрастается, граф пересобирается.
+//Вершина кодируется int'ом: номер << 1, младший бит 0 у актера и 1 у фильма.
+//Списки соседей служат и инвертированным индексом актер -> фильмы для похожих фильмов
+@Component
+public class CoStarGraph {
+    public static final int MAX_SIMILAR = 100;
+    private static final int MIN_DELTA_TO_COMPACT = 1024;
+    private static final int SIMILAR_CACHE_SIZE = 10_000;
+    //части меньше порогов fork/join считает в одном потоке
+    private static final int FORK_ACTORS = 32;
+    private static final int FORK_CANDIDATES = 4096;
+
+    private final MovieActorRepository movieActorRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private CsrGraph snapshot = CsrGraph.EMPTY;
+    //вершины, у которых не было связей на момент сборки снимка, получают номера после его вершин
+    private final List<Long> newActorIds = new ArrayList<>();
+    private final List<Long> newMovieIds = new ArrayList<>();
+    private final Map<Long, Integer> newActors = new HashMap<>();
+    private final Map<Long, Integer> newMovies = new HashMap<>();
+    //связи снимка, удаленные после сборки, ключ edge(актер, фильм)
+    private final Set<Long> removed = new HashSet<>();
+    //добавленные после сборки связи в обе стороны, по закодированным вершинам
+    private final Map<Integer, List<Integer>> added = new HashMap<>();
+    private int addedLinks;
+    //изменения, пришедшие пока связи перечитываются; null, если перечитывания нет
+    private List<Runnable> replay;
+    //похожие фильмы по id фильма; пишется только под read lock, сбрасывается под write lock
+    private final Cache<Long, List<SimilarMovie>> similarMovies = Caffeine.newBuilder()
+            .maximumSize(SIMILAR_CACHE_SIZE)
+            .build();
+
+    @Autowired
+    public CoStarGraph(MovieActorRepository movieActorRepository, PlatformTransactionManager transactionManager) {
+        this.movieActorRepository = movieActorRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void build() {
+        reload();
+    }
+
+    //После импорта связей через COPY
+    public synchronized void reload() {
+        Links links = new Links();
+        boolean loaded = false;
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> movieActorRepository.streamLinks(links::add));
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<Runnable> changes = replay;
+                replay = null;
+                if (loaded) {
+                    replace(links);
+                    similarMovies.invalidateAll();
+                }
+                changes.forEach(Runnable::run);
+                compactIfNeeded();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    //Кратчайшая цепочка актер, фильм, актер, ..., актер; пустая, если актеры не связаны
+    public List<Long> path(long fromActorId, long toActorId) {
+        lock.readLock().lock();
+        try {
+            if (fromActorId == toActorId)
+                return List.of(fromActorId);
+            int from = index(true, fromActorId);
+            int to = index(true, toActorId);
+            if (from < 0 || to < 0)
+                return List.of();
+            return path(vertex(true, from), vertex(true, to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //До MAX_SIMILAR фильмов по убыванию коэффициента Жаккара составов. Кандидаты это только фильмы актеров самого
+    //фильма, пересечения считаются проходом по их фильмографиям; с фильмами без общих актеров сравнения нет
+    public List<SimilarMovie> similar(long movieId) {
+        List<SimilarMovie> cached = similarMovies.getIfPresent(movieId);
+        if (cached != null)
+            return cached;
+        lock.readLock().lock();
+        try {
+            int movie = index(false, movieId);
+            List<SimilarMovie> result = movie < 0 ? List.of() : similar(movie);
+            //под read lock изменения связей ждут, поэтому результат не ляжет в кэш после своей инвалидации
+            similarMovies.put(movieId, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void linked(Long movieId, Long actorId) {
+        linked(List.of(movieId), List.of(actorId));
+    }
+
+    //Все пары фильм–актер из двух списков, как в EntityChanges.linksChanged
+    public void linked(Collection<Long> movieIds, Collection<Long> actorIds) {
+        afterCommit(() -> {
+            for (Long movieId : movieIds)
+                for (Long actorId : actorIds)
+                    link(actorId, movieId);
+            movieIds.forEach(this::invalidateSimilar);
+        });
+    }
+
+    public void unlinked(Long movieId, Long actorId) {
+        afterCommit(() -> {
+            invalidateSimilar(movieId);
+            unlink(actorId, movieId);
+        });
+    }
+
+    public void moviesDeleted(Collection<Long> movieIds) {
+        afterCommit(() -> movieIds.forEach(movieId -> {
+            invalidateSimilar(movieId);
+            detach(false, movieId);
+        }));
+    }
+
+    public void actorsDeleted(Collection<Long> actorIds) {
+        afterCommit(() -> actorIds.forEach(actorId -> {
+            int actor = index(true, actorId);
+            if (actor >= 0)
+                neighborIds(true, actor).forEach(this::invalidateSimilar);
+            detach(true, actorId);
+        }));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        else
+            apply(change);
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null)
+                replay.add(change);
+            change.run();
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Двунаправленный BFS: каждый раз целиком проходится уровень той стороны, у которой фронт меньше.
+    //Первая же вершина, уже посещенная другой стороной, лежит на кратчайшем пути
+    private List<Long> path(int source, int target) {
+        IntIntMap forward = new IntIntMap();
+        IntIntMap backward = new IntIntMap();
+        forward.put(source, IntIntMap.ABSENT);
+        backward.put(target, IntIntMap.ABSENT);
+        Frontier forwardFrontier = new Frontier(source);
+        Frontier backwardFrontier = new Frontier(target);
+        while (forwardFrontier.size > 0 && backwardFrontier.size > 0) {
+            int meeting = forwardFrontier.size <= backwardFrontier.size
+                    ? expand(forwardFrontier, forward, backward)
+                    : expand(backwardFrontier, backward, forward);
+            if (meeting != IntIntMap.ABSENT) {
+                List<Long> path = new ArrayList<>();
+                for (int vertex = meeting; vertex != IntIntMap.ABSENT; vertex = forward.get(vertex))
+                    path.add(id(vertex));
+                Collections.reverse(path);
+                for (int vertex = backward.get(meeting); vertex != IntIntMap.ABSENT; vertex = backward.get(vertex))
+                    path.add(id(vertex));
+                return path;
+            }
+        }
+        return List.of();
+    }
+
+    private int expand(Frontier frontier, IntIntMap visited, IntIntMap other) {
+        Frontier next = new Frontier();
+        for (int i = 0; i < frontier.size; i++) {
+            int vertex = frontier.vertices[i];
+            boolean actor = isActor(vertex);
+            int index = vertex >>> 1;
+            if (index < snapshot.count(actor))
+                for (int position = snapshot.from(actor, index); position < snapshot.to(actor, index); position++) {
+                    int neighbor = snapshot.neighbor(actor, position);
+                    if (!removed.isEmpty() && removed.contains(actor ? edge(index, neighbor) : edge(neighbor, index)))
+                        continue;
+                    int neighborVertex = vertex(!actor, neighbor);
+                    if (visit(neighborVertex, vertex, visited, other, next))
+                        return neighborVertex;
+                }
+            if (!added.isEmpty())
+                for (int neighborVertex : added.getOrDefault(vertex, List.of()))
+                    if (visit(neighborVertex, vertex, visited, other, next))
+                        return neighborVertex;
+        }
+        frontier.vertices = next.vertices;
+        frontier.size = next.size;
+        return IntIntMap.ABSENT;
+    }
+
+    private static boolean visit(int vertex, int parent, IntIntMap visited, IntIntMap other, Frontier next) {
+        if (visited.containsKey(vertex))
+            return false;
+        visited.put(vertex, parent);
+        if (other.containsKey(vertex))
+            return true;
+        next.add(vertex);
+        return false;
+    }
+
+    private List<SimilarMovie> similar(int movie) {
+        int[] cast = neighbors(false, movie);
+        IntIntMap shared = new CountShared(movie, cast, 0, cast.length).invoke();
+        int[] candidates = shared.keys();
+        return List.copyOf(new Score(cast.length, shared, candidates, 0, candidates.length).invoke());
+    }
+
+    //Связь фильма с актером меняет сходство самого фильма и всех фильмов, где есть кто-то из его состава.
+    //Вызывается при составе, который шире: после добавления связи и до удаления
+    private void invalidateSimilar(long movieId) {
+        if (similarMovies.estimatedSize() == 0)
+            return;
+        similarMovies.invalidate(movieId);
+        int movie = index(false, movieId);
+        if (movie < 0)
+            return;
+        for (int actor : neighbors(false, movie))
+            for (int other : neighbors(true, actor))
+                similarMovies.invalidate(id(vertex(false, other)));
+    }
+
+    private void link(long actorId, long movieId) {
+        int actor = indexOrCreate(true, actorId);
+        int movie = indexOrCreate(false, movieId);
+        if (snapshot.linked(actor, movie)) {
+            removed.remove(edge(actor, movie));
+            return;
+        }
+        List<Integer> movies = added.computeIfAbsent(vertex(true, actor), vertex -> new ArrayList<>());
+        if (movies.contains(vertex(false, movie)))
+            return;
+        movies.add(vertex(false, movie));
+        added.computeIfAbsent(vertex(false, movie), vertex -> new ArrayList<>()).add(vertex(true, actor));
+        addedLinks++;
+    }
+
+    private void unlink(long actorId, long movieId) {
+        int actor = index(true, actorId);
+        int movie = index(false, movieId);
+        if (actor < 0 || movie < 0)
+            return;
+        if (snapshot.linked(actor, movie)) {
+            removed.add(edge(actor, movie));
+            return;
+        }
+        List<Integer> movies = added.get(vertex(true, actor));
+        if (movies != null && movies.remove(Integer.valueOf(vertex(false, movie)))) {
+            added.get(vertex(false, movie)).remove(Integer.valueOf(vertex(true, actor)));
+            addedLinks--;
+        }
+    }
+
+    //Удаленные актер или фильм теряют все связи, сама вершина остается без соседей до пересборки
+    private void detach(boolean actor, long id) {
+        int index = index(actor, id);
+        if (index < 0)
+            return;
+        for (long neighborId : neighborIds(actor, index))
+            if (actor)
+                unlink(id, neighborId);
+            else
+                unlink(neighborId, id);
+    }
+
+    private List<Long> neighborIds(boolean actor, int index) {
+        List<Long> ids = new ArrayList<>();
+        for (int neighbor : neighbors(actor, index))
+            ids.add(id(vertex(!actor, neighbor)));
+        return ids;
+    }
+
+    //Номера соседей с учетом дельты: связи снимка без удаленных, затем добавленные
+    private int[] neighbors(boolean actor, int index) {
+        List<Integer> addedNeighbors = added.getOrDefault(vertex(actor, index), List.of());
+        int from = index < snapshot.count(actor) ? snapshot.from(actor, index) : 0;
+        int to = index < snapshot.count(actor) ? snapshot.to(actor, index) : 0;
+        int[] neighbors = new int[to - from + addedNeighbors.size()];
+        int count = 0;
+        for (int position = from; position < to; position++) {
+            int neighbor = snapshot.neighbor(actor, position);
+            if (removed.isEmpty() || !removed.contains(actor ? edge(index, neighbor) : edge(neighbor, index)))
+                neighbors[count++] = neighbor;
+        }
+        for (int neighborVertex : addedNeighbors)
+            neighbors[count++] = neighborVertex >>> 1;
+        return count == neighbors.length ? neighbors : Arrays.copyOf(neighbors, count);
+    }
+
+    private int degree(boolean actor, int index) {
+        if (!removed.isEmpty())
+            return neighbors(actor, index).length;
+        int degree = index < snapshot.count(actor) ? snapshot.to(actor, index) - snapshot.from(actor, index) : 0;
+        return degree + added.getOrDefault(vertex(actor, index), List.of()).size();
+    }
+
+    private void compactIfNeeded() {
+        if (removed.size() + addedLinks <= Math.max(MIN_DELTA_TO_COMPACT, snapshot.links() / 8))
+            return;
+        Links links = new Links();
+        int actors = snapshot.count(true) + newActorIds.size();
+        for (int actor = 0; actor < actors; actor++) {
+            long actorId = id(vertex(true, actor));
+            for (long movieId : neighborIds(true, actor))
+                links.add(actorId, movieId);
+        }
+        replace(links);
+    }
+
+    private void replace(Links links) {
+        snapshot = CsrGraph.of(links.actorIds, links.movieIds, links.size);
+        newActorIds.clear();
+        newMovieIds.clear();
+        newActors.clear();
+        newMovies.clear();
+        removed.clear();
+        added.clear();
+        addedLinks = 0;
+    }
+
+    private int index(boolean actor, long id) {
+        int index = snapshot.index(actor, id);
+        if (index >= 0)
+            return index;
+        Integer created = (actor ? newActors : newMovies).get(id);
+        return created == null ? -1 : created;
+    }
+
+    private int indexOrCreate(boolean actor, long id) {
+        int index = index(actor, id);
+        if (index >= 0)
+            return index;
+        List<Long> ids = actor ? newActorIds : newMovieIds;
+        index = snapshot.count(actor) + ids.size();
+        ids.add(id);
+        (actor ? newActors : newMovies).put(id, index);
+        return index;
+    }
+
+    private long id(int vertex) {
+        boolean actor = isActor(vertex);
+        int index = vertex >>> 1;
+        return index < snapshot.count(actor) ? snapshot.id(actor, index)
+                : (actor ? newActorIds : newMovieIds).get(index - snapshot.count(actor));
+    }
+
+    private static int vertex(boolean actor, int index) {
+        return index << 1 | (actor ? 0 : 1);
+    }
+
+    private static boolean isActor(int vertex) {
+        return (vertex & 1) == 0;
+    }
+
+    private static long edge(int actor, int movie) {
+        return (long) actor << 32 | movie;
+    }
+
+    //Пересечения состава фильма с остальными фильмами: у каждого актера состава проходим его фильмы.
+    //Большой состав делится пополам, счетчики половин складываются. Задачи выполняются, пока вызывающий поток держит
+    //read lock, так что граф под ними не меняется
+    private final class CountShared extends RecursiveTask<IntIntMap> {
+        private final int movie;
+        private final int[] cast;
+        private final int from;
+        private final int to;
+
+        private CountShared(int movie, int[] cast, int from, int to) {
+            this.movie = movie;
+            this.cast = cast;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IntIntMap compute() {
+            if (to - from > FORK_ACTORS) {
+                int middle = (from + to) >>> 1;
+                CountShared right = new CountShared(movie, cast, middle, to);
+                right.fork();
+                IntIntMap shared = new CountShared(movie, cast, from, middle).compute();
+                IntIntMap rightShared = right.join();
+                for (int other : rightShared.keys())
+                    shared.add(other, rightShared.get(other));
+                return shared;
+            }
+            IntIntMap shared = new IntIntMap();
+            for (int i = from; i < to; i++)
+                for (int other : neighbors(true, cast[i]))
+                    if (other != movie)
+                        shared.add(other, 1);
+            return shared;
+        }
+    }
+
+    //Жаккар по числу общих актеров и размерам составов; каждая часть оставляет свои лучшие MAX_SIMILAR
+    private final class Score extends RecursiveTask<List<SimilarMovie>> {
+        private final int castSize;
+        private final IntIntMap shared;
+        private final int[] candidates;
+        private final int from;
+        private final int to;
+
+        private Score(int castSize, IntIntMap shared, int[] candidates, int from, int to) {
+            this.castSize = castSize;
+            this.shared = shared;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<SimilarMovie> compute() {
+            List<SimilarMovie> movies = new ArrayList<>();
+            if (to - from > FORK_CANDIDATES) {
+                int middle = (from + to) >>> 1;
+                Score right = new Score(castSize, shared, candidates, middle, to);
+                right.fork();
+                movies.addAll(new Score(castSize, shared, candidates, from, middle).compute());
+                movies.addAll(right.join());
+            } else
+                for (int i = from; i < to; i++) {
+                    int common = shared.get(candidates[i]);
+                    int union = castSize + degree(false, candidates[i]) - common;
+                    movies.add(new SimilarMovie(id(vertex(false, candidates[i])), common, (double) common / union));
+                }
+            movies.sort(SimilarMovie.ORDER);
+            return movies.size() > MAX_SIMILAR ? new ArrayList<>(movies.subList(0, MAX_SIMILAR)) : movies;
+        }
+    }
+
+    private static final class Frontier {
+        private int[] vertices = new int[16];
+        private int size;
+
+        private Frontier() {
+        }
+
+        private Frontier(int vertex) {
+            add(vertex);
+        }
+
+        private void add(int vertex) {
+            if (size == vertices.length)
+                vertices = Arrays.copyOf(vertices, size * 2);
+            vertices[size++] = vertex;
+        }
+    }
+
+    private static final class Links {
+        private long[] actorIds = new long[1024];
+        private long[] movieIds = new long[1024];
+        private int size;
+
+        private void add(long actorId, long movieId) {
+            if (size == actorIds.length) {
+                actorIds = Arrays.copyOf(actorIds, size * 2);
+                movieIds = Arrays.copyOf(movieIds, size * 2);
+            }
+            actorIds[size] = actorId;
+            movieIds[size++] = movieId;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.graph;
+
+import java.util.Arrays;
+
+//Неизменяемый двудольный граф актер–фильм в CSR: номер вершины это позиция ее id в отсортированном long[],
+//соседи вершины i лежат отсортированными в int[] между offsets[i] и offsets[i + 1]
+final class CsrGraph {
+    static final CsrGraph EMPTY = of(new long[0], new long[0], 0);
+
+    private final long[] actorIds;
+    private final long[] movieIds;
+    private final int[] actorOffsets;
+    private final int[] actorMovies;
+    private final int[] movieOffsets;
+    private final int[] movieActors;
+
+    private CsrGraph(long[] actorIds, long[] movieIds, int[] actorOffsets, int[] actorMovies, int[] movieOffsets,
+                     int[] movieActors) {
+        this.actorIds = actorIds;
+        this.movieIds = movieIds;
+        this.actorOffsets = actorOffsets;
+        this.actorMovies = actorMovies;
+        this.movieOffsets = movieOffsets;
+        this.movieActors = movieActors;
+    }
+
+    //Связи без повторов: i-я связь это linkActorIds[i] и linkMovieIds[i]
+    static CsrGraph of(long[] linkActorIds, long[] linkMovieIds, int links) {
+        long[] actorIds = distinctSorted(linkActorIds, links);
+        long[] movieIds = distinctSorted(linkMovieIds, links);
+        int[] actors = new int[links];
+        int[] movies = new int[links];
+        for (int i = 0; i < links; i++) {
+            actors[i] = Arrays.binarySearch(actorIds, linkActorIds[i]);
+            movies[i] = Arrays.binarySearch(movieIds, linkMovieIds[i]);
+        }
+        int[] actorOffsets = offsets(actors, links, actorIds.length);
+        int[] movieOffsets = offsets(movies, links, movieIds.length);
+        return new CsrGraph(actorIds, movieIds, actorOffsets, adjacency(actors, movies, links, actorOffsets),
+                movieOffsets, adjacency(movies, actors, links, movieOffsets));
+    }
+
+    int count(boolean actor) {
+        return actor ? actorIds.length : movieIds.length;
+    }
+
+    int links() {
+        return actorMovies.length;
+    }
+
+    long id(boolean actor, int index) {
+        return actor ? actorIds[index] : movieIds[index];
+    }
+
+    //-1, если у вершины нет ни одной связи
+    int index(boolean actor, long id) {
+        int index = Arrays.binarySearch(actor ? actorIds : movieIds, id);
+        return index < 0 ? -1 : index;
+    }
+
+    int from(boolean actor, int index) {
+        return actor ? actorOffsets[index] : movieOffsets[index];
+    }
+
+    int to(boolean actor, int index) {
+        return actor ? actorOffsets[index + 1] : movieOffsets[index + 1];
+    }
+
+    int neighbor(boolean actor, int position) {
+        return actor ? actorMovies[position] : movieActors[position];
+    }
+
+    boolean linked(int actor, int movie) {
+        return actor < actorIds.length && movie < movieIds.length
+                && Arrays.binarySearch(actorMovies, actorOffsets[actor], actorOffsets[actor + 1], movie) >= 0;
+    }
+
+    private static long[] distinctSorted(long[] ids, int count) {
+        long[] sorted = Arrays.copyOf(ids, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < count; i++)
+            if (distinct == 0 || sorted[distinct - 1] != sorted[i])
+                sorted[distinct++] = sorted[i];
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static int[] offsets(int[] vertices, int links, int count) {
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i < links; i++)
+            offsets[vertices[i] + 1]++;
+        for (int i = 0; i < count; i++)
+            offsets[i + 1] += offsets[i];
+        return offsets;
+    }
+
+    private static int[] adjacency(int[] from, int[] to, int links, int[] offsets) {
+        int[] adjacency = new int[links];
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < links; i++)
+            adjacency[next[from[i]]++] = to[i];
+        for (int i = 0; i + 1 < offsets.length; i++)
+            Arrays.sort(adjacency, offsets[i], offsets[i + 1]);
+        return adjacency;
+    }
+}
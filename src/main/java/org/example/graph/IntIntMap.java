@@ -0,0 +1,78 @@
+package org.example.graph;
+
+import java.util.Arrays;
+
+//Посещенные вершины BFS и счетчики общих актеров: открытая адресация по неотрицательным int без упаковки в Integer
+final class IntIntMap {
+    static final int ABSENT = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    IntIntMap() {
+        keys = new int[64];
+        values = new int[64];
+        Arrays.fill(keys, ABSENT);
+    }
+
+    boolean containsKey(int key) {
+        return keys[slot(keys, key)] == key;
+    }
+
+    int get(int key) {
+        int slot = slot(keys, key);
+        return keys[slot] == key ? values[slot] : ABSENT;
+    }
+
+    void put(int key, int value) {
+        int slot = slot(keys, key);
+        if (keys[slot] != key) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+                slot = slot(keys, key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    //ключа не было, значит счет начинается с нуля
+    void add(int key, int amount) {
+        int value = get(key);
+        put(key, value == ABSENT ? amount : value + amount);
+    }
+
+    int[] keys() {
+        int[] present = new int[size];
+        int count = 0;
+        for (int key : keys)
+            if (key != ABSENT)
+                present[count++] = key;
+        return present;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, ABSENT);
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != ABSENT) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+    }
+
+    private static int slot(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (keys[slot] != ABSENT && keys[slot] != key)
+            slot = slot + 1 & mask;
+        return slot;
+    }
+}
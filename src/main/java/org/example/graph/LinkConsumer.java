@@ -0,0 +1,6 @@
+package org.example.graph;
+
+@FunctionalInterface
+public interface LinkConsumer {
+    void accept(long actorId, long movieId);
+}
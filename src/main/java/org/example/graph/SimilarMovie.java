@@ -0,0 +1,51 @@
+package org.example.graph;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+//Фильм с общими актерами: similarity это |A ∩ B| / |A ∪ B| по составам двух фильмов
+public final class SimilarMovie {
+    static final Comparator<SimilarMovie> ORDER = Comparator.comparingDouble(SimilarMovie::getSimilarity).reversed()
+            .thenComparing(Comparator.comparingInt(SimilarMovie::getSharedActors).reversed())
+            .thenComparingLong(SimilarMovie::getMovieId);
+
+    private final long movieId;
+    private final int sharedActors;
+    private final double similarity;
+
+    public SimilarMovie(long movieId, int sharedActors, double similarity) {
+        this.movieId = movieId;
+        this.sharedActors = sharedActors;
+        this.similarity = similarity;
+    }
+
+    public long getMovieId() {
+        return movieId;
+    }
+
+    public int getSharedActors() {
+        return sharedActors;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SimilarMovie that = (SimilarMovie) o;
+        return movieId == that.movieId && sharedActors == that.sharedActors && similarity == that.similarity;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(movieId, sharedActors, similarity);
+    }
+
+    @Override
+    public String toString() {
+        return movieId + " " + sharedActors + " " + similarity;
+    }
+}
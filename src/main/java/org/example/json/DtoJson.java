@@ -0,0 +1,38 @@
+package org.example.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+//Один ObjectMapper на все приложение: конвертер Spring MVC, потоковая выгрузка и импорт делят его кэши
+//сериализаторов и пулы буферов JsonFactory. ObjectWriter'ы готовятся один раз на класс
+public final class DtoJson {
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new DtoJsonModule())
+            .build();
+    //поток пишет много значений в один генератор, flush после каждого отправлял бы клиенту по кусочку
+    private static final ClassValue<ObjectWriter> STREAM_WRITERS = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return OBJECT_MAPPER.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+    };
+    private static final ObjectReader TREE_READER = OBJECT_MAPPER.reader();
+
+    private DtoJson() {
+    }
+
+    public static ObjectMapper objectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    public static ObjectWriter streamWriterFor(Class<?> type) {
+        return STREAM_WRITERS.get(type);
+    }
+
+    public static ObjectReader treeReader() {
+        return TREE_READER;
+    }
+}
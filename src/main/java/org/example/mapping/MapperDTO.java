@@ -14,6 +14,7 @@ import org.mapstruct.MappingTarget;
 import org.mapstruct.Named;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 
 @Component
@@ -67,11 +68,11 @@ public interface MapperDTO {
 
     @IterableMapping(qualifiedByName = "toMovieDTOWithoutActors")
     @Named("A")
-    List<MovieDTO> toMovieDTOListWithoutActor(List<Movie> movies);
+    List<MovieDTO> toMovieDTOListWithoutActor(Collection<Movie> movies);
 
     @IterableMapping(qualifiedByName = "toActorDTOWithoutMovies")
     @Named("B")
-    List<ActorDTO> toActorDTOListWithoutMovie(List<Actor> actors);
+    List<ActorDTO> toActorDTOListWithoutMovie(Collection<Actor> actors);
 
     @AfterMapping
     default void mapDirectorIdForMovieDTO(Movie movie, @MappingTarget MovieDTO movieDTO) {
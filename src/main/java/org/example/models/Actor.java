@@ -1,5 +1,8 @@
 package org.example.models;
 
+import org.hibernate.annotations.Cache;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -7,28 +10,37 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
-import java.util.List;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 import java.util.Objects;
+import java.util.Set;
 
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.GenerationType.SEQUENCE;
 import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
 import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
 
 @Entity
+@Cacheable
+@Cache(usage = READ_WRITE)
 public class Actor {
     @Id
     @Column(name = "actor_id")
-    @GeneratedValue(strategy = IDENTITY)
+    @GeneratedValue(strategy = SEQUENCE, generator = "actor_seq")
+    @SequenceGenerator(name = "actor_seq", sequenceName = "actor_seq", allocationSize = 50)
     private Long actorId;
     private String name;
     private Integer age;
+    @Cache(usage = READ_WRITE)
     @ManyToMany
     @JoinTable(
             name = "movie_actor",
             joinColumns = @JoinColumn(name = "actor_id"),
             inverseJoinColumns = @JoinColumn(name = "movie_id")
     )
-    private List<Movie> movieList;
+    private Set<Movie> movieList;
+    @Version
+    private Long version;
 
     public Actor() {
     }
@@ -68,25 +80,35 @@ public class Actor {
         this.age = age;
     }
 
-    public List<Movie> getMovieList() {
+    public Set<Movie> getMovieList() {
         return movieList;
     }
 
-    public void setMovieList(List<Movie> movieList) {
+    public void setMovieList(Set<Movie> movieList) {
         this.movieList = movieList;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Actor)) return false;
         Actor actor = (Actor) o;
-        return Objects.equals(age, actor.age) && Objects.equals(actorId, actor.actorId) && Objects.equals(name, actor.name);
+        //до persist id нет, такой актер равен только самому себе
+        return actorId != null && actorId.equals(actor.getActorId());
     }
 
+    //id выдается при persist, до того как актер попадает в чужие коллекции, поэтому хэш в Set не меняется
     @Override
     public int hashCode() {
-        return Objects.hash(actorId, name, age);
+        return Objects.hashCode(actorId);
     }
 
     @Override
@@ -1,28 +1,40 @@
 package org.example.models;
 
 
+import org.hibernate.annotations.Cache;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 import java.util.List;
 import java.util.Objects;
 
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.GenerationType.SEQUENCE;
 import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
 import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
 
 @Entity
+@Cacheable
+@Cache(usage = READ_WRITE)
 public class Director {
     @Id
     @Column(name = "director_id")
-    @GeneratedValue(strategy = IDENTITY)
+    @GeneratedValue(strategy = SEQUENCE, generator = "director_seq")
+    @SequenceGenerator(name = "director_seq", sequenceName = "director_seq", allocationSize = 50)
     private Long directorId;
     private String name;
     private Integer age;
+    @Cache(usage = READ_WRITE)
     @OneToMany(mappedBy = "directorId")
     private List<Movie> movieList;
+    @Version
+    private Long version;
 
     public Director() {
     }
@@ -70,6 +82,14 @@ public class Director {
         this.movieList = movieList;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
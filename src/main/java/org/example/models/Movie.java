@@ -1,5 +1,8 @@
 package org.example.models;
 
+import org.hibernate.annotations.Cache;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -7,18 +10,24 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
-import java.util.List;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 import java.util.Objects;
+import java.util.Set;
 
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.GenerationType.SEQUENCE;
 import static org.apache.commons.lang3.builder.ToStringBuilder.reflectionToString;
 import static org.apache.commons.lang3.builder.ToStringStyle.JSON_STYLE;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
 
 @Entity
+@Cacheable
+@Cache(usage = READ_WRITE)
 public class Movie {
     @Id
     @Column(name = "movie_id")
-    @GeneratedValue(strategy = IDENTITY)
+    @GeneratedValue(strategy = SEQUENCE, generator = "movie_seq")
+    @SequenceGenerator(name = "movie_seq", sequenceName = "movie_seq", allocationSize = 50)
     private Long movieId;
     @ManyToOne
     @JoinColumn(name = "director_id", referencedColumnName = "director_id")
@@ -26,8 +35,11 @@ public class Movie {
     private String name;
     @Column(name = "year_of_production")
     private Integer yearOfProduction;
+    @Cache(usage = READ_WRITE)
     @ManyToMany(mappedBy = "movieList")
-    private List<Actor> actorList;
+    private Set<Actor> actorList;
+    @Version
+    private Long version;
 
     public Movie() {
     }
@@ -77,25 +89,35 @@ public class Movie {
         this.yearOfProduction = yearOfProduction;
     }
 
-    public List<Actor> getActorList() {
+    public Set<Actor> getActorList() {
         return actorList;
     }
 
-    public void setActorList(List<Actor> actorList) {
+    public void setActorList(Set<Actor> actorList) {
         this.actorList = actorList;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Movie)) return false;
         Movie movie = (Movie) o;
-        return Objects.equals(yearOfProduction, movie.yearOfProduction) && Objects.equals(movieId, movie.movieId) && Objects.equals(directorId, movie.directorId) && Objects.equals(name, movie.name);
+        //до persist id нет, такой фильм равен только самому себе
+        return movieId != null && movieId.equals(movie.getMovieId());
     }
 
+    //режиссер и изменяемые поля в хэш не входят: членство в Set не зависит от правок и не тянет граф
     @Override
     public int hashCode() {
-        return Objects.hash(movieId, directorId, name, yearOfProduction);
+        return Objects.hashCode(movieId);
     }
 
     @Override
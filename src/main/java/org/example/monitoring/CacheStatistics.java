@@ -0,0 +1,73 @@
+package org.example.monitoring;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.example.cache.DtoCache;
+import org.example.cache.DtoCaches;
+import org.example.config.SecondLevelCache;
+import org.example.dto.CacheStatsDTO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+//Попадания и промахи по регионам кэша второго уровня, кэша запросов и кэшей DTO
+@Component
+public class CacheStatistics {
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager hibernateCacheManager;
+    private final DtoCaches dtoCaches;
+
+    @Autowired
+    public CacheStatistics(EntityManagerFactory entityManagerFactory, CacheManager hibernateCacheManager,
+                           DtoCaches dtoCaches) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.hibernateCacheManager = hibernateCacheManager;
+        this.dtoCaches = dtoCaches;
+    }
+
+    public List<CacheStatsDTO> snapshot() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheStatsDTO> result = new ArrayList<>();
+        SecondLevelCache.ENTITY_REGIONS.forEach(region ->
+                result.add(toDTO(region, statistics.getDomainDataRegionStatistics(region))));
+        SecondLevelCache.COLLECTION_REGIONS.forEach(region ->
+                result.add(toDTO(region, statistics.getDomainDataRegionStatistics(region))));
+        result.add(toDTO(SecondLevelCache.QUERY_REGION, statistics.getQueryRegionStatistics(SecondLevelCache.QUERY_REGION)));
+        dtoCaches.all().forEach(cache -> result.add(toDTO(cache)));
+        return result;
+    }
+
+    private CacheStatsDTO toDTO(DtoCache<?> cache) {
+        CacheStats stats = cache.stats();
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setRegion(cache.getName());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setPutCount(stats.loadSuccessCount());
+        dto.setHitRatio(stats.requestCount() == 0 ? 0 : stats.hitRate());
+        dto.setSize(cache.size());
+        return dto;
+    }
+
+    private CacheStatsDTO toDTO(String region, CacheRegionStatistics regionStatistics) {
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setRegion(region);
+        long hits = regionStatistics == null ? 0 : regionStatistics.getHitCount();
+        long misses = regionStatistics == null ? 0 : regionStatistics.getMissCount();
+        dto.setHitCount(hits);
+        dto.setMissCount(misses);
+        dto.setPutCount(regionStatistics == null ? 0 : regionStatistics.getPutCount());
+        dto.setHitRatio(hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        //JCache не отдает число записей, берем оценку у самого Caffeine
+        Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+        dto.setSize(cache == null ? 0 : cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize());
+        return dto;
+    }
+}
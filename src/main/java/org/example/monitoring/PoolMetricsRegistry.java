@@ -0,0 +1,86 @@
+package org.example.monitoring;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.example.dto.PoolStatsDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PoolMetricsRegistry implements MetricsTrackerFactory {
+    private final Map<String, PoolMetrics> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolMetrics metrics = new PoolMetrics(poolName, poolStats);
+        pools.put(poolName, metrics);
+        return metrics;
+    }
+
+    public List<PoolStatsDTO> snapshot() {
+        return pools.values().stream()
+                .map(PoolMetrics::toDTO)
+                .toList();
+    }
+
+    static class PoolMetrics implements IMetricsTracker {
+        private final String poolName;
+        private final PoolStats poolStats;
+        private final LongAdder acquireCount = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final AtomicLong maxAcquireNanos = new AtomicLong();
+        private final LongAdder usageCount = new LongAdder();
+        private final LongAdder usageMillis = new LongAdder();
+        private final LongAdder timeoutCount = new LongAdder();
+
+        PoolMetrics(String poolName, PoolStats poolStats) {
+            this.poolName = poolName;
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireCount.increment();
+            acquireNanos.add(elapsedAcquiredNanos);
+            maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageCount.increment();
+            usageMillis.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeoutCount.increment();
+        }
+
+        PoolStatsDTO toDTO() {
+            long acquired = acquireCount.sum();
+            long used = usageCount.sum();
+            PoolStatsDTO dto = new PoolStatsDTO();
+            dto.setPoolName(poolName);
+            dto.setTotalConnections(poolStats.getTotalConnections());
+            dto.setActiveConnections(poolStats.getActiveConnections());
+            dto.setIdleConnections(poolStats.getIdleConnections());
+            dto.setPendingThreads(poolStats.getPendingThreads());
+            dto.setMaxConnections(poolStats.getMaxConnections());
+            dto.setMinConnections(poolStats.getMinConnections());
+            dto.setUtilization(poolStats.getMaxConnections() == 0 ? 0 :
+                    (double) poolStats.getActiveConnections() / poolStats.getMaxConnections());
+            dto.setAcquireCount(acquired);
+            dto.setAverageAcquireMillis(acquired == 0 ? 0 :
+                    (double) acquireNanos.sum() / acquired / TimeUnit.MILLISECONDS.toNanos(1));
+            dto.setMaxAcquireMillis((double) maxAcquireNanos.get() / TimeUnit.MILLISECONDS.toNanos(1));
+            dto.setAverageUsageMillis(used == 0 ? 0 : (double) usageMillis.sum() / used);
+            dto.setTimeoutCount(timeoutCount.sum());
+            return dto;
+        }
+    }
+}
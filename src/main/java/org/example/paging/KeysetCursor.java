@@ -0,0 +1,82 @@
+package org.example.paging;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+public final class KeysetCursor {
+    private static final String SEPARATOR = "\n";
+
+    private final String sort;
+    private final long id;
+    private final String value;
+
+    private KeysetCursor(String sort, long id, String value) {
+        this.sort = sort;
+        this.id = id;
+        this.value = value;
+    }
+
+    public static KeysetCursor of(String sort, Long id, Object value) {
+        return new KeysetCursor(sort, id, value == null ? null : value.toString());
+    }
+
+    //Курсор перед первой строкой: id в базе всегда больше 0
+    public static KeysetCursor first(String sort) {
+        return new KeysetCursor(sort, 0, null);
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 3);
+            if (parts.length < 2)
+                throw new IllegalArgumentException(decoded);
+            return new KeysetCursor(parts[0], Long.parseLong(parts[1]), parts.length == 3 ? parts[2] : null);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(BAD_REQUEST, "Некорректный курсор after");
+        }
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + id + (value == null ? "" : SEPARATOR + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String stringValue() {
+        return value == null ? "" : value;
+    }
+
+    public int intValue() {
+        try {
+            return value == null ? Integer.MIN_VALUE : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(BAD_REQUEST, "Некорректный курсор after");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        KeysetCursor that = (KeysetCursor) o;
+        return id == that.id && Objects.equals(sort, that.sort) && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sort, id, value);
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.paging;
+
+import org.example.dto.PageDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+public final class KeysetPage {
+    public static final int MAX_LIMIT = 1000;
+
+    private KeysetPage() {
+    }
+
+    public static KeysetCursor cursor(String sort, String after) {
+        if (sort == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Укажите поле сортировки sort");
+        if (after == null)
+            return KeysetCursor.first(sort);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        if (!cursor.getSort().equals(sort))
+            throw new ResponseStatusException(BAD_REQUEST, "Курсор after получен для сортировки " + cursor.getSort() +
+                    ", а запрошена сортировка " + sort);
+        return cursor;
+    }
+
+    //Берем на одну строку больше, чтобы понять, есть ли следующая страница
+    public static Pageable request(Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_LIMIT)
+            throw new ResponseStatusException(BAD_REQUEST, "limit должен быть от 1 до " + MAX_LIMIT);
+        return PageRequest.of(0, limit + 1);
+    }
+
+    public static <E, D> PageDTO<D> of(List<E> rows, Integer limit, Function<E, D> mapper,
+                                       Function<E, KeysetCursor> cursorOf) {
+        boolean hasNext = rows.size() > limit;
+        List<E> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new PageDTO<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+}
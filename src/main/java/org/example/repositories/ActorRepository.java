@@ -1,9 +1,57 @@
 package org.example.repositories;
 
 import org.example.models.Actor;
+import org.example.repositories.projections.ActorMovieRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface ActorRepository extends JpaRepository<Actor, Long> {
-}
\ No newline at end of file
+    int STREAM_FETCH_SIZE = 500;
+
+    String ROWS = "select new org.example.repositories.projections.ActorMovieRow(a.actorId, a.name, a.age, a.version, " +
+            "m.movieId, m.directorId.directorId, m.name, m.yearOfProduction) from Actor a left join a.movieList m ";
+
+    @Query(ROWS + "order by a.actorId, m.movieId")
+    List<ActorMovieRow> findAllRows();
+
+    @Query(ROWS + "where a.actorId = :id order by m.movieId")
+    List<ActorMovieRow> findRowsById(@Param("id") Long id);
+
+    @Query(ROWS + "where a.actorId in :ids order by a.actorId, m.movieId")
+    List<ActorMovieRow> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query(ROWS + "order by a.actorId, m.movieId")
+    Stream<ActorMovieRow> streamAllRows();
+
+    @Query("select a.version from Actor a where a.actorId = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select a.actorId from Actor a where a.actorId > :id order by a.actorId")
+    List<Long> findPageById(@Param("id") Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select a.actorId from Actor a where a.name >= :name and (a.name > :name or a.actorId > :id) " +
+            "order by a.name, a.actorId")
+    List<Long> findPageByName(@Param("name") String afterName, @Param("id") Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select a.actorId from Actor a where a.age >= :age and (a.age > :age or a.actorId > :id) " +
+            "order by a.age, a.actorId")
+    List<Long> findPageByAge(@Param("age") Integer afterAge, @Param("id") Long afterId, Pageable pageable);
+}
@@ -1,9 +1,57 @@
 package org.example.repositories;
 
 import org.example.models.Director;
+import org.example.repositories.projections.DirectorMovieRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface DirectorRepository extends JpaRepository<Director, Long> {
-}
\ No newline at end of file
+    int STREAM_FETCH_SIZE = 500;
+
+    String ROWS = "select new org.example.repositories.projections.DirectorMovieRow(d.directorId, d.name, d.age, " +
+            "d.version, m.movieId, m.name, m.yearOfProduction) from Director d left join d.movieList m ";
+
+    @Query(ROWS + "order by d.directorId, m.movieId")
+    List<DirectorMovieRow> findAllRows();
+
+    @Query(ROWS + "where d.directorId = :id order by m.movieId")
+    List<DirectorMovieRow> findRowsById(@Param("id") Long id);
+
+    @Query(ROWS + "where d.directorId in :ids order by d.directorId, m.movieId")
+    List<DirectorMovieRow> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query(ROWS + "order by d.directorId, m.movieId")
+    Stream<DirectorMovieRow> streamAllRows();
+
+    @Query("select d.version from Director d where d.directorId = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select d.directorId from Director d where d.directorId > :id order by d.directorId")
+    List<Long> findPageById(@Param("id") Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select d.directorId from Director d where d.name >= :name and (d.name > :name or d.directorId > :id) " +
+            "order by d.name, d.directorId")
+    List<Long> findPageByName(@Param("name") String afterName, @Param("id") Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select d.directorId from Director d where d.age >= :age and (d.age > :age or d.directorId > :id) " +
+            "order by d.age, d.directorId")
+    List<Long> findPageByAge(@Param("age") Integer afterAge, @Param("id") Long afterId, Pageable pageable);
+}
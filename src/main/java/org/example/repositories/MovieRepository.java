@@ -1,9 +1,62 @@
 package org.example.repositories;
 
 import org.example.models.Movie;
+import org.example.repositories.projections.MovieActorRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Long> {
-}
\ No newline at end of file
+    int STREAM_FETCH_SIZE = 500;
+
+    //чтения для API идут строками фильм + актер прямо в DTO, управляемые сущности не создаются
+    String ROWS = "select new org.example.repositories.projections.MovieActorRow(m.movieId, m.directorId.directorId, " +
+            "m.name, m.yearOfProduction, m.version, a.actorId, a.name, a.age) from Movie m left join m.actorList a ";
+
+    @Query(ROWS + "order by m.movieId, a.actorId")
+    List<MovieActorRow> findAllRows();
+
+    @Query(ROWS + "where m.movieId = :id order by a.actorId")
+    List<MovieActorRow> findRowsById(@Param("id") Long id);
+
+    @Query(ROWS + "where m.movieId in :ids order by m.movieId, a.actorId")
+    List<MovieActorRow> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query(ROWS + "order by m.movieId, a.actorId")
+    Stream<MovieActorRow> streamAllRows();
+
+    //для If-None-Match хватает одной колонки, граф сущностей не поднимаем
+    @Query("select m.version from Movie m where m.movieId = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    //страница выбирается по id, LIMIT по строкам join'а обрезал бы список актеров последнего фильма;
+    //в кэше запросов лежат только id страницы, запись не длиннее limit, в отличие от списка целиком
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select m.movieId from Movie m where m.movieId > :id order by m.movieId")
+    List<Long> findPageById(@Param("id") Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select m.movieId from Movie m where m.name >= :name and (m.name > :name or m.movieId > :id) " +
+            "order by m.name, m.movieId")
+    List<Long> findPageByName(@Param("name") String afterName, @Param("id") Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select m.movieId from Movie m " +
+            "where m.yearOfProduction >= :year and (m.yearOfProduction > :year or m.movieId > :id) " +
+            "order by m.yearOfProduction, m.movieId")
+    List<Long> findPageByYear(@Param("year") Integer afterYear, @Param("id") Long afterId, Pageable pageable);
+}
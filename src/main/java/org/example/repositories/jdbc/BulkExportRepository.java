@@ -0,0 +1,35 @@
+package org.example.repositories.jdbc;
+
+import org.example.bulk.ExportFormat;
+import org.example.bulk.ExportSource;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@Repository
+public class BulkExportRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BulkExportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //Байты из COPY TO STDOUT пишутся в out как есть, без сущностей и DTO; возвращает число строк
+    public long export(ExportSource source, ExportFormat format, OutputStream out) {
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(source.copySql(format), out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.repositories.jdbc;
+
+import org.example.bulk.ImportRecord;
+import org.example.bulk.ImportRecordReader;
+import org.example.bulk.ImportTarget;
+import org.example.dto.ImportBatchDTO;
+import org.example.dto.ImportErrorDTO;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@Repository
+public class BulkImportRepository {
+    //в отчет попадают первые ошибки пачки, остальные только считаются
+    public static final int MAX_ERRORS_PER_BATCH = 100;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BulkImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //Должен вызываться в транзакции: staging таблица живет до commit
+    public ImportBatchDTO importBatch(ImportTarget target, int batch, ImportRecordReader reader, int batchSize) {
+        String stagingTable = target.getStagingTable();
+        jdbcTemplate.execute(target.createStagingSql());
+        jdbcTemplate.execute("truncate " + stagingTable);
+
+        List<ImportErrorDTO> errors = new ArrayList<>();
+        int[] parseFailed = new int[1];
+        int rows = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            int count = 0;
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            try (Writer writer = new OutputStreamWriter(
+                    new PGCopyOutputStream(pgConnection, target.copySql(), COPY_BUFFER_SIZE), UTF_8)) {
+                while (count < batchSize && reader.hasNext()) {
+                    ImportRecord record = reader.next();
+                    count++;
+                    if (record.getError() == null)
+                        writeCsv(writer, record);
+                    else if (++parseFailed[0] <= MAX_ERRORS_PER_BATCH)
+                        errors.add(new ImportErrorDTO(record.getLine(), record.getError()));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        });
+
+        jdbcTemplate.update(target.validateSql());
+        if (target.rejectRepeatedIdsSql() != null)
+            jdbcTemplate.update(target.rejectRepeatedIdsSql());
+        for (String statement : target.getVersionStatements())
+            jdbcTemplate.update(statement);
+        int imported = 0;
+        for (String statement : target.getMergeStatements())
+            imported += jdbcTemplate.update(statement);
+
+        Integer rejected = jdbcTemplate.queryForObject(
+                "select count(*) from " + stagingTable + " where error is not null", Integer.class);
+        errors.addAll(jdbcTemplate.query(
+                "select line, error from " + stagingTable + " where error is not null order by line limit ?",
+                (rs, rowNum) -> new ImportErrorDTO(rs.getLong("line"), rs.getString("error")),
+                MAX_ERRORS_PER_BATCH));
+        errors.sort(Comparator.comparing(ImportErrorDTO::getLine));
+
+        return new ImportBatchDTO(batch, rows, imported, parseFailed[0] + rejected,
+                new ArrayList<>(errors.subList(0, Math.min(errors.size(), MAX_ERRORS_PER_BATCH))));
+    }
+
+    //Значения всегда в кавычках: пустая строка остается пустой строкой, null пишется без значения
+    private static void writeCsv(Writer writer, ImportRecord record) throws IOException {
+        writer.write(Long.toString(record.getLine()));
+        for (String value : record.getValues()) {
+            writer.write(',');
+            if (value != null) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.repositories.jdbc;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+//Удаление одним statement'ом: строки movie_actor и фильмы режиссера уходят каскадом из NewTables.sql,
+//а затронутые id, подъем version и вычитание из агрегатов /stats делаются в том же запросе,
+//пока снимок еще видит удаляемые связи
+@Repository
+public class DeleteRepository {
+    private static final String DELETE_MOVIE_SQL = "with deleted as (" +
+            "delete from movie where movie_id = ? returning movie_id, director_id, year_of_production), " +
+            "director_version as (update director set version = version + 1 " +
+            "where director_id in (select director_id from deleted) returning director_id), " +
+            "actor_version as (update actor set version = version + 1 where actor_id in (" +
+            "select ma.actor_id from movie_actor ma join deleted d on ma.movie_id = d.movie_id) returning actor_id), " +
+            "year_stats as (" + subtract("stats_movies_by_year", "year_of_production", "movies", "deleted") + "), " +
+            "director_stats as (" + subtract("stats_movies_by_director", "director_id", "movies", "deleted") + "), " +
+            "link_stats as (" + StatsRepository.addLinksSql(
+            "select -count(*) from movie_actor ma join deleted d on ma.movie_id = d.movie_id") + ") " +
+            "select (select count(*) from deleted) as deleted, " +
+            "array(select director_id from director_version) as directors, " +
+            "array(select movie_id from deleted) as movies, " +
+            "array(select actor_id from actor_version) as actors";
+    private static final String DELETE_ACTOR_SQL = "with deleted as (" +
+            "delete from actor where actor_id = ? returning actor_id, age), " +
+            "movie_version as (update movie set version = version + 1 where movie_id in (" +
+            "select ma.movie_id from movie_actor ma join deleted d on ma.actor_id = d.actor_id) returning movie_id), " +
+            "age_stats as (" + subtract("stats_actors_by_age", "age", "actors", "deleted") + "), " +
+            "link_stats as (" + StatsRepository.addLinksSql(
+            "select -count(*) from movie_actor ma join deleted d on ma.actor_id = d.actor_id") + ") " +
+            "select (select count(*) from deleted) as deleted, " +
+            "array[]::bigint[] as directors, " +
+            "array(select movie_id from movie_version) as movies, " +
+            "array(select actor_id from deleted) as actors";
+    private static final String DELETE_DIRECTOR_SQL = "with deleted as (" +
+            "delete from director where director_id = ? returning director_id), " +
+            "movies as (select m.movie_id, m.year_of_production from movie m join deleted d on m.director_id = d.director_id), " +
+            "actor_version as (update actor set version = version + 1 where actor_id in (" +
+            "select ma.actor_id from movie_actor ma join movies m on ma.movie_id = m.movie_id) returning actor_id), " +
+            "year_stats as (" + subtract("stats_movies_by_year", "year_of_production", "movies", "movies") + "), " +
+            "director_stats as (delete from stats_movies_by_director where director_id in (select director_id from deleted)), " +
+            "link_stats as (" + StatsRepository.addLinksSql(
+            "select -count(*) from movie_actor ma join movies m on ma.movie_id = m.movie_id") + ") " +
+            "select (select count(*) from deleted) as deleted, " +
+            "array(select director_id from deleted) as directors, " +
+            "array(select movie_id from movies) as movies, " +
+            "array(select actor_id from actor_version) as actors";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DeleteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //Пустой Optional, если строки с таким id не было
+    public Optional<DeleteResult> deleteMovie(Long id) {
+        return delete(DELETE_MOVIE_SQL, id);
+    }
+
+    public Optional<DeleteResult> deleteActor(Long id) {
+        return delete(DELETE_ACTOR_SQL, id);
+    }
+
+    public Optional<DeleteResult> deleteDirector(Long id) {
+        return delete(DELETE_DIRECTOR_SQL, id);
+    }
+
+    private Optional<DeleteResult> delete(String sql, Long id) {
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> rs.getInt("deleted") == 0 ? Optional.empty()
+                : Optional.of(new DeleteResult(ids(rs.getArray("directors")), ids(rs.getArray("movies")),
+                ids(rs.getArray("actors")))), id);
+    }
+
+    //Вычитает из счетчика агрегата число удаляемых строк source с тем же ключом
+    private static String subtract(String table, String key, String counter, String source) {
+        return "update " + table + " s set " + counter + " = s." + counter + " - d.removed from (" +
+                "select " + key + ", count(*) as removed from " + source + " group by " + key + ") d " +
+                "where s." + key + " = d." + key;
+    }
+
+    private static List<Long> ids(Array array) throws SQLException {
+        return Arrays.asList((Long[]) array.getArray());
+    }
+}
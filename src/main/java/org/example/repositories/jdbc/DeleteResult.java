@@ -0,0 +1,28 @@
+package org.example.repositories.jdbc;
+
+import java.util.List;
+
+//Что затронуло удаление: сама строка, каскад и те, в чьих DTO она была, их version уже поднята
+public final class DeleteResult {
+    private final List<Long> directorIds;
+    private final List<Long> movieIds;
+    private final List<Long> actorIds;
+
+    public DeleteResult(List<Long> directorIds, List<Long> movieIds, List<Long> actorIds) {
+        this.directorIds = directorIds;
+        this.movieIds = movieIds;
+        this.actorIds = actorIds;
+    }
+
+    public List<Long> getDirectorIds() {
+        return directorIds;
+    }
+
+    public List<Long> getMovieIds() {
+        return movieIds;
+    }
+
+    public List<Long> getActorIds() {
+        return actorIds;
+    }
+}
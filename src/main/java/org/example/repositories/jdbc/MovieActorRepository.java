@@ -0,0 +1,98 @@
+package org.example.repositories.jdbc;
+
+import org.example.dto.LinkReportDTO;
+import org.example.graph.LinkConsumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class MovieActorRepository {
+    public static final int MAX_LINKS = 1000;
+    public static final int STREAM_FETCH_SIZE = 10_000;
+    //оба id проверяются join'ом, дубль гасит on conflict, version поднимаем только если связь вставилась
+    private static final String INSERT_LINK_SQL = "with link as (" +
+            "insert into movie_actor (actor_id, movie_id) " +
+            "select a.actor_id, m.movie_id from movie m cross join actor a where m.movie_id = ? and a.actor_id = ? " +
+            "on conflict do nothing returning actor_id, movie_id), " +
+            "movie_version as (update movie set version = version + 1 where movie_id in (select movie_id from link)) " +
+            "update actor set version = version + 1 where actor_id in (select actor_id from link)";
+    private static final String DELETE_LINK_SQL = "with link as (" +
+            "delete from movie_actor where movie_id = ? and actor_id = ? returning actor_id, movie_id), " +
+            "movie_version as (update movie set version = version + 1 where movie_id in (select movie_id from link)) " +
+            "update actor set version = version + 1 where actor_id in (select actor_id from link)";
+    private static final String INSERT_ACTORS_SQL = insertLinksSql("movie", "actor");
+    private static final String INSERT_MOVIES_SQL = insertLinksSql("actor", "movie");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public MovieActorRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //Один statement вместо загрузки фильма, актера и их коллекций; false, если связь не вставилась
+    public boolean insertLink(Long movieId, Long actorId) {
+        return jdbcTemplate.update(INSERT_LINK_SQL, movieId, actorId) == 1;
+    }
+
+    //Удаляется ровно одна строка связи; false, если ее не было
+    public boolean deleteLink(Long movieId, Long actorId) {
+        return jdbcTemplate.update(DELETE_LINK_SQL, movieId, actorId) == 1;
+    }
+
+    //Должен вызываться в транзакции, иначе драйвер PostgreSQL прочитает всю таблицу связей разом
+    public void streamLinks(LinkConsumer consumer) {
+        jdbcTemplate.query("select actor_id, movie_id from movie_actor",
+                statement -> statement.setFetchSize(STREAM_FETCH_SIZE),
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong(1), rs.getLong(2)));
+    }
+
+    //Если фильма нет, ничего не создается, а все известные актеры попадают в existing,
+    //поэтому пустой created вызывающий должен перепроверить сам
+    public LinkReportDTO insertActors(Long movieId, Collection<Long> actorIds) {
+        return insertLinks(INSERT_ACTORS_SQL, movieId, actorIds);
+    }
+
+    public LinkReportDTO insertMovies(Long actorId, Collection<Long> movieIds) {
+        return insertLinks(INSERT_MOVIES_SQL, actorId, movieIds);
+    }
+
+    private LinkReportDTO insertLinks(String sql, Long ownerId, Collection<Long> ids) {
+        LinkReportDTO report = new LinkReportDTO(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setLong(1, ownerId);
+            statement.setArray(2, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        }, rs -> {
+            List<Long> target = !rs.getBoolean("known") ? report.getUnknown()
+                    : rs.getBoolean("created") ? report.getCreated() : report.getExisting();
+            target.add(rs.getLong("id"));
+        });
+        return report;
+    }
+
+    //Все id проверяются одним in, недостающие связи вставляются одним insert ... select,
+    //version поднимается у владельца и у тех, с кем связь действительно появилась
+    private static String insertLinksSql(String owner, String other) {
+        return "with owner as (select " + owner + "_id as id from " + owner + " where " + owner + "_id = ?), " +
+                "ids as (select distinct unnest(?) as id), " +
+                "known as (select " + other + "_id as id from " + other + " where " + other + "_id in (select id from ids)), " +
+                "link as (insert into movie_actor (" + owner + "_id, " + other + "_id) " +
+                "select o.id, k.id from owner o cross join known k " +
+                "on conflict do nothing returning " + other + "_id as id), " +
+                "owner_version as (update " + owner + " set version = version + 1 " +
+                "where " + owner + "_id in (select id from owner) and exists (select 1 from link)), " +
+                "other_version as (update " + other + " set version = version + 1 " +
+                "where " + other + "_id in (select id from link)) " +
+                "select ids.id, ids.id in (select id from known) as known, ids.id in (select id from link) as created " +
+                "from ids order by ids.id";
+    }
+}
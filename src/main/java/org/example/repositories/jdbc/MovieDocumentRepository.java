@@ -0,0 +1,74 @@
+package org.example.repositories.jdbc;
+
+import org.example.bulk.ImportTarget;
+import org.example.dto.VersionedDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+//Готовый JSON ответа GET /movie/{id} из movie_document. row_to_json и array_to_json пишут ключи в порядке колонок
+//и без пробелов, как Jackson для MovieDTO; jsonb_agg переставил бы ключи и добавил пробелы
+@Repository
+public class MovieDocumentRepository {
+    private static final String DOCUMENT = "(select convert_to(row_to_json(d)::text, 'UTF8') from (" +
+            "select m.movie_id as id, m.director_id as \"directorId\", m.name, m.year_of_production as year, " +
+            "coalesce((select array_to_json(array_agg(actors order by actors.id)) from (" +
+            "select a.actor_id as id, a.name, a.age, null::json as \"movieList\" from movie_actor ma " +
+            "join actor a on a.actor_id = ma.actor_id where ma.movie_id = m.movie_id) actors), '[]') as \"actorList\") d)";
+    private static final String UPSERT = "insert into movie_document (movie_id, body) select m.movie_id, " + DOCUMENT +
+            " from movie m ";
+    private static final String BY_IDS = "select unnest(?::bigint[])";
+    //документа может не быть: фильм загружен COPY и еще не дописан, тогда JSON собирается тем же запросом на лету
+    private static final String FIND_SQL = "select m.version, coalesce(d.body, " + DOCUMENT + ") as body from movie m " +
+            "left join movie_document d on d.movie_id = m.movie_id where m.movie_id = ?";
+    private static final String INSERT_MISSING_SQL = UPSERT + "where not exists (" +
+            "select 1 from movie_document d where d.movie_id = m.movie_id) order by m.movie_id on conflict do nothing";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public MovieDocumentRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //version берем из movie: OPTIMISTIC_FORCE_INCREMENT поднимает ее уже после пересборки документа
+    public VersionedDTO<byte[]> find(Long movieId) {
+        List<VersionedDTO<byte[]>> documents = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new VersionedDTO<>(rs.getLong("version"), rs.getBytes("body")), movieId);
+        return documents.isEmpty() ? null : documents.get(0);
+    }
+
+    //Удаленных фильмов в выборке нет, их документы уже снял каскад
+    public void refresh(Collection<Long> movieIds) {
+        if (movieIds.isEmpty())
+            return;
+        Long[] ids = movieIds.stream().sorted().toArray(Long[]::new);
+        refresh(BY_IDS, statement -> statement.setArray(1, statement.getConnection().createArrayOf("bigint", ids)));
+    }
+
+    //В транзакции пачки COPY, пока жива staging таблица: version затронутых фильмов уже поднята,
+    //и до commit'а их документы должны совпасть с данными, иначе под новым ETag закэшируют старое тело
+    public void refreshImported(ImportTarget target) {
+        if (target.getDocumentMoviesSql() != null)
+            refresh(target.getDocumentMoviesSql(), statement -> {
+            });
+    }
+
+    //Документы новых фильмов после импорта; до этого они собираются при чтении
+    public int insertMissing() {
+        return jdbcTemplate.update(INSERT_MISSING_SQL);
+    }
+
+    //Кто пересобирает документ вторым, ждет commit первого и читает уже его изменения: без блокировки
+    //insert ... select взял бы снимок до ожидания и перезаписал документ устаревшим
+    private void refresh(String movieIds, PreparedStatementSetter setter) {
+        jdbcTemplate.query("select movie_id from movie_document where movie_id in (" + movieIds + ") " +
+                "order by movie_id for update", setter, (rs, rowNum) -> rs.getLong(1));
+        jdbcTemplate.update(UPSERT + "where m.movie_id in (" + movieIds + ") order by m.movie_id " +
+                "on conflict (movie_id) do update set body = excluded.body", setter);
+    }
+}
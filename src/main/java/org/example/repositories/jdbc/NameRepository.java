@@ -0,0 +1,28 @@
+package org.example.repositories.jdbc;
+
+import org.example.autocomplete.NameType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.function.ObjLongConsumer;
+
+@Repository
+public class NameRepository {
+    public static final int STREAM_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public NameRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //Должен вызываться в транзакции: только тогда драйвер PostgreSQL читает таблицу курсором по fetch size
+    public void streamNames(NameType type, ObjLongConsumer<String> consumer) {
+        jdbcTemplate.query("select " + type.getIdColumn() + ", name from " + type.getTable(),
+                statement -> statement.setFetchSize(STREAM_FETCH_SIZE),
+                (RowCallbackHandler) rs -> consumer.accept(rs.getString(2), rs.getLong(1)));
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.repositories.jdbc;
+
+import org.example.dto.SearchHitDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class SearchRepository {
+    private static final List<String> TYPES = List.of("movie", "actor", "director");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //Каждая таблица ищется своим GIN индексом: целые слова через name_tsv, опечатки через триграммы (<% это
+    //word_similarity выше порога pg_trgm.word_similarity_threshold); ранг это сумма обоих, порядок rank desc, type, id.
+    //afterRank == null означает первую страницу
+    public List<SearchHitDTO> search(String text, Double afterRank, String afterType, long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("select type, id, name, rank from (");
+        for (String type : TYPES) {
+            if (!type.equals(TYPES.get(0)))
+                sql.append(" union all ");
+            sql.append("select '").append(type).append("' as type, ").append(type).append("_id as id, name, ")
+                    .append("(ts_rank(name_tsv, plainto_tsquery('simple', ?)) + word_similarity(?, name))::float8 as rank ")
+                    .append("from ").append(type).append(" where name_tsv @@ plainto_tsquery('simple', ?) or ? <% name");
+            args.addAll(List.of(text, text, text, text));
+        }
+        sql.append(") hits ");
+        if (afterRank != null) {
+            sql.append("where rank < ? or rank = ? and (type > ? or type = ? and id > ?) ");
+            args.addAll(List.of(afterRank, afterRank, afterType, afterType, afterId));
+        }
+        sql.append("order by rank desc, type, id limit ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new SearchHitDTO(rs.getString("type"), rs.getLong("id"), rs.getString("name"),
+                        rs.getDouble("rank")),
+                args.toArray());
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.repositories.jdbc;
+
+import org.example.dto.VersionedDTO;
+import org.example.fields.FieldSet;
+import org.example.fields.SparseResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+//Чтения под ?fields=: в SELECT только запрошенные колонки, join со вложенным списком только если он запрошен
+@Repository
+public class SparseRepository {
+    public static final int STREAM_FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SparseRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Map<String, Object>> findAll(FieldSet fields) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        query(fields, false, "", statement -> {
+        }, (id, version, row) -> rows.add(row));
+        return rows;
+    }
+
+    //Строки в порядке ids, удаленные к этому моменту пропускаются
+    public List<Map<String, Object>> findByIds(FieldSet fields, List<Long> ids) {
+        Map<Long, Map<String, Object>> rows = new HashMap<>();
+        query(fields, false, "where t." + fields.getResource().getIdColumn() + " = any(?) ",
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("bigint", ids.toArray())),
+                (id, version, row) -> rows.put(id, row));
+        return ids.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    //version читается всегда, по ней строится ETag
+    public Optional<VersionedDTO<Map<String, Object>>> findById(FieldSet fields, Long id) {
+        List<VersionedDTO<Map<String, Object>>> rows = new ArrayList<>(1);
+        query(fields, true, "where t." + fields.getResource().getIdColumn() + " = ? ",
+                statement -> statement.setLong(1, id),
+                (parentId, version, row) -> rows.add(new VersionedDTO<>(version, row)));
+        return rows.stream().findFirst();
+    }
+
+    //Должен вызываться в транзакции, иначе драйвер PostgreSQL игнорирует fetch size и читает все сразу
+    public void streamAll(FieldSet fields, Consumer<Map<String, Object>> consumer) {
+        query(fields, false, "", statement -> statement.setFetchSize(STREAM_FETCH_SIZE),
+                (id, version, row) -> consumer.accept(row));
+    }
+
+    private void query(FieldSet fields, boolean withVersion, String where, StatementSetter setter, RowConsumer consumer) {
+        Folder folder = new Folder(fields, withVersion, consumer);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(selectSql(fields, withVersion, where));
+            setter.set(statement);
+            return statement;
+        }, folder);
+        folder.flush();
+    }
+
+    //id родителя всегда первой колонкой: по нему собираются строки join'а, даже если в ответе его нет
+    private static String selectSql(FieldSet fields, boolean withVersion, String where) {
+        SparseResource resource = fields.getResource();
+        StringBuilder sql = new StringBuilder("select t.").append(resource.getIdColumn());
+        for (String field : fields.getFields()) {
+            String column = resource.columnOf(field);
+            if (column != null)
+                sql.append(", t.").append(column);
+        }
+        if (withVersion)
+            sql.append(", t.version");
+        if (fields.includesChildren())
+            sql.append(", ").append(resource.getChildColumns());
+        sql.append(" from ").append(resource.getTable()).append(" t ");
+        if (fields.includesChildren())
+            sql.append(resource.getChildJoin()).append(' ');
+        sql.append(where).append("order by t.").append(resource.getIdColumn());
+        if (fields.includesChildren())
+            sql.append(", c_id");
+        return sql.toString();
+    }
+
+    private interface StatementSetter {
+        void set(PreparedStatement statement) throws SQLException;
+    }
+
+    private interface RowConsumer {
+        void accept(Long id, Long version, Map<String, Object> row);
+    }
+
+    //Строки одного родителя идут подряд, родитель отдается, как только пришла строка следующего
+    private static final class Folder implements RowCallbackHandler {
+        private final FieldSet fields;
+        private final boolean withVersion;
+        private final RowConsumer consumer;
+        private Long id;
+        private Long version;
+        private Map<String, Object> row;
+        private List<Object> children;
+
+        private Folder(FieldSet fields, boolean withVersion, RowConsumer consumer) {
+            this.fields = fields;
+            this.withVersion = withVersion;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowId = rs.getLong(1);
+            if (row == null || id != rowId) {
+                flush();
+                start(rs, rowId);
+            }
+            if (children != null && rs.getObject("c_id") != null)
+                children.add(fields.getResource().getChildMapper().mapRow(rs, rs.getRow()));
+        }
+
+        private void start(ResultSet rs, long rowId) throws SQLException {
+            SparseResource resource = fields.getResource();
+            id = rowId;
+            row = new LinkedHashMap<>();
+            children = null;
+            int column = 2;
+            for (String field : fields.getFields()) {
+                if (field.equals(SparseResource.ID))
+                    row.put(field, rowId);
+                else if (field.equals(resource.getChildField())) {
+                    children = new ArrayList<>();
+                    row.put(field, children);
+                } else
+                    row.put(field, rs.getObject(column++));
+            }
+            version = withVersion ? rs.getLong(column) : null;
+        }
+
+        private void flush() {
+            if (row != null)
+                consumer.accept(id, version, row);
+            row = null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.repositories.jdbc;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+//Приращения агрегатов /stats за транзакцию. Ключи упорядочены: конкурентные транзакции берут блокировки строк
+//в одном порядке и не ловят deadlock
+public final class StatsDelta {
+    private final Map<Integer, Long> moviesByYear = new TreeMap<>();
+    private final Map<Long, Long> moviesByDirector = new TreeMap<>();
+    private final Map<Integer, Long> actorsByAge = new TreeMap<>();
+    private long links;
+
+    public void addMovie(int year, long directorId, long count) {
+        moviesByYear.merge(year, count, Long::sum);
+        moviesByDirector.merge(directorId, count, Long::sum);
+    }
+
+    public void addActor(int age, long count) {
+        actorsByAge.merge(age, count, Long::sum);
+    }
+
+    public void addLinks(long count) {
+        links += count;
+    }
+
+    public Map<Integer, Long> getMoviesByYear() {
+        return moviesByYear;
+    }
+
+    public Map<Long, Long> getMoviesByDirector() {
+        return moviesByDirector;
+    }
+
+    public Map<Integer, Long> getActorsByAge() {
+        return actorsByAge;
+    }
+
+    public long getLinks() {
+        return links;
+    }
+}
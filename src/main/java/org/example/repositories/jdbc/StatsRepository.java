@@ -0,0 +1,112 @@
+package org.example.repositories.jdbc;
+
+import org.example.dto.CastStatsDTO;
+import org.example.dto.StatsBucketDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+//Агрегаты /stats из NewTables.sql: запись приращениями, чтение без обращения к movie, actor и movie_actor
+@Repository
+public class StatsRepository {
+    public static final int LINK_SLOTS = 16;
+    private static final String ADD_MOVIES_BY_YEAR_SQL = "insert into stats_movies_by_year (year_of_production, movies) " +
+            "values (?, ?) on conflict (year_of_production) do update set movies = stats_movies_by_year.movies + excluded.movies";
+    private static final String ADD_MOVIES_BY_DIRECTOR_SQL = "insert into stats_movies_by_director (director_id, movies) " +
+            "values (?, ?) on conflict (director_id) do update set movies = stats_movies_by_director.movies + excluded.movies";
+    private static final String ADD_ACTORS_BY_AGE_SQL = "insert into stats_actors_by_age (age, actors) " +
+            "values (?, ?) on conflict (age) do update set actors = stats_actors_by_age.actors + excluded.actors";
+    //таблицы в том же порядке, в каком их берут приращения и DELETE'ы
+    private static final List<String> REBUILD_SQL = List.of(
+            "lock table stats_movies_by_year, stats_movies_by_director, stats_actors_by_age, stats_links in exclusive mode",
+            "delete from stats_movies_by_year",
+            "insert into stats_movies_by_year (year_of_production, movies) " +
+                    "select year_of_production, count(*) from movie group by year_of_production",
+            "delete from stats_movies_by_director",
+            "insert into stats_movies_by_director (director_id, movies) " +
+                    "select director_id, count(*) from movie group by director_id",
+            "delete from stats_actors_by_age",
+            "insert into stats_actors_by_age (age, actors) select age, count(*) from actor group by age",
+            "delete from stats_links",
+            "insert into stats_links (slot, links) select 0, count(*) from movie_actor",
+            "update stats_meta set rebuilt_at = now()");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public StatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //Upsert'ы одной пачкой на таблицу; нулевые приращения не трогают строки и не берут на них блокировку
+    public void apply(StatsDelta delta) {
+        batch(ADD_MOVIES_BY_YEAR_SQL, delta.getMoviesByYear());
+        batch(ADD_MOVIES_BY_DIRECTOR_SQL, delta.getMoviesByDirector());
+        batch(ADD_ACTORS_BY_AGE_SQL, delta.getActorsByAge());
+        if (delta.getLinks() != 0)
+            jdbcTemplate.update(addLinksSql("select ?::bigint"), delta.getLinks());
+    }
+
+    //Полный пересчет после COPY. Эксклюзивная блокировка ждет транзакции, уже писавшие приращения, а новые ждут
+    //commit пересчета и добавляют свое поверх, поэтому ничего не теряется и не считается дважды
+    public void rebuild() {
+        REBUILD_SQL.forEach(jdbcTemplate::update);
+    }
+
+    public List<StatsBucketDTO> moviesPerYear() {
+        return jdbcTemplate.query("select year_of_production, movies from stats_movies_by_year " +
+                        "where movies > 0 order by year_of_production",
+                (rs, rowNum) -> new StatsBucketDTO(rs.getLong(1), null, rs.getLong(2)));
+    }
+
+    //По индексу (movies desc, director_id) читается только сама первая страница
+    public List<StatsBucketDTO> moviesPerDirector(int limit) {
+        return jdbcTemplate.query("select s.director_id, d.name, s.movies from stats_movies_by_director s " +
+                        "join director d on d.director_id = s.director_id " +
+                        "where s.movies > 0 order by s.movies desc, s.director_id limit ?",
+                (rs, rowNum) -> new StatsBucketDTO(rs.getLong(1), rs.getString(2), rs.getLong(3)), limit);
+    }
+
+    public List<StatsBucketDTO> actorsByAge() {
+        return jdbcTemplate.query("select age, actors from stats_actors_by_age where actors > 0 order by age",
+                (rs, rowNum) -> new StatsBucketDTO(rs.getLong(1), null, rs.getLong(2)));
+    }
+
+    public CastStatsDTO castSize() {
+        return jdbcTemplate.queryForObject("select (select coalesce(sum(movies), 0) from stats_movies_by_year), " +
+                        "(select coalesce(sum(links), 0) from stats_links)",
+                (rs, rowNum) -> {
+                    long movies = rs.getLong(1);
+                    long links = rs.getLong(2);
+                    return new CastStatsDTO(movies, links, movies == 0 ? null : (double) links / movies);
+                });
+    }
+
+    public Instant rebuiltAt() {
+        return jdbcTemplate.queryForObject("select rebuilt_at from stats_meta", (rs, rowNum) ->
+                rs.getTimestamp(1).toInstant());
+    }
+
+    //Приращение числа связей в строку своего backend'а; count это select одного числа, DeleteRepository
+    //подставляет сюда подсчет удаляемых связей
+    static String addLinksSql(String count) {
+        return "insert into stats_links (slot, links) select pg_backend_pid() % " + LINK_SLOTS + ", links from (" +
+                count + ") c (links) where links <> 0 " +
+                "on conflict (slot) do update set links = stats_links.links + excluded.links";
+    }
+
+    private <K> void batch(String sql, Map<K, Long> counts) {
+        List<Object[]> args = new ArrayList<>();
+        counts.forEach((key, count) -> {
+            if (count != 0)
+                args.add(new Object[]{key, count});
+        });
+        if (!args.isEmpty())
+            jdbcTemplate.batchUpdate(sql, args);
+    }
+}
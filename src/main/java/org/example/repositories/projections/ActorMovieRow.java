@@ -0,0 +1,53 @@
+package org.example.repositories.projections;
+
+import org.example.dto.ActorDTO;
+import org.example.dto.MovieDTO;
+
+import java.util.ArrayList;
+
+//Актер и один из его фильмов
+public class ActorMovieRow implements JoinedRow<ActorDTO> {
+    private final Long actorId;
+    private final String name;
+    private final Integer age;
+    private final Long version;
+    private final Long movieId;
+    private final Long movieDirectorId;
+    private final String movieName;
+    private final Integer movieYear;
+
+    public ActorMovieRow(Long actorId, String name, Integer age, Long version,
+                         Long movieId, Long movieDirectorId, String movieName, Integer movieYear) {
+        this.actorId = actorId;
+        this.name = name;
+        this.age = age;
+        this.version = version;
+        this.movieId = movieId;
+        this.movieDirectorId = movieDirectorId;
+        this.movieName = movieName;
+        this.movieYear = movieYear;
+    }
+
+    @Override
+    public Long getParentId() {
+        return actorId;
+    }
+
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+
+    @Override
+    public ActorDTO toParent() {
+        ActorDTO actor = new ActorDTO(actorId, name, age);
+        actor.setMovieList(new ArrayList<>());
+        return actor;
+    }
+
+    @Override
+    public void addChildTo(ActorDTO actor) {
+        if (movieId != null)
+            actor.getMovieList().add(new MovieDTO(movieId, movieDirectorId, movieName, movieYear));
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.repositories.projections;
+
+import org.example.dto.DirectorDTO;
+import org.example.dto.MovieDTO;
+
+import java.util.ArrayList;
+
+//Режиссер и один из его фильмов
+public class DirectorMovieRow implements JoinedRow<DirectorDTO> {
+    private final Long directorId;
+    private final String name;
+    private final Integer age;
+    private final Long version;
+    private final Long movieId;
+    private final String movieName;
+    private final Integer movieYear;
+
+    public DirectorMovieRow(Long directorId, String name, Integer age, Long version,
+                            Long movieId, String movieName, Integer movieYear) {
+        this.directorId = directorId;
+        this.name = name;
+        this.age = age;
+        this.version = version;
+        this.movieId = movieId;
+        this.movieName = movieName;
+        this.movieYear = movieYear;
+    }
+
+    @Override
+    public Long getParentId() {
+        return directorId;
+    }
+
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+
+    @Override
+    public DirectorDTO toParent() {
+        DirectorDTO director = new DirectorDTO(directorId, name, age);
+        director.setMovieList(new ArrayList<>());
+        return director;
+    }
+
+    @Override
+    public void addChildTo(DirectorDTO director) {
+        if (movieId != null)
+            director.getMovieList().add(new MovieDTO(movieId, directorId, movieName, movieYear));
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.repositories.projections;
+
+//Строка left join'а: родитель и один из его дочерних элементов, у родителя без детей поля ребенка null
+public interface JoinedRow<D> {
+    Long getParentId();
+
+    Long getVersion();
+
+    //DTO родителя с пустым списком детей
+    D toParent();
+
+    void addChildTo(D parent);
+}
@@ -0,0 +1,65 @@
+package org.example.repositories.projections;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+//Сборка DTO из строк join'а, строки одного родителя должны идти подряд
+public final class JoinedRows {
+    //каждый id в in (...) это отдельный параметр запроса, а их число у PostgreSQL ограничено
+    public static final int IDS_PER_QUERY = 1000;
+
+    private JoinedRows() {
+    }
+
+    public static <D> List<D> fold(List<? extends JoinedRow<D>> rows) {
+        List<D> parents = new ArrayList<>();
+        fold(rows.iterator(), parents::add);
+        return parents;
+    }
+
+    //родитель отдается, как только пришла строка следующего, поэтому годится для потока
+    public static <D> void fold(Iterator<? extends JoinedRow<D>> rows, Consumer<D> consumer) {
+        Long parentId = null;
+        D parent = null;
+        while (rows.hasNext()) {
+            JoinedRow<D> row = rows.next();
+            if (parent == null || !parentId.equals(row.getParentId())) {
+                if (parent != null)
+                    consumer.accept(parent);
+                parentId = row.getParentId();
+                parent = row.toParent();
+            }
+            row.addChildTo(parent);
+        }
+        if (parent != null)
+            consumer.accept(parent);
+    }
+
+    //Страница: id уже отсортированы как надо, строки по ним идут в порядке id;
+    //удаленные между двумя запросами пропускаем
+    public static <D> List<D> fold(List<? extends JoinedRow<D>> rows, List<Long> ids) {
+        Map<Long, D> parents = new LinkedHashMap<>();
+        for (JoinedRow<D> row : rows)
+            row.addChildTo(parents.computeIfAbsent(row.getParentId(), id -> row.toParent()));
+        return ids.stream()
+                .map(parents::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    //То же для произвольного числа id: строки читаются кусками по IDS_PER_QUERY
+    public static <D> List<D> fold(List<Long> ids, Function<List<Long>, ? extends List<? extends JoinedRow<D>>> rows) {
+        List<D> parents = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + IDS_PER_QUERY));
+            parents.addAll(fold(rows.apply(chunk), chunk));
+        }
+        return parents;
+    }
+}
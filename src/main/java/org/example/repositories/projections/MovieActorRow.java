@@ -0,0 +1,53 @@
+package org.example.repositories.projections;
+
+import org.example.dto.ActorDTO;
+import org.example.dto.MovieDTO;
+
+import java.util.ArrayList;
+
+//Фильм и один из его актеров
+public class MovieActorRow implements JoinedRow<MovieDTO> {
+    private final Long movieId;
+    private final Long directorId;
+    private final String name;
+    private final Integer year;
+    private final Long version;
+    private final Long actorId;
+    private final String actorName;
+    private final Integer actorAge;
+
+    public MovieActorRow(Long movieId, Long directorId, String name, Integer year, Long version,
+                         Long actorId, String actorName, Integer actorAge) {
+        this.movieId = movieId;
+        this.directorId = directorId;
+        this.name = name;
+        this.year = year;
+        this.version = version;
+        this.actorId = actorId;
+        this.actorName = actorName;
+        this.actorAge = actorAge;
+    }
+
+    @Override
+    public Long getParentId() {
+        return movieId;
+    }
+
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+
+    @Override
+    public MovieDTO toParent() {
+        MovieDTO movie = new MovieDTO(movieId, directorId, name, year);
+        movie.setActorList(new ArrayList<>());
+        return movie;
+    }
+
+    @Override
+    public void addChildTo(MovieDTO movie) {
+        if (actorId != null)
+            movie.getActorList().add(new ActorDTO(actorId, actorName, actorAge));
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.repositories.specifications;
+
+import org.example.dto.ActorFilterDTO;
+import org.example.dto.DirectorFilterDTO;
+import org.example.dto.MovieFilterDTO;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.util.Arrays;
+import java.util.Objects;
+
+//Фильтры списков как Specification; null, если ни один фильтр не задан и можно идти обычными запросами
+public final class FilterSpecifications {
+
+    private FilterSpecifications() {
+    }
+
+    public static Specification<Movie> movies(MovieFilterDTO filter) {
+        if (filter == null)
+            return null;
+        return combine(
+                range("yearOfProduction", filter.getYearFrom(), filter.getYearTo()),
+                director(filter.getDirectorId()),
+                linkedTo("actorList", "actorId", filter.getActorId()),
+                namePrefix(filter.getName()));
+    }
+
+    public static Specification<Actor> actors(ActorFilterDTO filter) {
+        if (filter == null)
+            return null;
+        return combine(
+                range("age", filter.getAgeFrom(), filter.getAgeTo()),
+                linkedTo("movieList", "movieId", filter.getMovieId()),
+                namePrefix(filter.getName()));
+    }
+
+    public static Specification<Director> directors(DirectorFilterDTO filter) {
+        if (filter == null)
+            return null;
+        return combine(
+                range("age", filter.getAgeFrom(), filter.getAgeTo()),
+                namePrefix(filter.getName()));
+    }
+
+    @SafeVarargs
+    private static <T> Specification<T> combine(Specification<T>... specifications) {
+        return Arrays.stream(specifications)
+                .filter(Objects::nonNull)
+                .reduce(Specification::and)
+                .orElse(null);
+    }
+
+    private static <T> Specification<T> range(String attribute, Integer from, Integer to) {
+        if (from == null && to == null)
+            return null;
+        return (root, query, cb) -> from == null ? cb.le(root.get(attribute), to)
+                : to == null ? cb.ge(root.get(attribute), from)
+                : cb.between(root.get(attribute), from, to);
+    }
+
+    //внешний ключ director_id сравнивается без join'а с director
+    private static Specification<Movie> director(Long directorId) {
+        if (directorId == null)
+            return null;
+        return (root, query, cb) -> cb.equal(root.get("directorId").get("directorId"), directorId);
+    }
+
+    //like 'префикс%' идет по индексу с text_pattern_ops, поэтому регистр учитывается
+    private static <T> Specification<T> namePrefix(String name) {
+        if (name == null || name.isEmpty())
+            return null;
+        String pattern = name.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("name"), pattern, '\\');
+    }
+
+    //exists по связи, а не join: иначе строки родителя размножатся, а список детей обрежется фильтром
+    private static <T> Specification<T> linkedTo(String collection, String idAttribute, Long id) {
+        if (id == null)
+            return null;
+        return (root, query, cb) -> {
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Root<T> correlated = subquery.correlate(root);
+            Join<T, ?> linked = correlated.join(collection);
+            return cb.exists(subquery.select(cb.literal(1)).where(cb.equal(linked.get(idAttribute), id)));
+        };
+    }
+}
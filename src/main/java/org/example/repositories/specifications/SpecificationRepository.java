@@ -0,0 +1,68 @@
+package org.example.repositories.specifications;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+//Фильтры по Specification выбирают только id, DTO потом собираются теми же проекциями, что и без фильтров
+@Repository
+public class SpecificationRepository {
+    private final EntityManager entityManager;
+
+    @Autowired
+    public SpecificationRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public <T> List<Long> findIds(Class<T> type, Specification<T> specification) {
+        String id = idAttribute(type);
+        return query(type, specification, List.of(id)).getResultList();
+    }
+
+    //Условие после курсора и порядок те же, что в findPageBy* репозиториев, поэтому работают те же индексы
+    public <T> List<Long> findPageIds(Class<T> type, Specification<T> specification, String sortAttribute,
+                                      Comparable<?> afterValue, long afterId, Pageable pageable) {
+        String id = idAttribute(type);
+        Specification<T> after = sortAttribute.equals(id)
+                ? (root, query, cb) -> cb.greaterThan(root.get(id), afterId)
+                : after(sortAttribute, afterValue, id, afterId);
+        return query(type, specification.and(after), sortAttribute.equals(id) ? List.of(id) : List.of(sortAttribute, id))
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    private <T> TypedQuery<Long> query(Class<T> type, Specification<T> specification, List<String> orderBy) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(root.get(idAttribute(type)));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null)
+            query.where(predicate);
+        query.orderBy(orderBy.stream().map(attribute -> cb.asc(root.get(attribute))).toList());
+        return entityManager.createQuery(query);
+    }
+
+    private String idAttribute(Class<?> type) {
+        return entityManager.getMetamodel().entity(type).getId(Long.class).getName();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Specification<T> after(String sortAttribute, Comparable value, String id, long afterId) {
+        return (root, query, cb) -> {
+            Path<Comparable> sort = root.get(sortAttribute);
+            return cb.and(cb.greaterThanOrEqualTo(sort, value),
+                    cb.or(cb.greaterThan(sort, value), cb.greaterThan(root.get(id), afterId)));
+        };
+    }
+}
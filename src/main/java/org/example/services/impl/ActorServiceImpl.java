@@ -1,23 +1,56 @@
 package org.example.services.impl;
 
+import org.example.autocomplete.NameIndex;
+import org.example.autocomplete.NameType;
+import org.example.cache.DtoCaches;
+import org.example.cache.EntityChanges;
 import org.example.dto.ActorDTO;
+import org.example.dto.ActorFilterDTO;
+import org.example.dto.ActorPathDTO;
+import org.example.dto.LinkReportDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.VersionedDTO;
+import org.example.fields.FieldSet;
+import org.example.fields.SparseResource;
+import org.example.graph.CoStarGraph;
 import org.example.mapping.MapperDTO;
 import org.example.models.Actor;
 import org.example.models.Director;
 import org.example.models.Movie;
+import org.example.paging.KeysetCursor;
+import org.example.paging.KeysetPage;
 import org.example.repositories.ActorRepository;
 import org.example.repositories.DirectorRepository;
 import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.DeleteRepository;
+import org.example.repositories.jdbc.DeleteResult;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.example.repositories.jdbc.SparseRepository;
+import org.example.repositories.projections.ActorMovieRow;
+import org.example.repositories.projections.JoinedRows;
+import org.example.repositories.specifications.FilterSpecifications;
+import org.example.repositories.specifications.SpecificationRepository;
 import org.example.services.interfaces.ActorService;
+import org.example.stats.StatsChanges;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
@@ -28,25 +61,117 @@ public class ActorServiceImpl implements ActorService {
     private final DirectorRepository directorRepository;
     private final MovieRepository movieRepository;
     private final MapperDTO mapperDTO;
+    private final DtoCaches dtoCaches;
+    private final EntityChanges entityChanges;
+    private final MovieActorRepository movieActorRepository;
+    private final DeleteRepository deleteRepository;
+    private final SparseRepository sparseRepository;
+    private final SpecificationRepository specificationRepository;
+    private final NameIndex nameIndex;
+    private final CoStarGraph coStarGraph;
+    private final StatsChanges statsChanges;
 
     @Autowired
-    public ActorServiceImpl(ActorRepository actorRepository, DirectorRepository directorRepository, MovieRepository movieRepository, MapperDTO mapperDTO) {
+    public ActorServiceImpl(ActorRepository actorRepository, DirectorRepository directorRepository,
+                            MovieRepository movieRepository, MapperDTO mapperDTO,
+                            DtoCaches dtoCaches, EntityChanges entityChanges, MovieActorRepository movieActorRepository,
+                            DeleteRepository deleteRepository, SparseRepository sparseRepository,
+                            SpecificationRepository specificationRepository, NameIndex nameIndex,
+                            CoStarGraph coStarGraph, StatsChanges statsChanges) {
         this.actorRepository = actorRepository;
         this.directorRepository = directorRepository;
         this.movieRepository = movieRepository;
         this.mapperDTO = mapperDTO;
+        this.dtoCaches = dtoCaches;
+        this.entityChanges = entityChanges;
+        this.movieActorRepository = movieActorRepository;
+        this.deleteRepository = deleteRepository;
+        this.sparseRepository = sparseRepository;
+        this.specificationRepository = specificationRepository;
+        this.nameIndex = nameIndex;
+        this.coStarGraph = coStarGraph;
+        this.statsChanges = statsChanges;
     }
 
     public ActorDTO findById(Long id) {
+        return findVersionedById(id).getBody();
+    }
+
+    public VersionedDTO<ActorDTO> findVersionedById(Long id) {
+        if (id == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id актера");
+        return dtoCaches.actors().get(id, key -> {
+            List<ActorMovieRow> rows = actorRepository.findRowsById(key);
+            if (rows.isEmpty())
+                throw new ResponseStatusException(BAD_REQUEST, "Актера с таким id в базе нет");
+            return new VersionedDTO<>(rows.get(0).getVersion(), JoinedRows.fold(rows).get(0));
+        });
+    }
+
+    public Long findVersion(Long id) {
         if (id == null)
             throw new ResponseStatusException(BAD_REQUEST, "Введите id актера");
-        return mapperDTO.toActorDTOWithoutMovies(checkOptionalActor(id));
+        return actorRepository.findVersionById(id).orElse(null);
     }
 
     public List<ActorDTO> findAll() {
-        return actorRepository.findAll().stream()
-                .map(mapperDTO::toActorDTOWithoutMovies)
-                .toList();
+        return JoinedRows.fold(actorRepository.findAllRows());
+    }
+
+    public List<ActorDTO> findAll(ActorFilterDTO filter) {
+        Specification<Actor> specification = FilterSpecifications.actors(filter);
+        if (specification == null)
+            return findAll();
+        return JoinedRows.fold(specificationRepository.findIds(Actor.class, specification), actorRepository::findRowsByIds);
+    }
+
+    public PageDTO<ActorDTO> findPage(String sort, String after, Integer limit) {
+        return findPage(sort, after, limit, null);
+    }
+
+    public PageDTO<ActorDTO> findPage(String sort, String after, Integer limit, ActorFilterDTO filter) {
+        List<Long> ids = findPageIds(sort, after, limit, FilterSpecifications.actors(filter));
+        List<ActorDTO> actors = JoinedRows.fold(ids, actorRepository::findRowsByIds);
+        return KeysetPage.of(actors, limit, Function.identity(), actor -> KeysetCursor.of(sort, actor.getId(),
+                switch (sort) {
+                    case "name" -> actor.getName();
+                    case "age" -> actor.getAge();
+                    default -> null;
+                }));
+    }
+
+    public void streamAll(Consumer<ActorDTO> consumer) {
+        try (Stream<ActorMovieRow> rows = actorRepository.streamAllRows()) {
+            JoinedRows.fold(rows.iterator(), consumer);
+        }
+    }
+
+    public VersionedDTO<Map<String, Object>> findVersionedById(Long id, String fields) {
+        if (id == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id актера");
+        return sparseRepository.findById(FieldSet.parse(SparseResource.ACTORS, fields), id)
+                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "Актера с таким id в базе нет"));
+    }
+
+    public List<Map<String, Object>> findAll(String fields, ActorFilterDTO filter) {
+        FieldSet fieldSet = FieldSet.parse(SparseResource.ACTORS, fields);
+        Specification<Actor> specification = FilterSpecifications.actors(filter);
+        if (specification == null)
+            return sparseRepository.findAll(fieldSet);
+        return sparseRepository.findByIds(fieldSet, specificationRepository.findIds(Actor.class, specification));
+    }
+
+    public PageDTO<Map<String, Object>> findPage(String sort, String after, Integer limit, String fields, ActorFilterDTO filter) {
+        FieldSet fieldSet = FieldSet.parse(SparseResource.ACTORS, fields);
+        List<Long> ids = findPageIds(sort, after, limit, FilterSpecifications.actors(filter));
+        List<Map<String, Object>> actors = ids.isEmpty() ? List.of()
+                : sparseRepository.findByIds(fieldSet.with(SparseResource.ID, sort), ids);
+        return KeysetPage.of(actors, limit, fieldSet::trim, actor -> KeysetCursor.of(sort,
+                (Long) actor.get(SparseResource.ID), sort.equals(SparseResource.ID) ? null : actor.get(sort)));
+    }
+
+    public void streamAll(String fields, Consumer<Map<String, Object>> consumer) {
+        sparseRepository.streamAll(FieldSet.parse(SparseResource.ACTORS, fields), consumer);
     }
 
     @Transactional
@@ -58,16 +183,20 @@ public class ActorServiceImpl implements ActorService {
         }
         if (actorDTO.getMovieList() == null || actorDTO.getMovieList().isEmpty()) {
             Actor actor = actorRepository.save(mapperDTO.toActor(actorDTO));
-            actor.setMovieList(new ArrayList<>());
+            actor.setMovieList(new HashSet<>());
+            nameIndex.saved(actor);
+            statsChanges.actorCreated(actor);
         } else {
             boolean checkActorsNull = actorDTO.getMovieList().stream()
                     .allMatch(movie -> movie.getActorList() == null && movie.getId() == null && movie.getDirectorId() != null
                             && movie.getYear() != null && movie.getYear() > 1900 && movie.getName() != null);
             if (checkActorsNull) {
                 Actor actor = mapperDTO.toActor(actorDTO);
-                List<Movie> movies = actor.getMovieList();
-                actor.setMovieList(new ArrayList<>());
+                Set<Movie> movies = actor.getMovieList();
+                actor.setMovieList(new HashSet<>());
                 Actor saveActor = actorRepository.save(actor);
+                nameIndex.saved(saveActor);
+                statsChanges.actorCreated(saveActor);
                 forMoviesAddMovieRepository(saveActor, movies);
             } else
                 throw new ResponseStatusException(BAD_REQUEST, "У актера должен быть или пустой список фильмов " +
@@ -86,8 +215,13 @@ public class ActorServiceImpl implements ActorService {
         }
         if (actorDTO.getMovieList() == null || actorDTO.getMovieList().isEmpty()) {//Не меняем список фильмов
             Actor checkActor = checkOptionalActor(actorDTO.getId());
+            Integer oldAge = checkActor.getAge();
+            entityChanges.changed(checkActor);
+            embeddersChanged(checkActor);
             checkActor.setAge(actorDTO.getAge());
             checkActor.setName(actorDTO.getName());
+            nameIndex.saved(checkActor);
+            statsChanges.actorChanged(oldAge, checkActor);
         } else {
             boolean checkActorsNull = actorDTO.getMovieList().stream()
                     .allMatch(movie -> movie.getActorList() == null && movie.getId() == null && movie.getDirectorId() != null
@@ -95,11 +229,16 @@ public class ActorServiceImpl implements ActorService {
 
             if (checkActorsNull) {
                 Actor checkActor = checkOptionalActor(actorDTO.getId());// из базы
+                Integer oldAge = checkActor.getAge();
+                entityChanges.changed(checkActor);
+                embeddersChanged(checkActor);
                 checkActor.setName(actorDTO.getName());
                 checkActor.setAge(actorDTO.getAge());
+                nameIndex.saved(checkActor);
+                statsChanges.actorChanged(oldAge, checkActor);
 
                 Actor actor = mapperDTO.toActor(actorDTO);// мой из dto
-                List<Movie> movies = actor.getMovieList();
+                Set<Movie> movies = actor.getMovieList();
                 forMoviesAddMovieRepository(checkActor, movies);
             } else
                 throw new ResponseStatusException(BAD_REQUEST, "У актера должен быть или пустой список фильмов " +
@@ -109,29 +248,100 @@ public class ActorServiceImpl implements ActorService {
         }
     }
 
-    private void forMoviesAddMovieRepository(Actor checkActor, List<Movie> movies) {
+    private List<Long> findPageIds(String sort, String after, Integer limit, Specification<Actor> specification) {
+        Pageable pageable = KeysetPage.request(limit);
+        KeysetCursor cursor = KeysetPage.cursor(sort, after);
+        return switch (sort) {
+            case "id" -> specification == null
+                    ? actorRepository.findPageById(cursor.getId(), pageable)
+                    : specificationRepository.findPageIds(Actor.class, specification, "actorId", null,
+                    cursor.getId(), pageable);
+            case "name" -> specification == null
+                    ? actorRepository.findPageByName(cursor.stringValue(), cursor.getId(), pageable)
+                    : specificationRepository.findPageIds(Actor.class, specification, "name", cursor.stringValue(),
+                    cursor.getId(), pageable);
+            case "age" -> specification == null
+                    ? actorRepository.findPageByAge(cursor.intValue(), cursor.getId(), pageable)
+                    : specificationRepository.findPageIds(Actor.class, specification, "age", cursor.intValue(),
+                    cursor.getId(), pageable);
+            default -> throw new ResponseStatusException(BAD_REQUEST, "Актеров можно сортировать только по id, name или age");
+        };
+    }
+
+    private void forMoviesAddMovieRepository(Actor checkActor, Set<Movie> movies) {
         for (Movie movie : movies) {
             Long directorId = movie.getDirector().getDirectorId();
             Optional<Director> director = directorRepository.findById(directorId);
             if (director.isPresent()) {
                 Director directorPersistent = director.get();
+                entityChanges.changed(directorPersistent);
                 movie.setDirector(directorPersistent);
-                movie.setActorList(new ArrayList<>(List.of(checkActor)));
+                movie.setActorList(new HashSet<>(Set.of(checkActor)));
                 Movie saveMovie = movieRepository.save(movie);
                 directorPersistent.getMovieList().add(saveMovie);
                 checkActor.getMovieList().add(saveMovie);
+                nameIndex.saved(saveMovie);
+                coStarGraph.linked(saveMovie.getMovieId(), checkActor.getActorId());
+                entityChanges.created(saveMovie);
+                statsChanges.movieCreated(saveMovie);
+                statsChanges.linksAdded(1);
             } else {
                 throw new ResponseStatusException(BAD_REQUEST, "У фильма directorId = " + directorId + ", режиссера с таким id нет в базе");
             }
         }
     }
 
+    @Transactional
+    public LinkReportDTO addMovies(Long actorId, List<Long> movieIds) {
+        if (actorId == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id актера");
+        if (movieIds == null || movieIds.isEmpty() || movieIds.stream().anyMatch(Objects::isNull))
+            throw new ResponseStatusException(BAD_REQUEST, "Передайте в теле запроса непустой массив id фильмов");
+        if (movieIds.size() > MovieActorRepository.MAX_LINKS)
+            throw new ResponseStatusException(BAD_REQUEST, "За один запрос можно связать не больше " +
+                    MovieActorRepository.MAX_LINKS + " фильмов");
+        LinkReportDTO report;
+        try {
+            report = movieActorRepository.insertMovies(actorId, movieIds);
+        } catch (DataIntegrityViolationException e) {
+            //как в MovieServiceImpl.addLinkMovieActor: кого-то из них удалили параллельно
+            throw new ResponseStatusException(BAD_REQUEST, "Фильма или актера с таким id в базе нет");
+        }
+        if (report.getCreated().isEmpty()) {
+            if (actorRepository.findVersionById(actorId).isEmpty())
+                throw new ResponseStatusException(BAD_REQUEST, "Актера с таким id в базе нет");
+        } else {
+            entityChanges.linksChanged(report.getCreated(), List.of(actorId));
+            coStarGraph.linked(report.getCreated(), List.of(actorId));
+            statsChanges.linksAdded(report.getCreated().size());
+        }
+        return report;
+    }
+
+    //Отвечает граф в памяти; в нем только актеры со связями, поэтому есть ли актер в базе, проверяем, лишь когда цепочки нет
+    public ActorPathDTO findPath(Long fromId, Long toId) {
+        if (fromId == null || toId == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id обоих актеров");
+        List<Long> path = coStarGraph.path(fromId, toId);
+        if (path.size() < 2 && (actorRepository.findVersionById(fromId).isEmpty() ||
+                actorRepository.findVersionById(toId).isEmpty()))
+            throw new ResponseStatusException(BAD_REQUEST, "Актера с таким id в базе нет");
+        List<Long> actorIds = new ArrayList<>();
+        List<Long> movieIds = new ArrayList<>();
+        for (int i = 0; i < path.size(); i++)
+            (i % 2 == 0 ? actorIds : movieIds).add(path.get(i));
+        return new ActorPathDTO(path.isEmpty() ? null : movieIds.size(), actorIds, movieIds);
+    }
+
     @Transactional
     public void delete(Long id) {
         if (id == null)
             throw new ResponseStatusException(BAD_REQUEST, "Введите id актера");
-        checkOptionalActor(id);
-        actorRepository.deleteById(id);
+        DeleteResult result = deleteRepository.deleteActor(id)
+                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "Актера с таким id в базе нет"));
+        entityChanges.deleted(result);
+        nameIndex.deleted(NameType.ACTOR, result.getActorIds());
+        coStarGraph.actorsDeleted(result.getActorIds());
     }
 
     private Actor checkOptionalActor(Long id) {
@@ -140,4 +350,9 @@ public class ActorServiceImpl implements ActorService {
             return optionalActor.get();
         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Актера с таким id в базе нет");
     }
+
+    //актер встроен в DTO своих фильмов
+    private void embeddersChanged(Actor actor) {
+        actor.getMovieList().forEach(entityChanges::changed);
+    }
 }
@@ -0,0 +1,35 @@
+package org.example.services.impl;
+
+import org.example.autocomplete.NameIndex;
+import org.example.dto.AutocompleteHitDTO;
+import org.example.services.interfaces.AutocompleteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+//Запросы идут на каждое нажатие клавиши, поэтому отвечает индекс в памяти, база не трогается
+@Service
+public class AutocompleteServiceImpl implements AutocompleteService {
+    public static final int MAX_LIMIT = 100;
+
+    private final NameIndex nameIndex;
+
+    @Autowired
+    public AutocompleteServiceImpl(NameIndex nameIndex) {
+        this.nameIndex = nameIndex;
+    }
+
+    public List<AutocompleteHitDTO> complete(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank())
+            throw new ResponseStatusException(BAD_REQUEST, "Введите начало имени prefix");
+        if (limit == null || limit < 1 || limit > MAX_LIMIT)
+            throw new ResponseStatusException(BAD_REQUEST, "limit должен быть от 1 до " + MAX_LIMIT);
+        return nameIndex.find(prefix.stripLeading(), limit).stream()
+                .map(entry -> new AutocompleteHitDTO(entry.getType().getType(), entry.getId(), entry.getName()))
+                .toList();
+    }
+}
@@ -1,20 +1,47 @@
 package org.example.services.impl;
 
+import org.example.autocomplete.NameIndex;
+import org.example.autocomplete.NameType;
+import org.example.cache.DtoCaches;
+import org.example.cache.EntityChanges;
 import org.example.dto.DirectorDTO;
+import org.example.dto.DirectorFilterDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.VersionedDTO;
+import org.example.fields.FieldSet;
+import org.example.fields.SparseResource;
+import org.example.graph.CoStarGraph;
 import org.example.mapping.MapperDTO;
 import org.example.models.Director;
 import org.example.models.Movie;
+import org.example.paging.KeysetCursor;
+import org.example.paging.KeysetPage;
 import org.example.repositories.DirectorRepository;
 import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.DeleteRepository;
+import org.example.repositories.jdbc.DeleteResult;
+import org.example.repositories.jdbc.SparseRepository;
+import org.example.repositories.projections.DirectorMovieRow;
+import org.example.repositories.projections.JoinedRows;
+import org.example.repositories.specifications.FilterSpecifications;
+import org.example.repositories.specifications.SpecificationRepository;
 import org.example.services.interfaces.DirectorService;
+import org.example.stats.StatsChanges;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
@@ -24,24 +51,113 @@ public class DirectorServiceImpl implements DirectorService {
     private final DirectorRepository directorRepository;
     private final MovieRepository movieRepository;
     private final MapperDTO mapperDTO;
+    private final DtoCaches dtoCaches;
+    private final EntityChanges entityChanges;
+    private final DeleteRepository deleteRepository;
+    private final SparseRepository sparseRepository;
+    private final SpecificationRepository specificationRepository;
+    private final NameIndex nameIndex;
+    private final CoStarGraph coStarGraph;
+    private final StatsChanges statsChanges;
 
     @Autowired
-    public DirectorServiceImpl(DirectorRepository directorRepository, MovieRepository movieRepository, MapperDTO mapperDTO) {
+    public DirectorServiceImpl(DirectorRepository directorRepository, MovieRepository movieRepository, MapperDTO mapperDTO,
+                               DtoCaches dtoCaches, EntityChanges entityChanges, DeleteRepository deleteRepository,
+                               SparseRepository sparseRepository,
+                               SpecificationRepository specificationRepository, NameIndex nameIndex,
+                               CoStarGraph coStarGraph, StatsChanges statsChanges) {
         this.directorRepository = directorRepository;
         this.movieRepository = movieRepository;
         this.mapperDTO = mapperDTO;
+        this.dtoCaches = dtoCaches;
+        this.entityChanges = entityChanges;
+        this.deleteRepository = deleteRepository;
+        this.sparseRepository = sparseRepository;
+        this.specificationRepository = specificationRepository;
+        this.nameIndex = nameIndex;
+        this.coStarGraph = coStarGraph;
+        this.statsChanges = statsChanges;
     }
 
     public DirectorDTO findById(Long id) {
+        return findVersionedById(id).getBody();
+    }
+
+    public VersionedDTO<DirectorDTO> findVersionedById(Long id) {
         if (id == null)
             throw new ResponseStatusException(BAD_REQUEST, "Введите id режиссера");
-        return mapperDTO.toDirectorDTOWithMoviesWithoutActors(checkOptionalDirector(id));
+        return dtoCaches.directors().get(id, key -> {
+            List<DirectorMovieRow> rows = directorRepository.findRowsById(key);
+            if (rows.isEmpty())
+                throw new ResponseStatusException(BAD_REQUEST, "Режиссера с таким id в базе нет");
+            return new VersionedDTO<>(rows.get(0).getVersion(), JoinedRows.fold(rows).get(0));
+        });
+    }
+
+    public Long findVersion(Long id) {
+        if (id == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id режиссера");
+        return directorRepository.findVersionById(id).orElse(null);
     }
 
     public List<DirectorDTO> findAll() {
-        return directorRepository.findAll().stream()
-                .map(mapperDTO::toDirectorDTOWithMoviesWithoutActors)
-                .toList();
+        return JoinedRows.fold(directorRepository.findAllRows());
+    }
+
+    public List<DirectorDTO> findAll(DirectorFilterDTO filter) {
+        Specification<Director> specification = FilterSpecifications.directors(filter);
+        if (specification == null)
+            return findAll();
+        return JoinedRows.fold(specificationRepository.findIds(Director.class, specification), directorRepository::findRowsByIds);
+    }
+
+    public PageDTO<DirectorDTO> findPage(String sort, String after, Integer limit) {
+        return findPage(sort, after, limit, null);
+    }
+
+    public PageDTO<DirectorDTO> findPage(String sort, String after, Integer limit, DirectorFilterDTO filter) {
+        List<Long> ids = findPageIds(sort, after, limit, FilterSpecifications.directors(filter));
+        List<DirectorDTO> directors = JoinedRows.fold(ids, directorRepository::findRowsByIds);
+        return KeysetPage.of(directors, limit, Function.identity(), director -> KeysetCursor.of(sort, director.getId(),
+                switch (sort) {
+                    case "name" -> director.getName();
+                    case "age" -> director.getAge();
+                    default -> null;
+                }));
+    }
+
+    public void streamAll(Consumer<DirectorDTO> consumer) {
+        try (Stream<DirectorMovieRow> rows = directorRepository.streamAllRows()) {
+            JoinedRows.fold(rows.iterator(), consumer);
+        }
+    }
+
+    public VersionedDTO<Map<String, Object>> findVersionedById(Long id, String fields) {
+        if (id == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id режиссера");
+        return sparseRepository.findById(FieldSet.parse(SparseResource.DIRECTORS, fields), id)
+                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "Режиссера с таким id в базе нет"));
+    }
+
+    public List<Map<String, Object>> findAll(String fields, DirectorFilterDTO filter) {
+        FieldSet fieldSet = FieldSet.parse(SparseResource.DIRECTORS, fields);
+        Specification<Director> specification = FilterSpecifications.directors(filter);
+        if (specification == null)
+            return sparseRepository.findAll(fieldSet);
+        return sparseRepository.findByIds(fieldSet, specificationRepository.findIds(Director.class, specification));
+    }
+
+    public PageDTO<Map<String, Object>> findPage(String sort, String after, Integer limit, String fields, DirectorFilterDTO filter) {
+        FieldSet fieldSet = FieldSet.parse(SparseResource.DIRECTORS, fields);
+        List<Long> ids = findPageIds(sort, after, limit, FilterSpecifications.directors(filter));
+        List<Map<String, Object>> directors = ids.isEmpty() ? List.of()
+                : sparseRepository.findByIds(fieldSet.with(SparseResource.ID, sort), ids);
+        return KeysetPage.of(directors, limit, fieldSet::trim, director -> KeysetCursor.of(sort,
+                (Long) director.get(SparseResource.ID), sort.equals(SparseResource.ID) ? null : director.get(sort)));
+    }
+
+    public void streamAll(String fields, Consumer<Map<String, Object>> consumer) {
+        sparseRepository.streamAll(FieldSet.parse(SparseResource.DIRECTORS, fields), consumer);
     }
 
     @Transactional
@@ -54,6 +170,7 @@ public class DirectorServiceImpl implements DirectorService {
         if (directorDTO.getMovieList() == null || directorDTO.getMovieList().isEmpty()) {
             Director director = directorRepository.save(mapperDTO.toDirector(directorDTO));
             director.setMovieList(new ArrayList<>());
+            nameIndex.saved(director);
         } else {
             boolean checkActorsNull = directorDTO.getMovieList().stream()
                     .allMatch(movie -> movie.getActorList() == null && movie.getId() == null && movie.getDirectorId() == null
@@ -63,12 +180,16 @@ public class DirectorServiceImpl implements DirectorService {
                 List<Movie> movies = director.getMovieList();
                 director.setMovieList(new ArrayList<>());
                 Director saveDirector = directorRepository.save(director);
+                nameIndex.saved(saveDirector);
 
                 for (Movie movie : movies) {
                     movie.setDirector(saveDirector);
-                    movie.setActorList(new ArrayList<>());
+                    movie.setActorList(new HashSet<>());
                     Movie saveMovie = movieRepository.save(movie);
                     saveDirector.getMovieList().add(saveMovie);
+                    nameIndex.saved(saveMovie);
+                    entityChanges.created(saveMovie);
+                    statsChanges.movieCreated(saveMovie);
                 }
             } else
                 throw new ResponseStatusException(BAD_REQUEST, "У режиссера должен быть или пустой список фильмов " +
@@ -87,8 +208,10 @@ public class DirectorServiceImpl implements DirectorService {
         }
         if (directorDTO.getMovieList() == null || directorDTO.getMovieList().isEmpty()) {
             Director checkDirector = checkOptionalDirector(directorDTO.getId());
+            entityChanges.changed(checkDirector);
             checkDirector.setAge(directorDTO.getAge());
             checkDirector.setName(directorDTO.getName());
+            nameIndex.saved(checkDirector);
         } else {
             boolean checkActorsNull = directorDTO.getMovieList().stream()
                     .allMatch(movie -> movie.getActorList() == null && movie.getId() == null && movie.getDirectorId() == null
@@ -96,16 +219,21 @@ public class DirectorServiceImpl implements DirectorService {
 
             if (checkActorsNull) {
                 Director checkDirector = checkOptionalDirector(directorDTO.getId());// из базы
+                entityChanges.changed(checkDirector);
                 checkDirector.setName(directorDTO.getName());
                 checkDirector.setAge(directorDTO.getAge());
+                nameIndex.saved(checkDirector);
                 Director director = mapperDTO.toDirector(directorDTO);// мой из dto
                 List<Movie> movies = director.getMovieList();
 
                 for (Movie movie : movies) {
                     movie.setDirector(checkDirector);
-                    movie.setActorList(new ArrayList<>());
+                    movie.setActorList(new HashSet<>());
                     Movie saveMovie = movieRepository.save(movie);
                     checkDirector.getMovieList().add(saveMovie);
+                    nameIndex.saved(saveMovie);
+                    entityChanges.created(saveMovie);
+                    statsChanges.movieCreated(saveMovie);
                 }
             } else
                 throw new ResponseStatusException(BAD_REQUEST, "У режиссера должен быть или пустой список фильмов " +
@@ -119,8 +247,34 @@ public class DirectorServiceImpl implements DirectorService {
     public void delete(Long id) {
         if (id == null)
             throw new ResponseStatusException(BAD_REQUEST, "Введите id режиссера");
-        checkOptionalDirector(id);
-        directorRepository.deleteById(id);
+        //один DELETE без предварительного SELECT, фильмы режиссера и их связи уходят каскадом в базе
+        DeleteResult result = deleteRepository.deleteDirector(id)
+                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "Режиссера с таким id в базе нет"));
+        entityChanges.deleted(result);
+        //фильмы режиссера удалены каскадом вместе с ним
+        nameIndex.deleted(NameType.DIRECTOR, result.getDirectorIds());
+        nameIndex.deleted(NameType.MOVIE, result.getMovieIds());
+        coStarGraph.moviesDeleted(result.getMovieIds());
+    }
+
+    private List<Long> findPageIds(String sort, String after, Integer limit, Specification<Director> specification) {
+        Pageable pageable = KeysetPage.request(limit);
+        KeysetCursor cursor = KeysetPage.cursor(sort, after);
+        return switch (sort) {
+            case "id" -> specification == null
+                    ? directorRepository.findPageById(cursor.getId(), pageable)
+                    : specificationRepository.findPageIds(Director.class, specification, "directorId", null,
+                    cursor.getId(), pageable);
+            case "name" -> specification == null
+                    ? directorRepository.findPageByName(cursor.stringValue(), cursor.getId(), pageable)
+                    : specificationRepository.findPageIds(Director.class, specification, "name", cursor.stringValue(),
+                    cursor.getId(), pageable);
+            case "age" -> specification == null
+                    ? directorRepository.findPageByAge(cursor.intValue(), cursor.getId(), pageable)
+                    : specificationRepository.findPageIds(Director.class, specification, "age", cursor.intValue(),
+                    cursor.getId(), pageable);
+            default -> throw new ResponseStatusException(BAD_REQUEST, "Режиссеров можно сортировать только по id, name или age");
+        };
     }
 
     private Director checkOptionalDirector(Long id) {
@@ -129,5 +283,4 @@ public class DirectorServiceImpl implements DirectorService {
             return optionalDirector.get();
         throw new ResponseStatusException(BAD_REQUEST, "Режиссера с таким id в базе нет");
     }
-
 }
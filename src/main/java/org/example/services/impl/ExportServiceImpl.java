@@ -0,0 +1,26 @@
+package org.example.services.impl;
+
+import org.example.bulk.ExportFormat;
+import org.example.bulk.ExportSource;
+import org.example.repositories.jdbc.BulkExportRepository;
+import org.example.services.interfaces.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+
+@Service
+@Transactional(readOnly = true)
+public class ExportServiceImpl implements ExportService {
+    private final BulkExportRepository bulkExportRepository;
+
+    @Autowired
+    public ExportServiceImpl(BulkExportRepository bulkExportRepository) {
+        this.bulkExportRepository = bulkExportRepository;
+    }
+
+    public long export(ExportSource source, ExportFormat format, OutputStream out) {
+        return bulkExportRepository.export(source, format, out);
+    }
+}
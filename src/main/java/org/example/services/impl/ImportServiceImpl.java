@@ -0,0 +1,157 @@
+package org.example.services.impl;
+
+import org.example.autocomplete.NameIndex;
+import org.example.autocomplete.NameType;
+import org.example.bulk.CsvRecordReader;
+import org.example.bulk.ImportRecordReader;
+import org.example.bulk.ImportTarget;
+import org.example.bulk.NdjsonRecordReader;
+import org.example.cache.DtoCache;
+import org.example.cache.DtoCaches;
+import org.example.dto.ImportBatchDTO;
+import org.example.dto.ImportReportDTO;
+import org.example.graph.CoStarGraph;
+import org.example.json.DtoJson;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.jdbc.BulkImportRepository;
+import org.example.repositories.jdbc.MovieDocumentRepository;
+import org.example.repositories.jdbc.StatsRepository;
+import org.example.services.interfaces.ImportService;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@Service
+public class ImportServiceImpl implements ImportService {
+    public static final int BATCH_SIZE = 10_000;
+
+    private final BulkImportRepository bulkImportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DtoCaches dtoCaches;
+    private final NameIndex nameIndex;
+    private final CoStarGraph coStarGraph;
+    private final StatsRepository statsRepository;
+    private final MovieDocumentRepository movieDocumentRepository;
+
+    @Autowired
+    public ImportServiceImpl(BulkImportRepository bulkImportRepository, PlatformTransactionManager transactionManager,
+                             EntityManagerFactory entityManagerFactory, DtoCaches dtoCaches, NameIndex nameIndex,
+                             CoStarGraph coStarGraph, StatsRepository statsRepository,
+                             MovieDocumentRepository movieDocumentRepository) {
+        this.bulkImportRepository = bulkImportRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.dtoCaches = dtoCaches;
+        this.nameIndex = nameIndex;
+        this.coStarGraph = coStarGraph;
+        this.statsRepository = statsRepository;
+        this.movieDocumentRepository = movieDocumentRepository;
+    }
+
+    public ImportReportDTO importData(String type, String format, InputStream body) {
+        ImportTarget target = ImportTarget.of(type);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, UTF_8));
+        ImportRecordReader records = switch (format) {
+            case "csv" -> new CsvRecordReader(reader, target);
+            case "ndjson" -> new NdjsonRecordReader(reader, DtoJson.treeReader(), target);
+            default -> throw new ResponseStatusException(BAD_REQUEST, "Поддерживаются только форматы csv и ndjson");
+        };
+
+        List<ImportBatchDTO> batches = new ArrayList<>();
+        //каждая пачка в своей транзакции, уже загруженные пачки не откатываются, если упадет следующая
+        try {
+            while (records.hasNext()) {
+                int batch = batches.size() + 1;
+                batches.add(transactionTemplate.execute(status -> {
+                    ImportBatchDTO imported = bulkImportRepository.importBatch(target, batch, records, BATCH_SIZE);
+                    movieDocumentRepository.refreshImported(target);
+                    return imported;
+                }));
+                evictCache(target);
+            }
+        } finally {
+            if (!batches.isEmpty()) {
+                reloadIndexes(target);
+                rebuildReadModels(target);
+            }
+        }
+
+        return new ImportReportDTO(target.getType(),
+                batches.stream().mapToLong(ImportBatchDTO::getRows).sum(),
+                batches.stream().mapToLong(ImportBatchDTO::getImported).sum(),
+                batches.stream().mapToLong(ImportBatchDTO::getFailed).sum(),
+                batches);
+    }
+
+    //id строк, загруженных COPY, неизвестны, поэтому индексы в памяти перечитывают таблицу один раз после импорта
+    private void reloadIndexes(ImportTarget target) {
+        switch (target) {
+            case DIRECTORS -> nameIndex.reload(NameType.DIRECTOR);
+            case MOVIES -> nameIndex.reload(NameType.MOVIE);
+            case ACTORS -> nameIndex.reload(NameType.ACTOR);
+            case LINKS -> coStarGraph.reload();
+        }
+    }
+
+    //Агрегаты /stats пересчитываются один раз в конце: до этого загруженные пачки в них не видны.
+    //Режиссеры в агрегаты не входят, считаются только их фильмы. Там же дописываются документы новых фильмов
+    private void rebuildReadModels(ImportTarget target) {
+        if (target != ImportTarget.DIRECTORS)
+            transactionTemplate.executeWithoutResult(status -> {
+                statsRepository.rebuild();
+                if (target == ImportTarget.MOVIES)
+                    movieDocumentRepository.insertMissing();
+            });
+    }
+
+    //COPY идет мимо Hibernate, поэтому затронутые кэши сбрасываем после commit пачки
+    private void evictCache(ImportTarget target) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        switch (target) {
+            case DIRECTORS -> {
+                cache.evictEntityData(Director.class);
+                dtoCaches.directors().invalidateAll();
+            }
+            case MOVIES -> {
+                cache.evictEntityData(Movie.class);
+                //у режиссеров и актеров поднялась version
+                cache.evictEntityData(Director.class);
+                cache.evictEntityData(Actor.class);
+                cache.evictCollectionData(Director.class.getName() + ".movieList");
+                dtoCaches.all().forEach(DtoCache::invalidateAll);
+            }
+            case ACTORS -> {
+                cache.evictEntityData(Actor.class);
+                cache.evictEntityData(Movie.class);
+                dtoCaches.actors().invalidateAll();
+                dtoCaches.movies().invalidateAll();
+            }
+            case LINKS -> {
+                cache.evictEntityData(Movie.class);
+                cache.evictEntityData(Actor.class);
+                cache.evictCollectionData(Movie.class.getName() + ".actorList");
+                cache.evictCollectionData(Actor.class.getName() + ".movieList");
+                dtoCaches.actors().invalidateAll();
+                dtoCaches.movies().invalidateAll();
+            }
+        }
+        cache.evictQueryRegions();
+    }
+}
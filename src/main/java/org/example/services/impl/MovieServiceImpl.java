@@ -1,23 +1,57 @@
 package org.example.services.impl;
 
+import org.example.autocomplete.NameIndex;
+import org.example.autocomplete.NameType;
+import org.example.cache.DtoCaches;
+import org.example.cache.EntityChanges;
+import org.example.dto.LinkReportDTO;
 import org.example.dto.MovieDTO;
+import org.example.dto.MovieFilterDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.SimilarMovieDTO;
+import org.example.dto.VersionedDTO;
+import org.example.fields.FieldSet;
+import org.example.fields.SparseResource;
+import org.example.graph.CoStarGraph;
+import org.example.graph.SimilarMovie;
 import org.example.mapping.MapperDTO;
 import org.example.models.Actor;
 import org.example.models.Director;
 import org.example.models.Movie;
+import org.example.paging.KeysetCursor;
+import org.example.paging.KeysetPage;
 import org.example.repositories.ActorRepository;
 import org.example.repositories.DirectorRepository;
 import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.DeleteRepository;
+import org.example.repositories.jdbc.DeleteResult;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.example.repositories.jdbc.MovieDocumentRepository;
+import org.example.repositories.jdbc.SparseRepository;
+import org.example.repositories.projections.JoinedRows;
+import org.example.repositories.projections.MovieActorRow;
+import org.example.repositories.specifications.FilterSpecifications;
+import org.example.repositories.specifications.SpecificationRepository;
 import org.example.services.interfaces.MovieService;
+import org.example.stats.StatsChanges;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
@@ -28,26 +62,128 @@ public class MovieServiceImpl implements MovieService {
     private final ActorRepository actorRepository;
     private final DirectorRepository directorRepository;
     private final MapperDTO mapperDTO;
+    private final DtoCaches dtoCaches;
+    private final EntityChanges entityChanges;
+    private final MovieActorRepository movieActorRepository;
+    private final DeleteRepository deleteRepository;
+    private final SparseRepository sparseRepository;
+    private final SpecificationRepository specificationRepository;
+    private final NameIndex nameIndex;
+    private final CoStarGraph coStarGraph;
+    private final StatsChanges statsChanges;
+    private final MovieDocumentRepository movieDocumentRepository;
 
     @Autowired
     public MovieServiceImpl(MovieRepository movieRepository, ActorRepository actorRepository,
-                            DirectorRepository directorRepository, MapperDTO mapperDTO) {
+                            DirectorRepository directorRepository, MapperDTO mapperDTO,
+                            DtoCaches dtoCaches, EntityChanges entityChanges, MovieActorRepository movieActorRepository,
+                            DeleteRepository deleteRepository, SparseRepository sparseRepository,
+                            SpecificationRepository specificationRepository, NameIndex nameIndex,
+                            CoStarGraph coStarGraph, StatsChanges statsChanges,
+                            MovieDocumentRepository movieDocumentRepository) {
         this.movieRepository = movieRepository;
         this.actorRepository = actorRepository;
         this.directorRepository = directorRepository;
         this.mapperDTO = mapperDTO;
+        this.dtoCaches = dtoCaches;
+        this.entityChanges = entityChanges;
+        this.movieActorRepository = movieActorRepository;
+        this.deleteRepository = deleteRepository;
+        this.sparseRepository = sparseRepository;
+        this.specificationRepository = specificationRepository;
+        this.nameIndex = nameIndex;
+        this.coStarGraph = coStarGraph;
+        this.statsChanges = statsChanges;
+        this.movieDocumentRepository = movieDocumentRepository;
     }
 
     public MovieDTO findById(Long id) {
         if (id == null)
             throw new ResponseStatusException(BAD_REQUEST, "Введите id фильма");
-        return mapperDTO.toMovieDTO(checkOptionalMovie(id));
+        List<MovieActorRow> rows = movieRepository.findRowsById(id);
+        if (rows.isEmpty())
+            throw new ResponseStatusException(BAD_REQUEST, "Фильма с таким id в базе нет");
+        return JoinedRows.fold(rows).get(0);
+    }
+
+    //JSON уже собран в movie_document, поэтому ни Hibernate, ни Jackson на этом пути не участвуют
+    public VersionedDTO<byte[]> findDocumentById(Long id) {
+        if (id == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id фильма");
+        return dtoCaches.movies().get(id, key -> {
+            VersionedDTO<byte[]> document = movieDocumentRepository.find(key);
+            if (document == null)
+                throw new ResponseStatusException(BAD_REQUEST, "Фильма с таким id в базе нет");
+            return document;
+        });
+    }
+
+    public Long findVersion(Long id) {
+        if (id == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id фильма");
+        return movieRepository.findVersionById(id).orElse(null);
     }
 
     public List<MovieDTO> findAll() {
-        return movieRepository.findAll().stream()
-                .map(mapperDTO::toMovieDTO)
-                .toList();
+        return JoinedRows.fold(movieRepository.findAllRows());
+    }
+
+    public List<MovieDTO> findAll(MovieFilterDTO filter) {
+        Specification<Movie> specification = FilterSpecifications.movies(filter);
+        if (specification == null)
+            return findAll();
+        return JoinedRows.fold(specificationRepository.findIds(Movie.class, specification), movieRepository::findRowsByIds);
+    }
+
+    public PageDTO<MovieDTO> findPage(String sort, String after, Integer limit) {
+        return findPage(sort, after, limit, null);
+    }
+
+    public PageDTO<MovieDTO> findPage(String sort, String after, Integer limit, MovieFilterDTO filter) {
+        List<Long> ids = findPageIds(sort, after, limit, FilterSpecifications.movies(filter));
+        List<MovieDTO> movies = JoinedRows.fold(ids, movieRepository::findRowsByIds);
+        return KeysetPage.of(movies, limit, Function.identity(), movie -> KeysetCursor.of(sort, movie.getId(),
+                switch (sort) {
+                    case "name" -> movie.getName();
+                    case "year" -> movie.getYear();
+                    default -> null;
+                }));
+    }
+
+    public void streamAll(Consumer<MovieDTO> consumer) {
+        try (Stream<MovieActorRow> rows = movieRepository.streamAllRows()) {
+            JoinedRows.fold(rows.iterator(), consumer);
+        }
+    }
+
+    public VersionedDTO<Map<String, Object>> findVersionedById(Long id, String fields) {
+        if (id == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id фильма");
+        //мимо кэша DTO: в нем лежат полные DTO, а здесь читаем только запрошенные колонки
+        return sparseRepository.findById(FieldSet.parse(SparseResource.MOVIES, fields), id)
+                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "Фильма с таким id в базе нет"));
+    }
+
+    public List<Map<String, Object>> findAll(String fields, MovieFilterDTO filter) {
+        FieldSet fieldSet = FieldSet.parse(SparseResource.MOVIES, fields);
+        Specification<Movie> specification = FilterSpecifications.movies(filter);
+        if (specification == null)
+            return sparseRepository.findAll(fieldSet);
+        return sparseRepository.findByIds(fieldSet, specificationRepository.findIds(Movie.class, specification));
+    }
+
+    public PageDTO<Map<String, Object>> findPage(String sort, String after, Integer limit, String fields, MovieFilterDTO filter) {
+        FieldSet fieldSet = FieldSet.parse(SparseResource.MOVIES, fields);
+        List<Long> ids = findPageIds(sort, after, limit, FilterSpecifications.movies(filter));
+        //id и поле сортировки нужны для курсора, даже если их не запросили
+        List<Map<String, Object>> movies = ids.isEmpty() ? List.of()
+                : sparseRepository.findByIds(fieldSet.with(SparseResource.ID, sort), ids);
+        return KeysetPage.of(movies, limit, fieldSet::trim, movie -> KeysetCursor.of(sort,
+                (Long) movie.get(SparseResource.ID), sort.equals(SparseResource.ID) ? null : movie.get(sort)));
+    }
+
+    public void streamAll(String fields, Consumer<Map<String, Object>> consumer) {
+        sparseRepository.streamAll(FieldSet.parse(SparseResource.MOVIES, fields), consumer);
     }
 
     @Transactional
@@ -63,28 +199,39 @@ public class MovieServiceImpl implements MovieService {
             throw new ResponseStatusException(BAD_REQUEST, "У фильма directorId = " + directorId + ", режиссера с таким id нет в базе");
         }
         Director directorPersist = optionalDirector.get();
+        entityChanges.changed(directorPersist);
         if (movieDTO.getActorList() == null || movieDTO.getActorList().isEmpty()) {
             Movie mapperDTOMovie = mapperDTO.toMovie(movieDTO);
-            mapperDTOMovie.setActorList(new ArrayList<>());
+            mapperDTOMovie.setActorList(new HashSet<>());
             mapperDTOMovie.setDirector(directorPersist);
             Movie movie = movieRepository.save(mapperDTOMovie);
             directorPersist.getMovieList().add(movie);
+            nameIndex.saved(movie);
+            entityChanges.created(movie);
+            statsChanges.movieCreated(movie);
         } else {
             boolean checkActorsNull = movieDTO.getActorList().stream()
                     .allMatch(actor -> actor.getMovieList() == null && actor.getId() == null && actor.getName() != null
                             && actor.getAge() != null && actor.getAge() > 18 && actor.getAge() < 100);
             if (checkActorsNull) {
                 Movie movie = mapperDTO.toMovie(movieDTO);
-                List<Actor> actors = movie.getActorList();
-                movie.setActorList(new ArrayList<>());
+                Set<Actor> actors = movie.getActorList();
+                movie.setActorList(new HashSet<>());
                 movie.setDirector(directorPersist);
                 Movie saveMovie = movieRepository.save(movie);
                 directorPersist.getMovieList().add(movie);
+                nameIndex.saved(saveMovie);
+                entityChanges.created(saveMovie);
+                statsChanges.movieCreated(saveMovie);
                 for (Actor actor : actors) {
-                    actor.setMovieList(new ArrayList<>(List.of(saveMovie)));
+                    actor.setMovieList(new HashSet<>(Set.of(saveMovie)));
                     Actor saveActor = actorRepository.save(actor);
                     saveMovie.getActorList().add(saveActor);
+                    nameIndex.saved(saveActor);
+                    coStarGraph.linked(saveMovie.getMovieId(), saveActor.getActorId());
+                    statsChanges.actorCreated(saveActor);
                 }
+                statsChanges.linksAdded(actors.size());
             } else
                 throw new ResponseStatusException(BAD_REQUEST, "У фильма должен быть или пустой список актеров " +
                         "или в его актерах должны быть пустые списки фильмов, так же у добавляемых актеров не " +
@@ -109,26 +256,36 @@ public class MovieServiceImpl implements MovieService {
         Director directorPersist = optionalDirector.get();
         Movie checkMovie = checkOptionalMovie(movieDTO.getId());
         Director director = checkMovie.getDirector();
+        Integer oldYear = checkMovie.getYearOfProduction();
+        entityChanges.changed(checkMovie);
+        embeddersChanged(checkMovie);
 
         if (!director.getDirectorId().equals(directorPersist.getDirectorId())) {
+            entityChanges.changed(directorPersist);
             director.getMovieList().remove(checkMovie);
             checkMovie.setDirector(directorPersist);
             directorPersist.getMovieList().add(checkMovie);
         }
         checkMovie.setYearOfProduction(movieDTO.getYear());
         checkMovie.setName(movieDTO.getName());
+        nameIndex.saved(checkMovie);
+        statsChanges.movieChanged(oldYear, director.getDirectorId(), checkMovie);
         if (movieDTO.getActorList() != null && !movieDTO.getActorList().isEmpty()) {
             boolean checkActorsNull = movieDTO.getActorList().stream()
                     .allMatch(actor -> actor.getMovieList() == null && actor.getId() == null && actor.getName() != null
                             && actor.getAge() != null && actor.getAge() > 18 && actor.getAge() < 100);
             if (checkActorsNull) {
                 Movie movie = mapperDTO.toMovie(movieDTO);
-                List<Actor> actors = movie.getActorList();
+                Set<Actor> actors = movie.getActorList();
                 for (Actor actor : actors) {
-                    actor.setMovieList(new ArrayList<>(List.of(checkMovie)));
+                    actor.setMovieList(new HashSet<>(Set.of(checkMovie)));
                     Actor saveActor = actorRepository.save(actor);
                     checkMovie.getActorList().add(saveActor);
+                    nameIndex.saved(saveActor);
+                    coStarGraph.linked(checkMovie.getMovieId(), saveActor.getActorId());
+                    statsChanges.actorCreated(saveActor);
                 }
+                statsChanges.linksAdded(actors.size());
             } else
                 throw new ResponseStatusException(BAD_REQUEST, "У фильма должен быть или пустой список актеров " +
                         "или в его актерах должны быть пустые списки фильмов, так же у добавляемых актеров не " +
@@ -141,26 +298,115 @@ public class MovieServiceImpl implements MovieService {
     public void addLinkMovieActor(Long movieId, Long actorId) {
         if (movieId == null || actorId == null)
             throw new ResponseStatusException(BAD_REQUEST, "Введите movieId и actorId через параметры запроса");
-        Optional<Movie> optionalMovie = movieRepository.findById(movieId);
-        Optional<Actor> optionalActor = actorRepository.findById(actorId);
-        if (optionalMovie.isEmpty())
-            throw new ResponseStatusException(BAD_REQUEST, "Фильма с таким id в базе нет");
-        if (optionalActor.isEmpty())
-            throw new ResponseStatusException(BAD_REQUEST, "Актера с таким id в базе нет");
-        Movie movie = optionalMovie.get();
-        Actor actor = optionalActor.get();
-        if (movie.getActorList().contains(actor))
+        boolean inserted;
+        try {
+            inserted = movieActorRepository.insertLink(movieId, actorId);
+        } catch (DataIntegrityViolationException e) {
+            //фильм или актера удалили параллельно: join их еще видел, а внешний ключ уже нет.
+            //Транзакция прервана, кого именно нет, запросом не выяснить
+            throw new ResponseStatusException(BAD_REQUEST, "Фильма или актера с таким id в базе нет");
+        }
+        if (!inserted) {
+            //причину выясняем только когда вставка не прошла, удачный путь остается одним statement
+            if (movieRepository.findVersionById(movieId).isEmpty())
+                throw new ResponseStatusException(BAD_REQUEST, "Фильма с таким id в базе нет");
+            if (actorRepository.findVersionById(actorId).isEmpty())
+                throw new ResponseStatusException(BAD_REQUEST, "Актера с таким id в базе нет");
             throw new ResponseStatusException(BAD_REQUEST, "Связь между ними уже есть");
-        movie.getActorList().add(actor);
-        actor.getMovieList().add(movie);
+        }
+        entityChanges.linksChanged(movieId, actorId);
+        coStarGraph.linked(movieId, actorId);
+        statsChanges.linksAdded(1);
+    }
+
+    @Transactional
+    public void deleteLinkMovieActor(Long movieId, Long actorId) {
+        if (movieId == null || actorId == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id фильма и id актера");
+        if (!movieActorRepository.deleteLink(movieId, actorId)) {
+            if (movieRepository.findVersionById(movieId).isEmpty())
+                throw new ResponseStatusException(BAD_REQUEST, "Фильма с таким id в базе нет");
+            if (actorRepository.findVersionById(actorId).isEmpty())
+                throw new ResponseStatusException(BAD_REQUEST, "Актера с таким id в базе нет");
+            throw new ResponseStatusException(BAD_REQUEST, "Связи между ними нет");
+        }
+        entityChanges.linksChanged(movieId, actorId);
+        coStarGraph.unlinked(movieId, actorId);
+        statsChanges.linkRemoved();
+    }
+
+    //Считает граф в памяти; фильма без актеров в нем нет, поэтому в базу идем, только когда похожих не нашлось
+    public List<SimilarMovieDTO> findSimilar(Long id, Integer limit) {
+        if (id == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id фильма");
+        if (limit == null || limit < 1 || limit > CoStarGraph.MAX_SIMILAR)
+            throw new ResponseStatusException(BAD_REQUEST, "limit должен быть от 1 до " + CoStarGraph.MAX_SIMILAR);
+        List<SimilarMovie> similar = coStarGraph.similar(id);
+        if (similar.isEmpty() && movieRepository.findVersionById(id).isEmpty())
+            throw new ResponseStatusException(BAD_REQUEST, "Фильма с таким id в базе нет");
+        return similar.stream()
+                .limit(limit)
+                .map(movie -> new SimilarMovieDTO(movie.getMovieId(), movie.getSharedActors(), movie.getSimilarity()))
+                .toList();
+    }
+
+    @Transactional
+    public LinkReportDTO addActors(Long movieId, List<Long> actorIds) {
+        if (movieId == null)
+            throw new ResponseStatusException(BAD_REQUEST, "Введите id фильма");
+        if (actorIds == null || actorIds.isEmpty() || actorIds.stream().anyMatch(Objects::isNull))
+            throw new ResponseStatusException(BAD_REQUEST, "Передайте в теле запроса непустой массив id актеров");
+        if (actorIds.size() > MovieActorRepository.MAX_LINKS)
+            throw new ResponseStatusException(BAD_REQUEST, "За один запрос можно связать не больше " +
+                    MovieActorRepository.MAX_LINKS + " актеров");
+        LinkReportDTO report;
+        try {
+            report = movieActorRepository.insertActors(movieId, actorIds);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(BAD_REQUEST, "Фильма или актера с таким id в базе нет");
+        }
+        if (report.getCreated().isEmpty()) {
+            if (movieRepository.findVersionById(movieId).isEmpty())
+                throw new ResponseStatusException(BAD_REQUEST, "Фильма с таким id в базе нет");
+        } else {
+            entityChanges.linksChanged(List.of(movieId), report.getCreated());
+            coStarGraph.linked(List.of(movieId), report.getCreated());
+            statsChanges.linksAdded(report.getCreated().size());
+        }
+        return report;
     }
 
     @Transactional
     public void delete(Long id) {
         if (id == null)
             throw new ResponseStatusException(BAD_REQUEST, "Введите id фильма");
-        checkOptionalMovie(id);
-        movieRepository.deleteById(id);
+        //один DELETE без предварительного SELECT, связи уходят каскадом в базе
+        DeleteResult result = deleteRepository.deleteMovie(id)
+                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "Фильма с таким id в базе нет"));
+        entityChanges.deleted(result);
+        nameIndex.deleted(NameType.MOVIE, result.getMovieIds());
+        coStarGraph.moviesDeleted(result.getMovieIds());
+    }
+
+    //без фильтров страница идет готовыми запросами репозитория, с фильтрами тот же keyset через Specification
+    private List<Long> findPageIds(String sort, String after, Integer limit, Specification<Movie> specification) {
+        Pageable pageable = KeysetPage.request(limit);
+        KeysetCursor cursor = KeysetPage.cursor(sort, after);
+        return switch (sort) {
+            case "id" -> specification == null
+                    ? movieRepository.findPageById(cursor.getId(), pageable)
+                    : specificationRepository.findPageIds(Movie.class, specification, "movieId", null,
+                    cursor.getId(), pageable);
+            case "name" -> specification == null
+                    ? movieRepository.findPageByName(cursor.stringValue(), cursor.getId(), pageable)
+                    : specificationRepository.findPageIds(Movie.class, specification, "name", cursor.stringValue(),
+                    cursor.getId(), pageable);
+            case "year" -> specification == null
+                    ? movieRepository.findPageByYear(cursor.intValue(), cursor.getId(), pageable)
+                    : specificationRepository.findPageIds(Movie.class, specification, "yearOfProduction", cursor.intValue(),
+                    cursor.getId(), pageable);
+            default -> throw new ResponseStatusException(BAD_REQUEST, "Фильмы можно сортировать только по id, name или year");
+        };
     }
 
     private Movie checkOptionalMovie(Long id) {
@@ -169,4 +415,10 @@ public class MovieServiceImpl implements MovieService {
             return optionalMovie.get();
         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Фильма с таким id в базе нет");
     }
+
+    //фильм встроен в DTO своего режиссера и своих актеров
+    private void embeddersChanged(Movie movie) {
+        entityChanges.changed(movie.getDirector());
+        movie.getActorList().forEach(entityChanges::changed);
+    }
 }
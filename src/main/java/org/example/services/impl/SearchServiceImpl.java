@@ -0,0 +1,60 @@
+package org.example.services.impl;
+
+import org.example.dto.PageDTO;
+import org.example.dto.SearchHitDTO;
+import org.example.paging.KeysetCursor;
+import org.example.paging.KeysetPage;
+import org.example.repositories.jdbc.SearchRepository;
+import org.example.services.interfaces.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@Service
+@Transactional(readOnly = true)
+public class SearchServiceImpl implements SearchService {
+    private static final String SORT = "rank";
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    private final SearchRepository searchRepository;
+
+    @Autowired
+    public SearchServiceImpl(SearchRepository searchRepository) {
+        this.searchRepository = searchRepository;
+    }
+
+    public PageDTO<SearchHitDTO> search(String q, String after, Integer limit) {
+        if (q == null || q.isBlank())
+            throw new ResponseStatusException(BAD_REQUEST, "Введите строку поиска q");
+        String text = q.strip();
+        if (text.length() > MAX_QUERY_LENGTH)
+            throw new ResponseStatusException(BAD_REQUEST, "Строка поиска q не длиннее " + MAX_QUERY_LENGTH + " символов");
+        int pageSize = KeysetPage.request(limit).getPageSize();
+        KeysetCursor cursor = KeysetPage.cursor(SORT, after);
+        List<SearchHitDTO> hits;
+        if (after == null) {
+            hits = searchRepository.search(text, null, null, 0, pageSize);
+        } else {
+            //id уникален только внутри своей таблицы, поэтому в курсоре кроме ранга лежит и тип
+            String[] value = cursor.stringValue().split(" ", 2);
+            hits = searchRepository.search(text, parseRank(value[0]), value.length == 2 ? value[1] : "",
+                    cursor.getId(), pageSize);
+        }
+        return KeysetPage.of(hits, limit, Function.identity(),
+                hit -> KeysetCursor.of(SORT, hit.getId(), hit.getRank() + " " + hit.getType()));
+    }
+
+    private static Double parseRank(String rank) {
+        try {
+            return Double.valueOf(rank);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(BAD_REQUEST, "Некорректный курсор after");
+        }
+    }
+}
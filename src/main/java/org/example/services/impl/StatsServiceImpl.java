@@ -0,0 +1,76 @@
+package org.example.services.impl;
+
+import org.example.config.ReplicaRoutingDataSource;
+import org.example.dto.CastStatsDTO;
+import org.example.dto.StatsBucketDTO;
+import org.example.dto.StatsDTO;
+import org.example.repositories.jdbc.StatsRepository;
+import org.example.services.interfaces.StatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+//Отвечают агрегаты, которые поддерживают StatsChanges и DeleteRepository; GROUP BY по рабочим таблицам здесь нет
+@Service
+@Transactional(readOnly = true)
+public class StatsServiceImpl implements StatsService {
+    public static final String CONSISTENCY = "transactional";
+    public static final int MAX_LIMIT = 100;
+
+    private final StatsRepository statsRepository;
+
+    @Autowired
+    public StatsServiceImpl(StatsRepository statsRepository) {
+        this.statsRepository = statsRepository;
+    }
+
+    public StatsDTO<List<StatsBucketDTO>> moviesPerYear() {
+        return read(statsRepository::moviesPerYear);
+    }
+
+    public StatsDTO<List<StatsBucketDTO>> moviesPerDirector(Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_LIMIT)
+            throw new ResponseStatusException(BAD_REQUEST, "limit должен быть от 1 до " + MAX_LIMIT);
+        return read(() -> statsRepository.moviesPerDirector(limit));
+    }
+
+    public StatsDTO<CastStatsDTO> castSize() {
+        return read(statsRepository::castSize);
+    }
+
+    //Агрегат хранит каждый возраст отдельно, интервалы шириной bucket собираются из него здесь
+    public StatsDTO<List<StatsBucketDTO>> actorAges(Integer bucket) {
+        if (bucket == null || bucket < 1 || bucket > MAX_LIMIT)
+            throw new ResponseStatusException(BAD_REQUEST, "bucket должен быть от 1 до " + MAX_LIMIT);
+        return read(() -> {
+            List<StatsBucketDTO> buckets = new ArrayList<>();
+            for (StatsBucketDTO age : statsRepository.actorsByAge()) {
+                long from = age.getKey() / bucket * bucket;
+                StatsBucketDTO last = buckets.isEmpty() ? null : buckets.get(buckets.size() - 1);
+                if (last != null && last.getKey() == from)
+                    last.setCount(last.getCount() + age.getCount());
+                else
+                    buckets.add(new StatsBucketDTO(from, bucket == 1 ? String.valueOf(from) : from + "-" + (from + bucket - 1),
+                            age.getCount()));
+            }
+            return buckets;
+        });
+    }
+
+    //asOf берется до чтения: в READ COMMITTED запрос видит все, что закоммичено до его начала.
+    //Это верно только для primary, реплика может отставать на max_lag, поэтому readOnly здесь ее не выбирает
+    private <T> StatsDTO<T> read(Supplier<T> data) {
+        return ReplicaRoutingDataSource.onPrimary(() -> {
+            Instant asOf = Instant.now();
+            return new StatsDTO<>(data.get(), CONSISTENCY, asOf.toString(), statsRepository.rebuiltAt().toString());
+        });
+    }
+}
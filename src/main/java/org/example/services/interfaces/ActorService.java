@@ -1,17 +1,49 @@
 package org.example.services.interfaces;
 
 import org.example.dto.ActorDTO;
+import org.example.dto.ActorFilterDTO;
+import org.example.dto.ActorPathDTO;
+import org.example.dto.LinkReportDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.VersionedDTO;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ActorService {
     ActorDTO findById(Long id);
 
+    VersionedDTO<ActorDTO> findVersionedById(Long id);
+
+    Long findVersion(Long id);
+
     List<ActorDTO> findAll();
 
+    List<ActorDTO> findAll(ActorFilterDTO filter);
+
+    PageDTO<ActorDTO> findPage(String sort, String after, Integer limit);
+
+    PageDTO<ActorDTO> findPage(String sort, String after, Integer limit, ActorFilterDTO filter);
+
+
+    void streamAll(Consumer<ActorDTO> consumer);
+
+    VersionedDTO<Map<String, Object>> findVersionedById(Long id, String fields);
+
+    List<Map<String, Object>> findAll(String fields, ActorFilterDTO filter);
+
+    PageDTO<Map<String, Object>> findPage(String sort, String after, Integer limit, String fields, ActorFilterDTO filter);
+
+    void streamAll(String fields, Consumer<Map<String, Object>> consumer);
+
     void create(ActorDTO actorDTO);
 
     void update(ActorDTO actorDTO);
 
+    LinkReportDTO addMovies(Long actorId, List<Long> movieIds);
+
+    ActorPathDTO findPath(Long fromId, Long toId);
+
     void delete(Long id);
 }
@@ -0,0 +1,9 @@
+package org.example.services.interfaces;
+
+import org.example.dto.AutocompleteHitDTO;
+
+import java.util.List;
+
+public interface AutocompleteService {
+    List<AutocompleteHitDTO> complete(String prefix, Integer limit);
+}
@@ -1,12 +1,35 @@
 package org.example.services.interfaces;
 
 import org.example.dto.DirectorDTO;
+import org.example.dto.DirectorFilterDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.VersionedDTO;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface DirectorService {
     DirectorDTO findById(Long id);
+
+    VersionedDTO<DirectorDTO> findVersionedById(Long id);
+
+    Long findVersion(Long id);
     List<DirectorDTO> findAll();
+
+    List<DirectorDTO> findAll(DirectorFilterDTO filter);
+    PageDTO<DirectorDTO> findPage(String sort, String after, Integer limit);
+
+    PageDTO<DirectorDTO> findPage(String sort, String after, Integer limit, DirectorFilterDTO filter);
+    void streamAll(Consumer<DirectorDTO> consumer);
+
+    VersionedDTO<Map<String, Object>> findVersionedById(Long id, String fields);
+
+    List<Map<String, Object>> findAll(String fields, DirectorFilterDTO filter);
+
+    PageDTO<Map<String, Object>> findPage(String sort, String after, Integer limit, String fields, DirectorFilterDTO filter);
+
+    void streamAll(String fields, Consumer<Map<String, Object>> consumer);
     void create(DirectorDTO directorDTO);
     void update(DirectorDTO directorDTO);
     void delete(Long id);
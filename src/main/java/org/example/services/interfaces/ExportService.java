@@ -0,0 +1,10 @@
+package org.example.services.interfaces;
+
+import org.example.bulk.ExportFormat;
+import org.example.bulk.ExportSource;
+
+import java.io.OutputStream;
+
+public interface ExportService {
+    long export(ExportSource source, ExportFormat format, OutputStream out);
+}
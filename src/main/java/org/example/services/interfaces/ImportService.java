@@ -0,0 +1,9 @@
+package org.example.services.interfaces;
+
+import org.example.dto.ImportReportDTO;
+
+import java.io.InputStream;
+
+public interface ImportService {
+    ImportReportDTO importData(String type, String format, InputStream body);
+}
@@ -1,19 +1,53 @@
 package org.example.services.interfaces;
 
+import org.example.dto.LinkReportDTO;
 import org.example.dto.MovieDTO;
+import org.example.dto.MovieFilterDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.SimilarMovieDTO;
+import org.example.dto.VersionedDTO;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface MovieService {
     MovieDTO findById(Long id);
 
+    VersionedDTO<byte[]> findDocumentById(Long id);
+
+    Long findVersion(Long id);
+
     List<MovieDTO> findAll();
 
+    List<MovieDTO> findAll(MovieFilterDTO filter);
+
+    PageDTO<MovieDTO> findPage(String sort, String after, Integer limit);
+
+    PageDTO<MovieDTO> findPage(String sort, String after, Integer limit, MovieFilterDTO filter);
+
+
+    void streamAll(Consumer<MovieDTO> consumer);
+
+    VersionedDTO<Map<String, Object>> findVersionedById(Long id, String fields);
+
+    List<Map<String, Object>> findAll(String fields, MovieFilterDTO filter);
+
+    PageDTO<Map<String, Object>> findPage(String sort, String after, Integer limit, String fields, MovieFilterDTO filter);
+
+    void streamAll(String fields, Consumer<Map<String, Object>> consumer);
+
     void create(MovieDTO movieDTO);
 
     void update(MovieDTO movieDTO);
 
     void addLinkMovieActor(Long movieId, Long actorId);
 
+    void deleteLinkMovieActor(Long movieId, Long actorId);
+
+    LinkReportDTO addActors(Long movieId, List<Long> actorIds);
+
+    List<SimilarMovieDTO> findSimilar(Long id, Integer limit);
+
     void delete(Long id);
 }
@@ -0,0 +1,8 @@
+package org.example.services.interfaces;
+
+import org.example.dto.PageDTO;
+import org.example.dto.SearchHitDTO;
+
+public interface SearchService {
+    PageDTO<SearchHitDTO> search(String q, String after, Integer limit);
+}
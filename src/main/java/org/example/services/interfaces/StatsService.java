@@ -0,0 +1,17 @@
+package org.example.services.interfaces;
+
+import org.example.dto.CastStatsDTO;
+import org.example.dto.StatsBucketDTO;
+import org.example.dto.StatsDTO;
+
+import java.util.List;
+
+public interface StatsService {
+    StatsDTO<List<StatsBucketDTO>> moviesPerYear();
+
+    StatsDTO<List<StatsBucketDTO>> moviesPerDirector(Integer limit);
+
+    StatsDTO<CastStatsDTO> castSize();
+
+    StatsDTO<List<StatsBucketDTO>> actorAges(Integer bucket);
+}
@@ -0,0 +1,86 @@
+package org.example.stats;
+
+import org.example.models.Actor;
+import org.example.models.Movie;
+import org.example.repositories.jdbc.StatsDelta;
+import org.example.repositories.jdbc.StatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+//Приращения агрегатов /stats от create/update и связей. За транзакцию они копятся и пишутся перед commit одной
+//пачкой: блокировки горячих строк вроде текущего года держатся только до commit, а не всю транзакцию.
+//Hibernate сбрасывает вставки после beforeCommit, поэтому у агрегатов нет внешних ключей на сущности
+@Component
+public class StatsChanges {
+    private final StatsRepository statsRepository;
+
+    @Autowired
+    public StatsChanges(StatsRepository statsRepository) {
+        this.statsRepository = statsRepository;
+    }
+
+    public void movieCreated(Movie movie) {
+        change(delta -> delta.addMovie(movie.getYearOfProduction(), movie.getDirector().getDirectorId(), 1));
+    }
+
+    public void movieChanged(Integer oldYear, Long oldDirectorId, Movie movie) {
+        if (oldYear.equals(movie.getYearOfProduction()) && oldDirectorId.equals(movie.getDirector().getDirectorId()))
+            return;
+        change(delta -> {
+            delta.addMovie(oldYear, oldDirectorId, -1);
+            delta.addMovie(movie.getYearOfProduction(), movie.getDirector().getDirectorId(), 1);
+        });
+    }
+
+    public void actorCreated(Actor actor) {
+        change(delta -> delta.addActor(actor.getAge(), 1));
+    }
+
+    public void actorChanged(Integer oldAge, Actor actor) {
+        if (oldAge.equals(actor.getAge()))
+            return;
+        change(delta -> {
+            delta.addActor(oldAge, -1);
+            delta.addActor(actor.getAge(), 1);
+        });
+    }
+
+    public void linksAdded(int count) {
+        change(delta -> delta.addLinks(count));
+    }
+
+    public void linkRemoved() {
+        change(delta -> delta.addLinks(-1));
+    }
+
+    private void change(Consumer<StatsDelta> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            StatsDelta delta = new StatsDelta();
+            change.accept(delta);
+            statsRepository.apply(delta);
+            return;
+        }
+        StatsDelta delta = (StatsDelta) TransactionSynchronizationManager.getResource(this);
+        if (delta == null) {
+            StatsDelta created = new StatsDelta();
+            delta = created;
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    statsRepository.apply(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(StatsChanges.this);
+                }
+            });
+        }
+        change.accept(delta);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.json.DtoJson;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+@Component
+public class DtoStreamWriter {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper;
+
+    public DtoStreamWriter() {
+        this.objectMapper = DtoJson.objectMapper();
+    }
+
+    public <T> void write(HttpServletResponse response, String format, Consumer<Consumer<T>> source) throws IOException {
+        boolean ndjson;
+        if ("json".equals(format))
+            ndjson = false;
+        else if ("ndjson".equals(format))
+            ndjson = true;
+        else
+            throw new ResponseStatusException(BAD_REQUEST, "Поддерживаются только форматы json и ndjson");
+
+        response.setContentType(ndjson ? APPLICATION_NDJSON_VALUE : APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            if (ndjson)
+                generator.setRootValueSeparator(null);
+            else
+                generator.writeStartArray();
+            try {
+                source.accept(dto -> {
+                    try {
+                        DtoJson.streamWriterFor(dto.getClass()).writeValue(generator, dto);
+                        if (ndjson)
+                            generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (!ndjson)
+                generator.writeEndArray();
+        }
+    }
+}
@@ -1,23 +1,35 @@
+-- шаг совпадает с allocationSize в маппинге сущностей, nextval выдает верхнюю границу блока из 50 id;
+-- импорт берет id такими же блоками, а DEFAULT остается для ручных вставок и тратит блок на строку
+CREATE SEQUENCE director_seq START WITH 50 INCREMENT BY 50;
+CREATE SEQUENCE movie_seq START WITH 50 INCREMENT BY 50;
+CREATE SEQUENCE actor_seq START WITH 50 INCREMENT BY 50;
+
 CREATE TABLE Director
 (
-    director_id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    director_id bigint DEFAULT nextval('director_seq') PRIMARY KEY,
     name        VARCHAR(100)                         not null,
-    age         int check ( age > 18 and age < 100 ) not null
+    age         int check ( age > 18 and age < 100 ) not null,
+    version     bigint DEFAULT 0                     not null,
+    name_tsv    tsvector GENERATED ALWAYS AS (to_tsvector('simple', name)) STORED
 );
 
 CREATE TABLE Movie
 (
-    movie_id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    movie_id           bigint DEFAULT nextval('movie_seq') PRIMARY KEY,
     director_id        bigint                                  not null references Director (director_id) on delete cascade,
     name               VARCHAR(100)                            not null,
-    year_of_production int check ( year_of_production > 1900 ) not null
+    year_of_production int check ( year_of_production > 1900 ) not null,
+    version            bigint DEFAULT 0                        not null,
+    name_tsv           tsvector GENERATED ALWAYS AS (to_tsvector('simple', name)) STORED
 );
 
 CREATE TABLE Actor
 (
-    actor_id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    actor_id bigint DEFAULT nextval('actor_seq') PRIMARY KEY,
     name     VARCHAR(100)                         not null,
-    age      int check ( age > 18 and age < 100 ) not null
+    age      int check ( age > 18 and age < 100 ) not null,
+    version  bigint DEFAULT 0                     not null,
+    name_tsv tsvector GENERATED ALWAYS AS (to_tsvector('simple', name)) STORED
 );
 
 CREATE TABLE Movie_Actor
@@ -25,4 +37,74 @@ CREATE TABLE Movie_Actor
     actor_id bigint references Actor (actor_id) on delete cascade,
     movie_id bigint references Movie (movie_id) on delete cascade,
     primary key (actor_id, movie_id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX movie_name_id_idx ON Movie (name, movie_id);
+CREATE INDEX movie_year_id_idx ON Movie (year_of_production, movie_id);
+CREATE INDEX actor_name_id_idx ON Actor (name, actor_id);
+CREATE INDEX actor_age_id_idx ON Actor (age, actor_id);
+CREATE INDEX director_name_id_idx ON Director (name, director_id);
+CREATE INDEX director_age_id_idx ON Director (age, director_id);
+
+-- внешние ключи: фильмы режиссера и актеры фильма, первичный ключ movie_actor начинается с actor_id
+CREATE INDEX movie_director_id_idx ON Movie (director_id, movie_id);
+CREATE INDEX movie_actor_movie_id_idx ON Movie_Actor (movie_id, actor_id);
+-- фильтр по префиксу name: like 'abc%' идет по btree только с text_pattern_ops
+CREATE INDEX movie_name_prefix_idx ON Movie (name text_pattern_ops);
+CREATE INDEX actor_name_prefix_idx ON Actor (name text_pattern_ops);
+CREATE INDEX director_name_prefix_idx ON Director (name text_pattern_ops);
+
+-- поиск /search: name_tsv пересчитывает сама база при любой записи, включая импорт через COPY;
+-- словарь simple без стемминга, имена бывают на любом языке; триграммы дают устойчивость к опечаткам
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX movie_name_tsv_idx ON Movie USING gin (name_tsv);
+CREATE INDEX actor_name_tsv_idx ON Actor USING gin (name_tsv);
+CREATE INDEX director_name_tsv_idx ON Director USING gin (name_tsv);
+CREATE INDEX movie_name_trgm_idx ON Movie USING gin (name gin_trgm_ops);
+CREATE INDEX actor_name_trgm_idx ON Actor USING gin (name gin_trgm_ops);
+CREATE INDEX director_name_trgm_idx ON Director USING gin (name gin_trgm_ops);
+
+-- /stats: агрегаты меняются приращениями в той же транзакции, что и сами записи сервисов, удаления правят их
+-- в своем DELETE; импорт через COPY пересчитывает их целиком. Строки с нулем не удаляются, чтение их отбрасывает
+CREATE TABLE Stats_Movies_By_Year
+(
+    year_of_production int PRIMARY KEY,
+    movies             bigint not null
+);
+
+CREATE TABLE Stats_Movies_By_Director
+(
+    director_id bigint PRIMARY KEY,
+    movies      bigint not null
+);
+
+CREATE TABLE Stats_Actors_By_Age
+(
+    age    int PRIMARY KEY,
+    actors bigint not null
+);
+
+-- число связей разложено по строкам по pid backend'а, иначе все добавления связей ждали бы друг друга на одной строке
+CREATE TABLE Stats_Links
+(
+    slot  int PRIMARY KEY,
+    links bigint not null
+);
+
+CREATE TABLE Stats_Meta
+(
+    id         int PRIMARY KEY check ( id = 1 ),
+    rebuilt_at timestamptz not null
+);
+
+INSERT INTO Stats_Meta VALUES (1, now());
+
+CREATE INDEX stats_movies_by_director_movies_idx ON Stats_Movies_By_Director (movies desc, director_id);
+
+-- JSON ответа GET /movie/{id}, собирается в базе; сервисы пересобирают документы затронутых фильмов перед commit,
+-- удаление фильма снимает его документ каскадом, импорт через COPY пересобирает все
+CREATE TABLE Movie_Document
+(
+    movie_id bigint PRIMARY KEY references Movie (movie_id) on delete cascade,
+    body     bytea not null
+);
@@ -0,0 +1,125 @@
+package autocomplete;
+
+import org.example.autocomplete.NameEntry;
+import org.example.autocomplete.NameIndex;
+import org.example.autocomplete.NameType;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.jdbc.NameRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class NameIndexTest {
+    @Mock
+    private NameRepository nameRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testFindByPrefix() {
+        NameIndex index = build(Map.of(
+                NameType.MOVIE, Map.of(1L, "Alien", 2L, "Aliens", 3L, "alien", 4L, "Batman"),
+                NameType.ACTOR, Map.of(1L, "Al Pacino"),
+                NameType.DIRECTOR, Map.of(1L, "Alan Parker")));
+
+        //регистр не важен, одинаковые без учета регистра имена упорядочены по типу и id
+        assertEquals(List.of("movie/1 Alien", "movie/3 alien", "movie/2 Aliens"), names(index.find("ALI", 10)));
+        assertEquals(List.of("actor/1 Al Pacino", "director/1 Alan Parker"), names(index.find("al", 2)));
+        assertEquals(List.of("movie/1 Alien"), names(index.find("al", 3).subList(2, 3)));
+        assertTrue(index.find("Bz", 10).isEmpty());
+        assertTrue(index.find("Batmans", 10).isEmpty());
+    }
+
+    @Test
+    void testSavedRenamedAndDeleted() {
+        NameIndex index = build(Map.of(NameType.MOVIE, Map.of(1L, "Alien", 2L, "Aliens")));
+
+        index.saved(new Actor(7L, "Alicia Vikander", 35));
+        Movie renamed = new Movie(2L, new Director(), "Predator", 1987);
+        index.saved(renamed);
+        index.deleted(NameType.MOVIE, List.of(1L));
+
+        assertEquals(List.of("actor/7 Alicia Vikander"), names(index.find("ali", 10)));
+        assertEquals(List.of("movie/2 Predator"), names(index.find("pre", 10)));
+
+        index.deleted(NameType.ACTOR, List.of(7L));
+        assertTrue(index.find("ali", 10).isEmpty());
+    }
+
+    @Test
+    void testChangesAppliedAfterCommit() {
+        NameIndex index = build(Map.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.saved(new Director(5L, "Ridley Scott", 85));
+            assertTrue(index.find("rid", 10).isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(List.of("director/5 Ridley Scott"), names(index.find("rid", 10)));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testCompactionKeepsEntries() {
+        NameIndex index = build(Map.of(NameType.MOVIE, Map.of(1L, "Alien")));
+
+        for (long id = 100; id < 3100; id++)
+            index.saved(new Actor(id, "Actor " + id, 30));
+        index.deleted(NameType.ACTOR, List.of(100L));
+
+        assertEquals(List.of("actor/101 Actor 101", "actor/1010 Actor 1010"), names(index.find("actor 101", 2)));
+        assertEquals(List.of("movie/1 Alien"), names(index.find("a", 3001).subList(2999, 3000)));
+    }
+
+    @Test
+    void testReloadReplaysConcurrentChanges() {
+        NameIndex index = build(Map.of(NameType.MOVIE, Map.of(1L, "Alien"), NameType.ACTOR, Map.of(1L, "Al Pacino")));
+        //пока таблица читается, другой запрос успел удалить актера, которого это чтение еще видит
+        doAnswer(invocation -> {
+            ObjLongConsumer<String> consumer = invocation.getArgument(1);
+            consumer.accept("Al Pacino", 1L);
+            consumer.accept("Alan Arkin", 2L);
+            index.deleted(NameType.ACTOR, List.of(1L));
+            return null;
+        }).when(nameRepository).streamNames(eq(NameType.ACTOR), any());
+
+        index.reload(NameType.ACTOR);
+
+        assertEquals(List.of("actor/2 Alan Arkin", "movie/1 Alien"), names(index.find("al", 10)));
+    }
+
+    private NameIndex build(Map<NameType, Map<Long, String>> names) {
+        doAnswer(invocation -> {
+            ObjLongConsumer<String> consumer = invocation.getArgument(1);
+            names.getOrDefault(invocation.<NameType>getArgument(0), Map.of())
+                    .forEach((id, name) -> consumer.accept(name, id));
+            return null;
+        }).when(nameRepository).streamNames(any(), any());
+        NameIndex index = new NameIndex(nameRepository, transactionManager);
+        index.build();
+        return index;
+    }
+
+    private static List<String> names(List<NameEntry> entries) {
+        return entries.stream().map(NameEntry::toString).toList();
+    }
+}
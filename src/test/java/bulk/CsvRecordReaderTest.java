@@ -0,0 +1,61 @@
+package bulk;
+
+import org.example.bulk.CsvRecordReader;
+import org.example.bulk.ImportRecord;
+import org.example.bulk.ImportTarget;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void testReadsColumnsInHeaderOrder() {
+        List<ImportRecord> records = readAll("year,name,directorId\r\n2010,Inception,1\r\n\r\n1999,\"Matrix, The\",2\r\n",
+                ImportTarget.MOVIES);
+
+        assertEquals(List.of(
+                ImportRecord.of(2, new String[]{null, "1", "Inception", "2010"}),
+                ImportRecord.of(4, new String[]{null, "2", "Matrix, The", "1999"})), records);
+    }
+
+    @Test
+    void testQuotedValues() {
+        List<ImportRecord> records = readAll("name,age\n\"Dwayne \"\"The Rock\"\" \nJohnson\",51\n\"\",\n", ImportTarget.ACTORS);
+
+        assertEquals(List.of(
+                ImportRecord.of(2, new String[]{null, "Dwayne \"The Rock\" \nJohnson", "51"}),
+                ImportRecord.of(4, new String[]{null, "", null})), records);
+    }
+
+    @Test
+    void testInvalidRows() {
+        List<ImportRecord> records = readAll("movieId,actorId\n1\n1,2\n3,\"4\n", ImportTarget.LINKS);
+
+        assertEquals(List.of(
+                ImportRecord.invalid(2, "Ожидалось колонок: 2, а пришло: 1"),
+                ImportRecord.of(3, new String[]{"1", "2"}),
+                ImportRecord.invalid(4, "Не закрыта кавычка")), records);
+    }
+
+    @Test
+    void testInvalidHeader() {
+        assertThrows(ResponseStatusException.class, () -> readAll("", ImportTarget.DIRECTORS));
+        assertThrows(ResponseStatusException.class, () -> readAll("name,year\n", ImportTarget.DIRECTORS));
+        assertThrows(ResponseStatusException.class, () -> readAll("name,name\n", ImportTarget.DIRECTORS));
+    }
+
+    private List<ImportRecord> readAll(String csv, ImportTarget target) {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(csv), target);
+        List<ImportRecord> records = new ArrayList<>();
+        while (reader.hasNext())
+            records.add(reader.next());
+        return records;
+    }
+}
@@ -0,0 +1,57 @@
+package bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.bulk.ImportRecord;
+import org.example.bulk.ImportTarget;
+import org.example.bulk.NdjsonRecordReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NdjsonRecordReaderTest {
+
+    @Test
+    void testReadsFieldsByName() {
+        List<ImportRecord> records = readAll("""
+                {"name":"Inception","year":2010,"directorId":1}
+
+                {"id":7,"directorId":"2","name":null,"year":1999}
+                """, ImportTarget.MOVIES);
+
+        assertEquals(List.of(
+                ImportRecord.of(1, new String[]{null, "1", "Inception", "2010"}),
+                ImportRecord.of(3, new String[]{"7", "2", null, "1999"})), records);
+    }
+
+    @Test
+    void testInvalidRows() {
+        List<ImportRecord> records = readAll("""
+                {"name":"Nolan",
+                [1,2]
+                {"name":"Nolan","age":50,"country":"UK"}
+                {"name":{"first":"Christopher"},"age":50}
+                {"name":"Nolan","age":50}
+                """, ImportTarget.DIRECTORS);
+
+        assertEquals(List.of(
+                ImportRecord.invalid(1, "Строка не является корректным JSON"),
+                ImportRecord.invalid(2, "Ожидался JSON объект"),
+                ImportRecord.invalid(3, "Неизвестное поле 'country', для directors допустимы [id, name, age]"),
+                ImportRecord.invalid(4, "Поле 'name' должно быть строкой или числом"),
+                ImportRecord.of(5, new String[]{null, "Nolan", "50"})), records);
+    }
+
+    private List<ImportRecord> readAll(String ndjson, ImportTarget target) {
+        NdjsonRecordReader reader = new NdjsonRecordReader(new BufferedReader(new StringReader(ndjson)),
+                new ObjectMapper().reader(), target);
+        List<ImportRecord> records = new ArrayList<>();
+        while (reader.hasNext())
+            records.add(reader.next());
+        return records;
+    }
+}
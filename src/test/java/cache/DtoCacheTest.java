@@ -0,0 +1,114 @@
+package cache;
+
+import org.example.cache.DtoCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+class DtoCacheTest {
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Test
+    void testGetLoadsOnce() {
+        DtoCache<String> cache = cache(1000, Duration.ofMinutes(10), Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("movie 1", cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return "movie " + id;
+        }));
+        assertEquals("movie 1", cache.get(1L, id -> "movie " + id));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void testLoaderExceptionIsNotCached() {
+        DtoCache<String> cache = cache(1000, Duration.ofMinutes(10), Runnable::run);
+
+        assertThrows(ResponseStatusException.class, () -> cache.get(1L, id -> {
+            throw new ResponseStatusException(BAD_REQUEST, "Фильма с таким id в базе нет");
+        }));
+
+        assertEquals("movie", cache.get(1L, id -> "movie"));
+    }
+
+    @Test
+    void testEvictionIsWeightedBySize() {
+        DtoCache<String> cache = cache(100, Duration.ofMinutes(10), Runnable::run);
+
+        cache.get(1L, id -> "x".repeat(60));
+        cache.get(2L, id -> "x".repeat(60));
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testStaleEntryIsServedWhileRefreshing() {
+        List<Runnable> refreshes = new ArrayList<>();
+        DtoCache<String> cache = cache(1000, Duration.ZERO, refreshes::add);
+        AtomicReference<String> source = new AtomicReference<>("old");
+
+        assertEquals("old", cache.get(1L, id -> source.get()));
+        source.set("new");
+        //пока обновление не закончилось, отдаем старое и повторно его не запускаем
+        assertEquals("old", cache.get(1L, id -> source.get()));
+        assertEquals(1, refreshes.size());
+
+        refreshes.get(0).run();
+
+        assertEquals("new", cache.get(1L, id -> source.get()));
+    }
+
+    @Test
+    void testRefreshDoesNotOverwriteInvalidation() {
+        List<Runnable> refreshes = new ArrayList<>();
+        DtoCache<String> cache = cache(1000, Duration.ZERO, refreshes::add);
+        cache.get(1L, id -> "old");
+
+        cache.invalidate(1L);
+        refreshes.get(0).run();
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidateAgainAfterCommit() {
+        DtoCache<String> cache = cache(1000, Duration.ofMinutes(10), Runnable::run);
+        cache.get(1L, id -> "old");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(1L);
+            //читатель успел закэшировать состояние до commit
+            cache.get(1L, id -> "uncommitted");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("new", cache.get(1L, id -> "new"));
+    }
+
+    private DtoCache<String> cache(long maxWeight, Duration refreshAfter, Executor executor) {
+        return new DtoCache<>("test", maxWeight, Duration.ofMinutes(10), refreshAfter, String::length,
+                executor, transactionTemplate);
+    }
+}
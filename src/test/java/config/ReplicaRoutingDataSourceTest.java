@@ -0,0 +1,163 @@
+package config;
+
+import org.example.config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import repository.PostgreSQLExtension;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Вторая база на том же сервере играет роль реплики: маршрут виден по current_database()
+@ExtendWith(PostgreSQLExtension.class)
+class ReplicaRoutingDataSourceTest {
+    private static final String REPLICA = "replica_routing_test";
+
+    private static DataSource primary;
+    private static DataSource replica;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeAll
+    static void createReplica() {
+        primary = dataSource(System.getProperty("hibernate.connection.url"));
+        new JdbcTemplate(primary).execute("drop database if exists " + REPLICA);
+        new JdbcTemplate(primary).execute("create database " + REPLICA);
+        replica = dataSource(withDatabase(REPLICA));
+    }
+
+    @AfterAll
+    static void dropReplica() {
+        new JdbcTemplate(primary).execute("drop database if exists " + REPLICA);
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        routing.close();
+    }
+
+    @Test
+    void testReadOnlyTransactionGoesToReplica() {
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), 5000, 0, 60000);
+        routing.checkReplicas();
+
+        assertEquals(REPLICA, database(true));
+        assertEquals(primaryName(), database(false));
+    }
+
+    @Test
+    void testReadYourWritesAfterCommit() {
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), 5000, 60000, 60000);
+        routing.checkReplicas();
+        MockHttpServletRequest write = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        asClient(write, response, () -> database(false));
+
+        assertEquals(primaryName(), asClient(write, response, () -> database(true)));
+        MockHttpServletRequest next = new MockHttpServletRequest();
+        next.setCookies(response.getCookie(ReplicaRoutingDataSource.LAST_WRITE_COOKIE));
+        assertEquals(primaryName(), asClient(next, new MockHttpServletResponse(), () -> database(true)));
+    }
+
+    @Test
+    void testOtherClientReadsFromReplicaAfterWrite() {
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), 5000, 60000, 60000);
+        routing.checkReplicas();
+
+        asClient(new MockHttpServletRequest(), new MockHttpServletResponse(), () -> database(false));
+
+        assertEquals(REPLICA, asClient(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                () -> database(true)));
+        assertEquals(REPLICA, database(true));
+    }
+
+    @Test
+    void testStaleLastWriteCookieReadsFromReplica() {
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), 5000, 60000, 60000);
+        routing.checkReplicas();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReplicaRoutingDataSource.LAST_WRITE_COOKIE,
+                String.valueOf(System.currentTimeMillis() - 60000)));
+
+        assertEquals(REPLICA, asClient(request, new MockHttpServletResponse(), () -> database(true)));
+    }
+
+    @Test
+    void testOnPrimaryReadsFromPrimary() {
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), 5000, 0, 60000);
+        routing.checkReplicas();
+
+        assertEquals(primaryName(), ReplicaRoutingDataSource.onPrimary(() -> database(true)));
+        assertEquals(REPLICA, database(true));
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhenReplicaIsDown() {
+        routing = new ReplicaRoutingDataSource(primary, List.of(dataSource(withDatabase("no_such_replica"))),
+                5000, 0, 60000);
+        routing.checkReplicas();
+
+        assertEquals(primaryName(), database(true));
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhenReplicaLags() {
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), -1, 0, 60000);
+        routing.checkReplicas();
+
+        assertEquals(primaryName(), database(true));
+    }
+
+    private String database(boolean readOnly) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select current_database()", String.class));
+    }
+
+    private static String asClient(MockHttpServletRequest request, MockHttpServletResponse response,
+                                   Supplier<String> action) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        try {
+            return action.get();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private static String primaryName() {
+        return new JdbcTemplate(primary).queryForObject("select current_database()", String.class);
+    }
+
+    private static DataSource dataSource(String url) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+                System.getProperty("hibernate.connection.username"), System.getProperty("hibernate.connection.password"));
+        dataSource.setDriverClassName(System.getProperty("hibernate.driver_class"));
+        return dataSource;
+    }
+
+    //jdbc:postgresql://host:port/db?params
+    private static String withDatabase(String database) {
+        String url = System.getProperty("hibernate.connection.url");
+        int start = url.indexOf('/', "jdbc:postgresql://".length());
+        int end = url.indexOf('?', start);
+        return url.substring(0, start + 1) + database + (end < 0 ? "" : url.substring(end));
+    }
+}
@@ -1,20 +1,40 @@
 package controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.controllers.ActorController;
 import org.example.dto.ActorDTO;
+import org.example.dto.ActorFilterDTO;
+import org.example.dto.ActorPathDTO;
+import org.example.dto.LinkReportDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.VersionedDTO;
 import org.example.services.interfaces.ActorService;
+import org.example.streaming.DtoStreamWriter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -25,6 +45,8 @@ class ActorControllerTest {
     private ActorController actorController;
     @Mock
     private ActorService actorService;
+    @Spy
+    private DtoStreamWriter dtoStreamWriter = new DtoStreamWriter();
 
     @Test
     void testGetActors() {
@@ -32,28 +54,102 @@ class ActorControllerTest {
         ActorDTO actorDTO2 = new ActorDTO();
 
         List<ActorDTO> actors = new ArrayList<>(List.of(actorDTO1, actorDTO2));
-        when(actorService.findAll()).thenReturn(actors);
+        ActorFilterDTO filter = new ActorFilterDTO();
+        when(actorService.findAll(filter)).thenReturn(actors);
 
-        ResponseEntity<List<ActorDTO>> response = actorController.getActors();
+        ResponseEntity<List<ActorDTO>> response = actorController.getActors(filter);
 
         assertSame(HttpStatus.OK, response.getStatusCode());
         assertSame(actors, response.getBody());
 
-        verify(actorService, times(1)).findAll();
+        verify(actorService, times(1)).findAll(filter);
+    }
+
+    @Test
+    void testGetActorsPage() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actor");
+        request.setQueryString("limit=1&sort=name");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            PageDTO<ActorDTO> page = new PageDTO<>(List.of(new ActorDTO()), "next");
+            ActorFilterDTO filter = new ActorFilterDTO();
+            filter.setName("A");
+            when(actorService.findPage("name", null, 1, filter)).thenReturn(page);
+
+            ResponseEntity<PageDTO<ActorDTO>> response = actorController.getActorsPage(1, null, "name", filter);
+
+            assertSame(HttpStatus.OK, response.getStatusCode());
+            assertSame(page, response.getBody());
+            assertEquals("<http://localhost/actor?limit=1&sort=name&after=next>; rel=\"next\"",
+                    response.getHeaders().getFirst(HttpHeaders.LINK));
+
+            verify(actorService, times(1)).findPage("name", null, 1, filter);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void testStreamActors() throws IOException {
+        ActorDTO actorDTO = new ActorDTO(1L, "Tom Hanks", 67);
+        doAnswer(invocation -> {
+            Consumer<ActorDTO> consumer = invocation.getArgument(0);
+            consumer.accept(actorDTO);
+            consumer.accept(actorDTO);
+            return null;
+        }).when(actorService).streamAll(any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        actorController.streamActors("ndjson", response);
+
+        String line = new ObjectMapper().writeValueAsString(actorDTO) + "\n";
+        assertEquals(line + line, response.getContentAsString());
+
+        verify(actorService, times(1)).streamAll(any());
     }
 
     @Test
     void testGetActor() {
         ActorDTO actor = new ActorDTO();
         Long actorId = 1L;
-        when(actorService.findById(actorId)).thenReturn(actor);
+        when(actorService.findVersionedById(actorId)).thenReturn(new VersionedDTO<>(3L, actor));
 
-        ResponseEntity<ActorDTO> response = actorController.getActor(actorId);
+        ResponseEntity<ActorDTO> response = actorController.getActor(actorId, null);
 
         assertSame(HttpStatus.OK, response.getStatusCode());
         assertSame(actor, response.getBody());
+        assertEquals("W/\"3\"", response.getHeaders().getETag());
+
+        verify(actorService, times(1)).findVersionedById(actorId);
+        verify(actorService, never()).findVersion(any());
+    }
+
+    @Test
+    void testGetActorNotModified() {
+        Long actorId = 1L;
+        when(actorService.findVersion(actorId)).thenReturn(3L);
+
+        ResponseEntity<ActorDTO> response = actorController.getActor(actorId, "W/\"2\", W/\"3\"");
+
+        assertSame(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("W/\"3\"", response.getHeaders().getETag());
+
+        verify(actorService, never()).findVersionedById(any());
+    }
+
+    @Test
+    void testGetActorModified() {
+        ActorDTO actor = new ActorDTO();
+        Long actorId = 1L;
+        when(actorService.findVersion(actorId)).thenReturn(4L);
+        when(actorService.findVersionedById(actorId)).thenReturn(new VersionedDTO<>(4L, actor));
+
+        ResponseEntity<ActorDTO> response = actorController.getActor(actorId, "W/\"3\"");
 
-        verify(actorService, times(1)).findById(actorId);
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(actor, response.getBody());
+        assertEquals("W/\"4\"", response.getHeaders().getETag());
     }
 
     @Test
@@ -88,4 +184,26 @@ class ActorControllerTest {
 
         verify(actorService, times(1)).delete(actorId);
     }
+
+    @Test
+    void testAddMovies() {
+        LinkReportDTO report = new LinkReportDTO(List.of(2L), List.of(3L), List.of(4L));
+        when(actorService.addMovies(1L, List.of(2L, 3L, 4L))).thenReturn(report);
+
+        ResponseEntity<LinkReportDTO> response = actorController.addMovies(1L, List.of(2L, 3L, 4L));
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(report, response.getBody());
+    }
+
+    @Test
+    void testGetPath() {
+        ActorPathDTO path = new ActorPathDTO(1, List.of(1L, 2L), List.of(10L));
+        when(actorService.findPath(1L, 2L)).thenReturn(path);
+
+        ResponseEntity<ActorPathDTO> response = actorController.getPath(1L, 2L);
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(path, response.getBody());
+    }
 }
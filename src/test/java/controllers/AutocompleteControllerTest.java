@@ -0,0 +1,40 @@
+package controllers;
+
+import org.example.controllers.AutocompleteController;
+import org.example.dto.AutocompleteHitDTO;
+import org.example.services.interfaces.AutocompleteService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AutocompleteControllerTest {
+    @InjectMocks
+    private AutocompleteController autocompleteController;
+    @Mock
+    private AutocompleteService autocompleteService;
+
+    @Test
+    void testComplete() {
+        List<AutocompleteHitDTO> hits = List.of(new AutocompleteHitDTO("movie", 1L, "Alien"));
+        when(autocompleteService.complete("Ali", 5)).thenReturn(hits);
+
+        ResponseEntity<List<AutocompleteHitDTO>> response = autocompleteController.complete("Ali", 5);
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(hits, response.getBody());
+
+        verify(autocompleteService, times(1)).complete("Ali", 5);
+    }
+}
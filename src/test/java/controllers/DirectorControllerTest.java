@@ -1,20 +1,38 @@
 package controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.controllers.DirectorController;
 import org.example.dto.DirectorDTO;
+import org.example.dto.DirectorFilterDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.VersionedDTO;
 import org.example.services.interfaces.DirectorService;
+import org.example.streaming.DtoStreamWriter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -25,6 +43,8 @@ import static org.mockito.Mockito.when;
     private DirectorController directorController;
     @Mock
     private DirectorService directorService;
+    @Spy
+    private DtoStreamWriter dtoStreamWriter = new DtoStreamWriter();
 
     @Test
     void testGetDirectors() {
@@ -32,28 +52,102 @@ import static org.mockito.Mockito.when;
         DirectorDTO directorDTO2 = new DirectorDTO();
 
         List<DirectorDTO> directors = new ArrayList<>(List.of(directorDTO1, directorDTO2));
-        when(directorService.findAll()).thenReturn(directors);
+        DirectorFilterDTO filter = new DirectorFilterDTO();
+        when(directorService.findAll(filter)).thenReturn(directors);
 
-        ResponseEntity<List<DirectorDTO>> response = directorController.getDirectors();
+        ResponseEntity<List<DirectorDTO>> response = directorController.getDirectors(filter);
 
         assertSame(HttpStatus.OK, response.getStatusCode());
         assertSame(directors, response.getBody());
 
-        verify(directorService, times(1)).findAll();
+        verify(directorService, times(1)).findAll(filter);
+    }
+
+    @Test
+    void testGetDirectorsPage() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/director");
+        request.setQueryString("limit=1&sort=name");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            PageDTO<DirectorDTO> page = new PageDTO<>(List.of(new DirectorDTO()), "next");
+            DirectorFilterDTO filter = new DirectorFilterDTO();
+            filter.setName("A");
+            when(directorService.findPage("name", null, 1, filter)).thenReturn(page);
+
+            ResponseEntity<PageDTO<DirectorDTO>> response = directorController.getDirectorsPage(1, null, "name", filter);
+
+            assertSame(HttpStatus.OK, response.getStatusCode());
+            assertSame(page, response.getBody());
+            assertEquals("<http://localhost/director?limit=1&sort=name&after=next>; rel=\"next\"",
+                    response.getHeaders().getFirst(HttpHeaders.LINK));
+
+            verify(directorService, times(1)).findPage("name", null, 1, filter);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void testStreamDirectors() throws IOException {
+        DirectorDTO directorDTO = new DirectorDTO(1L, "Ridley Scott", 85);
+        doAnswer(invocation -> {
+            Consumer<DirectorDTO> consumer = invocation.getArgument(0);
+            consumer.accept(directorDTO);
+            consumer.accept(directorDTO);
+            return null;
+        }).when(directorService).streamAll(any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        directorController.streamDirectors("ndjson", response);
+
+        String line = new ObjectMapper().writeValueAsString(directorDTO) + "\n";
+        assertEquals(line + line, response.getContentAsString());
+
+        verify(directorService, times(1)).streamAll(any());
     }
 
     @Test
     void testGetDirector() {
         DirectorDTO director = new DirectorDTO();
         Long directorId = 1L;
-        when(directorService.findById(directorId)).thenReturn(director);
+        when(directorService.findVersionedById(directorId)).thenReturn(new VersionedDTO<>(3L, director));
 
-        ResponseEntity<DirectorDTO> response = directorController.getDirector(directorId);
+        ResponseEntity<DirectorDTO> response = directorController.getDirector(directorId, null);
 
         assertSame(HttpStatus.OK, response.getStatusCode());
         assertSame(director, response.getBody());
+        assertEquals("W/\"3\"", response.getHeaders().getETag());
+
+        verify(directorService, times(1)).findVersionedById(directorId);
+        verify(directorService, never()).findVersion(any());
+    }
+
+    @Test
+    void testGetDirectorNotModified() {
+        Long directorId = 1L;
+        when(directorService.findVersion(directorId)).thenReturn(3L);
 
-        verify(directorService, times(1)).findById(directorId);
+        ResponseEntity<DirectorDTO> response = directorController.getDirector(directorId, "W/\"2\", W/\"3\"");
+
+        assertSame(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("W/\"3\"", response.getHeaders().getETag());
+
+        verify(directorService, never()).findVersionedById(any());
+    }
+
+    @Test
+    void testGetDirectorModified() {
+        DirectorDTO director = new DirectorDTO();
+        Long directorId = 1L;
+        when(directorService.findVersion(directorId)).thenReturn(4L);
+        when(directorService.findVersionedById(directorId)).thenReturn(new VersionedDTO<>(4L, director));
+
+        ResponseEntity<DirectorDTO> response = directorController.getDirector(directorId, "W/\"3\"");
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(director, response.getBody());
+        assertEquals("W/\"4\"", response.getHeaders().getETag());
     }
 
     @Test
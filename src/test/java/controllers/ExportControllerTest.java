@@ -0,0 +1,80 @@
+package controllers;
+
+import org.example.bulk.ExportFormat;
+import org.example.bulk.ExportSource;
+import org.example.controllers.ExportController;
+import org.example.services.interfaces.ExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportControllerTest {
+    private static final String CSV = "id,name,age\n1,Nolan,50\n";
+
+    @InjectMocks
+    private ExportController exportController;
+    @Mock
+    private ExportService exportService;
+
+    @Test
+    void testExport() throws IOException {
+        when(exportService.export(eq(ExportSource.DIRECTORS), eq(ExportFormat.CSV), any())).thenAnswer(this::writeCsv);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        exportController.export("directors", "csv", "deflate, gzip;q=0", response);
+
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        assertEquals("attachment; filename=\"directors.csv\"", response.getHeader("Content-Disposition"));
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(CSV, response.getContentAsString(UTF_8));
+    }
+
+    @Test
+    void testExportGzip() throws IOException {
+        when(exportService.export(eq(ExportSource.DIRECTORS), eq(ExportFormat.CSV), any())).thenAnswer(this::writeCsv);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        exportController.export("directors", "csv", "gzip, deflate, br", response);
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(CSV, new String(in.readAllBytes(), UTF_8));
+        }
+    }
+
+    @Test
+    void testExportInvalidRequest() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThrows(ResponseStatusException.class, () -> exportController.export("studios", "csv", null, response));
+        assertThrows(ResponseStatusException.class, () -> exportController.export("movies", "xml", null, response));
+        verify(exportService, never()).export(any(), any(), any());
+    }
+
+    private Long writeCsv(InvocationOnMock invocation) throws IOException {
+        OutputStream out = invocation.getArgument(2);
+        out.write(CSV.getBytes(UTF_8));
+        return 1L;
+    }
+}
@@ -0,0 +1,43 @@
+package controllers;
+
+import org.example.controllers.ImportController;
+import org.example.dto.ImportReportDTO;
+import org.example.services.interfaces.ImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImportControllerTest {
+    @InjectMocks
+    private ImportController importController;
+    @Mock
+    private ImportService importService;
+
+    @Test
+    void testImportData() {
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        ImportReportDTO report = new ImportReportDTO("movies", 0L, 0L, 0L, List.of());
+        when(importService.importData("movies", "csv", body)).thenReturn(report);
+
+        ResponseEntity<ImportReportDTO> response = importController.importData("movies", "csv", body);
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(report, response.getBody());
+
+        verify(importService, times(1)).importData("movies", "csv", body);
+    }
+}
@@ -0,0 +1,57 @@
+package controllers;
+
+import org.example.controllers.MonitoringController;
+import org.example.dto.CacheStatsDTO;
+import org.example.dto.PoolStatsDTO;
+import org.example.monitoring.CacheStatistics;
+import org.example.monitoring.PoolMetricsRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MonitoringControllerTest {
+    @InjectMocks
+    private MonitoringController monitoringController;
+    @Mock
+    private PoolMetricsRegistry poolMetricsRegistry;
+    @Mock
+    private CacheStatistics cacheStatistics;
+
+    @Test
+    void testGetPoolStats() {
+        List<PoolStatsDTO> stats = List.of(new PoolStatsDTO());
+        when(poolMetricsRegistry.snapshot()).thenReturn(stats);
+
+        ResponseEntity<List<PoolStatsDTO>> response = monitoringController.getPoolStats();
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(stats, response.getBody());
+
+        verify(poolMetricsRegistry, times(1)).snapshot();
+    }
+
+    @Test
+    void testGetCacheStats() {
+        List<CacheStatsDTO> stats = List.of(new CacheStatsDTO());
+        when(cacheStatistics.snapshot()).thenReturn(stats);
+
+        ResponseEntity<List<CacheStatsDTO>> response = monitoringController.getCacheStats();
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(stats, response.getBody());
+
+        verify(cacheStatistics, times(1)).snapshot();
+    }
+}
@@ -1,20 +1,43 @@
 package controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.controllers.MovieController;
+import org.example.dto.LinkReportDTO;
 import org.example.dto.MovieDTO;
+import org.example.dto.MovieFilterDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.SimilarMovieDTO;
+import org.example.dto.VersionedDTO;
 import org.example.services.interfaces.MovieService;
+import org.example.streaming.DtoStreamWriter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -25,6 +48,8 @@ import static org.mockito.Mockito.when;
     private MovieController movieController;
     @Mock
     private MovieService movieService;
+    @Spy
+    private DtoStreamWriter dtoStreamWriter = new DtoStreamWriter();
 
     @Test
     void testGetMovies() {
@@ -32,28 +57,145 @@ import static org.mockito.Mockito.when;
         MovieDTO movieDTO2 = new MovieDTO();
 
         List<MovieDTO> movieList = new ArrayList<>(List.of(movieDTO1, movieDTO2));
-        when(movieService.findAll()).thenReturn(movieList);
+        MovieFilterDTO filter = new MovieFilterDTO();
+        when(movieService.findAll(filter)).thenReturn(movieList);
 
-        ResponseEntity<List<MovieDTO>> response = movieController.getMovies();
+        ResponseEntity<List<MovieDTO>> response = movieController.getMovies(filter);
 
         assertSame(HttpStatus.OK, response.getStatusCode());
         assertSame(movieList, response.getBody());
 
-        verify(movieService, times(1)).findAll();
+        verify(movieService, times(1)).findAll(filter);
+    }
+
+    @Test
+    void testGetMoviesPage() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movie");
+        request.setQueryString("limit=1&sort=name");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            PageDTO<MovieDTO> page = new PageDTO<>(List.of(new MovieDTO()), "next");
+            MovieFilterDTO filter = new MovieFilterDTO();
+            filter.setName("A");
+            when(movieService.findPage("name", null, 1, filter)).thenReturn(page);
+
+            ResponseEntity<PageDTO<MovieDTO>> response = movieController.getMoviesPage(1, null, "name", filter);
+
+            assertSame(HttpStatus.OK, response.getStatusCode());
+            assertSame(page, response.getBody());
+            assertEquals("<http://localhost/movie?limit=1&sort=name&after=next>; rel=\"next\"",
+                    response.getHeaders().getFirst(HttpHeaders.LINK));
+
+            verify(movieService, times(1)).findPage("name", null, 1, filter);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void testStreamMovies() throws IOException {
+        MovieDTO movieDTO = new MovieDTO(1L, 2L, "Alien", 1979);
+        doAnswer(invocation -> {
+            Consumer<MovieDTO> consumer = invocation.getArgument(0);
+            consumer.accept(movieDTO);
+            consumer.accept(movieDTO);
+            return null;
+        }).when(movieService).streamAll(any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        movieController.streamMovies("ndjson", response);
+
+        String line = new ObjectMapper().writeValueAsString(movieDTO) + "\n";
+        assertEquals(line + line, response.getContentAsString());
+
+        verify(movieService, times(1)).streamAll(any());
     }
 
     @Test
     void testGetMovie() {
-        MovieDTO movie = new MovieDTO();
+        byte[] movie = "{\"id\":1}".getBytes(UTF_8);
+        Long movieId = 1L;
+        when(movieService.findDocumentById(movieId)).thenReturn(new VersionedDTO<>(3L, movie));
+
+        ResponseEntity<byte[]> response = movieController.getMovie(movieId, null);
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(movie, response.getBody());
+        assertEquals("W/\"3\"", response.getHeaders().getETag());
+
+        verify(movieService, times(1)).findDocumentById(movieId);
+        verify(movieService, never()).findVersion(any());
+    }
+
+    @Test
+    void testGetMovieNotModified() {
+        Long movieId = 1L;
+        when(movieService.findVersion(movieId)).thenReturn(3L);
+
+        ResponseEntity<byte[]> response = movieController.getMovie(movieId, "W/\"2\", W/\"3\"");
+
+        assertSame(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("W/\"3\"", response.getHeaders().getETag());
+
+        verify(movieService, never()).findDocumentById(any());
+    }
+
+    @Test
+    void testGetMovieModified() {
+        byte[] movie = "{\"id\":1}".getBytes(UTF_8);
         Long movieId = 1L;
-        when(movieService.findById(movieId)).thenReturn(movie);
+        when(movieService.findVersion(movieId)).thenReturn(4L);
+        when(movieService.findDocumentById(movieId)).thenReturn(new VersionedDTO<>(4L, movie));
+
+        ResponseEntity<byte[]> response = movieController.getMovie(movieId, "W/\"3\"");
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(movie, response.getBody());
+        assertEquals("W/\"4\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetSparseMovies() {
+        List<Map<String, Object>> movies = List.of(Map.of("name", "Alien"));
+        when(movieService.findAll("name", null)).thenReturn(movies);
+
+        ResponseEntity<List<Map<String, Object>>> response = movieController.getSparseMovies("name", null);
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(movies, response.getBody());
+        verify(movieService, never()).findAll();
+    }
 
-        ResponseEntity<MovieDTO> response = movieController.getMovie(movieId);
+    @Test
+    void testStreamSparseMovies() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<Map<String, Object>> consumer = invocation.getArgument(1);
+            consumer.accept(Map.of("id", 1L));
+            consumer.accept(Map.of("id", 2L));
+            return null;
+        }).when(movieService).streamAll(eq("id"), any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        movieController.streamSparseMovies("json", "id", response);
+
+        assertEquals("[{\"id\":1},{\"id\":2}]", response.getContentAsString());
+    }
+
+    @Test
+    void testGetSparseMovie() {
+        Map<String, Object> movie = Map.of("id", 1L, "name", "Alien");
+        when(movieService.findVersion(1L)).thenReturn(4L);
+        when(movieService.findVersionedById(1L, "id,name")).thenReturn(new VersionedDTO<>(4L, movie));
+
+        ResponseEntity<Map<String, Object>> response = movieController.getSparseMovie(1L, "id,name", "W/\"3\"");
 
         assertSame(HttpStatus.OK, response.getStatusCode());
         assertSame(movie, response.getBody());
+        assertEquals("W/\"4\"", response.getHeaders().getETag());
 
-        verify(movieService, times(1)).findById(movieId);
+        assertSame(HttpStatus.NOT_MODIFIED, movieController.getSparseMovie(1L, "id,name", "W/\"4\"").getStatusCode());
+        verify(movieService, times(1)).findVersionedById(1L, "id,name");
     }
 
     @Test
@@ -99,4 +241,34 @@ import static org.mockito.Mockito.when;
 
         verify(movieService, times(1)).addLinkMovieActor(movieId,actorId);
     }
+
+    @Test
+    void testAddActors() {
+        LinkReportDTO report = new LinkReportDTO(List.of(2L), List.of(3L), List.of(4L));
+        when(movieService.addActors(1L, List.of(2L, 3L, 4L))).thenReturn(report);
+
+        ResponseEntity<LinkReportDTO> response = movieController.addActors(1L, List.of(2L, 3L, 4L));
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(report, response.getBody());
+    }
+
+    @Test
+    void testDeleteLink() {
+        ResponseEntity<HttpStatus> response = movieController.deleteLink(1L, 2L);
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        verify(movieService, times(1)).deleteLinkMovieActor(1L, 2L);
+    }
+
+    @Test
+    void testGetSimilar() {
+        List<SimilarMovieDTO> similar = List.of(new SimilarMovieDTO(2L, 2, 0.5));
+        when(movieService.findSimilar(1L, 10)).thenReturn(similar);
+
+        ResponseEntity<List<SimilarMovieDTO>> response = movieController.getSimilar(1L, 10);
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(similar, response.getBody());
+    }
 }
@@ -0,0 +1,56 @@
+package controllers;
+
+import org.example.controllers.SearchController;
+import org.example.dto.PageDTO;
+import org.example.dto.SearchHitDTO;
+import org.example.services.interfaces.SearchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchControllerTest {
+    @InjectMocks
+    private SearchController searchController;
+    @Mock
+    private SearchService searchService;
+
+    @Test
+    void testSearch() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/search");
+        request.setQueryString("q=nolan&limit=1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            PageDTO<SearchHitDTO> page = new PageDTO<>(List.of(new SearchHitDTO("director", 1L, "Christopher Nolan", 0.9)),
+                    "next");
+            when(searchService.search("nolan", null, 1)).thenReturn(page);
+
+            ResponseEntity<PageDTO<SearchHitDTO>> response = searchController.search("nolan", 1, null);
+
+            assertSame(HttpStatus.OK, response.getStatusCode());
+            assertSame(page, response.getBody());
+            assertEquals("<http://localhost/search?q=nolan&limit=1&after=next>; rel=\"next\"",
+                    response.getHeaders().getFirst(HttpHeaders.LINK));
+
+            verify(searchService, times(1)).search("nolan", null, 1);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package controllers;
+
+import org.example.controllers.StatsController;
+import org.example.dto.CastStatsDTO;
+import org.example.dto.StatsBucketDTO;
+import org.example.dto.StatsDTO;
+import org.example.services.interfaces.StatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatsControllerTest {
+    @InjectMocks
+    private StatsController statsController;
+    @Mock
+    private StatsService statsService;
+
+    @Test
+    void testGetMoviesPerDirector() {
+        StatsDTO<List<StatsBucketDTO>> stats = new StatsDTO<>(List.of(new StatsBucketDTO(1L, "Ridley Scott", 2L)),
+                "transactional", "2024-01-02T00:00:00Z", "2024-01-01T00:00:00Z");
+        when(statsService.moviesPerDirector(5)).thenReturn(stats);
+
+        ResponseEntity<StatsDTO<List<StatsBucketDTO>>> response = statsController.getMoviesPerDirector(5);
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(stats, response.getBody());
+    }
+
+    @Test
+    void testGetCastSize() {
+        StatsDTO<CastStatsDTO> stats = new StatsDTO<>(new CastStatsDTO(2L, 5L, 2.5),
+                "transactional", "2024-01-02T00:00:00Z", "2024-01-01T00:00:00Z");
+        when(statsService.castSize()).thenReturn(stats);
+
+        ResponseEntity<StatsDTO<CastStatsDTO>> response = statsController.getCastSize();
+
+        assertSame(HttpStatus.OK, response.getStatusCode());
+        assertSame(stats, response.getBody());
+    }
+}
@@ -0,0 +1,64 @@
+package documents;
+
+import org.example.documents.MovieDocumentChanges;
+import org.example.repositories.jdbc.MovieDocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class MovieDocumentChangesTest {
+    @InjectMocks
+    private MovieDocumentChanges movieDocumentChanges;
+    @Mock
+    private MovieDocumentRepository movieDocumentRepository;
+    @Mock
+    private EntityManager entityManager;
+
+    @Test
+    void testRefreshedOnceBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            movieDocumentChanges.changed(3L);
+            movieDocumentChanges.changed(List.of(1L, 3L));
+            verify(movieDocumentRepository, never()).refresh(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //вставки Hibernate должны попасть в базу раньше, чем документы их прочитают
+        InOrder order = inOrder(entityManager, movieDocumentRepository);
+        order.verify(entityManager).flush();
+        order.verify(movieDocumentRepository, times(1)).refresh(Set.of(1L, 3L));
+        assertNull(TransactionSynchronizationManager.getResource(movieDocumentChanges));
+    }
+
+    @Test
+    void testWithoutTransactionRefreshesImmediately() {
+        movieDocumentChanges.changed(2L);
+
+        verify(movieDocumentRepository, times(1)).refresh(List.of(2L));
+        verifyNoInteractions(entityManager);
+    }
+}
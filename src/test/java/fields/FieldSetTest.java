@@ -0,0 +1,52 @@
+package fields;
+
+import org.example.fields.FieldSet;
+import org.example.fields.SparseResource;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldSetTest {
+
+    @Test
+    void testParseKeepsDtoOrder() {
+        FieldSet fields = FieldSet.parse(SparseResource.MOVIES, " actorList, name ,id,name,");
+
+        assertEquals(List.of("id", "name", "actorList"), fields.getFields());
+        assertTrue(fields.includesChildren());
+        assertFalse(FieldSet.parse(SparseResource.ACTORS, "name").includesChildren());
+    }
+
+    @Test
+    void testParseInvalid() {
+        assertThrows(ResponseStatusException.class, () -> FieldSet.parse(SparseResource.MOVIES, null));
+        assertThrows(ResponseStatusException.class, () -> FieldSet.parse(SparseResource.MOVIES, " , "));
+        assertThrows(ResponseStatusException.class, () -> FieldSet.parse(SparseResource.MOVIES, "id,age"));
+        assertThrows(ResponseStatusException.class, () -> FieldSet.parse(SparseResource.DIRECTORS, "actorList"));
+    }
+
+    @Test
+    void testWithAndTrim() {
+        FieldSet fields = FieldSet.parse(SparseResource.DIRECTORS, "name");
+        FieldSet withCursor = fields.with("id", "age");
+
+        assertEquals(List.of("id", "name", "age"), withCursor.getFields());
+        assertSame(fields, fields.with("name"));
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("name", "Ridley Scott");
+        row.put("age", 85);
+        assertEquals(Map.of("name", "Ridley Scott"), fields.trim(row));
+        assertSame(row, withCursor.trim(row));
+    }
+}
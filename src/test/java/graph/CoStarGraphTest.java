@@ -0,0 +1,243 @@
+package graph;
+
+import org.example.graph.CoStarGraph;
+import org.example.graph.LinkConsumer;
+import org.example.graph.SimilarMovie;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class CoStarGraphTest {
+    @Mock
+    private MovieActorRepository movieActorRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testPath() {
+        //актер 1 снимался в фильме 10 с актером 2, тот в фильме 20 с актером 3; актер 4 в фильме 30 один
+        CoStarGraph graph = build(new long[][]{{1, 10}, {2, 10}, {2, 20}, {3, 20}, {4, 30}});
+
+        assertEquals(List.of(1L, 10L, 2L, 20L, 3L), graph.path(1, 3));
+        assertEquals(List.of(3L, 20L, 2L, 10L, 1L), graph.path(3, 1));
+        assertEquals(List.of(2L), graph.path(2, 2));
+        assertTrue(graph.path(1, 4).isEmpty());
+        assertTrue(graph.path(1, 99).isEmpty());
+    }
+
+    @Test
+    void testIncrementalChanges() {
+        CoStarGraph graph = build(new long[][]{{1, 10}, {2, 10}, {2, 20}, {3, 20}});
+
+        graph.linked(40L, 1L);
+        graph.linked(List.of(40L), List.of(3L, 5L));
+        assertEquals(List.of(1L, 40L, 3L), graph.path(1, 3));
+        assertEquals(List.of(5L, 40L, 1L), graph.path(5, 1));
+
+        graph.unlinked(40L, 3L);
+        assertEquals(List.of(1L, 10L, 2L, 20L, 3L), graph.path(1, 3));
+
+        graph.moviesDeleted(List.of(20L));
+        assertTrue(graph.path(1, 3).isEmpty());
+
+        graph.linked(20L, 3L);
+        graph.linked(20L, 5L);
+        assertEquals(List.of(3L, 20L, 5L, 40L, 1L), graph.path(3, 1));
+
+        graph.actorsDeleted(List.of(5L));
+        assertTrue(graph.path(3, 1).isEmpty());
+    }
+
+    @Test
+    void testReloadReplaysConcurrentChanges() {
+        CoStarGraph graph = build(new long[][]{{1, 10}, {2, 10}});
+        //пока связи перечитываются, другой запрос успел удалить связь, которую это чтение еще видит
+        doAnswer(invocation -> {
+            LinkConsumer consumer = invocation.getArgument(0);
+            consumer.accept(1, 10);
+            consumer.accept(2, 10);
+            consumer.accept(2, 20);
+            consumer.accept(3, 20);
+            graph.unlinked(10L, 1L);
+            return null;
+        }).when(movieActorRepository).streamLinks(any());
+
+        graph.reload();
+
+        assertEquals(List.of(2L, 20L, 3L), graph.path(2, 3));
+        assertTrue(graph.path(1, 2).isEmpty());
+    }
+
+    //Случайные связи и изменения, часть которых переживает пересборку снимка; длины путей сверяются с обычным BFS
+    @Test
+    void testMatchesPlainBfs() {
+        Random random = new Random(42);
+        Map<Long, Set<Long>> actorMovies = new HashMap<>();
+        List<long[]> links = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            long actor = 1 + random.nextInt(300);
+            long movie = 1000 + random.nextInt(300);
+            if (actorMovies.computeIfAbsent(actor, id -> new HashSet<>()).add(movie))
+                links.add(new long[]{actor, movie});
+        }
+        CoStarGraph graph = build(links.toArray(long[][]::new));
+
+        for (int i = 0; i < 3000; i++) {
+            long actor = 1 + random.nextInt(350);
+            long movie = 1000 + random.nextInt(350);
+            Set<Long> movies = actorMovies.computeIfAbsent(actor, id -> new HashSet<>());
+            if (movies.remove(movie))
+                graph.unlinked(movie, actor);
+            else {
+                movies.add(movie);
+                graph.linked(movie, actor);
+            }
+            if (i % 100 == 0) {
+                long from = 1 + random.nextInt(350);
+                long to = 1 + random.nextInt(350);
+                List<Long> path = graph.path(from, to);
+                assertEquals(distance(actorMovies, from, to), path.isEmpty() ? -1 : path.size() / 2);
+                assertValid(actorMovies, path);
+            }
+        }
+    }
+
+    @Test
+    void testSimilar() {
+        //у фильма 10 состав 1, 2, 3: с фильмом 20 общих двое из трех, с фильмом 30 один из шести, с 40 никого
+        CoStarGraph graph = build(new long[][]{{1, 10}, {2, 10}, {3, 10}, {1, 20}, {2, 20}, {3, 30}, {4, 30},
+                {5, 30}, {6, 30}, {7, 40}});
+
+        assertEquals(List.of(similar(20, 2, 2.0 / 3), similar(30, 1, 1.0 / 6)), graph.similar(10));
+        assertEquals(List.of(similar(10, 2, 2.0 / 3)), graph.similar(20));
+        assertTrue(graph.similar(40).isEmpty());
+        assertTrue(graph.similar(99).isEmpty());
+    }
+
+    @Test
+    void testSimilarCacheInvalidatedByLinks() {
+        CoStarGraph graph = build(new long[][]{{1, 10}, {2, 10}, {3, 10}, {1, 20}, {2, 20}, {3, 30}, {4, 30}});
+        assertEquals(List.of(similar(20, 2, 2.0 / 3), similar(30, 1, 1.0 / 4)), graph.similar(10));
+
+        graph.linked(20L, 3L);
+        assertEquals(List.of(similar(20, 3, 1.0), similar(30, 1, 1.0 / 4)), graph.similar(10));
+        //состав фильма 10 не менялся, но у фильма 30 он вырос, и это меняет их сходство
+        graph.linked(30L, 5L);
+        assertEquals(List.of(similar(20, 3, 1.0), similar(30, 1, 1.0 / 5)), graph.similar(10));
+
+        graph.unlinked(20L, 1L);
+        assertEquals(List.of(similar(20, 2, 2.0 / 3), similar(30, 1, 1.0 / 5)), graph.similar(10));
+        graph.actorsDeleted(List.of(3L));
+        assertEquals(List.of(similar(20, 1, 1.0 / 2)), graph.similar(10));
+        graph.moviesDeleted(List.of(20L));
+        assertTrue(graph.similar(10).isEmpty());
+    }
+
+    //Большие составы считаются через fork/join; результат и после изменений связей сверяется с полным перебором
+    @Test
+    void testSimilarMatchesBruteForce() {
+        Random random = new Random(7);
+        Map<Long, Set<Long>> movieActors = new HashMap<>();
+        List<long[]> links = new ArrayList<>();
+        for (long actor = 1; actor <= 150; actor++)
+            link(movieActors, links, actor, 1);
+        for (int i = 0; i < 20000; i++)
+            link(movieActors, links, 1 + random.nextInt(300), 2 + random.nextInt(8000));
+        CoStarGraph graph = build(links.toArray(long[][]::new));
+
+        for (int i = 0; i < 200; i++) {
+            long movie = i % 50 == 0 ? 1 : 1 + random.nextInt(8001);
+            assertEquals(similar(movieActors, movie), graph.similar(movie));
+            long actor = 1 + random.nextInt(300);
+            long changed = random.nextBoolean() ? 1 : 1 + random.nextInt(8001);
+            Set<Long> actors = movieActors.computeIfAbsent(changed, id -> new HashSet<>());
+            if (actors.remove(actor))
+                graph.unlinked(changed, actor);
+            else {
+                actors.add(actor);
+                graph.linked(changed, actor);
+            }
+        }
+    }
+
+    private CoStarGraph build(long[][] links) {
+        doAnswer(invocation -> {
+            LinkConsumer consumer = invocation.getArgument(0);
+            for (long[] link : links)
+                consumer.accept(link[0], link[1]);
+            return null;
+        }).when(movieActorRepository).streamLinks(any());
+        CoStarGraph graph = new CoStarGraph(movieActorRepository, transactionManager);
+        graph.build();
+        return graph;
+    }
+
+    private static SimilarMovie similar(long movieId, int sharedActors, double similarity) {
+        return new SimilarMovie(movieId, sharedActors, similarity);
+    }
+
+    private static List<SimilarMovie> similar(Map<Long, Set<Long>> movieActors, long movie) {
+        Set<Long> cast = movieActors.getOrDefault(movie, Set.of());
+        List<SimilarMovie> similar = new ArrayList<>();
+        for (Map.Entry<Long, Set<Long>> other : movieActors.entrySet()) {
+            int shared = (int) other.getValue().stream().filter(cast::contains).count();
+            if (other.getKey() != movie && shared > 0)
+                similar.add(similar(other.getKey(), shared,
+                        (double) shared / (cast.size() + other.getValue().size() - shared)));
+        }
+        similar.sort(Comparator.comparingDouble(SimilarMovie::getSimilarity).reversed()
+                .thenComparing(Comparator.comparingInt(SimilarMovie::getSharedActors).reversed())
+                .thenComparingLong(SimilarMovie::getMovieId));
+        return similar.subList(0, Math.min(CoStarGraph.MAX_SIMILAR, similar.size()));
+    }
+
+    private static void link(Map<Long, Set<Long>> movieActors, List<long[]> links, long actor, long movie) {
+        if (movieActors.computeIfAbsent(movie, id -> new HashSet<>()).add(actor))
+            links.add(new long[]{actor, movie});
+    }
+
+    private static void assertValid(Map<Long, Set<Long>> actorMovies, List<Long> path) {
+        for (int i = 1; i < path.size(); i += 2) {
+            assertTrue(actorMovies.get(path.get(i - 1)).contains(path.get(i)));
+            assertTrue(actorMovies.get(path.get(i + 1)).contains(path.get(i)));
+        }
+    }
+
+    //число фильмов в кратчайшей цепочке или -1
+    private static int distance(Map<Long, Set<Long>> actorMovies, long from, long to) {
+        if (from == to)
+            return 0;
+        Map<Long, Integer> depth = new HashMap<>(Map.of(from, 0));
+        Queue<Long> queue = new ArrayDeque<>(List.of(from));
+        while (!queue.isEmpty()) {
+            long actor = queue.poll();
+            for (Map.Entry<Long, Set<Long>> other : actorMovies.entrySet())
+                if (!depth.containsKey(other.getKey()) &&
+                        other.getValue().stream().anyMatch(actorMovies.getOrDefault(actor, Set.of())::contains)) {
+                    depth.put(other.getKey(), depth.get(actor) + 1);
+                    queue.add(other.getKey());
+                }
+        }
+        return depth.getOrDefault(to, -1);
+    }
+}
@@ -0,0 +1,78 @@
+package json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.example.dto.ActorDTO;
+import org.example.dto.MovieDTO;
+import org.example.json.DtoJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Запуск вручную, не в составе тестов: чтение большого списка фильмов по рефлексии и через DtoJsonModule
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public class DtoJsonBenchmark {
+    private static final int MOVIES = 20_000;
+    private static final int ACTORS_PER_MOVIE = 10;
+
+    private byte[] body;
+    private ObjectReader reflective;
+    private ObjectReader tuned;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(DtoJsonBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        body = DtoJson.objectMapper().writeValueAsBytes(movies());
+        reflective = readerFor(Jackson2ObjectMapperBuilder.json().build());
+        tuned = readerFor(DtoJson.objectMapper());
+    }
+
+    @Benchmark
+    public List<MovieDTO> readReflective() throws Exception {
+        return reflective.readValue(body);
+    }
+
+    @Benchmark
+    public List<MovieDTO> readTuned() throws Exception {
+        return tuned.readValue(body);
+    }
+
+    private static ObjectReader readerFor(ObjectMapper objectMapper) {
+        return objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, MovieDTO.class));
+    }
+
+    private static List<MovieDTO> movies() {
+        List<MovieDTO> movies = new ArrayList<>(MOVIES);
+        for (long id = 1; id <= MOVIES; id++) {
+            MovieDTO movie = new MovieDTO(id, id % 500 + 1, "Movie \"" + id + "\"", 1950 + (int) (id % 70));
+            List<ActorDTO> actors = new ArrayList<>(ACTORS_PER_MOVIE);
+            for (long actor = 0; actor < ACTORS_PER_MOVIE; actor++)
+                actors.add(new ActorDTO(id * ACTORS_PER_MOVIE + actor, "Актер " + actor, 20 + (int) actor));
+            movie.setActorList(actors);
+            movies.add(movie);
+        }
+        return movies;
+    }
+}
@@ -0,0 +1,70 @@
+package json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.ActorDTO;
+import org.example.dto.DirectorDTO;
+import org.example.dto.MovieDTO;
+import org.example.json.DtoJson;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DtoJsonModuleTest {
+    //эталон: тот же builder без модуля, чтение по рефлексии
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper tuned = DtoJson.objectMapper();
+
+    @Test
+    void testRoundTrip() throws Exception {
+        MovieDTO tenet = new MovieDTO(1L, 2L, "Tenet \"2020\" \\ Довод\n\t/\u0001", 2020);
+        ActorDTO pattinson = new ActorDTO(3L, "Robert Pattinson", 34);
+        pattinson.setMovieList(List.of(new MovieDTO(4L, null, "Batman", null)));
+        tenet.setActorList(Arrays.asList(new ActorDTO(null, null, null), pattinson, null));
+        DirectorDTO nolan = new DirectorDTO(2L, "Christopher Nolan", 52);
+        nolan.setMovieList(List.of(tenet, new MovieDTO()));
+
+        assertRoundTrip(tenet);
+        assertRoundTrip(pattinson);
+        assertRoundTrip(nolan);
+        assertRoundTrip(new DirectorDTO());
+    }
+
+    @Test
+    void testReadBack() throws Exception {
+        DirectorDTO nolan = tuned.readValue("{\"id\":\"2\",\"name\":\"Christopher Nolan\",\"age\":52," +
+                "\"unknown\":{\"a\":[1,2]},\"movieList\":[{\"id\":1,\"directorId\":2,\"name\":\"Tenet\"," +
+                "\"year\":\"2020\",\"actorList\":[null,{\"id\":3,\"name\":\"Robert Pattinson\",\"age\":null," +
+                "\"movieList\":null}]}]}", DirectorDTO.class);
+
+        assertEquals(new DirectorDTO(2L, "Christopher Nolan", 52), nolan);
+        MovieDTO tenet = nolan.getMovieList().get(0);
+        assertEquals(new MovieDTO(1L, 2L, "Tenet", 2020), tenet);
+        assertEquals(Arrays.asList(null, new ActorDTO(3L, "Robert Pattinson", null)), tenet.getActorList());
+        assertNull(tenet.getActorList().get(1).getMovieList());
+        assertEquals(new ActorDTO(), tuned.readValue("{}", ActorDTO.class));
+    }
+
+    @Test
+    void testTreeToValue() throws Exception {
+        //так DTO читаются из уже разобранного дерева: десериализатор зовут на имени первого поля
+        MovieDTO movie = tuned.treeToValue(DtoJson.treeReader().readTree(
+                "{\"name\":\"Alien\",\"year\":1979,\"directorId\":7}"), MovieDTO.class);
+
+        assertEquals(new MovieDTO(null, 7L, "Alien", 1979), movie);
+    }
+
+    //equals у DTO не смотрит на списки, поэтому прочитанное сравнивается повторной записью
+    private void assertRoundTrip(Object value) throws Exception {
+        String json = tuned.writeValueAsString(value);
+
+        assertEquals(reflective.writeValueAsString(value), json);
+        assertEquals(json, tuned.writeValueAsString(tuned.readValue(json, value.getClass())));
+        assertEquals(reflective.writeValueAsString(reflective.readValue(json, value.getClass())),
+                tuned.writeValueAsString(tuned.readValue(json, value.getClass())));
+    }
+}
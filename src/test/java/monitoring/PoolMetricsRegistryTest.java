@@ -0,0 +1,50 @@
+package monitoring;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.example.dto.PoolStatsDTO;
+import org.example.monitoring.PoolMetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PoolMetricsRegistryTest {
+
+    @Test
+    void testSnapshot() {
+        PoolMetricsRegistry registry = new PoolMetricsRegistry();
+        IMetricsTracker tracker = registry.create("primary", new PoolStats(0) {
+            @Override
+            protected void update() {
+                totalConnections = 10;
+                activeConnections = 5;
+                idleConnections = 5;
+                pendingThreads = 2;
+                maxConnections = 10;
+                minConnections = 2;
+            }
+        });
+
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(4));
+        tracker.recordConnectionUsageMillis(10);
+        tracker.recordConnectionTimeout();
+
+        List<PoolStatsDTO> snapshot = registry.snapshot();
+
+        assertEquals(1, snapshot.size());
+        PoolStatsDTO stats = snapshot.get(0);
+        assertEquals("primary", stats.getPoolName());
+        assertEquals(5, stats.getActiveConnections());
+        assertEquals(2, stats.getPendingThreads());
+        assertEquals(0.5, stats.getUtilization());
+        assertEquals(2, stats.getAcquireCount());
+        assertEquals(3.0, stats.getAverageAcquireMillis());
+        assertEquals(4.0, stats.getMaxAcquireMillis());
+        assertEquals(10.0, stats.getAverageUsageMillis());
+        assertEquals(1, stats.getTimeoutCount());
+    }
+}
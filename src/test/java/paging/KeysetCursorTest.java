@@ -0,0 +1,39 @@
+package paging;
+
+import org.example.paging.KeysetCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    @Test
+    void testEncodeDecode() {
+        KeysetCursor cursor = KeysetCursor.of("name", 42L, "Однажды в\nГолливуде");
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        assertEquals("name", decoded.getSort());
+        assertEquals(42L, decoded.getId());
+        assertEquals("Однажды в\nГолливуде", decoded.stringValue());
+    }
+
+    @Test
+    void testFirstCursor() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.first("year").encode());
+
+        assertEquals(0L, cursor.getId());
+        assertEquals(Integer.MIN_VALUE, cursor.intValue());
+        assertEquals("", cursor.stringValue());
+    }
+
+    @Test
+    void testInvalidCursor() {
+        assertThrows(ResponseStatusException.class, () -> KeysetCursor.decode("???"));
+        assertThrows(ResponseStatusException.class, () -> KeysetCursor.decode(KeysetCursor.of("id", 1L, null).encode().substring(2)));
+        assertThrows(ResponseStatusException.class, () -> KeysetCursor.of("year", 1L, "abc").intValue());
+    }
+}
@@ -1,19 +1,27 @@
 package repository;
 
+import org.example.dto.ActorDTO;
 import org.example.models.Actor;
 import org.example.models.Director;
 import org.example.models.Movie;
 import org.example.repositories.ActorRepository;
 import org.example.repositories.DirectorRepository;
 import org.example.repositories.MovieRepository;
+import org.example.repositories.projections.ActorMovieRow;
+import org.example.repositories.projections.JoinedRows;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +40,8 @@ class ActorRepositoryTest {
     private MovieRepository movieRepository;
     @Autowired
     private DirectorRepository directorRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Test
     void testSaveAndFindById() {
@@ -76,6 +86,25 @@ class ActorRepositoryTest {
         assertTrue(optionalActor1.isEmpty());
     }
 
+    @Test
+    void testFindPageByAge() {
+        Actor actor1 = new Actor("Джонни Депп", 60);
+        Actor actor2 = new Actor("Орландо Блум", 46);
+        Actor actor3 = new Actor("Кира Найтли", 38);
+        actorRepository.save(actor1);
+        actorRepository.save(actor2);
+        actorRepository.save(actor3);
+
+        List<Long> firstPage = actorRepository.findPageByAge(Integer.MIN_VALUE, 0L, PageRequest.of(0, 2));
+        assertEquals(List.of(actor3.getActorId(), actor2.getActorId()), firstPage);
+
+        List<Long> secondPage = actorRepository.findPageByAge(46, actor2.getActorId(), PageRequest.of(0, 2));
+        assertEquals(List.of(actor1.getActorId()), secondPage);
+
+        List<Long> byId = actorRepository.findPageById(actor1.getActorId(), PageRequest.of(0, 5));
+        assertEquals(List.of(actor2.getActorId(), actor3.getActorId()), byId);
+    }
+
     @Test
     void testActorMovieList() {
         Director director1 = new Director();
@@ -87,7 +116,7 @@ class ActorRepositoryTest {
         Actor actor = new Actor();
         actor.setName("Джонни Депп");
         actor.setAge(67);
-        actor.setMovieList(new ArrayList<>());
+        actor.setMovieList(new HashSet<>());
         actorRepository.save(actor);
         assertEquals(0, actor.getMovieList().size());
 
@@ -95,13 +124,13 @@ class ActorRepositoryTest {
         movie1.setName("KingKong");
         movie1.setYearOfProduction(2010);
         movie1.setDirector(director1);
-        movie1.setActorList(new ArrayList<>(Collections.singletonList(actor)));
+        movie1.setActorList(new HashSet<>(Collections.singletonList(actor)));
         movieRepository.save(movie1);
         Movie movie = new Movie();
         movie.setName("AllStars");
         movie.setYearOfProduction(1998);
         movie.setDirector(director1);
-        movie.setActorList(new ArrayList<>(Collections.singletonList(actor)));
+        movie.setActorList(new HashSet<>(Collections.singletonList(actor)));
         movieRepository.save(movie);
 
         actor.getMovieList().add(movie1);
@@ -119,4 +148,36 @@ class ActorRepositoryTest {
         assertFalse(optionalActor.get().getMovieList().contains(movie1));
 
     }
+
+    @Test
+    void testFindPageRunsTwoStatementsWithoutEntities() {
+        Fixtures.saveCatalog(entityManager, directorRepository, movieRepository, actorRepository);
+        Statistics statistics = Fixtures.clearStatistics(entityManager);
+
+        List<Long> ids = actorRepository.findPageById(0L, PageRequest.of(0, 10));
+        List<ActorDTO> actors = JoinedRows.fold(actorRepository.findRowsByIds(ids), ids);
+
+        assertEquals(10, actors.size());
+        assertEquals(1, actors.get(0).getMovieList().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindAllRowsLoadsNoEntities() {
+        Fixtures.saveCatalog(entityManager, directorRepository, movieRepository, actorRepository);
+        Statistics statistics = Fixtures.clearStatistics(entityManager);
+
+        List<ActorDTO> actors = JoinedRows.fold(actorRepository.findAllRows());
+
+        assertEquals(12, actors.size());
+        assertTrue(actors.stream().allMatch(actor -> actor.getMovieList().size() == 1));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        ActorDTO second = actors.get(1);
+        List<ActorMovieRow> rows = actorRepository.findRowsById(second.getId());
+        assertEquals(List.of(second), JoinedRows.fold(rows));
+        assertEquals(second.getMovieList(), JoinedRows.fold(rows).get(0).getMovieList());
+    }
 }
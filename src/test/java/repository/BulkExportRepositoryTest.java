@@ -0,0 +1,80 @@
+package repository;
+
+import org.example.bulk.ExportFormat;
+import org.example.bulk.ExportSource;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.BulkExportRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringJUnitConfig(JpaTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+@Transactional
+class BulkExportRepositoryTest {
+
+    @Autowired
+    private BulkExportRepository bulkExportRepository;
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void testExportCsv() {
+        Director director = directorRepository.save(new Director("Nolan", 50));
+        Movie movie = movieRepository.save(new Movie(director, "Batman \"Begins\", part 1", 2005));
+        entityManager.flush();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = bulkExportRepository.export(ExportSource.MOVIES, ExportFormat.CSV, out);
+
+        assertEquals(1, rows);
+        assertEquals("id,directorId,name,year\n" +
+                movie.getMovieId() + "," + director.getDirectorId() + ",\"Batman \"\"Begins\"\", part 1\",2005\n",
+                out.toString(UTF_8));
+    }
+
+    @Test
+    void testExportNdjson() {
+        Director director = directorRepository.save(new Director("Nolan", 50));
+        Movie movie = movieRepository.save(new Movie(director, "Inception", 2010));
+        Actor actor1 = new Actor("Back\\slash \"Joe\"\nJr.", 45);
+        Actor actor2 = new Actor("Tom Hardy", 46);
+        actor1.setMovieList(new HashSet<>(List.of(movie)));
+        actor2.setMovieList(new HashSet<>(List.of(movie)));
+        actorRepository.save(actor1);
+        actorRepository.save(actor2);
+        entityManager.flush();
+        ByteArrayOutputStream actors = new ByteArrayOutputStream();
+        ByteArrayOutputStream links = new ByteArrayOutputStream();
+
+        bulkExportRepository.export(ExportSource.ACTORS, ExportFormat.NDJSON, actors);
+        bulkExportRepository.export(ExportSource.LINKS, ExportFormat.NDJSON, links);
+
+        assertEquals("{\"id\":" + actor1.getActorId() + ",\"name\":\"Back\\\\slash \\\"Joe\\\"\\nJr.\",\"age\":45}\n" +
+                "{\"id\":" + actor2.getActorId() + ",\"name\":\"Tom Hardy\",\"age\":46}\n", actors.toString(UTF_8));
+        assertEquals("{\"movieId\":" + movie.getMovieId() + ",\"actorId\":" + actor1.getActorId() + "}\n" +
+                "{\"movieId\":" + movie.getMovieId() + ",\"actorId\":" + actor2.getActorId() + "}\n", links.toString(UTF_8));
+    }
+}
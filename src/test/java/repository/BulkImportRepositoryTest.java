@@ -0,0 +1,184 @@
+package repository;
+
+import org.example.bulk.CsvRecordReader;
+import org.example.bulk.ImportRecordReader;
+import org.example.bulk.ImportTarget;
+import org.example.dto.ImportBatchDTO;
+import org.example.dto.ImportErrorDTO;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.BulkImportRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringJUnitConfig(JpaTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+@Transactional
+class BulkImportRepositoryTest {
+
+    @Autowired
+    private BulkImportRepository bulkImportRepository;
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void testImportDirectors() {
+        Director director = directorRepository.save(new Director("Nolan", 50));
+        entityManager.flush();
+        ImportRecordReader reader = csv(ImportTarget.DIRECTORS, "id,name,age\n" +
+                director.getDirectorId() + ",Christopher Nolan,53\n" +
+                ",Fincher,60\n" +
+                ",Baby,5\n" +
+                "0,Nobody,40\n" +
+                ",,40\n");
+
+        ImportBatchDTO batch = bulkImportRepository.importBatch(ImportTarget.DIRECTORS, 1, reader, 100);
+
+        assertEquals(new ImportBatchDTO(1, 5, 2, 3, List.of(
+                new ImportErrorDTO(4L, "age должен быть больше 18 и меньше 100"),
+                new ImportErrorDTO(5L, "Режиссера с таким id в базе нет"),
+                new ImportErrorDTO(6L, "name обязателен"))), batch);
+        assertEquals(List.of("Christopher Nolan", "Fincher"),
+                jdbcTemplate.queryForList("select name from director order by name", String.class));
+        assertEquals(List.of(1L, 0L),
+                jdbcTemplate.queryForList("select version from director order by name", Long.class));
+    }
+
+    @Test
+    void testImportRejectsRepeatedId() {
+        Director director = directorRepository.save(new Director("Nolan", 50));
+        entityManager.flush();
+        Long id = director.getDirectorId();
+        ImportRecordReader reader = csv(ImportTarget.DIRECTORS, "id,name,age\n" +
+                id + ",Christopher Nolan,53\n" +
+                "0" + id + ",Chris Nolan,54\n" +
+                ",Fincher,60\n");
+
+        ImportBatchDTO batch = bulkImportRepository.importBatch(ImportTarget.DIRECTORS, 1, reader, 100);
+
+        assertEquals(new ImportBatchDTO(1, 3, 2, 1, List.of(
+                new ImportErrorDTO(3L, "id уже встречался в строке 2"))), batch);
+        assertEquals(List.of("Christopher Nolan", "Fincher"),
+                jdbcTemplate.queryForList("select name from director order by name", String.class));
+        assertEquals(1L, jdbcTemplate.queryForObject("select version from director where director_id = ?",
+                Long.class, id));
+    }
+
+    @Test
+    void testImportTakesIdsInBlocks() {
+        actorRepository.save(new Actor("Before", 30));
+        entityManager.flush();
+        StringBuilder csv = new StringBuilder("name,age\n");
+        for (int i = 1; i <= 60; i++)
+            csv.append("Actor ").append(i).append(",30\n");
+
+        bulkImportRepository.importBatch(ImportTarget.ACTORS, 1, csv(ImportTarget.ACTORS, csv.toString()), 100);
+        actorRepository.save(new Actor("After", 30));
+        entityManager.flush();
+
+        //60 строк заняли два блока последовательности, а не 60, и не пересеклись с блоком Hibernate
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "select count(distinct (actor_id - 1) / 50) from actor where name like 'Actor %'", Integer.class));
+        assertEquals(62, jdbcTemplate.queryForObject("select count(*) from actor", Integer.class));
+    }
+
+    @Test
+    void testImportMoviesInBatches() {
+        Director director = directorRepository.save(new Director("Nolan", 50));
+        entityManager.flush();
+        Long id = director.getDirectorId();
+        ImportRecordReader reader = csv(ImportTarget.MOVIES, "directorId,name,year\n" +
+                id + ",Inception,2010\n" +
+                id + ",Tenet,1900\n" +
+                (id + 1000) + ",Memento,2000\n" +
+                id + ",Interstellar,20x4\n" +
+                id + ",Dunkirk\n");
+
+        ImportBatchDTO first = bulkImportRepository.importBatch(ImportTarget.MOVIES, 1, reader, 3);
+        ImportBatchDTO second = bulkImportRepository.importBatch(ImportTarget.MOVIES, 2, reader, 3);
+
+        assertEquals(new ImportBatchDTO(1, 3, 1, 2, List.of(
+                new ImportErrorDTO(3L, "year должен быть больше 1900"),
+                new ImportErrorDTO(4L, "У фильма directorId = " + (id + 1000) + ", режиссера с таким id нет в базе"))), first);
+        assertEquals(new ImportBatchDTO(2, 2, 0, 2, List.of(
+                new ImportErrorDTO(5L, "year обязателен и должен быть целым числом"),
+                new ImportErrorDTO(6L, "Ожидалось колонок: 3, а пришло: 2"))), second);
+        assertFalse(reader.hasNext());
+        assertEquals(List.of("Inception"), jdbcTemplate.queryForList("select name from movie", String.class));
+    }
+
+    @Test
+    void testImportLinks() {
+        Director director = directorRepository.save(new Director("Nolan", 50));
+        Movie movie = movieRepository.save(new Movie(director, "Inception", 2010));
+        Actor actor = actorRepository.save(new Actor("DiCaprio", 45));
+        entityManager.flush();
+        ImportRecordReader reader = csv(ImportTarget.LINKS, "movieId,actorId\n" +
+                movie.getMovieId() + "," + actor.getActorId() + "\n" +
+                movie.getMovieId() + "," + actor.getActorId() + "\n" +
+                movie.getMovieId() + "," + (actor.getActorId() + 1000) + "\n");
+
+        ImportBatchDTO batch = bulkImportRepository.importBatch(ImportTarget.LINKS, 1, reader, 100);
+
+        assertEquals(new ImportBatchDTO(1, 3, 1, 1, List.of(
+                new ImportErrorDTO(4L, "Актера с таким id в базе нет"))), batch);
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from movie_actor", Integer.class));
+        //повтор связи в той же пачке не поднимает version второй раз
+        assertEquals(1L, jdbcTemplate.queryForObject("select version from movie", Long.class));
+        assertEquals(1L, jdbcTemplate.queryForObject("select version from actor", Long.class));
+
+        ImportBatchDTO again = bulkImportRepository.importBatch(ImportTarget.LINKS, 2,
+                csv(ImportTarget.LINKS, "movieId,actorId\n" + movie.getMovieId() + "," + actor.getActorId() + "\n"), 100);
+
+        assertEquals(new ImportBatchDTO(2, 1, 0, 0, List.of()), again);
+        assertEquals(1L, jdbcTemplate.queryForObject("select version from movie", Long.class));
+    }
+
+    @Test
+    void testImportActorsBumpsMovieVersion() {
+        Director director = directorRepository.save(new Director("Nolan", 50));
+        Movie movie = movieRepository.save(new Movie(director, "Inception", 2010));
+        Actor actor = new Actor("DiCaprio", 45);
+        actor.setMovieList(Set.of(movie));
+        actorRepository.save(actor);
+        entityManager.flush();
+        ImportRecordReader reader = csv(ImportTarget.ACTORS, "id,name,age\n" +
+                actor.getActorId() + ",Leonardo DiCaprio,46\n");
+
+        bulkImportRepository.importBatch(ImportTarget.ACTORS, 1, reader, 100);
+
+        assertEquals(1L, jdbcTemplate.queryForObject("select version from actor", Long.class));
+        //карточка фильма содержит актера, поэтому ее ETag тоже меняется
+        assertEquals(1L, jdbcTemplate.queryForObject("select version from movie", Long.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("select version from director", Long.class));
+    }
+
+    private static ImportRecordReader csv(ImportTarget target, String text) {
+        return new CsvRecordReader(new StringReader(text), target);
+    }
+}
@@ -0,0 +1,59 @@
+package repository;
+
+import org.example.cache.DtoCaches;
+import org.example.cache.EntityChanges;
+import org.example.config.SecondLevelCache;
+import org.example.documents.MovieDocumentChanges;
+import org.example.monitoring.CacheStatistics;
+import org.example.repositories.jdbc.MovieDocumentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Properties;
+
+@Configuration
+public class CacheTestConfig extends JpaTestConfig {
+    private final Environment env;
+
+    @Autowired
+    public CacheTestConfig(Environment env) {
+        super(env);
+        this.env = env;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return SecondLevelCache.createCacheManager("test", env);
+    }
+
+    @Bean
+    public DtoCaches dtoCaches() {
+        return new DtoCaches(env, transactionManager());
+    }
+
+    @Bean
+    public EntityChanges entityChanges(EntityManagerFactory entityManagerFactory,
+                                       MovieDocumentRepository movieDocumentRepository) {
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        return new EntityChanges(dtoCaches(), entityManager,
+                new MovieDocumentChanges(movieDocumentRepository, entityManager));
+    }
+
+    @Bean
+    public CacheStatistics cacheStatistics(EntityManagerFactory entityManagerFactory) {
+        return new CacheStatistics(entityManagerFactory, hibernateCacheManager(), dtoCaches());
+    }
+
+    @Override
+    protected Properties hibernateProperties() {
+        Properties properties = super.hibernateProperties();
+        SecondLevelCache.configure(properties, hibernateCacheManager());
+        return properties;
+    }
+}
@@ -0,0 +1,124 @@
+package repository;
+
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.DeleteRepository;
+import org.example.repositories.jdbc.DeleteResult;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringJUnitConfig(JpaTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+@Transactional
+class DeleteRepositoryTest {
+
+    @Autowired
+    private DeleteRepository deleteRepository;
+    @Autowired
+    private MovieActorRepository movieActorRepository;
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Director director;
+    private Movie alien;
+    private Movie gladiator;
+    private Actor weaver;
+    private Actor crowe;
+
+    @Test
+    void testDeleteMovie() {
+        save();
+
+        DeleteResult result = deleteRepository.deleteMovie(alien.getMovieId()).orElseThrow();
+
+        assertEquals(List.of(director.getDirectorId()), result.getDirectorIds());
+        assertEquals(List.of(alien.getMovieId()), result.getMovieIds());
+        assertEquals(List.of(weaver.getActorId()), result.getActorIds());
+        assertEquals(List.of(gladiator.getMovieId()),
+                jdbcTemplate.queryForList("select movie_id from movie_actor", Long.class));
+        assertEquals(1L, version("director", director.getDirectorId()));
+        assertEquals(2L, version("actor", weaver.getActorId()));
+        assertEquals(1L, version("actor", crowe.getActorId()));
+    }
+
+    @Test
+    void testDeleteActor() {
+        save();
+
+        DeleteResult result = deleteRepository.deleteActor(weaver.getActorId()).orElseThrow();
+
+        assertTrue(result.getDirectorIds().isEmpty());
+        assertEquals(List.of(alien.getMovieId()), result.getMovieIds());
+        assertEquals(List.of(weaver.getActorId()), result.getActorIds());
+        assertEquals(List.of(crowe.getActorId()),
+                jdbcTemplate.queryForList("select actor_id from movie_actor", Long.class));
+        assertEquals(2L, version("movie", alien.getMovieId()));
+        assertEquals(0L, version("director", director.getDirectorId()));
+    }
+
+    @Test
+    void testDeleteDirectorCascadesToMovies() {
+        save();
+
+        DeleteResult result = deleteRepository.deleteDirector(director.getDirectorId()).orElseThrow();
+
+        assertEquals(List.of(director.getDirectorId()), result.getDirectorIds());
+        assertEquals(2, result.getMovieIds().size());
+        assertEquals(2, result.getActorIds().size());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from movie", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from movie_actor", Integer.class));
+        assertEquals(2L, version("actor", weaver.getActorId()));
+        assertEquals(2L, version("actor", crowe.getActorId()));
+    }
+
+    @Test
+    void testDeleteMissing() {
+        save();
+
+        assertTrue(deleteRepository.deleteMovie(alien.getMovieId() + 1000).isEmpty());
+        assertTrue(deleteRepository.deleteActor(weaver.getActorId() + 1000).isEmpty());
+        assertTrue(deleteRepository.deleteDirector(director.getDirectorId() + 1000).isEmpty());
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from movie_actor", Integer.class));
+        assertEquals(0L, version("director", director.getDirectorId()));
+    }
+
+    private void save() {
+        director = directorRepository.save(new Director("Ridley Scott", 85));
+        alien = movieRepository.save(new Movie(director, "Alien", 1979));
+        gladiator = movieRepository.save(new Movie(director, "Gladiator", 2000));
+        weaver = actorRepository.save(new Actor("Sigourney Weaver", 73));
+        crowe = actorRepository.save(new Actor("Russell Crowe", 59));
+        entityManager.flush();
+        movieActorRepository.insertLink(alien.getMovieId(), weaver.getActorId());
+        movieActorRepository.insertLink(gladiator.getMovieId(), crowe.getActorId());
+    }
+
+    private Long version(String table, Long id) {
+        return jdbcTemplate.queryForObject("select version from " + table + " where " + table + "_id = ?",
+                Long.class, id);
+    }
+}
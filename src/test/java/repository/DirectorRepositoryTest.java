@@ -1,15 +1,23 @@
 package repository;
 
+import org.example.dto.DirectorDTO;
 import org.example.models.Director;
 import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
 import org.example.repositories.DirectorRepository;
 import org.example.repositories.MovieRepository;
+import org.example.repositories.projections.DirectorMovieRow;
+import org.example.repositories.projections.JoinedRows;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +34,10 @@ class DirectorRepositoryTest {
     private DirectorRepository directorRepository;
     @Autowired
     private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Test
     void testSaveAndFindById() {
@@ -70,6 +82,23 @@ class DirectorRepositoryTest {
         assertTrue(deletedDirector.isEmpty());
     }
 
+    @Test
+    void testFindPageByName() {
+        Director director1 = new Director("Квентин Тарантино", 60);
+        Director director2 = new Director("Вуди Аллен", 87);
+        directorRepository.save(director1);
+        directorRepository.save(director2);
+
+        List<Long> firstPage = directorRepository.findPageByName("", 0L, PageRequest.of(0, 1));
+        assertEquals(List.of(director2.getDirectorId()), firstPage);
+
+        List<Long> secondPage = directorRepository.findPageByName("Вуди Аллен", director2.getDirectorId(), PageRequest.of(0, 1));
+        assertEquals(List.of(director1.getDirectorId()), secondPage);
+
+        List<Long> byAge = directorRepository.findPageByAge(60, director1.getDirectorId(), PageRequest.of(0, 5));
+        assertEquals(List.of(director2.getDirectorId()), byAge);
+    }
+
     @Test
     void testDirectorMovieList() {
         Director director1 = new Director();
@@ -103,4 +132,50 @@ class DirectorRepositoryTest {
         assertEquals(2, director1.getMovieList().size());
 
     }
+
+    @Test
+    void testFindPageRunsTwoStatementsWithoutEntities() {
+        Fixtures.saveCatalog(entityManager, directorRepository, movieRepository, actorRepository);
+        Statistics statistics = Fixtures.clearStatistics(entityManager);
+
+        List<Long> ids = directorRepository.findPageById(0L, PageRequest.of(0, 10));
+        List<DirectorDTO> directors = JoinedRows.fold(directorRepository.findRowsByIds(ids), ids);
+
+        assertEquals(3, directors.size());
+        assertEquals(2, directors.get(0).getMovieList().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindAllRowsLoadsNoEntities() {
+        Fixtures.saveCatalog(entityManager, directorRepository, movieRepository, actorRepository);
+        Statistics statistics = Fixtures.clearStatistics(entityManager);
+
+        List<DirectorDTO> directors = JoinedRows.fold(directorRepository.findAllRows());
+
+        assertEquals(3, directors.size());
+        assertTrue(directors.stream().allMatch(director -> director.getMovieList().size() == 2));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        DirectorDTO second = directors.get(1);
+        List<DirectorMovieRow> rows = directorRepository.findRowsById(second.getId());
+        assertEquals(List.of(second), JoinedRows.fold(rows));
+        assertEquals(second.getMovieList(), JoinedRows.fold(rows).get(0).getMovieList());
+    }
+
+    @Test
+    void testNestedCreateInsertsInBatches() {
+        Statistics statistics = Fixtures.clearStatistics(entityManager);
+
+        Director director = directorRepository.save(new Director("Steven Spielberg", 75));
+        for (int i = 1; i <= 120; i++)
+            movieRepository.save(new Movie(director, "Movie " + i, 1950 + i % 70));
+        entityManager.flush();
+
+        assertEquals(121, statistics.getEntityInsertCount());
+        //без batch и pooled sequence здесь было бы не меньше 121 statement
+        assertTrue(statistics.getPrepareStatementCount() <= 10);
+    }
 }
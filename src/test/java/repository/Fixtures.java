@@ -0,0 +1,47 @@
+package repository;
+
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    //3 режиссера, у каждого 2 фильма, у каждого фильма 2 своих актера; контекст после сохранения очищен
+    static List<Movie> saveCatalog(EntityManager entityManager, DirectorRepository directorRepository,
+                                   MovieRepository movieRepository, ActorRepository actorRepository) {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Director director = directorRepository.save(new Director("Director " + i, 40 + i));
+            for (int j = 1; j <= 2; j++) {
+                Movie movie = movieRepository.save(new Movie(director, "Movie " + i + j, 2000 + j));
+                movies.add(movie);
+                for (int k = 1; k <= 2; k++) {
+                    Actor actor = new Actor("Actor " + i + j + k, 20 + k);
+                    actor.setMovieList(new HashSet<>(List.of(movie)));
+                    actorRepository.save(actor);
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return movies;
+    }
+
+    static Statistics clearStatistics(EntityManager entityManager) {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
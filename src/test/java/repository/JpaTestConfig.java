@@ -4,8 +4,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -14,8 +16,10 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.util.Properties;
 
 @Configuration
+@PropertySource("classpath:hibernate.properties")
 @ComponentScan("org.example.repositories")
 @EnableTransactionManagement
 @EnableJpaRepositories("org.example.repositories")
@@ -39,6 +43,23 @@ public class JpaTestConfig {
         return dataSource;
     }
 
+    @Bean
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource());
+    }
+
+    protected Properties hibernateProperties() {
+        Properties properties = new Properties();
+        properties.put("hibernate.default_batch_fetch_size", env.getRequiredProperty("hibernate.default_batch_fetch_size"));
+        properties.put("hibernate.jdbc.batch_size", env.getRequiredProperty("hibernate.jdbc.batch_size"));
+        properties.put("hibernate.order_inserts", env.getRequiredProperty("hibernate.order_inserts"));
+        properties.put("hibernate.order_updates", env.getRequiredProperty("hibernate.order_updates"));
+        //тесты считают выполненные statements
+        properties.put("hibernate.generate_statistics", "true");
+
+        return properties;
+    }
+
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         final LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
@@ -47,6 +68,7 @@ public class JpaTestConfig {
 
         final HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         em.setJpaVendorAdapter(vendorAdapter);
+        em.setJpaProperties(hibernateProperties());
 
         return em;
     }
@@ -0,0 +1,133 @@
+package repository;
+
+import org.example.dto.LinkReportDTO;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringJUnitConfig(JpaTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+@Transactional
+class MovieActorRepositoryTest {
+
+    @Autowired
+    private MovieActorRepository movieActorRepository;
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void testInsertLink() {
+        Director director = directorRepository.save(new Director("Ridley Scott", 85));
+        Movie movie = movieRepository.save(new Movie(director, "Alien", 1979));
+        Actor actor = actorRepository.save(new Actor("Sigourney Weaver", 73));
+        entityManager.flush();
+
+        assertTrue(movieActorRepository.insertLink(movie.getMovieId(), actor.getActorId()));
+        assertFalse(movieActorRepository.insertLink(movie.getMovieId(), actor.getActorId()));
+        assertFalse(movieActorRepository.insertLink(movie.getMovieId() + 1000, actor.getActorId()));
+        assertFalse(movieActorRepository.insertLink(movie.getMovieId(), actor.getActorId() + 1000));
+
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from movie_actor", Integer.class));
+        //дубль и ошибки version не трогают
+        assertEquals(1L, jdbcTemplate.queryForObject("select version from movie", Long.class));
+        assertEquals(1L, jdbcTemplate.queryForObject("select version from actor", Long.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("select version from director", Long.class));
+    }
+
+    @Test
+    void testStreamLinks() {
+        Director director = directorRepository.save(new Director("Ridley Scott", 85));
+        Movie alien = movieRepository.save(new Movie(director, "Alien", 1979));
+        Movie prometheus = movieRepository.save(new Movie(director, "Prometheus", 2012));
+        Actor actor = actorRepository.save(new Actor("Sigourney Weaver", 73));
+        entityManager.flush();
+        movieActorRepository.insertMovies(actor.getActorId(), List.of(alien.getMovieId(), prometheus.getMovieId()));
+
+        Set<List<Long>> links = new HashSet<>();
+        movieActorRepository.streamLinks((actorId, movieId) -> links.add(List.of(actorId, movieId)));
+
+        assertEquals(Set.of(List.of(actor.getActorId(), alien.getMovieId()), List.of(actor.getActorId(), prometheus.getMovieId())),
+                links);
+    }
+
+    @Test
+    void testDeleteLink() {
+        Director director = directorRepository.save(new Director("Ridley Scott", 85));
+        Movie movie = movieRepository.save(new Movie(director, "Alien", 1979));
+        Actor weaver = actorRepository.save(new Actor("Sigourney Weaver", 73));
+        Actor hurt = actorRepository.save(new Actor("John Hurt", 77));
+        entityManager.flush();
+        movieActorRepository.insertActors(movie.getMovieId(), List.of(weaver.getActorId(), hurt.getActorId()));
+
+        assertTrue(movieActorRepository.deleteLink(movie.getMovieId(), hurt.getActorId()));
+        assertFalse(movieActorRepository.deleteLink(movie.getMovieId(), hurt.getActorId()));
+
+        assertEquals(List.of(weaver.getActorId()),
+                jdbcTemplate.queryForList("select actor_id from movie_actor", Long.class));
+        assertEquals(2L, jdbcTemplate.queryForObject("select version from movie", Long.class));
+        assertEquals(2L, jdbcTemplate.queryForObject("select version from actor where actor_id = ?", Long.class,
+                hurt.getActorId()));
+    }
+
+    @Test
+    void testInsertActors() {
+        Director director = directorRepository.save(new Director("Ridley Scott", 85));
+        Movie movie = movieRepository.save(new Movie(director, "Alien", 1979));
+        Actor weaver = actorRepository.save(new Actor("Sigourney Weaver", 73));
+        Actor hurt = actorRepository.save(new Actor("John Hurt", 77));
+        Actor holm = actorRepository.save(new Actor("Ian Holm", 88));
+        entityManager.flush();
+        movieActorRepository.insertLink(movie.getMovieId(), weaver.getActorId());
+        Long unknownId = holm.getActorId() + 1000;
+
+        LinkReportDTO report = movieActorRepository.insertActors(movie.getMovieId(),
+                List.of(unknownId, holm.getActorId(), weaver.getActorId(), hurt.getActorId(), hurt.getActorId()));
+
+        assertEquals(new LinkReportDTO(List.of(hurt.getActorId(), holm.getActorId()), List.of(weaver.getActorId()),
+                List.of(unknownId)), report);
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from movie_actor", Integer.class));
+        assertEquals(2L, jdbcTemplate.queryForObject("select version from movie", Long.class));
+        assertEquals(List.of(1L, 1L, 1L), jdbcTemplate.queryForList("select version from actor", Long.class));
+    }
+
+    @Test
+    void testInsertMoviesWithoutActor() {
+        Director director = directorRepository.save(new Director("Ridley Scott", 85));
+        Movie movie = movieRepository.save(new Movie(director, "Alien", 1979));
+        entityManager.flush();
+
+        LinkReportDTO report = movieActorRepository.insertMovies(movie.getMovieId() + 1000, List.of(movie.getMovieId()));
+
+        assertEquals(new LinkReportDTO(List.of(), List.of(movie.getMovieId()), List.of()), report);
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from movie_actor", Integer.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("select version from movie", Long.class));
+    }
+}
@@ -0,0 +1,109 @@
+package repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.VersionedDTO;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.DeleteRepository;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.example.repositories.jdbc.MovieDocumentRepository;
+import org.example.repositories.projections.JoinedRows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringJUnitConfig(JpaTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+@Transactional
+class MovieDocumentRepositoryTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Autowired
+    private MovieDocumentRepository movieDocumentRepository;
+    @Autowired
+    private MovieActorRepository movieActorRepository;
+    @Autowired
+    private DeleteRepository deleteRepository;
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void testDocumentMatchesJackson() throws Exception {
+        Director nolan = directorRepository.save(new Director("Christopher Nolan", 52));
+        Movie tenet = movieRepository.save(new Movie(nolan, "Tenet \"2020\" \\ Довод\n\t/", 2020));
+        Movie empty = movieRepository.save(new Movie(nolan, "Following", 1998));
+        Actor washington = actorRepository.save(new Actor("John David Washington", 36));
+        Actor pattinson = actorRepository.save(new Actor("Robert Pattinson", 34));
+        entityManager.flush();
+        movieActorRepository.insertLink(tenet.getMovieId(), pattinson.getActorId());
+        movieActorRepository.insertLink(tenet.getMovieId(), washington.getActorId());
+
+        movieDocumentRepository.refresh(List.of(empty.getMovieId(), tenet.getMovieId()));
+
+        assertDocument(tenet.getMovieId());
+        assertDocument(empty.getMovieId());
+        assertEquals("{\"id\":" + empty.getMovieId() + ",\"directorId\":" + nolan.getDirectorId() +
+                ",\"name\":\"Following\",\"year\":1998,\"actorList\":[]}", body(empty.getMovieId()));
+    }
+
+    @Test
+    void testRefreshAndFallback() throws Exception {
+        Director scott = directorRepository.save(new Director("Ridley Scott", 85));
+        Movie alien = movieRepository.save(new Movie(scott, "Alien", 1979));
+        Actor weaver = actorRepository.save(new Actor("Sigourney Weaver", 73));
+        entityManager.flush();
+        movieActorRepository.insertLink(alien.getMovieId(), weaver.getActorId());
+
+        //документа еще нет, JSON собирается при чтении
+        assertDocument(alien.getMovieId());
+        assertEquals(1, movieDocumentRepository.insertMissing());
+        assertEquals(0, movieDocumentRepository.insertMissing());
+
+        //изменение мимо сервисов документ не трогает, пока его не пересоберут
+        jdbcTemplate.update("update actor set name = 'Ellen Ripley' where actor_id = ?", weaver.getActorId());
+        assertFalse(body(alien.getMovieId()).contains("Ellen Ripley"));
+        movieDocumentRepository.refresh(List.of(alien.getMovieId()));
+        assertDocument(alien.getMovieId());
+
+        deleteRepository.deleteMovie(alien.getMovieId());
+        assertNull(movieDocumentRepository.find(alien.getMovieId()));
+        assertEquals(0, (int) jdbcTemplate.queryForObject("select count(*) from movie_document", Integer.class));
+    }
+
+    private void assertDocument(Long movieId) throws Exception {
+        VersionedDTO<byte[]> document = movieDocumentRepository.find(movieId);
+        entityManager.clear();
+        byte[] expected = objectMapper.writeValueAsBytes(JoinedRows.fold(movieRepository.findRowsById(movieId)).get(0));
+        assertEquals(new String(expected, UTF_8), new String(document.getBody(), UTF_8));
+        assertEquals(movieRepository.findVersionById(movieId).orElseThrow(), document.getVersion());
+    }
+
+    private String body(Long movieId) {
+        return new String(movieDocumentRepository.find(movieId).getBody(), UTF_8);
+    }
+}
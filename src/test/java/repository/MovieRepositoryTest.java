@@ -1,21 +1,30 @@
 package repository;
 
+import org.example.dto.MovieDTO;
 import org.example.models.Actor;
 import org.example.models.Director;
 import org.example.models.Movie;
 import org.example.repositories.ActorRepository;
 import org.example.repositories.DirectorRepository;
 import org.example.repositories.MovieRepository;
+import org.example.repositories.projections.JoinedRows;
+import org.example.repositories.projections.MovieActorRow;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -27,6 +36,8 @@ class MovieRepositoryTest {
 
     @Autowired
     private DirectorRepository directorRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
     @Autowired
     private MovieRepository movieRepository;
     @Autowired
@@ -99,6 +110,48 @@ class MovieRepositoryTest {
         assertTrue(deleteMovie.isEmpty());
     }
 
+    @Test
+    void testFindPageByName() {
+        Director director1 = new Director();
+        director1.setName("Steven Spielberg");
+        director1.setAge(75);
+        directorRepository.save(director1);
+
+        Movie movie1 = new Movie(director1, "Jaws", 1975);
+        Movie movie2 = new Movie(director1, "Duel", 1971);
+        Movie movie3 = new Movie(director1, "Jaws", 1983);
+        movieRepository.save(movie1);
+        movieRepository.save(movie2);
+        movieRepository.save(movie3);
+
+        List<Long> firstPage = movieRepository.findPageByName("", 0L, PageRequest.of(0, 2));
+        assertEquals(List.of(movie2.getMovieId(), movie1.getMovieId()), firstPage);
+
+        List<Long> secondPage = movieRepository.findPageByName("Jaws", movie1.getMovieId(), PageRequest.of(0, 2));
+        assertEquals(List.of(movie3.getMovieId()), secondPage);
+
+        List<Long> byYear = movieRepository.findPageByYear(1975, movie1.getMovieId(), PageRequest.of(0, 2));
+        assertEquals(List.of(movie3.getMovieId()), byYear);
+    }
+
+    @Test
+    void testStreamAllRows() {
+        Director director1 = new Director("Steven Spielberg", 75);
+        directorRepository.save(director1);
+        Movie movie1 = new Movie(director1, "Jaws", 1975);
+        Movie movie2 = new Movie(director1, "Duel", 1971);
+        movieRepository.save(movie1);
+        movieRepository.save(movie2);
+        entityManager.flush();
+
+        List<MovieDTO> movies = new ArrayList<>();
+        try (Stream<MovieActorRow> rows = movieRepository.streamAllRows()) {
+            JoinedRows.fold(rows.iterator(), movies::add);
+        }
+        assertEquals(List.of(new MovieDTO(movie1.getMovieId(), director1.getDirectorId(), "Jaws", 1975),
+                new MovieDTO(movie2.getMovieId(), director1.getDirectorId(), "Duel", 1971)), movies);
+    }
+
     @Test
     public void testDirectorMovieListAndActorList() {
         Director director1 = new Director();
@@ -113,7 +166,7 @@ class MovieRepositoryTest {
         movie1.setDirector(director1);
         movie1.setYearOfProduction(1901);
         movie1.setName("KingKong");
-        movie1.setActorList(new ArrayList<>());
+        movie1.setActorList(new HashSet<>());
         movieRepository.save(movie1);
 
         director1.getMovieList().add(movie1);
@@ -122,12 +175,12 @@ class MovieRepositoryTest {
         Actor actor1 = new Actor();
         actor1.setName("Джонни Депп");
         actor1.setAge(25);
-        actor1.setMovieList(new ArrayList<>(Collections.singletonList(movie1)));
+        actor1.setMovieList(new HashSet<>(Collections.singletonList(movie1)));
 
         Actor actor2 = new Actor();
         actor2.setName("Сидни Суинтон");
         actor2.setAge(28);
-        actor2.setMovieList(new ArrayList<>(Collections.singletonList(movie1)));
+        actor2.setMovieList(new HashSet<>(Collections.singletonList(movie1)));
         actorRepository.save(actor1);
         actorRepository.save(actor2);
         movie1.getActorList().add(actor1);
@@ -161,4 +214,91 @@ class MovieRepositoryTest {
         assertEquals(saveDirector, saveMovie.getDirector());
 
     }
+
+    @Test
+    void testFindPageRunsTwoStatementsWithoutEntities() {
+        Fixtures.saveCatalog(entityManager, directorRepository, movieRepository, actorRepository);
+        Statistics statistics = Fixtures.clearStatistics(entityManager);
+
+        List<Long> ids = movieRepository.findPageById(0L, PageRequest.of(0, 10));
+        List<MovieDTO> movies = JoinedRows.fold(movieRepository.findRowsByIds(ids), ids);
+
+        assertEquals(6, movies.size());
+        assertEquals(2, movies.get(0).getActorList().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindAllRowsLoadsNoEntities() {
+        Fixtures.saveCatalog(entityManager, directorRepository, movieRepository, actorRepository);
+        Statistics statistics = Fixtures.clearStatistics(entityManager);
+
+        List<MovieDTO> movies = JoinedRows.fold(movieRepository.findAllRows());
+
+        assertEquals(6, movies.size());
+        assertTrue(movies.stream().allMatch(movie -> movie.getActorList().size() == 2));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        MovieDTO second = movies.get(1);
+        List<MovieActorRow> rows = movieRepository.findRowsById(second.getId());
+        assertEquals(List.of(second), JoinedRows.fold(rows));
+        assertEquals(second.getActorList(), JoinedRows.fold(rows).get(0).getActorList());
+    }
+
+    @Test
+    void testNestedCreateInsertsLinksInBatches() {
+        Director director = directorRepository.save(new Director("Steven Spielberg", 75));
+        Movie movie = movieRepository.save(new Movie(director, "Jaws", 1975));
+        entityManager.flush();
+        Statistics statistics = Fixtures.clearStatistics(entityManager);
+
+        for (int i = 1; i <= 60; i++) {
+            Actor actor = new Actor("Actor " + i, 20 + i % 70);
+            actor.setMovieList(new HashSet<>(List.of(movie)));
+            actorRepository.save(actor);
+        }
+        entityManager.flush();
+
+        assertEquals(60, statistics.getEntityInsertCount());
+        //без batch здесь было бы не меньше 120 statements: актеры и строки movie_actor
+        assertTrue(statistics.getPrepareStatementCount() <= 10);
+    }
+
+    @Test
+    void testRemoveFromSetDeletesOneLinkRow() {
+        Director director = directorRepository.save(new Director("Steven Spielberg", 75));
+        Actor actor = new Actor("Harrison Ford", 80);
+        actor.setMovieList(new HashSet<>());
+        for (int i = 1; i <= 3; i++)
+            actor.getMovieList().add(movieRepository.save(new Movie(director, "Indiana Jones " + i, 1980 + i)));
+        actorRepository.save(actor);
+        entityManager.flush();
+        entityManager.clear();
+
+        Actor found = actorRepository.findById(actor.getActorId()).orElseThrow();
+        found.getMovieList().removeIf(movie -> movie.getName().equals("Indiana Jones 2"));
+        Statistics statistics = Fixtures.clearStatistics(entityManager);
+        entityManager.flush();
+
+        //у bag'а здесь был бы delete всех строк актера и повторная вставка оставшихся
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(2, found.getMovieList().size());
+    }
+
+    @Test
+    void testFindVersionById() {
+        Director director = directorRepository.save(new Director("Steven Spielberg", 75));
+        Movie movie = movieRepository.save(new Movie(director, "Jaws", 1975));
+        entityManager.flush();
+
+        assertEquals(Optional.of(0L), movieRepository.findVersionById(movie.getMovieId()));
+
+        movie.setName("Jaws 2");
+        entityManager.flush();
+
+        assertEquals(Optional.of(1L), movieRepository.findVersionById(movie.getMovieId()));
+        assertEquals(Optional.empty(), movieRepository.findVersionById(movie.getMovieId() + 1000));
+    }
 }
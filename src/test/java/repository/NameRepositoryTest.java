@@ -0,0 +1,58 @@
+package repository;
+
+import org.example.autocomplete.NameType;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.NameRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringJUnitConfig(JpaTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+@Transactional
+class NameRepositoryTest {
+
+    @Autowired
+    private NameRepository nameRepository;
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void testStreamNames() {
+        Director scott = directorRepository.save(new Director("Ridley Scott", 85));
+        Movie alien = movieRepository.save(new Movie(scott, "Alien", 1979));
+        Movie gladiator = movieRepository.save(new Movie(scott, "Gladiator", 2000));
+        Actor weaver = actorRepository.save(new Actor("Sigourney Weaver", 73));
+        entityManager.flush();
+
+        assertEquals(Map.of(alien.getMovieId(), "Alien", gladiator.getMovieId(), "Gladiator"), names(NameType.MOVIE));
+        assertEquals(Map.of(weaver.getActorId(), "Sigourney Weaver"), names(NameType.ACTOR));
+        assertEquals(Map.of(scott.getDirectorId(), "Ridley Scott"), names(NameType.DIRECTOR));
+    }
+
+    private Map<Long, String> names(NameType type) {
+        Map<Long, String> names = new HashMap<>();
+        nameRepository.streamNames(type, (name, id) -> names.put(id, name));
+        return names;
+    }
+}
@@ -0,0 +1,120 @@
+package repository;
+
+import org.example.dto.SearchHitDTO;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.SearchRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringJUnitConfig(JpaTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+@Transactional
+class SearchRepositoryTest {
+
+    @Autowired
+    private SearchRepository searchRepository;
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Director nolan;
+    private Movie inception;
+    private Movie memento;
+    private Actor caine;
+
+    @Test
+    void testTypoTolerance() {
+        save();
+
+        List<SearchHitDTO> hits = searchRepository.search("Incepton", null, null, 0, 10);
+
+        assertEquals(List.of("Inception"), hits.stream().map(SearchHitDTO::getName).toList());
+        assertEquals("movie", hits.get(0).getType());
+        assertEquals(inception.getMovieId(), hits.get(0).getId());
+    }
+
+    @Test
+    void testMixedTypesRanked() {
+        save();
+        Movie nolanDoc = movieRepository.save(new Movie(nolan, "Christopher Nolan: Making Of", 2010));
+        entityManager.flush();
+
+        List<SearchHitDTO> hits = searchRepository.search("christopher nolan", null, null, 0, 10);
+
+        //оба слова совпали целиком в обоих названиях, но у режиссера имя короче и ранг выше
+        assertEquals(List.of("director", "movie"), hits.stream().map(SearchHitDTO::getType).toList());
+        assertEquals(List.of(nolan.getDirectorId(), nolanDoc.getMovieId()), hits.stream().map(SearchHitDTO::getId).toList());
+        assertTrue(hits.get(0).getRank() >= hits.get(1).getRank());
+    }
+
+    @Test
+    void testKeysetPaging() {
+        save();
+        actorRepository.save(new Actor("Michael Caine Jr", 40));
+        entityManager.flush();
+
+        List<SearchHitDTO> all = searchRepository.search("caine", null, null, 0, 10);
+        SearchHitDTO first = all.get(0);
+        List<SearchHitDTO> rest = searchRepository.search("caine", first.getRank(), first.getType(), first.getId(), 10);
+
+        assertEquals(2, all.size());
+        assertEquals(all.subList(1, 2), rest);
+    }
+
+    @Test
+    void testTsvectorFollowsUpdates() {
+        save();
+        jdbcTemplate.update("update movie set name = 'Tenet' where movie_id = ?", memento.getMovieId());
+
+        assertTrue(searchRepository.search("memento", null, null, 0, 10).isEmpty());
+        assertEquals(List.of(memento.getMovieId()),
+                searchRepository.search("tenet", null, null, 0, 10).stream().map(SearchHitDTO::getId).toList());
+    }
+
+    @Test
+    void testSearchUsesIndexes() {
+        //на пустой таблице полный проход по btree дешевле GIN, поэтому нужны строки и статистика
+        jdbcTemplate.update("insert into actor(name, age, version) select md5(g::text), 30, 0 from generate_series(1, 20000) g");
+        jdbcTemplate.execute("analyze actor");
+        jdbcTemplate.execute("set local enable_seqscan = off");
+
+        assertTrue(plan("select movie_id from movie where name_tsv @@ plainto_tsquery('simple', 'alien')")
+                .contains("movie_name_tsv_idx"));
+        assertTrue(plan("select actor_id from actor where 'alein' <% name").contains("actor_name_trgm_idx"));
+    }
+
+    private String plan(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+
+    private void save() {
+        nolan = directorRepository.save(new Director("Christopher Nolan", 52));
+        inception = movieRepository.save(new Movie(nolan, "Inception", 2010));
+        memento = movieRepository.save(new Movie(nolan, "Memento", 2000));
+        caine = actorRepository.save(new Actor("Michael Caine", 89));
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,177 @@
+package repository;
+
+import org.example.cache.EntityChanges;
+import org.example.config.SecondLevelCache;
+import org.example.dto.CacheStatsDTO;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.monitoring.CacheStatistics;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Кэш наполняется только после commit, поэтому тут без @Transactional, каждая операция в своей транзакции
+@SpringJUnitConfig(CacheTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CacheStatistics cacheStatistics;
+    @Autowired
+    private MovieActorRepository movieActorRepository;
+    @Autowired
+    private EntityChanges entityChanges;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("truncate movie_document, movie_actor, movie, actor, director");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void testFindByIdHitsEntityCache() {
+        Long id = saveCatalog();
+        loadMovie(id);
+        statistics.clear();
+
+        Movie movie = loadMovie(id);
+
+        assertEquals("Movie 11", movie.getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 3);
+    }
+
+    @Test
+    void testFindPageHitsQueryCache() {
+        saveCatalog();
+        transactionTemplate.execute(status -> movieRepository.findPageById(0L, PageRequest.of(0, 10)));
+        statistics.clear();
+
+        List<Long> ids = transactionTemplate.execute(status -> movieRepository.findPageById(0L, PageRequest.of(0, 10)));
+
+        assertEquals(6, ids.size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        CacheStatsDTO queryStats = cacheStatistics.snapshot().stream()
+                .filter(stats -> stats.getRegion().equals(SecondLevelCache.QUERY_REGION))
+                .findFirst().orElseThrow();
+        assertEquals(1, queryStats.getHitCount());
+        assertEquals(1, queryStats.getSize());
+    }
+
+    @Test
+    void testInsertInvalidatesQueryCache() {
+        saveCatalog();
+        transactionTemplate.execute(status -> directorRepository.findPageByName("", 0L, PageRequest.of(0, 10)));
+        transactionTemplate.execute(status -> directorRepository.save(new Director("David Fincher", 60)));
+        statistics.clear();
+
+        List<Long> ids = transactionTemplate.execute(status ->
+                directorRepository.findPageByName("", 0L, PageRequest.of(0, 10)));
+
+        assertEquals(4, ids.size());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void testDeleteKeepsCollectionsCoherent() {
+        Long id = saveCatalog();
+        Long actorId = transactionTemplate.execute(status -> {
+            Movie movie = movieRepository.findById(id).orElseThrow();
+            Actor actor = movie.getActorList().iterator().next();
+            actor.getMovieList().size();
+            movie.getDirector().getMovieList().size();
+            return actor.getActorId();
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Movie movie = movieRepository.findById(id).orElseThrow();
+            movie.getDirector().getMovieList().remove(movie);
+            movie.getActorList().forEach(actor -> actor.getMovieList().remove(movie));
+            movieRepository.delete(movie);
+        });
+
+        Actor actor = transactionTemplate.execute(status -> {
+            Actor found = actorRepository.findById(actorId).orElseThrow();
+            found.getMovieList().size();
+            return found;
+        });
+        assertTrue(actor.getMovieList().isEmpty());
+    }
+
+    @Test
+    void testInsertLinkEvictsCachedCollections() {
+        Long id = saveCatalog();
+        loadMovie(id);
+        Long actorId = transactionTemplate.execute(status ->
+                actorRepository.save(new Actor("John Hurt", 77)).getActorId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(movieActorRepository.insertLink(id, actorId));
+            entityChanges.linksChanged(id, actorId);
+        });
+
+        Movie movie = loadMovie(id);
+        assertEquals(3, movie.getActorList().size());
+        assertEquals(1L, movie.getVersion());
+    }
+
+    private Movie loadMovie(Long id) {
+        return transactionTemplate.execute(status -> {
+            Movie movie = movieRepository.findById(id).orElseThrow();
+            movie.getActorList().size();
+            movie.getDirector().getName();
+            return movie;
+        });
+    }
+
+    private Long saveCatalog() {
+        return transactionTemplate.execute(status -> Fixtures.saveCatalog(entityManager, directorRepository,
+                movieRepository, actorRepository).get(0).getMovieId());
+    }
+}
@@ -0,0 +1,138 @@
+package repository;
+
+import org.example.dto.ActorDTO;
+import org.example.dto.MovieDTO;
+import org.example.dto.VersionedDTO;
+import org.example.fields.FieldSet;
+import org.example.fields.SparseResource;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.example.repositories.jdbc.SparseRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringJUnitConfig(JpaTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+@Transactional
+class SparseRepositoryTest {
+
+    @Autowired
+    private SparseRepository sparseRepository;
+    @Autowired
+    private MovieActorRepository movieActorRepository;
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Director director;
+    private Movie alien;
+    private Movie gladiator;
+    private Actor weaver;
+    private Actor holm;
+
+    @Test
+    void testFindAllSelectsOnlyRequestedFields() {
+        save();
+
+        List<Map<String, Object>> movies = sparseRepository.findAll(FieldSet.parse(SparseResource.MOVIES, "name,id"));
+
+        assertEquals(List.of(
+                Map.of("id", alien.getMovieId(), "name", "Alien"),
+                Map.of("id", gladiator.getMovieId(), "name", "Gladiator")), movies);
+        assertEquals(List.of("id", "name"), List.copyOf(movies.get(0).keySet()));
+    }
+
+    @Test
+    void testFindAllWithChildren() {
+        save();
+
+        List<Map<String, Object>> movies = sparseRepository.findAll(FieldSet.parse(SparseResource.MOVIES, "year,actorList"));
+
+        assertEquals(2, movies.size());
+        assertEquals(List.of("year", "actorList"), List.copyOf(movies.get(0).keySet()));
+        assertEquals(1979, movies.get(0).get("year"));
+        assertEquals(List.of(new ActorDTO(weaver.getActorId(), "Sigourney Weaver", 73),
+                new ActorDTO(holm.getActorId(), "Ian Holm", 82)), movies.get(0).get("actorList"));
+        assertEquals(List.of(), movies.get(1).get("actorList"));
+    }
+
+    @Test
+    void testDirectorMovieList() {
+        save();
+
+        List<Map<String, Object>> directors = sparseRepository.findAll(FieldSet.parse(SparseResource.DIRECTORS, "movieList"));
+
+        assertEquals(List.of(Map.of("movieList", List.of(
+                new MovieDTO(alien.getMovieId(), director.getDirectorId(), "Alien", 1979),
+                new MovieDTO(gladiator.getMovieId(), director.getDirectorId(), "Gladiator", 2000)))), directors);
+    }
+
+    @Test
+    void testFindByIdsKeepsOrderAndSkipsMissing() {
+        save();
+
+        List<Map<String, Object>> actors = sparseRepository.findByIds(FieldSet.parse(SparseResource.ACTORS, "age"),
+                List.of(holm.getActorId(), holm.getActorId() + 1000, weaver.getActorId()));
+
+        assertEquals(List.of(Map.of("age", 82), Map.of("age", 73)), actors);
+    }
+
+    @Test
+    void testFindByIdWithVersion() {
+        save();
+
+        VersionedDTO<Map<String, Object>> movie = sparseRepository
+                .findById(FieldSet.parse(SparseResource.MOVIES, "directorId"), alien.getMovieId()).orElseThrow();
+
+        assertEquals(Map.of("directorId", director.getDirectorId()), movie.getBody());
+        assertEquals(2L, movie.getVersion());
+        assertTrue(sparseRepository.findById(FieldSet.parse(SparseResource.MOVIES, "id"), alien.getMovieId() + 1000)
+                .isEmpty());
+    }
+
+    @Test
+    void testStreamAll() {
+        save();
+        List<Map<String, Object>> streamed = new ArrayList<>();
+
+        sparseRepository.streamAll(FieldSet.parse(SparseResource.ACTORS, "name,movieList"), streamed::add);
+
+        assertEquals(2, streamed.size());
+        assertEquals("Sigourney Weaver", streamed.get(0).get("name"));
+        assertEquals(List.of(new MovieDTO(alien.getMovieId(), director.getDirectorId(), "Alien", 1979)),
+                streamed.get(1).get("movieList"));
+    }
+
+    private void save() {
+        director = directorRepository.save(new Director("Ridley Scott", 85));
+        alien = movieRepository.save(new Movie(director, "Alien", 1979));
+        gladiator = movieRepository.save(new Movie(director, "Gladiator", 2000));
+        weaver = actorRepository.save(new Actor("Sigourney Weaver", 73));
+        holm = actorRepository.save(new Actor("Ian Holm", 82));
+        entityManager.flush();
+        movieActorRepository.insertLink(alien.getMovieId(), weaver.getActorId());
+        movieActorRepository.insertLink(alien.getMovieId(), holm.getActorId());
+    }
+}
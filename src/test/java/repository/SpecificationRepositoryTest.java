@@ -0,0 +1,164 @@
+package repository;
+
+import org.example.dto.ActorFilterDTO;
+import org.example.dto.DirectorFilterDTO;
+import org.example.dto.MovieFilterDTO;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.example.repositories.specifications.FilterSpecifications;
+import org.example.repositories.specifications.SpecificationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringJUnitConfig(JpaTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+@Transactional
+class SpecificationRepositoryTest {
+
+    @Autowired
+    private SpecificationRepository specificationRepository;
+    @Autowired
+    private MovieActorRepository movieActorRepository;
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Director scott;
+    private Director nolan;
+    private Movie alien;
+    private Movie gladiator;
+    private Movie memento;
+    private Actor weaver;
+    private Actor crowe;
+
+    @Test
+    void testMovieFilters() {
+        save();
+
+        MovieFilterDTO filter = new MovieFilterDTO();
+        assertNull(FilterSpecifications.movies(filter));
+
+        filter.setYearFrom(1980);
+        assertEquals(List.of(gladiator.getMovieId(), memento.getMovieId()), movieIds(filter));
+        filter.setYearTo(2000);
+        assertEquals(List.of(gladiator.getMovieId(), memento.getMovieId()), movieIds(filter));
+        filter.setDirectorId(scott.getDirectorId());
+        assertEquals(List.of(gladiator.getMovieId()), movieIds(filter));
+
+        MovieFilterDTO byActor = new MovieFilterDTO();
+        byActor.setActorId(crowe.getActorId());
+        assertEquals(List.of(gladiator.getMovieId(), memento.getMovieId()), movieIds(byActor));
+    }
+
+    @Test
+    void testNamePrefixIsEscaped() {
+        save();
+        Movie percent = movieRepository.save(new Movie(nolan, "100% Wolf", 2020));
+        entityManager.flush();
+
+        MovieFilterDTO filter = new MovieFilterDTO();
+        filter.setName("Gl");
+        assertEquals(List.of(gladiator.getMovieId()), movieIds(filter));
+        filter.setName("100%");
+        assertEquals(List.of(percent.getMovieId()), movieIds(filter));
+        filter.setName("%");
+        assertTrue(movieIds(filter).isEmpty());
+        filter.setName("gl");
+        assertTrue(movieIds(filter).isEmpty());
+    }
+
+    @Test
+    void testActorAndDirectorFilters() {
+        save();
+
+        ActorFilterDTO actors = new ActorFilterDTO();
+        actors.setAgeTo(60);
+        assertEquals(List.of(crowe.getActorId()), specificationRepository.findIds(Actor.class, FilterSpecifications.actors(actors)));
+        actors.setAgeTo(null);
+        actors.setMovieId(alien.getMovieId());
+        assertEquals(List.of(weaver.getActorId()), specificationRepository.findIds(Actor.class, FilterSpecifications.actors(actors)));
+
+        DirectorFilterDTO directors = new DirectorFilterDTO();
+        directors.setAgeFrom(19);
+        directors.setName("Chris");
+        assertEquals(List.of(nolan.getDirectorId()),
+                specificationRepository.findIds(Director.class, FilterSpecifications.directors(directors)));
+    }
+
+    @Test
+    void testFindPageIdsKeyset() {
+        save();
+        MovieFilterDTO filter = new MovieFilterDTO();
+        filter.setYearFrom(1901);
+
+        List<Long> first = specificationRepository.findPageIds(Movie.class, FilterSpecifications.movies(filter),
+                "yearOfProduction", Integer.MIN_VALUE, 0L, PageRequest.of(0, 2));
+        List<Long> second = specificationRepository.findPageIds(Movie.class, FilterSpecifications.movies(filter),
+                "yearOfProduction", 2000, memento.getMovieId(), PageRequest.of(0, 2));
+        List<Long> byId = specificationRepository.findPageIds(Movie.class, FilterSpecifications.movies(filter),
+                "movieId", null, alien.getMovieId(), PageRequest.of(0, 5));
+
+        //у Gladiator и Memento один год, порядок между ними задает id
+        assertEquals(List.of(alien.getMovieId(), gladiator.getMovieId()), first);
+        assertEquals(List.of(), second);
+        assertEquals(List.of(gladiator.getMovieId(), memento.getMovieId()), byId);
+    }
+
+    @Test
+    void testFiltersUseIndexes() {
+        //на паре строк планировщик выбрал бы seq scan, поэтому запрещаем его и смотрим, какой индекс подходит
+        jdbcTemplate.execute("set local enable_seqscan = off");
+
+        assertTrue(plan("select movie_id from movie where director_id = 1").contains("movie_director_id_idx"));
+        assertTrue(plan("select actor_id from movie_actor where movie_id = 1").contains("movie_actor_movie_id_idx"));
+        assertTrue(plan("select movie_id from movie where name like 'Al%'").contains("movie_name_prefix_idx"));
+        assertTrue(plan("select actor_id from actor where name like 'Al%'").contains("actor_name_prefix_idx"));
+    }
+
+    private List<Long> movieIds(MovieFilterDTO filter) {
+        return specificationRepository.findIds(Movie.class, FilterSpecifications.movies(filter));
+    }
+
+    private String plan(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+
+    private void save() {
+        scott = directorRepository.save(new Director("Ridley Scott", 85));
+        nolan = directorRepository.save(new Director("Christopher Nolan", 52));
+        alien = movieRepository.save(new Movie(scott, "Alien", 1979));
+        gladiator = movieRepository.save(new Movie(scott, "Gladiator", 2000));
+        memento = movieRepository.save(new Movie(nolan, "Memento", 2000));
+        weaver = actorRepository.save(new Actor("Sigourney Weaver", 73));
+        crowe = actorRepository.save(new Actor("Russell Crowe", 59));
+        entityManager.flush();
+        movieActorRepository.insertLink(alien.getMovieId(), weaver.getActorId());
+        movieActorRepository.insertLink(gladiator.getMovieId(), crowe.getActorId());
+        movieActorRepository.insertLink(memento.getMovieId(), crowe.getActorId());
+    }
+}
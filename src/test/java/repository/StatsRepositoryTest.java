@@ -0,0 +1,142 @@
+package repository;
+
+import org.example.dto.CastStatsDTO;
+import org.example.dto.StatsBucketDTO;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.ActorRepository;
+import org.example.repositories.DirectorRepository;
+import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.DeleteRepository;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.example.repositories.jdbc.StatsDelta;
+import org.example.repositories.jdbc.StatsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringJUnitConfig(JpaTestConfig.class)
+@ExtendWith(PostgreSQLExtension.class)
+@Transactional
+class StatsRepositoryTest {
+
+    @Autowired
+    private StatsRepository statsRepository;
+    @Autowired
+    private DeleteRepository deleteRepository;
+    @Autowired
+    private MovieActorRepository movieActorRepository;
+    @Autowired
+    private DirectorRepository directorRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Director scott;
+    private Director nolan;
+    private Movie alien;
+    private Movie gladiator;
+    private Movie memento;
+    private Actor weaver;
+    private Actor crowe;
+
+    @Test
+    void testApplyDelta() {
+        StatsDelta delta = new StatsDelta();
+        delta.addMovie(2000, 1L, 2);
+        delta.addMovie(1979, 2L, 1);
+        delta.addActor(59, 1);
+        delta.addLinks(5);
+        statsRepository.apply(delta);
+        StatsDelta removed = new StatsDelta();
+        removed.addMovie(1979, 2L, -1);
+        removed.addLinks(-1);
+        statsRepository.apply(removed);
+
+        //строка 1979 осталась с нулем, но в ответ не попадает
+        assertEquals(List.of(new StatsBucketDTO(2000L, null, 2L)), statsRepository.moviesPerYear());
+        assertEquals(List.of(new StatsBucketDTO(59L, null, 1L)), statsRepository.actorsByAge());
+        assertEquals(new CastStatsDTO(2L, 4L, 2.0), statsRepository.castSize());
+    }
+
+    @Test
+    void testEmpty() {
+        assertEquals(List.of(), statsRepository.moviesPerYear());
+        assertNull(statsRepository.castSize().getAverageCastSize());
+    }
+
+    @Test
+    void testRebuild() {
+        save();
+        statsRepository.rebuild();
+
+        assertEquals(List.of(new StatsBucketDTO(1979L, null, 1L), new StatsBucketDTO(2000L, null, 2L)),
+                statsRepository.moviesPerYear());
+        assertEquals(List.of(new StatsBucketDTO(scott.getDirectorId(), "Ridley Scott", 2L),
+                new StatsBucketDTO(nolan.getDirectorId(), "Christopher Nolan", 1L)), statsRepository.moviesPerDirector(5));
+        assertEquals(List.of(new StatsBucketDTO(scott.getDirectorId(), "Ridley Scott", 2L)),
+                statsRepository.moviesPerDirector(1));
+        assertEquals(new CastStatsDTO(3L, 3L, 1.0), statsRepository.castSize());
+        assertMatchesTables();
+    }
+
+    //DELETE вычитает из агрегатов в том же statement'е, включая каскад фильмов режиссера и их связей
+    @Test
+    void testDeletesSubtract() {
+        save();
+        statsRepository.rebuild();
+
+        deleteRepository.deleteMovie(memento.getMovieId());
+        assertMatchesTables();
+        deleteRepository.deleteActor(weaver.getActorId());
+        assertMatchesTables();
+        deleteRepository.deleteDirector(scott.getDirectorId());
+        assertMatchesTables();
+        assertEquals(new CastStatsDTO(0L, 0L, null), statsRepository.castSize());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from stats_movies_by_director where director_id = ?",
+                Integer.class, scott.getDirectorId()));
+    }
+
+    private void assertMatchesTables() {
+        assertEquals(jdbcTemplate.query("select year_of_production, count(*) from movie group by 1 order by 1",
+                (rs, rowNum) -> new StatsBucketDTO(rs.getLong(1), null, rs.getLong(2))), statsRepository.moviesPerYear());
+        assertEquals(jdbcTemplate.query("select m.director_id, d.name, count(*) from movie m " +
+                        "join director d on d.director_id = m.director_id group by 1, 2 order by 3 desc, 1",
+                (rs, rowNum) -> new StatsBucketDTO(rs.getLong(1), rs.getString(2), rs.getLong(3))),
+                statsRepository.moviesPerDirector(100));
+        assertEquals(jdbcTemplate.query("select age, count(*) from actor group by 1 order by 1",
+                (rs, rowNum) -> new StatsBucketDTO(rs.getLong(1), null, rs.getLong(2))), statsRepository.actorsByAge());
+        assertEquals(jdbcTemplate.queryForObject("select count(*) from movie_actor", Long.class),
+                statsRepository.castSize().getLinks());
+    }
+
+    private void save() {
+        scott = directorRepository.save(new Director("Ridley Scott", 85));
+        nolan = directorRepository.save(new Director("Christopher Nolan", 52));
+        alien = movieRepository.save(new Movie(scott, "Alien", 1979));
+        gladiator = movieRepository.save(new Movie(scott, "Gladiator", 2000));
+        memento = movieRepository.save(new Movie(nolan, "Memento", 2000));
+        weaver = actorRepository.save(new Actor("Sigourney Weaver", 73));
+        crowe = actorRepository.save(new Actor("Russell Crowe", 59));
+        entityManager.flush();
+        movieActorRepository.insertLink(alien.getMovieId(), weaver.getActorId());
+        movieActorRepository.insertLink(gladiator.getMovieId(), crowe.getActorId());
+        movieActorRepository.insertLink(memento.getMovieId(), crowe.getActorId());
+    }
+}
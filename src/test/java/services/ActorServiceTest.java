@@ -1,31 +1,59 @@
 package services;
 
+import org.example.autocomplete.NameIndex;
+import org.example.cache.DtoCaches;
+import org.example.cache.EntityChanges;
+import org.example.documents.MovieDocumentChanges;
 import org.example.dto.ActorDTO;
+import org.example.dto.ActorPathDTO;
+import org.example.dto.LinkReportDTO;
 import org.example.dto.MovieDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.VersionedDTO;
+import org.example.graph.CoStarGraph;
 import org.example.mapping.MapperDTO;
 import org.example.models.Actor;
 import org.example.models.Director;
 import org.example.models.Movie;
+import org.example.paging.KeysetCursor;
 import org.example.repositories.ActorRepository;
 import org.example.repositories.DirectorRepository;
 import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.DeleteRepository;
+import org.example.repositories.jdbc.DeleteResult;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.example.repositories.projections.ActorMovieRow;
 import org.example.services.impl.ActorServiceImpl;
+import org.example.stats.StatsChanges;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -43,24 +71,41 @@ class ActorServiceTest {
     private ActorRepository actorRepository;
     @Mock
     private MapperDTO mapperDTO;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private MovieActorRepository movieActorRepository;
+    @Mock
+    private DeleteRepository deleteRepository;
+    @Mock
+    private NameIndex nameIndex;
+    @Mock
+    private CoStarGraph coStarGraph;
+    @Mock
+    private StatsChanges statsChanges;
+    @Spy
+    private DtoCaches dtoCaches = new DtoCaches(1 << 20, Duration.ofMinutes(10), Duration.ofMinutes(10),
+            mock(PlatformTransactionManager.class));
+    @Spy
+    private EntityChanges entityChanges = new EntityChanges(dtoCaches, mock(EntityManager.class),
+            mock(MovieDocumentChanges.class));
 
     @Test
     void testFindById() {
-        ActorDTO actorDTO = new ActorDTO();
-        Actor actor = new Actor();
-
-        when(actorRepository.findById(1L)).thenReturn(Optional.of(actor));
+        when(actorRepository.findRowsById(1L)).thenReturn(List.of(
+                new ActorMovieRow(1L, "Sigourney Weaver", 73, 2L, 1L, 1L, "Alien", 1979),
+                new ActorMovieRow(1L, "Sigourney Weaver", 73, 2L, 3L, 2L, "Avatar", 2009)));
 
-        when(mapperDTO.toActorDTOWithoutMovies(actor)).thenReturn(actorDTO);
+        VersionedDTO<ActorDTO> result = actorService.findVersionedById(1L);
 
-        ActorDTO result = actorService.findById(1L);
-
-        assertEquals(actorDTO, result);
-
-        verify(actorRepository, times(1)).findById(1L);
-        verify(mapperDTO, times(1)).toActorDTOWithoutMovies(actor);
+        assertEquals(new ActorDTO(1L, "Sigourney Weaver", 73), result.getBody());
+        assertEquals(2L, result.getVersion());
+        assertEquals(List.of(new MovieDTO(1L, 1L, "Alien", 1979), new MovieDTO(3L, 2L, "Avatar", 2009)),
+                result.getBody().getMovieList());
+        verify(actorRepository, times(1)).findRowsById(1L);
+        verify(actorRepository, never()).findById(anyLong());
 
-        when(actorRepository.findById(2L)).thenReturn(Optional.empty());
+        when(actorRepository.findRowsById(2L)).thenReturn(List.of());
 
         assertThrows(ResponseStatusException.class, () -> actorService.findById(2L));
         assertThrows(ResponseStatusException.class, () -> actorService.findById(null));
@@ -68,50 +113,77 @@ class ActorServiceTest {
 
     @Test
     void testFindAll() {
-        ActorDTO actorDTO1 = new ActorDTO();
-        ActorDTO actorDTO2 = new ActorDTO();
-        Actor actor1 = new Actor();
-        Actor actor2 = new Actor();
+        when(actorRepository.findAllRows()).thenReturn(List.of(
+                new ActorMovieRow(1L, "Sigourney Weaver", 73, 0L, 1L, 1L, "Alien", 1979),
+                new ActorMovieRow(2L, "Tom Hanks", 67, 0L, null, null, null, null)));
 
-        List<Actor> actors = new ArrayList<>(List.of(actor1, actor2));
+        List<ActorDTO> result = actorService.findAll();
 
-        when(actorRepository.findAll()).thenReturn(actors);
+        assertEquals(List.of(new ActorDTO(1L, "Sigourney Weaver", 73), new ActorDTO(2L, "Tom Hanks", 67)), result);
+        assertEquals(List.of(new MovieDTO(1L, 1L, "Alien", 1979)), result.get(0).getMovieList());
+        assertTrue(result.get(1).getMovieList().isEmpty());
+        verify(actorRepository, times(1)).findAllRows();
+    }
 
-        when(mapperDTO.toActorDTOWithoutMovies(actors.get(0))).thenReturn(actorDTO1);
-        when(mapperDTO.toActorDTOWithoutMovies(actors.get(1))).thenReturn(actorDTO2);
+    @Test
+    void testFindPage() {
+        when(actorRepository.findPageByAge(30, 4L, PageRequest.of(0, 11))).thenReturn(List.of(5L));
+        when(actorRepository.findRowsByIds(List.of(5L))).thenReturn(List.of(
+                new ActorMovieRow(5L, "Tom Hanks", 30, 0L, null, null, null, null)));
 
-        List<ActorDTO> result = actorService.findAll();
+        PageDTO<ActorDTO> page = actorService.findPage("age", KeysetCursor.of("age", 4L, 30).encode(), 10);
+
+        assertEquals(List.of(new ActorDTO(5L, "Tom Hanks", 30)), page.getContent());
+        assertNull(page.getNextCursor());
+
+        //пустая страница без второго запроса
+        when(actorRepository.findPageById(5L, PageRequest.of(0, 11))).thenReturn(List.of());
+
+        assertTrue(actorService.findPage("id", KeysetCursor.of("id", 5L, null).encode(), 10).getContent().isEmpty());
+        verify(actorRepository, times(1)).findRowsByIds(any());
+
+        assertThrows(ResponseStatusException.class, () -> actorService.findPage("year", null, 10));
+        assertThrows(ResponseStatusException.class, () -> actorService.findPage(null, null, 10));
+        assertThrows(ResponseStatusException.class, () -> actorService.findPage("id", null, null));
+    }
+
+    @Test
+    void testStreamAll() {
+        when(actorRepository.streamAllRows()).thenReturn(Stream.of(
+                new ActorMovieRow(1L, "Tom Hanks", 67, 0L, 1L, 1L, "Big", 1988),
+                new ActorMovieRow(2L, "Meg Ryan", 61, 0L, null, null, null, null)));
 
-        assertEquals(2, result.size());
-        assertEquals(actorDTO1, result.get(0));
-        assertEquals(actorDTO2, result.get(1));
+        List<ActorDTO> result = new ArrayList<>();
+        actorService.streamAll(result::add);
 
-        verify(actorRepository, times(1)).findAll();
-        verify(mapperDTO, times(2)).toActorDTOWithoutMovies(any(Actor.class));
+        assertEquals(List.of(new ActorDTO(1L, "Tom Hanks", 67), new ActorDTO(2L, "Meg Ryan", 61)), result);
+        assertEquals(List.of(new MovieDTO(1L, 1L, "Big", 1988)), result.get(0).getMovieList());
+        verify(actorRepository, times(1)).streamAllRows();
     }
 
     @Test
     void testDelete() {
-        Actor actor = new Actor();
+        DeleteResult result = new DeleteResult(List.of(), List.of(1L), List.of(1L));
         Long id = 1L;
 
-        when(actorRepository.findById(1L)).thenReturn(Optional.of(actor));
+        when(deleteRepository.deleteActor(id)).thenReturn(Optional.of(result));
 
         actorService.delete(id);
 
-        verify(actorRepository, times(1)).findById(id);
-        verify(actorRepository, times(1)).deleteById(id);
+        verify(entityChanges, times(1)).deleted(result);
+        verify(coStarGraph, times(1)).actorsDeleted(List.of(1L));
+        verify(actorRepository, never()).findById(anyLong());
     }
 
     @Test
     void testDeleteWithInvalidId() {
-        when(actorRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(deleteRepository.deleteActor(anyLong())).thenReturn(Optional.empty());
 
         Long invalidId = 2L;
         assertThrows(ResponseStatusException.class, () -> actorService.delete(invalidId));
 
-        verify(actorRepository, times(1)).findById(invalidId);
-        verify(actorRepository, never()).deleteById(invalidId);
+        verify(deleteRepository, times(1)).deleteActor(invalidId);
+        verify(entityChanges, never()).deleted(any(DeleteResult.class));
         assertThrows(ResponseStatusException.class, () -> actorService.delete(null));
     }
 
@@ -279,13 +351,13 @@ class ActorServiceTest {
         movie1.setName("Prost");
         movie1.setYearOfProduction(1999);
         movie1.setDirector(director);
-        List<Movie> movieList = new ArrayList<>(Collections.singletonList(movie1));
+        Set<Movie> movieList = new HashSet<>(Collections.singletonList(movie1));
         actor.setMovieList(movieList);
 
         Movie movie2 = new Movie();
 
         Actor actor1 = new Actor();
-        actor1.setMovieList(new ArrayList<>());
+        actor1.setMovieList(new HashSet<>());
 
         when(mapperDTO.toActor(actorDTO)).thenReturn(actor);
         when(actorRepository.save(actor)).thenReturn(actor1);
@@ -300,6 +372,26 @@ class ActorServiceTest {
         verify(movieRepository, times(1)).save(movie1);
     }
 
+    @Test
+    void testUpdateInvalidatesMoviesOfActor() {
+        ActorDTO actorDTO = new ActorDTO(1L, "Sigourney Weaver", 74);
+        Actor actor = new Actor(1L, "Sigourney Weaver", 73);
+        Movie movie = new Movie(2L, new Director(), "Alien", 1979);
+        actor.setMovieList(new HashSet<>(List.of(movie)));
+        dtoCaches.actors().get(1L, id -> new VersionedDTO<>(0L, new ActorDTO()));
+        dtoCaches.movies().get(2L, id -> new VersionedDTO<>(0L, new byte[0]));
+        dtoCaches.movies().get(3L, id -> new VersionedDTO<>(0L, new byte[0]));
+
+        when(actorRepository.findById(1L)).thenReturn(Optional.of(actor));
+
+        actorService.update(actorDTO);
+
+        assertEquals(0, dtoCaches.actors().size());
+        //фильм без этого актера остается в кэше
+        assertEquals(1, dtoCaches.movies().size());
+        verify(statsChanges, times(1)).actorChanged(73, actor);
+    }
+
     @Test
     void testCUpdateValidActor() {
         ActorDTO actorDTO = new ActorDTO();
@@ -307,7 +399,8 @@ class ActorServiceTest {
         actorDTO.setName("John Doe");
         actorDTO.setAge(30);
 
-        Actor actor = new Actor();
+        Actor actor = new Actor(1L, "John Doe", 30);
+        actor.setMovieList(new HashSet<>());
 
         when(actorRepository.findById(1L)).thenReturn(Optional.of(actor));
 
@@ -470,13 +563,15 @@ class ActorServiceTest {
         movie1.setName("Prost");
         movie1.setYearOfProduction(1999);
         movie1.setDirector(director);
-        List<Movie> movieList = new ArrayList<>(Collections.singletonList(movie1));
+        Set<Movie> movieList = new HashSet<>(Collections.singletonList(movie1));
         actor.setMovieList(movieList);
 
         Movie movie2 = new Movie();
+        movie2.setMovieId(2L);
 
         Actor actor1 = new Actor();
-        actor1.setMovieList(new ArrayList<>());
+        actor1.setActorId(1L);
+        actor1.setMovieList(new HashSet<>());
 
         when(actorRepository.findById(1L)).thenReturn(Optional.of(actor1));
         when(mapperDTO.toActor(actorDTO)).thenReturn(actor);
@@ -494,4 +589,53 @@ class ActorServiceTest {
         when(directorRepository.findById(1L)).thenReturn(Optional.empty());
         assertThrows(ResponseStatusException.class, () -> actorService.update(actorDTO));
     }
+
+    @Test
+    void testAddMoviesToConcurrentlyDeleted() {
+        when(movieActorRepository.insertMovies(1L, List.of(2L))).thenThrow(new DataIntegrityViolationException("fk"));
+
+        assertEquals("Фильма или актера с таким id в базе нет", assertThrows(ResponseStatusException.class,
+                () -> actorService.addMovies(1L, List.of(2L))).getReason());
+        verify(actorRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void testAddMovies() {
+        LinkReportDTO report = new LinkReportDTO(List.of(2L, 3L), List.of(), List.of());
+        when(movieActorRepository.insertMovies(1L, List.of(3L, 2L))).thenReturn(report);
+
+        assertSame(report, actorService.addMovies(1L, List.of(3L, 2L)));
+        verify(entityChanges, times(1)).linksChanged(List.of(2L, 3L), List.of(1L));
+        verify(coStarGraph, times(1)).linked(List.of(2L, 3L), List.of(1L));
+
+        assertThrows(ResponseStatusException.class, () -> actorService.addMovies(1L, List.of()));
+        when(movieActorRepository.insertMovies(5L, List.of(2L)))
+                .thenReturn(new LinkReportDTO(List.of(), List.of(), List.of(2L)));
+        when(actorRepository.findVersionById(5L)).thenReturn(Optional.empty());
+        assertEquals("Актера с таким id в базе нет", assertThrows(ResponseStatusException.class,
+                () -> actorService.addMovies(5L, List.of(2L))).getReason());
+    }
+
+    @Test
+    void testFindPath() {
+        when(coStarGraph.path(1L, 3L)).thenReturn(List.of(1L, 10L, 2L, 20L, 3L));
+
+        assertEquals(new ActorPathDTO(2, List.of(1L, 2L, 3L), List.of(10L, 20L)), actorService.findPath(1L, 3L));
+        //цепочка нашлась, в базу не ходим
+        verify(actorRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void testFindPathNotConnected() {
+        when(coStarGraph.path(1L, 4L)).thenReturn(List.of());
+        when(actorRepository.findVersionById(1L)).thenReturn(Optional.of(0L));
+        when(actorRepository.findVersionById(4L)).thenReturn(Optional.of(0L));
+        assertEquals(new ActorPathDTO(null, List.of(), List.of()), actorService.findPath(1L, 4L));
+
+        when(coStarGraph.path(1L, 5L)).thenReturn(List.of());
+        when(actorRepository.findVersionById(5L)).thenReturn(Optional.empty());
+        assertEquals("Актера с таким id в базе нет",
+                assertThrows(ResponseStatusException.class, () -> actorService.findPath(1L, 5L)).getReason());
+        assertThrows(ResponseStatusException.class, () -> actorService.findPath(null, 5L));
+    }
 }
@@ -0,0 +1,42 @@
+package services;
+
+import org.example.autocomplete.NameIndex;
+import org.example.dto.AutocompleteHitDTO;
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.repositories.jdbc.NameRepository;
+import org.example.services.impl.AutocompleteServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class AutocompleteServiceTest {
+    private final NameIndex nameIndex = new NameIndex(mock(NameRepository.class), mock(PlatformTransactionManager.class));
+    private final AutocompleteServiceImpl autocompleteService = new AutocompleteServiceImpl(nameIndex);
+
+    @Test
+    void testComplete() {
+        nameIndex.saved(new Director(1L, "Ridley Scott", 85));
+        nameIndex.saved(new Actor(2L, "Richard Harris", 72));
+
+        assertEquals(List.of(new AutocompleteHitDTO("actor", 2L, "Richard Harris"),
+                        new AutocompleteHitDTO("director", 1L, "Ridley Scott")),
+                autocompleteService.complete("  ri", 10));
+        assertEquals(List.of(new AutocompleteHitDTO("director", 1L, "Ridley Scott")),
+                autocompleteService.complete("Ridley", 1));
+    }
+
+    @Test
+    void testCompleteInvalid() {
+        assertThrows(ResponseStatusException.class, () -> autocompleteService.complete(null, 10));
+        assertThrows(ResponseStatusException.class, () -> autocompleteService.complete(" ", 10));
+        assertThrows(ResponseStatusException.class, () -> autocompleteService.complete("ri", 0));
+        assertThrows(ResponseStatusException.class, () -> autocompleteService.complete("ri", 101));
+    }
+}
@@ -1,30 +1,53 @@
 package services;
 
+import org.example.autocomplete.NameIndex;
+import org.example.autocomplete.NameType;
+import org.example.cache.DtoCaches;
+import org.example.cache.EntityChanges;
+import org.example.documents.MovieDocumentChanges;
 import org.example.dto.ActorDTO;
 import org.example.dto.DirectorDTO;
 import org.example.dto.MovieDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.VersionedDTO;
+import org.example.graph.CoStarGraph;
 import org.example.mapping.MapperDTO;
+import org.example.models.Actor;
 import org.example.models.Director;
 import org.example.models.Movie;
 import org.example.repositories.DirectorRepository;
 import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.DeleteRepository;
+import org.example.repositories.jdbc.DeleteResult;
+import org.example.repositories.projections.DirectorMovieRow;
 import org.example.services.impl.DirectorServiceImpl;
+import org.example.stats.StatsChanges;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -40,23 +63,38 @@ class DirectorServiceTest {
     private MovieRepository movieRepository;
     @Mock
     private MapperDTO mapperDTO;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private DeleteRepository deleteRepository;
+    @Mock
+    private NameIndex nameIndex;
+    @Mock
+    private CoStarGraph coStarGraph;
+    @Mock
+    private StatsChanges statsChanges;
+    @Spy
+    private DtoCaches dtoCaches = new DtoCaches(1 << 20, Duration.ofMinutes(10), Duration.ofMinutes(10),
+            mock(PlatformTransactionManager.class));
+    @Spy
+    private EntityChanges entityChanges = new EntityChanges(dtoCaches, mock(EntityManager.class),
+            mock(MovieDocumentChanges.class));
     @Test
     void testFindById() {
-        DirectorDTO directorDTO = new DirectorDTO();
-        Director director = new Director();
+        when(directorRepository.findRowsById(1L)).thenReturn(List.of(
+                new DirectorMovieRow(1L, "Ridley Scott", 85, 4L, 1L, "Alien", 1979),
+                new DirectorMovieRow(1L, "Ridley Scott", 85, 4L, 2L, "Gladiator", 2000)));
 
-        when(directorRepository.findById(1L)).thenReturn(Optional.of(director));
-
-        when(mapperDTO.toDirectorDTOWithMoviesWithoutActors(director)).thenReturn(directorDTO);
-
-        DirectorDTO result = directorService.findById(1L);
+        VersionedDTO<DirectorDTO> result = directorService.findVersionedById(1L);
 
-        assertEquals(directorDTO, result);
+        assertEquals(new DirectorDTO(1L, "Ridley Scott", 85), result.getBody());
+        assertEquals(4L, result.getVersion());
+        assertEquals(List.of(new MovieDTO(1L, 1L, "Alien", 1979), new MovieDTO(2L, 1L, "Gladiator", 2000)),
+                result.getBody().getMovieList());
+        verify(directorRepository, times(1)).findRowsById(1L);
+        verify(directorRepository, never()).findById(anyLong());
 
-        verify(directorRepository, times(1)).findById(1L);
-        verify(mapperDTO, times(1)).toDirectorDTOWithMoviesWithoutActors(director);
-
-        when(directorRepository.findById(2L)).thenReturn(Optional.empty());
+        when(directorRepository.findRowsById(2L)).thenReturn(List.of());
 
         assertThrows(ResponseStatusException.class, () -> directorService.findById(2L));
         assertThrows(ResponseStatusException.class, () -> directorService.findById(null));
@@ -64,50 +102,74 @@ class DirectorServiceTest {
 
     @Test
     void testFindAll() {
-        DirectorDTO directorDTO1 = new DirectorDTO();
-        DirectorDTO directorDTO2 = new DirectorDTO();
-        Director director1 = new Director();
-        Director director2 = new Director();
+        when(directorRepository.findAllRows()).thenReturn(List.of(
+                new DirectorMovieRow(1L, "Ridley Scott", 85, 0L, 1L, "Alien", 1979),
+                new DirectorMovieRow(2L, "Nolan", 50, 0L, null, null, null)));
 
-        List<Director> directors = new ArrayList<>(List.of(director1, director2));
+        List<DirectorDTO> result = directorService.findAll();
 
-        when(directorRepository.findAll()).thenReturn(directors);
+        assertEquals(List.of(new DirectorDTO(1L, "Ridley Scott", 85), new DirectorDTO(2L, "Nolan", 50)), result);
+        assertEquals(List.of(new MovieDTO(1L, 1L, "Alien", 1979)), result.get(0).getMovieList());
+        assertTrue(result.get(1).getMovieList().isEmpty());
+        verify(directorRepository, times(1)).findAllRows();
+    }
 
-        when(mapperDTO.toDirectorDTOWithMoviesWithoutActors(directors.get(0))).thenReturn(directorDTO1);
-        when(mapperDTO.toDirectorDTOWithMoviesWithoutActors(directors.get(1))).thenReturn(directorDTO2);
+    @Test
+    void testFindPage() {
+        when(directorRepository.findPageById(0L, PageRequest.of(0, 3))).thenReturn(List.of(1L, 2L));
+        when(directorRepository.findRowsByIds(List.of(1L, 2L))).thenReturn(List.of(
+                new DirectorMovieRow(1L, "Nolan", 50, 0L, null, null, null),
+                new DirectorMovieRow(2L, "Fincher", 60, 0L, null, null, null)));
 
-        List<DirectorDTO> result = directorService.findAll();
+        PageDTO<DirectorDTO> page = directorService.findPage("id", null, 2);
 
-        assertEquals(2, result.size());
-        assertEquals(directorDTO1, result.get(0));
-        assertEquals(directorDTO2, result.get(1));
+        assertEquals(List.of(new DirectorDTO(1L, "Nolan", 50), new DirectorDTO(2L, "Fincher", 60)), page.getContent());
+        assertNull(page.getNextCursor());
 
-        verify(directorRepository, times(1)).findAll();
-        verify(mapperDTO, times(2)).toDirectorDTOWithMoviesWithoutActors(any(Director.class));
+        assertThrows(ResponseStatusException.class, () -> directorService.findPage("year", null, 10));
+        assertThrows(ResponseStatusException.class, () -> directorService.findPage("id", null, -1));
+    }
+
+    @Test
+    void testStreamAll() {
+        when(directorRepository.streamAllRows()).thenReturn(Stream.of(
+                new DirectorMovieRow(1L, "Nolan", 50, 0L, 1L, "Memento", 2000),
+                new DirectorMovieRow(1L, "Nolan", 50, 0L, 2L, "Tenet", 2020),
+                new DirectorMovieRow(2L, "Fincher", 60, 0L, null, null, null)));
+
+        List<DirectorDTO> result = new ArrayList<>();
+        directorService.streamAll(result::add);
+
+        assertEquals(List.of(new DirectorDTO(1L, "Nolan", 50), new DirectorDTO(2L, "Fincher", 60)), result);
+        assertEquals(2, result.get(0).getMovieList().size());
+        verify(directorRepository, times(1)).streamAllRows();
     }
 
     @Test
     void testDelete() {
-        Director director = new Director();
+        DeleteResult result = new DeleteResult(List.of(1L), List.of(2L, 3L), List.of(4L));
         Long id = 1L;
 
-        when(directorRepository.findById(1L)).thenReturn(Optional.of(director));
+        when(deleteRepository.deleteDirector(id)).thenReturn(Optional.of(result));
 
         directorService.delete(id);
 
-        verify(directorRepository, times(1)).findById(id);
-        verify(directorRepository, times(1)).deleteById(id);
+        verify(entityChanges, times(1)).deleted(result);
+        verify(nameIndex, times(1)).deleted(NameType.DIRECTOR, List.of(1L));
+        verify(nameIndex, times(1)).deleted(NameType.MOVIE, List.of(2L, 3L));
+        verify(directorRepository, never()).findById(anyLong());
+        verify(movieRepository, never()).delete(any());
     }
 
     @Test
     void testDeleteWithInvalidId() {
-        when(directorRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(deleteRepository.deleteDirector(anyLong())).thenReturn(Optional.empty());
 
         Long invalidId = 2L;
         assertThrows(ResponseStatusException.class, () -> directorService.delete(invalidId));
 
-        verify(directorRepository, times(1)).findById(invalidId);
-        verify(directorRepository, never()).deleteById(invalidId);
+        verify(deleteRepository, times(1)).deleteDirector(invalidId);
+        verify(entityChanges, never()).deleted(any(DeleteResult.class));
         assertThrows(ResponseStatusException.class, () -> directorService.delete(null));
     }
 
@@ -126,6 +188,7 @@ class DirectorServiceTest {
 
         verify(mapperDTO, times(1)).toDirector(directorDTO);
         verify(directorRepository, times(1)).save(director);
+        verify(nameIndex, times(1)).saved(director);
     }
 
     @Test
@@ -288,10 +351,12 @@ class DirectorServiceTest {
         directorDTO.setAge(30);
 
         Director director = new Director();
+        director.setDirectorId(1L);
 
         when(directorRepository.findById(1L)).thenReturn(Optional.of(director));
 
         directorService.update(directorDTO);
+        verify(entityChanges, times(1)).changed(director);
 
         verify(directorRepository, times(1)).findById(1L);
 
@@ -0,0 +1,35 @@
+package services;
+
+import org.example.bulk.ExportFormat;
+import org.example.bulk.ExportSource;
+import org.example.repositories.jdbc.BulkExportRepository;
+import org.example.services.impl.ExportServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+    @InjectMocks
+    private ExportServiceImpl exportService;
+    @Mock
+    private BulkExportRepository bulkExportRepository;
+
+    @Test
+    void testExport() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(bulkExportRepository.export(ExportSource.LINKS, ExportFormat.NDJSON, out)).thenReturn(3L);
+
+        assertEquals(3L, exportService.export(ExportSource.LINKS, ExportFormat.NDJSON, out));
+        verify(bulkExportRepository, times(1)).export(ExportSource.LINKS, ExportFormat.NDJSON, out);
+    }
+}
@@ -0,0 +1,121 @@
+package services;
+
+import org.example.autocomplete.NameIndex;
+import org.example.autocomplete.NameType;
+import org.example.bulk.ImportRecordReader;
+import org.example.bulk.ImportTarget;
+import org.example.cache.DtoCaches;
+import org.example.dto.ActorDTO;
+import org.example.dto.ImportBatchDTO;
+import org.example.dto.ImportErrorDTO;
+import org.example.dto.ImportReportDTO;
+import org.example.dto.VersionedDTO;
+import org.example.graph.CoStarGraph;
+import org.example.models.Actor;
+import org.example.repositories.jdbc.BulkImportRepository;
+import org.example.repositories.jdbc.MovieDocumentRepository;
+import org.example.repositories.jdbc.StatsRepository;
+import org.example.services.impl.ImportServiceImpl;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+    @InjectMocks
+    private ImportServiceImpl importService;
+    @Mock
+    private BulkImportRepository bulkImportRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private NameIndex nameIndex;
+    @Mock
+    private CoStarGraph coStarGraph;
+    @Mock
+    private StatsRepository statsRepository;
+    @Mock
+    private MovieDocumentRepository movieDocumentRepository;
+    @Spy
+    private DtoCaches dtoCaches = new DtoCaches(1 << 20, Duration.ofMinutes(10), Duration.ofMinutes(10),
+            mock(PlatformTransactionManager.class));
+
+    @Test
+    void testImportData() {
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        Cache cache = mock(Cache.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        dtoCaches.actors().get(1L, id -> new VersionedDTO<>(0L, new ActorDTO()));
+        ImportBatchDTO batch = new ImportBatchDTO(1, 2, 1, 1, List.of(new ImportErrorDTO(3L, "age должен быть больше 18 и меньше 100")));
+        when(bulkImportRepository.importBatch(eq(ImportTarget.ACTORS), eq(1), any(ImportRecordReader.class),
+                eq(ImportServiceImpl.BATCH_SIZE))).thenAnswer(invocation -> {
+            ImportRecordReader reader = invocation.getArgument(2);
+            while (reader.hasNext())
+                reader.next();
+            return batch;
+        });
+
+        ImportReportDTO report = importService.importData("actors", "csv", body("name,age\nTom Hanks,67\nBaby,1\n"));
+
+        assertEquals(new ImportReportDTO("actors", 2L, 1L, 1L, List.of(batch)), report);
+        //пачка и следом пересчет агрегатов /stats
+        verify(transactionManager, times(2)).commit(any());
+        verify(cache, times(1)).evictEntityData(Actor.class);
+        verify(cache, times(1)).evictQueryRegions();
+        assertEquals(0, dtoCaches.actors().size());
+        verify(nameIndex, times(1)).reload(NameType.ACTOR);
+        verify(statsRepository, times(1)).rebuild();
+        //документы пересобираются в транзакции пачки, новых фильмов при импорте актеров нет
+        verify(movieDocumentRepository, times(1)).refreshImported(ImportTarget.ACTORS);
+        verify(movieDocumentRepository, never()).insertMissing();
+    }
+
+    @Test
+    void testImportEmptyBody() {
+        ImportReportDTO report = importService.importData("links", "ndjson", body(""));
+
+        assertEquals(new ImportReportDTO("links", 0L, 0L, 0L, List.of()), report);
+        verifyNoInteractions(bulkImportRepository, entityManagerFactory, nameIndex, coStarGraph, statsRepository,
+                movieDocumentRepository);
+    }
+
+    @Test
+    void testImportInvalidRequest() {
+        assertThrows(ResponseStatusException.class, () -> importService.importData("studios", "csv", body("")));
+        assertThrows(ResponseStatusException.class, () -> importService.importData("movies", "xml", body("")));
+        verify(bulkImportRepository, times(0)).importBatch(any(), anyInt(), any(), anyInt());
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(UTF_8));
+    }
+}
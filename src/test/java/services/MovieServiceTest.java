@@ -1,31 +1,73 @@
 package services;
 
+import org.example.autocomplete.NameIndex;
+import org.example.cache.DtoCaches;
+import org.example.cache.EntityChanges;
+import org.example.documents.MovieDocumentChanges;
 import org.example.dto.ActorDTO;
+import org.example.dto.DirectorDTO;
+import org.example.dto.LinkReportDTO;
 import org.example.dto.MovieDTO;
+import org.example.dto.MovieFilterDTO;
+import org.example.dto.PageDTO;
+import org.example.dto.SimilarMovieDTO;
+import org.example.dto.VersionedDTO;
+import org.example.fields.FieldSet;
+import org.example.fields.SparseResource;
+import org.example.graph.CoStarGraph;
+import org.example.graph.SimilarMovie;
 import org.example.mapping.MapperDTO;
 import org.example.models.Actor;
 import org.example.models.Director;
 import org.example.models.Movie;
+import org.example.paging.KeysetCursor;
 import org.example.repositories.ActorRepository;
 import org.example.repositories.DirectorRepository;
 import org.example.repositories.MovieRepository;
+import org.example.repositories.jdbc.DeleteRepository;
+import org.example.repositories.jdbc.DeleteResult;
+import org.example.repositories.jdbc.MovieActorRepository;
+import org.example.repositories.jdbc.MovieDocumentRepository;
+import org.example.repositories.jdbc.SparseRepository;
+import org.example.repositories.projections.MovieActorRow;
+import org.example.repositories.specifications.SpecificationRepository;
 import org.example.services.impl.MovieServiceImpl;
+import org.example.stats.StatsChanges;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -43,96 +85,264 @@ class MovieServiceTest {
     private ActorRepository actorRepository;
     @Mock
     private MapperDTO mapperDTO;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private MovieActorRepository movieActorRepository;
+    @Mock
+    private DeleteRepository deleteRepository;
+    @Mock
+    private NameIndex nameIndex;
+    @Mock
+    private CoStarGraph coStarGraph;
+    @Mock
+    private StatsChanges statsChanges;
+    @Mock
+    private SparseRepository sparseRepository;
+    @Mock
+    private SpecificationRepository specificationRepository;
+    @Mock
+    private MovieDocumentRepository movieDocumentRepository;
+    @Spy
+    private DtoCaches dtoCaches = new DtoCaches(1 << 20, Duration.ofMinutes(10), Duration.ofMinutes(10),
+            mock(PlatformTransactionManager.class));
+    @Spy
+    private EntityChanges entityChanges = new EntityChanges(dtoCaches, mock(EntityManager.class),
+            mock(MovieDocumentChanges.class));
 
     @Test
     void testFindById() {
-        MovieDTO movieDTO = new MovieDTO();
-        Movie movie = new Movie();
-
-        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
-
-        when(mapperDTO.toMovieDTO(movie)).thenReturn(movieDTO);
+        when(movieRepository.findRowsById(1L)).thenReturn(List.of(
+                new MovieActorRow(1L, 1L, "Alien", 1979, 3L, 1L, "Sigourney Weaver", 73),
+                new MovieActorRow(1L, 1L, "Alien", 1979, 3L, 2L, "John Hurt", 77)));
 
         MovieDTO result = movieService.findById(1L);
 
-        assertEquals(movieDTO, result);
-
-        verify(movieRepository, times(1)).findById(1L);
-        verify(mapperDTO, times(1)).toMovieDTO(movie);
+        assertEquals(new MovieDTO(1L, 1L, "Alien", 1979), result);
+        assertEquals(List.of(new ActorDTO(1L, "Sigourney Weaver", 73), new ActorDTO(2L, "John Hurt", 77)),
+                result.getActorList());
+        verify(movieRepository, times(1)).findRowsById(1L);
+        verify(movieRepository, never()).findById(anyLong());
 
-        when(movieRepository.findById(2L)).thenReturn(Optional.empty());
+        when(movieRepository.findRowsById(2L)).thenReturn(List.of());
 
         assertThrows(ResponseStatusException.class, () -> movieService.findById(2L));
         assertThrows(ResponseStatusException.class, () -> movieService.findById(null));
     }
 
     @Test
-    void testFindAll() {
-        MovieDTO movieDTO = new MovieDTO();
-        MovieDTO movieDTO1 = new MovieDTO();
-        Movie movie = new Movie();
-        Movie movie1 = new Movie();
+    void testFindDocumentById() {
+        VersionedDTO<byte[]> document = new VersionedDTO<>(3L, "{\"id\":1}".getBytes(UTF_8));
+        when(movieDocumentRepository.find(1L)).thenReturn(document);
 
-        List<Movie> movies = new ArrayList<>(List.of(movie, movie1));
+        assertSame(document, movieService.findDocumentById(1L));
+        verify(movieRepository, never()).findRowsById(anyLong());
 
-        when(movieRepository.findAll()).thenReturn(movies);
+        assertThrows(ResponseStatusException.class, () -> movieService.findDocumentById(2L));
+        assertThrows(ResponseStatusException.class, () -> movieService.findDocumentById(null));
+    }
 
-        when(mapperDTO.toMovieDTO(movies.get(0))).thenReturn(movieDTO);
-        when(mapperDTO.toMovieDTO(movies.get(1))).thenReturn(movieDTO1);
+    @Test
+    void testFindAll() {
+        when(movieRepository.findAllRows()).thenReturn(List.of(
+                new MovieActorRow(1L, 1L, "Alien", 1979, 0L, 1L, "Sigourney Weaver", 73),
+                new MovieActorRow(1L, 1L, "Alien", 1979, 0L, 2L, "John Hurt", 77),
+                new MovieActorRow(2L, 1L, "Brazil", 1985, 0L, null, null, null)));
 
         List<MovieDTO> result = movieService.findAll();
 
-        assertEquals(2, result.size());
-        assertEquals(movieDTO, result.get(0));
-        assertEquals(movieDTO1, result.get(1));
+        assertEquals(List.of(new MovieDTO(1L, 1L, "Alien", 1979), new MovieDTO(2L, 1L, "Brazil", 1985)), result);
+        assertEquals(2, result.get(0).getActorList().size());
+        assertTrue(result.get(1).getActorList().isEmpty());
+        verify(movieRepository, times(1)).findAllRows();
+    }
+
+    @Test
+    void testFindPage() {
+        MovieActorRow alien = new MovieActorRow(1L, 1L, "Alien", 1979, 0L, null, null, null);
+        MovieActorRow brazil = new MovieActorRow(2L, 1L, "Brazil", 1985, 0L, null, null, null);
+
+        when(movieRepository.findPageByName("", 0L, PageRequest.of(0, 2))).thenReturn(List.of(1L, 2L));
+        when(movieRepository.findRowsByIds(List.of(1L, 2L))).thenReturn(List.of(alien, brazil));
+
+        PageDTO<MovieDTO> page = movieService.findPage("name", null, 1);
+
+        assertEquals(List.of(new MovieDTO(1L, 1L, "Alien", 1979)), page.getContent());
+        assertEquals(KeysetCursor.of("name", 1L, "Alien").encode(), page.getNextCursor());
+
+        when(movieRepository.findPageByName("Alien", 1L, PageRequest.of(0, 2))).thenReturn(List.of(2L));
+        when(movieRepository.findRowsByIds(List.of(2L))).thenReturn(List.of(brazil));
+
+        PageDTO<MovieDTO> lastPage = movieService.findPage("name", page.getNextCursor(), 1);
+
+        assertEquals(List.of(new MovieDTO(2L, 1L, "Brazil", 1985)), lastPage.getContent());
+        assertNull(lastPage.getNextCursor());
+
+        //порядок страницы задает запрос id, а не порядок строк
+        when(movieRepository.findPageByYear(Integer.MIN_VALUE, 0L, PageRequest.of(0, 3))).thenReturn(List.of(2L, 1L));
+        when(movieRepository.findRowsByIds(List.of(2L, 1L))).thenReturn(List.of(alien, brazil));
+
+        assertEquals(List.of(new MovieDTO(2L, 1L, "Brazil", 1985), new MovieDTO(1L, 1L, "Alien", 1979)),
+                movieService.findPage("year", null, 2).getContent());
+
+        assertThrows(ResponseStatusException.class, () -> movieService.findPage("director", null, 10));
+        assertThrows(ResponseStatusException.class, () -> movieService.findPage("id", null, 0));
+        assertThrows(ResponseStatusException.class, () -> movieService.findPage("id", null, 1001));
+        assertThrows(ResponseStatusException.class, () -> movieService.findPage("year", page.getNextCursor(), 10));
+        assertThrows(ResponseStatusException.class, () -> movieService.findPage("name", "%%%", 10));
+    }
+
+    @Test
+    void testStreamAll() {
+        when(movieRepository.streamAllRows()).thenReturn(Stream.of(
+                new MovieActorRow(1L, 1L, "Alien", 1979, 0L, 1L, "Sigourney Weaver", 73),
+                new MovieActorRow(1L, 1L, "Alien", 1979, 0L, 2L, "John Hurt", 77),
+                new MovieActorRow(2L, 1L, "Brazil", 1985, 0L, null, null, null)));
+
+        List<MovieDTO> result = new ArrayList<>();
+        movieService.streamAll(result::add);
+
+        assertEquals(List.of(new MovieDTO(1L, 1L, "Alien", 1979), new MovieDTO(2L, 1L, "Brazil", 1985)), result);
+        assertEquals(List.of(new ActorDTO(1L, "Sigourney Weaver", 73), new ActorDTO(2L, "John Hurt", 77)),
+                result.get(0).getActorList());
+        verify(movieRepository, times(1)).streamAllRows();
+    }
+
+    @Test
+    void testFindAllFiltered() {
+        MovieFilterDTO filter = new MovieFilterDTO();
+        when(movieRepository.findAllRows()).thenReturn(List.of());
+
+        //пустой фильтр идет тем же кэшируемым запросом, что и список без параметров
+        assertEquals(List.of(), movieService.findAll(filter));
+        verify(specificationRepository, never()).findIds(any(), any());
+
+        filter.setActorId(7L);
+        when(specificationRepository.findIds(eq(Movie.class), any())).thenReturn(List.of(2L, 1L));
+        when(movieRepository.findRowsByIds(List.of(2L, 1L))).thenReturn(List.of(
+                new MovieActorRow(1L, 1L, "Alien", 1979, 0L, 7L, "Sigourney Weaver", 73),
+                new MovieActorRow(2L, 1L, "Brazil", 1985, 0L, 7L, "Sigourney Weaver", 73),
+                new MovieActorRow(2L, 1L, "Brazil", 1985, 0L, 8L, "Jonathan Pryce", 74)));
+
+        List<MovieDTO> movies = movieService.findAll(filter);
+
+        assertEquals(List.of(new MovieDTO(2L, 1L, "Brazil", 1985), new MovieDTO(1L, 1L, "Alien", 1979)), movies);
+        assertEquals(2, movies.get(0).getActorList().size());
+    }
+
+    @Test
+    void testFindPageFiltered() {
+        MovieFilterDTO filter = new MovieFilterDTO();
+        filter.setYearFrom(1980);
+        when(specificationRepository.findPageIds(eq(Movie.class), any(), eq("yearOfProduction"), eq(Integer.MIN_VALUE),
+                eq(0L), eq(PageRequest.of(0, 2)))).thenReturn(List.of(2L));
+        when(movieRepository.findRowsByIds(List.of(2L))).thenReturn(List.of(
+                new MovieActorRow(2L, 1L, "Brazil", 1985, 0L, null, null, null)));
+
+        PageDTO<MovieDTO> page = movieService.findPage("year", null, 1, filter);
+
+        assertEquals(List.of(new MovieDTO(2L, 1L, "Brazil", 1985)), page.getContent());
+        assertNull(page.getNextCursor());
+        verify(movieRepository, never()).findPageByYear(any(), anyLong(), any());
+    }
+
+    @Test
+    void testFindSparsePage() {
+        FieldSet withCursor = FieldSet.parse(SparseResource.MOVIES, "id,name,year");
+        when(movieRepository.findPageByYear(Integer.MIN_VALUE, 0L, PageRequest.of(0, 2))).thenReturn(List.of(1L, 2L));
+        when(sparseRepository.findByIds(withCursor, List.of(1L, 2L))).thenReturn(List.of(
+                new LinkedHashMap<>(Map.of("id", 1L, "name", "Alien", "year", 1979)),
+                new LinkedHashMap<>(Map.of("id", 2L, "name", "Brazil", "year", 1985))));
+
+        PageDTO<Map<String, Object>> page = movieService.findPage("year", null, 1, "name", null);
+
+        //id и year читаются ради курсора, но в ответ попадает только name
+        assertEquals(List.of(Map.of("name", "Alien")), page.getContent());
+        assertEquals(KeysetCursor.of("year", 1L, 1979).encode(), page.getNextCursor());
 
-        verify(movieRepository, times(1)).findAll();
-        verify(mapperDTO, times(2)).toMovieDTO(any(Movie.class));
+        assertThrows(ResponseStatusException.class, () -> movieService.findPage("id", null, 1, "age", null));
+        verify(movieRepository, never()).findPageById(anyLong(), any());
+    }
+
+    @Test
+    void testFindSparseById() {
+        FieldSet fields = FieldSet.parse(SparseResource.MOVIES, "name");
+        VersionedDTO<Map<String, Object>> movie = new VersionedDTO<>(3L, Map.of("name", "Alien"));
+        when(sparseRepository.findById(fields, 1L)).thenReturn(Optional.of(movie));
+        when(sparseRepository.findById(fields, 2L)).thenReturn(Optional.empty());
+
+        assertSame(movie, movieService.findVersionedById(1L, "name"));
+        assertThrows(ResponseStatusException.class, () -> movieService.findVersionedById(2L, "name"));
+        assertThrows(ResponseStatusException.class, () -> movieService.findVersionedById(null, "name"));
+        verify(movieRepository, never()).findRowsById(any());
     }
 
     @Test
     void testDelete() {
-        Movie movie = new Movie();
+        DirectorDTO directorDTO = new DirectorDTO();
+        ActorDTO actorDTO = new ActorDTO();
+        dtoCaches.directors().get(1L, key -> new VersionedDTO<>(0L, directorDTO));
+        dtoCaches.actors().get(2L, key -> new VersionedDTO<>(0L, actorDTO));
+        DeleteResult result = new DeleteResult(List.of(1L), List.of(1L), List.of(2L));
         Long id = 1L;
 
-        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        when(deleteRepository.deleteMovie(id)).thenReturn(Optional.of(result));
 
         movieService.delete(id);
 
-        verify(movieRepository, times(1)).findById(id);
-        verify(movieRepository, times(1)).deleteById(id);
+        //DTO режиссера и актера со встроенным фильмом сброшены
+        assertNotSame(directorDTO, dtoCaches.directors().get(1L, key -> new VersionedDTO<>(1L, new DirectorDTO())).getBody());
+        assertNotSame(actorDTO, dtoCaches.actors().get(2L, key -> new VersionedDTO<>(1L, new ActorDTO())).getBody());
+        verify(movieRepository, never()).findById(anyLong());
     }
 
     @Test
     void testDeleteWithInvalidId() {
-        when(movieRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(deleteRepository.deleteMovie(anyLong())).thenReturn(Optional.empty());
 
         Long invalidId = 2L;
         assertThrows(ResponseStatusException.class, () -> movieService.delete(invalidId));
 
-        verify(movieRepository, times(1)).findById(invalidId);
-        verify(movieRepository, never()).deleteById(invalidId);
+        verify(deleteRepository, times(1)).deleteMovie(invalidId);
+        verify(entityChanges, never()).deleted(any(DeleteResult.class));
         assertThrows(ResponseStatusException.class, () -> movieService.delete(null));
     }
 
+    @Test
+    void testFindDocumentByIdCachedUntilAddLink() {
+        ActorDTO actorDTO = new ActorDTO();
+        dtoCaches.actors().get(1L, id -> new VersionedDTO<>(0L, actorDTO));
+
+        when(movieDocumentRepository.find(1L)).thenAnswer(invocation ->
+                new VersionedDTO<>(0L, "{\"id\":1}".getBytes(UTF_8)));
+        when(movieActorRepository.insertLink(1L, 1L)).thenReturn(true);
+
+        VersionedDTO<byte[]> document = movieService.findDocumentById(1L);
+        assertSame(document, movieService.findDocumentById(1L));
+        verify(movieDocumentRepository, times(1)).find(1L);
+
+        movieService.addLinkMovieActor(1L, 1L);
+
+        assertEquals(0, dtoCaches.actors().size());
+        assertNotSame(document, movieService.findDocumentById(1L));
+        verify(movieDocumentRepository, times(2)).find(1L);
+    }
+
     @Test
     void testAddLinkMovieActorValid() {
         Long movieId = 1L;
-        Long actorId = 1L;
-        Movie movie = new Movie();
-        Actor actor = new Actor();
-        movie.setActorList(new ArrayList<>());
-        actor.setMovieList(new ArrayList<>());
-        when(movieRepository.findById(movieId)).thenReturn(Optional.of(movie));
-        when(actorRepository.findById(actorId)).thenReturn(Optional.of(actor));
+        Long actorId = 2L;
+        when(movieActorRepository.insertLink(movieId, actorId)).thenReturn(true);
 
         movieService.addLinkMovieActor(movieId, actorId);
 
-        assertEquals(movie, actor.getMovieList().get(0));
-        assertEquals(actor, movie.getActorList().get(0));
-
-        verify(movieRepository, times(1)).findById(movieId);
-        verify(actorRepository, times(1)).findById(actorId);
+        verify(entityChanges, times(1)).linksChanged(movieId, actorId);
+        verify(coStarGraph, times(1)).linked(movieId, actorId);
+        verify(statsChanges, times(1)).linksAdded(1);
+        //на удачном пути ни фильм, ни актер, ни их коллекции не загружаются
+        verify(movieRepository, never()).findById(any());
+        verify(actorRepository, never()).findById(any());
+        verify(movieRepository, never()).findVersionById(any());
     }
 
     @Test
@@ -141,22 +351,88 @@ class MovieServiceTest {
         Long movieId = 1L;
         Long actorId = 1L;
         assertThrows(ResponseStatusException.class, () -> movieService.addLinkMovieActor(firstMovieId, actorId));
-        Movie movie = new Movie();
-        Actor actor = new Actor();
-        movie.setActorList(new ArrayList<>(Collections.singletonList(actor)));
+        when(movieActorRepository.insertLink(movieId, actorId)).thenReturn(false);
+
+        when(movieRepository.findVersionById(movieId)).thenReturn(Optional.empty());
+
+        assertEquals("Фильма с таким id в базе нет", assertThrows(ResponseStatusException.class,
+                () -> movieService.addLinkMovieActor(movieId, actorId)).getReason());
+
+        when(movieRepository.findVersionById(movieId)).thenReturn(Optional.of(0L));
+        when(actorRepository.findVersionById(actorId)).thenReturn(Optional.empty());
 
-        when(movieRepository.findById(movieId)).thenReturn(Optional.empty());
+        assertEquals("Актера с таким id в базе нет", assertThrows(ResponseStatusException.class,
+                () -> movieService.addLinkMovieActor(movieId, actorId)).getReason());
 
-        assertThrows(ResponseStatusException.class, () -> movieService.addLinkMovieActor(movieId, actorId));
+        when(actorRepository.findVersionById(actorId)).thenReturn(Optional.of(0L));
 
-        when(movieRepository.findById(movieId)).thenReturn(Optional.of(movie));
-        when(actorRepository.findById(actorId)).thenReturn(Optional.empty());
+        assertEquals("Связь между ними уже есть", assertThrows(ResponseStatusException.class,
+                () -> movieService.addLinkMovieActor(movieId, actorId)).getReason());
+        verify(entityChanges, never()).linksChanged(anyLong(), anyLong());
+    }
+
+    @Test
+    void testDeleteLinkMovieActor() {
+        when(movieActorRepository.deleteLink(1L, 2L)).thenReturn(true);
+
+        movieService.deleteLinkMovieActor(1L, 2L);
+
+        verify(entityChanges, times(1)).linksChanged(1L, 2L);
+        verify(statsChanges, times(1)).linkRemoved();
+        verify(movieRepository, never()).findById(any());
+
+        assertThrows(ResponseStatusException.class, () -> movieService.deleteLinkMovieActor(null, 2L));
+        when(movieActorRepository.deleteLink(1L, 3L)).thenReturn(false);
+        when(movieRepository.findVersionById(1L)).thenReturn(Optional.of(0L));
+        when(actorRepository.findVersionById(3L)).thenReturn(Optional.of(0L));
+        assertEquals("Связи между ними нет", assertThrows(ResponseStatusException.class,
+                () -> movieService.deleteLinkMovieActor(1L, 3L)).getReason());
+    }
+
+    @Test
+    void testAddActors() {
+        LinkReportDTO report = new LinkReportDTO(List.of(2L), List.of(3L), List.of(4L));
+        when(movieActorRepository.insertActors(1L, List.of(2L, 3L, 4L))).thenReturn(report);
+
+        assertSame(report, movieService.addActors(1L, List.of(2L, 3L, 4L)));
+
+        verify(entityChanges, times(1)).linksChanged(List.of(1L), List.of(2L));
+        verify(movieRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void testAddLinkToConcurrentlyDeleted() {
+        when(movieActorRepository.insertLink(1L, 2L)).thenThrow(new DataIntegrityViolationException("fk"));
+        when(movieActorRepository.insertActors(1L, List.of(2L))).thenThrow(new DataIntegrityViolationException("fk"));
+
+        assertEquals("Фильма или актера с таким id в базе нет", assertThrows(ResponseStatusException.class,
+                () -> movieService.addLinkMovieActor(1L, 2L)).getReason());
+        assertEquals("Фильма или актера с таким id в базе нет", assertThrows(ResponseStatusException.class,
+                () -> movieService.addActors(1L, List.of(2L))).getReason());
+        verify(entityChanges, never()).linksChanged(anyCollection(), anyCollection());
+        verify(movieRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void testAddActorsInvalid() {
+        assertThrows(ResponseStatusException.class, () -> movieService.addActors(null, List.of(2L)));
+        assertThrows(ResponseStatusException.class, () -> movieService.addActors(1L, null));
+        assertThrows(ResponseStatusException.class, () -> movieService.addActors(1L, List.of()));
+        assertThrows(ResponseStatusException.class, () -> movieService.addActors(1L, Arrays.asList(2L, null)));
+        assertThrows(ResponseStatusException.class, () -> movieService.addActors(1L,
+                Collections.nCopies(MovieActorRepository.MAX_LINKS + 1, 2L)));
 
-        assertThrows(ResponseStatusException.class, () -> movieService.addLinkMovieActor(movieId, actorId));
+        when(movieActorRepository.insertActors(1L, List.of(2L)))
+                .thenReturn(new LinkReportDTO(List.of(), List.of(2L), List.of()));
+        when(movieRepository.findVersionById(1L)).thenReturn(Optional.empty());
 
-        when(actorRepository.findById(actorId)).thenReturn(Optional.of(actor));
+        assertEquals("Фильма с таким id в базе нет", assertThrows(ResponseStatusException.class,
+                () -> movieService.addActors(1L, List.of(2L))).getReason());
 
-        assertThrows(ResponseStatusException.class, () -> movieService.addLinkMovieActor(movieId, actorId));
+        when(movieRepository.findVersionById(1L)).thenReturn(Optional.of(0L));
+
+        assertEquals(new LinkReportDTO(List.of(), List.of(2L), List.of()), movieService.addActors(1L, List.of(2L)));
+        verify(entityChanges, never()).linksChanged(anyCollection(), anyCollection());
     }
 
     @Test
@@ -167,6 +443,7 @@ class MovieServiceTest {
         movieDTO.setDirectorId(1L);
 
         Director director = new Director();
+        director.setDirectorId(1L);
         director.setMovieList(new ArrayList<>());
         Movie movie = new Movie();
         Movie movie1 = new Movie();
@@ -176,6 +453,7 @@ class MovieServiceTest {
         when(movieRepository.save(movie)).thenReturn(movie1);
 
         movieService.create(movieDTO);
+        verify(entityChanges, times(1)).changed(director);
 
         verify(directorRepository, times(1)).findById(anyLong());
         verify(mapperDTO, times(1)).toMovie(movieDTO);
@@ -324,10 +602,10 @@ class MovieServiceTest {
         Actor actor1 = new Actor();
 
         Movie movie = new Movie();
-        movie.setActorList(new ArrayList<>(Collections.singletonList(actor)));
+        movie.setActorList(new HashSet<>(Collections.singletonList(actor)));
 
         Movie movie1 = new Movie();
-        movie1.setActorList(new ArrayList<>());
+        movie1.setActorList(new HashSet<>());
 
         when(mapperDTO.toMovie(movieDTO)).thenReturn(movie);
         when(movieRepository.save(movie)).thenReturn(movie1);
@@ -355,7 +633,9 @@ class MovieServiceTest {
 
         Director directorBase = new Director();
         Movie movie = new Movie();
+        movie.setMovieId(1L);
         movie.setDirector(directorBase);
+        movie.setActorList(new HashSet<>());
         directorBase.setDirectorId(2L);
         directorBase.setMovieList(new ArrayList<>(Collections.singletonList(movie)));
 
@@ -392,7 +672,9 @@ class MovieServiceTest {
 
         Director directorBase = new Director();
         Movie movie = new Movie();
+        movie.setMovieId(1L);
         movie.setDirector(directorBase);
+        movie.setActorList(new HashSet<>());
         directorBase.setDirectorId(1L);
         directorBase.setMovieList(new ArrayList<>(Collections.singletonList(movie)));
 
@@ -470,7 +752,9 @@ class MovieServiceTest {
 
         Director directorBase = new Director();
         Movie movie = new Movie();
+        movie.setMovieId(1L);
         movie.setDirector(directorBase);
+        movie.setActorList(new HashSet<>());
         directorBase.setDirectorId(1L);
         directorBase.setMovieList(new ArrayList<>(Collections.singletonList(movie)));
 
@@ -555,8 +839,9 @@ class MovieServiceTest {
 
         Director directorBase = new Director();
         Movie movie = new Movie();
+        movie.setMovieId(1L);
         movie.setDirector(directorBase);
-        movie.setActorList(new ArrayList<>());
+        movie.setActorList(new HashSet<>());
         directorBase.setDirectorId(1L);
         directorBase.setMovieList(new ArrayList<>(Collections.singletonList(movie)));
 
@@ -574,7 +859,7 @@ class MovieServiceTest {
         Actor actor1 = new Actor();
 
         Movie movie4 = new Movie();
-        movie4.setActorList(new ArrayList<>(Collections.singletonList(actor)));
+        movie4.setActorList(new HashSet<>(Collections.singletonList(actor)));
 
         when(mapperDTO.toMovie(movieDTO)).thenReturn(movie4);
         when(actorRepository.save(actor)).thenReturn(actor1);
@@ -586,4 +871,27 @@ class MovieServiceTest {
         verify(movieRepository, times(1)).findById(anyLong());
         verify(actorRepository, times(1)).save(actor);
     }
+
+    @Test
+    void testFindSimilar() {
+        when(coStarGraph.similar(1L)).thenReturn(List.of(new SimilarMovie(2L, 2, 0.5), new SimilarMovie(3L, 1, 0.25)));
+
+        assertEquals(List.of(new SimilarMovieDTO(2L, 2, 0.5)), movieService.findSimilar(1L, 1));
+        //похожие нашлись, значит фильм есть и в базу не ходим
+        verify(movieRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void testFindSimilarWithoutLinks() {
+        when(coStarGraph.similar(1L)).thenReturn(List.of());
+        when(movieRepository.findVersionById(1L)).thenReturn(Optional.of(0L));
+        assertTrue(movieService.findSimilar(1L, 10).isEmpty());
+
+        when(coStarGraph.similar(2L)).thenReturn(List.of());
+        when(movieRepository.findVersionById(2L)).thenReturn(Optional.empty());
+        assertEquals("Фильма с таким id в базе нет",
+                assertThrows(ResponseStatusException.class, () -> movieService.findSimilar(2L, 10)).getReason());
+        assertThrows(ResponseStatusException.class, () -> movieService.findSimilar(1L, 0));
+        assertThrows(ResponseStatusException.class, () -> movieService.findSimilar(1L, CoStarGraph.MAX_SIMILAR + 1));
+    }
 }
@@ -0,0 +1,72 @@
+package services;
+
+import org.example.dto.PageDTO;
+import org.example.dto.SearchHitDTO;
+import org.example.paging.KeysetCursor;
+import org.example.repositories.jdbc.SearchRepository;
+import org.example.services.impl.SearchServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+    @InjectMocks
+    private SearchServiceImpl searchService;
+    @Mock
+    private SearchRepository searchRepository;
+
+    @Test
+    void testSearch() {
+        SearchHitDTO movie = new SearchHitDTO("movie", 3L, "Inception", 0.8);
+        SearchHitDTO director = new SearchHitDTO("director", 1L, "Christopher Nolan", 0.5);
+        when(searchRepository.search("incepton", null, null, 0, 2))
+                .thenReturn(List.of(movie, director));
+
+        PageDTO<SearchHitDTO> page = searchService.search(" incepton ", null, 1);
+
+        assertEquals(List.of(movie), page.getContent());
+        assertEquals(KeysetCursor.of("rank", 3L, "0.8 movie").encode(), page.getNextCursor());
+    }
+
+    @Test
+    void testSearchAfterCursor() {
+        SearchHitDTO director = new SearchHitDTO("director", 1L, "Christopher Nolan", 0.5);
+        when(searchRepository.search("nolan", 0.8, "movie", 3L, 2)).thenReturn(List.of(director));
+
+        PageDTO<SearchHitDTO> page = searchService.search("nolan", KeysetCursor.of("rank", 3L, "0.8 movie").encode(), 1);
+
+        assertEquals(List.of(director), page.getContent());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testSearchInvalid() {
+        assertThrows(ResponseStatusException.class, () -> searchService.search(null, null, 10));
+        assertThrows(ResponseStatusException.class, () -> searchService.search("  ", null, 10));
+        assertThrows(ResponseStatusException.class, () -> searchService.search("a".repeat(101), null, 10));
+        assertThrows(ResponseStatusException.class, () -> searchService.search("nolan", null, 0));
+        assertThrows(ResponseStatusException.class,
+                () -> searchService.search("nolan", KeysetCursor.of("rank", 3L, "movie").encode(), 10));
+        assertThrows(ResponseStatusException.class,
+                () -> searchService.search("nolan", KeysetCursor.of("name", 3L, "Nolan").encode(), 10));
+
+        verify(searchRepository, never()).search(anyString(), any(), any(), anyLong(), anyInt());
+    }
+}
@@ -0,0 +1,70 @@
+package services;
+
+import org.example.dto.CastStatsDTO;
+import org.example.dto.StatsBucketDTO;
+import org.example.dto.StatsDTO;
+import org.example.repositories.jdbc.StatsRepository;
+import org.example.services.impl.StatsServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatsServiceTest {
+    private static final Instant REBUILT_AT = Instant.parse("2024-01-01T00:00:00Z");
+
+    @InjectMocks
+    private StatsServiceImpl statsService;
+    @Mock
+    private StatsRepository statsRepository;
+
+    @Test
+    void testFreshness() {
+        CastStatsDTO cast = new CastStatsDTO(2L, 5L, 2.5);
+        when(statsRepository.castSize()).thenReturn(cast);
+        when(statsRepository.rebuiltAt()).thenReturn(REBUILT_AT);
+
+        StatsDTO<CastStatsDTO> stats = statsService.castSize();
+
+        assertEquals(cast, stats.getData());
+        assertEquals(StatsServiceImpl.CONSISTENCY, stats.getConsistency());
+        assertEquals(REBUILT_AT.toString(), stats.getRebuiltAt());
+        assertFalse(Instant.parse(stats.getAsOf()).isBefore(REBUILT_AT));
+    }
+
+    @Test
+    void testActorAgesBuckets() {
+        when(statsRepository.actorsByAge()).thenReturn(List.of(new StatsBucketDTO(19L, null, 1L),
+                new StatsBucketDTO(25L, null, 2L), new StatsBucketDTO(30L, null, 4L), new StatsBucketDTO(59L, null, 8L)));
+        when(statsRepository.rebuiltAt()).thenReturn(REBUILT_AT);
+
+        assertEquals(List.of(new StatsBucketDTO(10L, "10-19", 1L), new StatsBucketDTO(20L, "20-29", 2L),
+                        new StatsBucketDTO(30L, "30-39", 4L), new StatsBucketDTO(50L, "50-59", 8L)),
+                statsService.actorAges(10).getData());
+        assertEquals(List.of(new StatsBucketDTO(0L, "0-49", 7L), new StatsBucketDTO(50L, "50-99", 8L)),
+                statsService.actorAges(50).getData());
+        assertEquals(new StatsBucketDTO(19L, "19", 1L), statsService.actorAges(1).getData().get(0));
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(ResponseStatusException.class, () -> statsService.actorAges(0));
+        assertThrows(ResponseStatusException.class, () -> statsService.moviesPerDirector(null));
+        assertThrows(ResponseStatusException.class, () -> statsService.moviesPerDirector(StatsServiceImpl.MAX_LIMIT + 1));
+        verify(statsRepository, never()).moviesPerDirector(anyInt());
+    }
+}
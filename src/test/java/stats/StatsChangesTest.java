@@ -0,0 +1,76 @@
+package stats;
+
+import org.example.models.Actor;
+import org.example.models.Director;
+import org.example.models.Movie;
+import org.example.repositories.jdbc.StatsDelta;
+import org.example.repositories.jdbc.StatsRepository;
+import org.example.stats.StatsChanges;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class StatsChangesTest {
+    @InjectMocks
+    private StatsChanges statsChanges;
+    @Mock
+    private StatsRepository statsRepository;
+
+    @Test
+    void testChangesAreAppliedOnceBeforeCommit() {
+        Director scott = new Director(1L, "Ridley Scott", 85);
+        Director nolan = new Director(2L, "Christopher Nolan", 52);
+        Movie alien = new Movie(10L, scott, "Alien", 1979);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            statsChanges.movieCreated(new Movie(11L, scott, "Gladiator", 2000));
+            statsChanges.movieCreated(alien);
+            alien.setDirector(nolan);
+            statsChanges.movieChanged(1979, 1L, alien);
+            statsChanges.actorCreated(new Actor(20L, "Russell Crowe", 59));
+            statsChanges.actorChanged(59, new Actor(21L, "Sigourney Weaver", 59));
+            statsChanges.linksAdded(3);
+            statsChanges.linkRemoved();
+            verify(statsRepository, never()).apply(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        ArgumentCaptor<StatsDelta> delta = ArgumentCaptor.forClass(StatsDelta.class);
+        verify(statsRepository, times(1)).apply(delta.capture());
+        //Alien перешел к другому режиссеру: год тот же, а у режиссеров минус один и плюс один
+        assertEquals(Map.of(1979, 1L, 2000, 1L), delta.getValue().getMoviesByYear());
+        assertEquals(Map.of(1L, 1L, 2L, 1L), delta.getValue().getMoviesByDirector());
+        assertEquals(Map.of(59, 1L), delta.getValue().getActorsByAge());
+        assertEquals(2L, delta.getValue().getLinks());
+        assertNull(TransactionSynchronizationManager.getResource(statsChanges));
+    }
+
+    @Test
+    void testWithoutTransactionAppliesImmediately() {
+        statsChanges.linksAdded(2);
+
+        ArgumentCaptor<StatsDelta> delta = ArgumentCaptor.forClass(StatsDelta.class);
+        verify(statsRepository, times(1)).apply(delta.capture());
+        assertEquals(2L, delta.getValue().getLinks());
+    }
+}
@@ -0,0 +1,67 @@
+package streaming;
+
+import org.example.dto.ActorDTO;
+import org.example.streaming.DtoStreamWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DtoStreamWriterTest {
+    private final DtoStreamWriter dtoStreamWriter = new DtoStreamWriter();
+
+    @Test
+    void testWriteJsonArray() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        dtoStreamWriter.<ActorDTO>write(response, "json", consumer -> {
+            consumer.accept(new ActorDTO(1L, "Джонни Депп", 60));
+            consumer.accept(new ActorDTO(2L, "Кира Найтли", 38));
+        });
+
+        assertEquals("application/json;charset=UTF-8", response.getContentType());
+        assertEquals("[{\"id\":1,\"name\":\"Джонни Депп\",\"age\":60,\"movieList\":null}," +
+                "{\"id\":2,\"name\":\"Кира Найтли\",\"age\":38,\"movieList\":null}]", response.getContentAsString());
+    }
+
+    @Test
+    void testWriteNdjson() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        dtoStreamWriter.<ActorDTO>write(response, "ndjson", consumer -> {
+            consumer.accept(new ActorDTO(1L, "Johnny Depp", 60));
+            consumer.accept(new ActorDTO(2L, "Keira Knightley", 38));
+        });
+
+        assertEquals("application/x-ndjson;charset=UTF-8", response.getContentType());
+        assertEquals("{\"id\":1,\"name\":\"Johnny Depp\",\"age\":60,\"movieList\":null}\n" +
+                "{\"id\":2,\"name\":\"Keira Knightley\",\"age\":38,\"movieList\":null}\n", response.getContentAsString());
+    }
+
+    @Test
+    void testWriteEmpty() throws IOException {
+        MockHttpServletResponse json = new MockHttpServletResponse();
+        MockHttpServletResponse ndjson = new MockHttpServletResponse();
+
+        dtoStreamWriter.<ActorDTO>write(json, "json", consumer -> {
+        });
+        dtoStreamWriter.<ActorDTO>write(ndjson, "ndjson", consumer -> {
+        });
+
+        assertEquals("[]", json.getContentAsString());
+        assertEquals("", ndjson.getContentAsString());
+    }
+
+    @Test
+    void testWriteUnknownFormat() {
+        Consumer<Consumer<ActorDTO>> source = consumer -> consumer.accept(new ActorDTO());
+
+        assertThrows(ResponseStatusException.class,
+                () -> dtoStreamWriter.write(new MockHttpServletResponse(), "xml", source));
+    }
+}